@@ -0,0 +1,435 @@
+package io.github.wj9806.jrest.apache5;
+
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.ConnectionPoolStats;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.MultipartBody;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * 基于Apache HttpClient 5的实现
+ * 同步和异步请求共用一个异步客户端：一个I/O反应器和一个连接池，不会为每个请求占用一个线程。
+ * https通过ALPN协商HTTP/2，服务器不支持时回退到HTTP/1.1；同一目标地址的HTTP/2请求在同一个连接上多路复用。
+ * 同步请求在调用线程上等待异步结果
+ */
+public class Apache5HttpClient extends AbstractHttpClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Apache5HttpClient.class);
+
+    private static final TimeValue SELECT_INTERVAL = TimeValue.ofMilliseconds(50);
+
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+    private volatile ConnectionPoolConfig connectionPoolConfig;
+    // 按(连接超时, 读取超时)缓存的RequestConfig，取值只来自客户端配置和@Timeout注解，数量有限
+    private final Map<Long, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+
+    public Apache5HttpClient() {
+        this(ConnectionPoolConfig.DEFAULT);
+    }
+
+    /**
+     * 使用指定的连接池配置创建客户端
+     *
+     * @param connectionPoolConfig 连接池配置
+     */
+    public Apache5HttpClient(ConnectionPoolConfig connectionPoolConfig) {
+        this(connectionPoolConfig, HttpVersionPolicy.NEGOTIATE);
+    }
+
+    /**
+     * 使用指定的连接池配置和协议版本策略创建客户端
+     *
+     * @param connectionPoolConfig 连接池配置
+     * @param versionPolicy 协议版本策略，NEGOTIATE表示通过ALPN协商，FORCE_HTTP_2表示使用HTTP/2（http下为h2c）
+     */
+    public Apache5HttpClient(ConnectionPoolConfig connectionPoolConfig, HttpVersionPolicy versionPolicy) {
+        this.connectionPoolConfig = connectionPoolConfig;
+        this.connectionManager = buildConnectionManager(versionPolicy);
+        // I/O反应器按选择间隔检查超时，默认1秒，这里缩短以支持毫秒级的读取超时
+        // 重试由Retryer统一负责，关闭客户端自带的自动重试
+        this.httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom().setSelectInterval(SELECT_INTERVAL).build())
+                .disableAutomaticRetries()
+                .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * 构建连接池
+     * 连接超时是连接级别的配置，这里使用默认值，请求指定的连接超时时间通过RequestConfig覆盖
+     */
+    private PoolingAsyncClientConnectionManager buildConnectionManager(HttpVersionPolicy versionPolicy) {
+        ConnectionConfig.Builder connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(getConnectTimeout()));
+        if (connectionPoolConfig.getTimeToLive() > 0) {
+            connectionConfig.setTimeToLive(TimeValue.ofMilliseconds(connectionPoolConfig.getTimeToLive()));
+        }
+        PoolingAsyncClientConnectionManager manager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(connectionConfig.build())
+                .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(versionPolicy).build())
+                .build();
+        applyPoolLimits(manager, connectionPoolConfig);
+        return manager;
+    }
+
+    /**
+     * 构建RequestConfig实例
+     * HttpClient 5的读取超时是消息级别的响应超时，HTTP/2下不受同一连接上其他流的影响
+     */
+    @SuppressWarnings("deprecation")
+    private RequestConfig buildRequestConfig(int connectTimeout, int readTimeout) {
+        int leaseTimeout = connectionPoolConfig.getLeaseTimeout();
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeout >= 0 ? leaseTimeout : connectTimeout))
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .build();
+    }
+
+    /**
+     * 获取请求实际使用的RequestConfig
+     */
+    private RequestConfig requestConfig(HttpRequest httpRequest) {
+        int connectTimeout = connectTimeoutOf(httpRequest);
+        int readTimeout = readTimeoutOf(httpRequest);
+        long key = ((long) connectTimeout << 32) | (readTimeout & 0xFFFFFFFFL);
+        return requestConfigs.computeIfAbsent(key, k -> buildRequestConfig(connectTimeout, readTimeout));
+    }
+
+    /**
+     * 获取连接池配置
+     *
+     * @return 连接池配置
+     */
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return connectionPoolConfig;
+    }
+
+    /**
+     * 更新连接池配置
+     * 连接数上限和获取连接的超时时间立即生效，连接存活时间只在创建客户端时生效
+     *
+     * @param connectionPoolConfig 连接池配置
+     */
+    public synchronized void setConnectionPoolConfig(ConnectionPoolConfig connectionPoolConfig) {
+        if (connectionPoolConfig.getTimeToLive() != this.connectionPoolConfig.getTimeToLive()) {
+            logger.warn("timeToLive of an existing connection pool cannot be changed, keeping {}ms",
+                    this.connectionPoolConfig.getTimeToLive());
+        }
+        this.connectionPoolConfig = connectionPoolConfig;
+        requestConfigs.clear();
+        applyPoolLimits(connectionManager, connectionPoolConfig);
+    }
+
+    /**
+     * 设置指定主机的最大连接数
+     *
+     * @param host 主机地址，可以是host、host:port或完整URL，未指定协议时按http处理
+     * @param max 最大连接数
+     */
+    public synchronized void setMaxConnectionsPerHost(String host, int max) {
+        setConnectionPoolConfig(connectionPoolConfig.toBuilder().maxPerHost(host, max).build());
+    }
+
+    @Override
+    public void setConnectTimeout(int connectTimeout) {
+        super.setConnectTimeout(connectTimeout);
+        requestConfigs.clear();
+    }
+
+    @Override
+    public void setReadTimeout(int readTimeout) {
+        super.setReadTimeout(readTimeout);
+        requestConfigs.clear();
+    }
+
+    /**
+     * 获取连接池的统计
+     * HTTP/2连接上的多个并发请求只占用一个连接
+     *
+     * @return 统计快照
+     */
+    public ConnectionPoolStats getPoolStats() {
+        Map<String, ConnectionPoolStats> routeStats = new HashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            PoolStats stats = connectionManager.getStats(route);
+            HttpHost target = route.getTargetHost();
+            routeStats.put(target.getSchemeName() + "://" + target.getHostName() + ":" + target.getPort(),
+                    new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+        }
+        PoolStats total = connectionManager.getTotalStats();
+        return new ConnectionPoolStats(total.getLeased(), total.getPending(), total.getAvailable(), total.getMax(), routeStats);
+    }
+
+    /**
+     * 将连接数上限应用到连接池
+     */
+    private static void applyPoolLimits(PoolingAsyncClientConnectionManager pool, ConnectionPoolConfig config) {
+        pool.setMaxTotal(config.getMaxTotal());
+        pool.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        config.getMaxPerHost().forEach((destination, max) -> pool.setMaxPerRoute(route(destination), max));
+    }
+
+    /**
+     * 根据目标地址构建与路由规划结果一致的直连路由
+     */
+    private static HttpRoute route(String destination) {
+        URI uri = URI.create(destination);
+        HttpHost target = new HttpHost(uri.getScheme(), uri.getHost(), uri.getPort());
+        return new HttpRoute(target, (InetAddress) null, "https".equals(uri.getScheme()));
+    }
+
+    /**
+     * 关闭客户端，释放I/O反应器和连接池
+     */
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    @Override
+    protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        try {
+            Future<HttpResponse> exchange = execute(httpRequest, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    future.complete(response);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel(true);
+                }
+            });
+            // 调用方取消时中止交换，连接从连接池中释放
+            future.whenComplete((response, ex) -> {
+                if (future.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 提交请求，响应在I/O反应器线程上读取后转换为自定义HttpResponse
+     */
+    private Future<HttpResponse> execute(HttpRequest httpRequest, FutureCallback<HttpResponse> callback) throws IOException {
+        AsyncRequestProducer requestProducer = buildRequestProducer(httpRequest);
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig(httpRequest));
+
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        Future<Message<org.apache.hc.core5.http.HttpResponse, byte[]>> exchange = httpClient.execute(
+                requestProducer,
+                new BasicResponseConsumer<>(new BasicAsyncEntityConsumer()),
+                context,
+                new FutureCallback<Message<org.apache.hc.core5.http.HttpResponse, byte[]>>() {
+                    @Override
+                    public void completed(Message<org.apache.hc.core5.http.HttpResponse, byte[]> message) {
+                        HttpResponse response;
+                        try {
+                            response = buildHttpResponse(message, context);
+                        } catch (RuntimeException e) {
+                            failed(e);
+                            return;
+                        }
+                        result.complete(response);
+                        if (callback != null) {
+                            callback.completed(response);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        result.completeExceptionally(ex);
+                        if (callback != null) {
+                            callback.failed(ex);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                        if (callback != null) {
+                            callback.cancelled();
+                        }
+                    }
+                });
+        // 取消同步等待时同时取消底层请求
+        result.whenComplete((response, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 构建请求生产者
+     */
+    private AsyncRequestProducer buildRequestProducer(HttpRequest httpRequest) throws IOException {
+        URI uri;
+        try {
+            uri = httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e);
+        }
+
+        String method = httpRequest.getMethod().toUpperCase();
+        AsyncRequestBuilder builder;
+        switch (method) {
+            case "GET":
+                builder = AsyncRequestBuilder.get(uri);
+                break;
+            case "DELETE":
+                builder = AsyncRequestBuilder.delete(uri);
+                break;
+            case "POST":
+                builder = AsyncRequestBuilder.post(uri);
+                break;
+            case "PUT":
+                builder = AsyncRequestBuilder.put(uri);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported HTTP method: " + httpRequest.getMethod());
+        }
+
+        // 添加请求头，Content-Type由请求体决定
+        String contentType = null;
+        if (httpRequest.getHeaders() != null) {
+            for (Map.Entry<String, String> header : httpRequest.getHeaders().entrySet()) {
+                if (header.getValue() == null) {
+                    continue;
+                }
+                if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                    contentType = header.getValue();
+                } else if (!"Content-Length".equalsIgnoreCase(header.getKey())) {
+                    builder.addHeader(header.getKey(), header.getValue());
+                }
+            }
+        }
+
+        // 添加Cookie
+        if (httpRequest.getCookies() != null && !httpRequest.getCookies().isEmpty()) {
+            StringBuilder cookieBuilder = new StringBuilder();
+            for (Map.Entry<String, String> cookie : httpRequest.getCookies().entrySet()) {
+                if (cookieBuilder.length() > 0) {
+                    cookieBuilder.append("; ");
+                }
+                cookieBuilder.append(cookie.getKey()).append("=").append(cookie.getValue());
+            }
+            builder.addHeader("Cookie", cookieBuilder.toString());
+        }
+
+        if ("POST".equals(method) || "PUT".equals(method)) {
+            AsyncEntityProducer entityProducer = entityProducer(httpRequest, contentType);
+            if (entityProducer != null) {
+                builder.setEntity(entityProducer);
+            }
+        }
+
+        logger.debug("Sending {} request to: {}", method, uri);
+        return builder.build();
+    }
+
+    /**
+     * 创建请求体，文件和输入流在发送时才按块读取
+     */
+    private AsyncEntityProducer entityProducer(HttpRequest httpRequest, String contentType) throws IOException {
+        if (httpRequest.isFormData()) {
+            MultipartBody multipartBody = new MultipartBody(httpRequest);
+            return new InputStreamEntityProducer(multipartBody.openStream(), multipartBody.contentLength(),
+                    org.apache.hc.core5.http.ContentType.parse(multipartBody.getContentType()));
+        }
+        Object body = httpRequest.getBody();
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof InputStream) {
+            // 长度未知，使用分块传输（HTTP/2下为数据帧）
+            return new InputStreamEntityProducer((InputStream) body, -1, contentType != null
+                    ? org.apache.hc.core5.http.ContentType.parse(contentType)
+                    : org.apache.hc.core5.http.ContentType.APPLICATION_OCTET_STREAM);
+        }
+        String encodeType = contentType != null ? contentType : "application/json; charset=UTF-8";
+        byte[] bytes;
+        try {
+            bytes = getCodecManager().selectEncoder(encodeType).encode(body, encodeType);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error encoding request body", e);
+        }
+        return new BasicAsyncEntityProducer(bytes, org.apache.hc.core5.http.ContentType.parse(encodeType));
+    }
+
+    /**
+     * 构建自定义HttpResponse
+     * HTTP/2的响应头名称都是小写，这里使用不区分大小写的Map，保持与其他实现一致的读取方式
+     */
+    private static HttpResponse buildHttpResponse(Message<org.apache.hc.core5.http.HttpResponse, byte[]> message,
+                                                  HttpClientContext context) {
+        org.apache.hc.core5.http.HttpResponse head = message.getHead();
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : head.getHeaders()) {
+            headers.putIfAbsent(header.getName(), header.getValue());
+        }
+
+        int statusCode = head.getCode();
+        byte[] bytes = message.getBody() != null ? message.getBody() : new byte[0];
+        logger.debug("Response status code: {}, protocol: {}", statusCode, context.getProtocolVersion());
+        logger.debug("Response body size: {} bytes", bytes.length);
+        return HttpResponse.ofBody(statusCode, bytes, headers);
+    }
+}
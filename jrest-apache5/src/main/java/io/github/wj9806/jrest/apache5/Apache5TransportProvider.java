@@ -0,0 +1,23 @@
+package io.github.wj9806.jrest.apache5;
+
+import io.github.wj9806.jrest.client.http.AbstractTransportProvider;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * Apache HttpClient 5传输实现
+ */
+public class Apache5TransportProvider extends AbstractTransportProvider {
+
+    public Apache5TransportProvider() {
+        super(ClientType.APACHE5, TransportCapability.HTTP2, TransportCapability.STREAMING,
+                TransportCapability.ASYNC, TransportCapability.POOLED);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return connectionPoolConfig != null ? new Apache5HttpClient(connectionPoolConfig) : new Apache5HttpClient();
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.wj9806.jrest.apache5;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.StreamChannel;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 从输入流按块生成请求体
+ * 只在连接可写时读取下一块数据，不会把整个请求体读入内存；输入流只能读取一次，因此请求体不可重复发送
+ */
+class InputStreamEntityProducer extends AbstractBinAsyncEntityProducer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputStreamEntityProducer.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final long contentLength;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean endOfStream;
+
+    /**
+     * @param inputStream 输入流，发送完成或失败后关闭
+     * @param contentLength 内容长度，小于0表示未知，使用分块传输
+     * @param contentType 内容类型
+     */
+    InputStreamEntityProducer(InputStream inputStream, long contentLength, ContentType contentType) {
+        super(BUFFER_SIZE, contentType);
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+        this.buffer.limit(0);
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return contentLength < 0;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    protected int availableData() {
+        return buffer.hasRemaining() ? buffer.remaining() : BUFFER_SIZE;
+    }
+
+    @Override
+    protected void produceData(StreamChannel<ByteBuffer> channel) throws IOException {
+        if (endOfStream) {
+            return;
+        }
+        if (!buffer.hasRemaining()) {
+            int read = inputStream.read(buffer.array(), 0, buffer.capacity());
+            if (read < 0) {
+                endOfStream = true;
+                channel.endStream();
+                releaseResources();
+                return;
+            }
+            buffer.position(0);
+            buffer.limit(read);
+        }
+        channel.write(buffer);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        logger.debug("Failed to send request body", cause);
+        releaseResources();
+    }
+
+    @Override
+    public void releaseResources() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.debug("Error closing request body stream", e);
+        }
+    }
+}
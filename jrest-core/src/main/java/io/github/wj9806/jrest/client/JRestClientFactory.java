@@ -1,9 +1,16 @@
 package io.github.wj9806.jrest.client;
 
 import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.Dispatcher;
+import io.github.wj9806.jrest.client.http.HashedWheelTimer;
 import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpClientConfig;
 import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.InProcessRegistry;
 import io.github.wj9806.jrest.client.http.Retryer;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.http.TransportProviders;
 import io.github.wj9806.jrest.client.http.decode.Decoder;
 import io.github.wj9806.jrest.client.http.encode.Encoder;
 import io.github.wj9806.jrest.client.interceptor.GlobalInterceptorManager;
@@ -11,18 +18,22 @@ import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
 import io.github.wj9806.jrest.client.annotation.AnnotationParser;
 import io.github.wj9806.jrest.client.proxy.ClientType;
 import io.github.wj9806.jrest.client.annotation.DefaultAnnotationParser;
+import io.github.wj9806.jrest.client.proxy.AbstractGeneratedClient;
 import io.github.wj9806.jrest.client.proxy.RestClientInvocationHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * REST客户端代理工厂
+ * 工厂持有共享的时间轮定时器（用于重试等定时任务），不再使用时应当关闭；最后一个工厂关闭时定时器停止
  */
-public class JRestClientFactory {
+public class JRestClientFactory implements Closeable {
     
     private static final Logger logger = LoggerFactory.getLogger(JRestClientFactory.class);
     private final AnnotationParser annotationParser;
@@ -31,6 +42,14 @@ public class JRestClientFactory {
     private final CodecManager codecManager;
     private final int connectTimeout;
     private final int readTimeout;
+    private final ConnectionPoolConfig connectionPoolConfig;
+    private final List<String> inProcessBaseUrls;
+    private final String transport;
+    private final Dispatcher dispatcher;
+    private final long deadline;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // 本工厂引用的HttpClient配置，关闭时逐一释放
+    private final List<HttpClientConfig> httpClientConfigs = new ArrayList<>();
 
     /**
      * 私有构造函数，通过Builder创建实例
@@ -42,6 +61,31 @@ public class JRestClientFactory {
         this.codecManager = builder.codecManager;
         this.connectTimeout = builder.connectTimeout;
         this.readTimeout = builder.readTimeout;
+        this.connectionPoolConfig = builder.connectionPoolConfig;
+        this.inProcessBaseUrls = new ArrayList<>(builder.inProcessBaseUrls);
+        this.transport = builder.transport;
+        this.dispatcher = builder.dispatcher;
+        this.deadline = builder.deadline;
+        HashedWheelTimer.acquireShared();
+    }
+
+    /**
+     * 关闭工厂，释放共享的定时器和引用的HttpClient；没有其他工厂引用的HttpClient在进行中的请求结束后关闭，
+     * 进行中请求的定时任务在需要时使用新的定时器。关闭后不能再创建客户端，已创建的客户端也不应继续使用
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            List<HttpClientConfig> configs;
+            synchronized (httpClientConfigs) {
+                configs = new ArrayList<>(httpClientConfigs);
+                httpClientConfigs.clear();
+            }
+            for (HttpClientConfig config : configs) {
+                HttpClientFactory.releaseHttpClient(config);
+            }
+            HashedWheelTimer.releaseShared();
+        }
     }
 
     /**
@@ -54,42 +98,120 @@ public class JRestClientFactory {
     public <T> T createProxy(Class<T> clazz) {
         // 使用注解解析器解析RestClient注解
         String baseUrl = annotationParser.parseBaseUrl(clazz);
-        ClientType clientType = annotationParser.parseClientType(clazz);
-        
-        logger.debug("Creating proxy for interface: {}, baseUrl: {}, clientType: {}", 
-                clazz.getName(), baseUrl, clientType);
+        String transport = transport(clazz, baseUrl);
         
-        // 创建HttpClient实例
-        HttpClient httpClient = HttpClientFactory.createHttpClient(clientType);
+        logger.debug("Creating proxy for interface: {}, baseUrl: {}, transport: {}", 
+                clazz.getName(), baseUrl, transport);
         
-        // 设置超时时间
-        httpClient.setConnectTimeout(connectTimeout);
-        httpClient.setReadTimeout(readTimeout);
+        // 按有效配置获取HttpClient实例，配置相同的客户端共享实例，共享的实例创建后不再被修改
+        HttpClient httpClient = acquireHttpClient(httpClientConfig(clazz, baseUrl, transport));
         
-        // 设置重试策略
-        if (retryer != null) {
-            httpClient.setRetryer(retryer);
+        // 优先使用编译期生成的客户端实现，不存在时回退到动态代理
+        Object client = annotationParser.supportsGeneratedClients()
+                ? createGeneratedClient(clazz, baseUrl, httpClient) : null;
+        if (client == null) {
+            client = Proxy.newProxyInstance(
+                    clazz.getClassLoader(),
+                    new Class<?>[]{clazz},
+                    new RestClientInvocationHandler(clazz, baseUrl, httpClient, annotationParser)
+            );
         }
         
-        // 设置编解码器管理器
-        if (codecManager != null) {
-            httpClient.setCodecManager(codecManager);
+        return clazz.cast(client);
+    }
+
+    /**
+     * 获取HttpClient实例，每次获取的引用在工厂关闭时释放
+     */
+    private HttpClient acquireHttpClient(HttpClientConfig config) {
+        synchronized (httpClientConfigs) {
+            if (closed.get()) {
+                throw new IllegalStateException("JRestClientFactory is closed");
+            }
+            HttpClient httpClient = HttpClientFactory.acquireHttpClient(config);
+            httpClientConfigs.add(config);
+            return httpClient;
         }
-        
-        // 添加全局拦截器
-        for (HttpRequestInterceptor interceptor : interceptors) {
-            httpClient.addInterceptor(interceptor);
+    }
+    
+    /**
+     * 计算接口使用的传输实现名称
+     * 优先级：进程内调用、注解中的transport、Builder中的transport、注解中的clientType；unix://地址总是使用UDS
+     */
+    private String transport(Class<?> clazz, String baseUrl) {
+        if (isInProcess(baseUrl)) {
+            return ClientType.IN_PROCESS.getValue();
+        }
+        String annotated = annotationParser.parseTransport(clazz);
+        if (annotated != null) {
+            return annotated;
+        }
+        ClientType clientType = annotationParser.parseClientType(clazz).forBaseUrl(baseUrl);
+        return transport != null && clientType != ClientType.UDS ? transport : clientType.getValue();
+    }
+    
+    /**
+     * 判断基础URL是否由同一JVM中的服务提供，需要通过进程内调用访问
+     */
+    private boolean isInProcess(String baseUrl) {
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            return false;
+        }
+        for (String inProcessBaseUrl : inProcessBaseUrls) {
+            if (InProcessRegistry.isSameDestination(inProcessBaseUrl, baseUrl)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 计算接口的HttpClient有效配置
+     */
+    private HttpClientConfig httpClientConfig(Class<?> clazz, String baseUrl, String transport) {
+        ConnectionPoolConfig poolConfig = connectionPoolConfig;
+        int maxConnections = annotationParser.parseMaxConnections(clazz);
+        if (TransportProviders.supports(transport, TransportCapability.POOLED) && maxConnections > 0 && baseUrl != null && !baseUrl.isEmpty()) {
+            poolConfig = (poolConfig != null ? poolConfig : ConnectionPoolConfig.DEFAULT).toBuilder()
+                    .maxPerHost(baseUrl, maxConnections)
+                    .build();
+        }
+        return new HttpClientConfig.Builder()
+                .transport(transport)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .retryer(retryer)
+                .codecManager(codecManager)
+                .addInterceptors(interceptors)
+                .addInterceptors(GlobalInterceptorManager.getInstance().getGlobalInterceptors())
+                .connectionPool(poolConfig)
+                .dispatcher(dispatcher)
+                .deadline(deadline)
+                .build();
+    }
+    
+    /**
+     * 创建编译期生成的客户端实现实例
+     * 
+     * @return 生成类的实例，类路径中不存在生成类时返回null
+     */
+    private Object createGeneratedClient(Class<?> clazz, String baseUrl, HttpClient httpClient) {
+        String className = AbstractGeneratedClient.generatedClassName(clazz);
+        try {
+            Class<?> generatedClass = Class.forName(className, true, clazz.getClassLoader());
+            if (!clazz.isAssignableFrom(generatedClass) || !AbstractGeneratedClient.class.isAssignableFrom(generatedClass)) {
+                logger.warn("Ignore generated class {}, it does not implement {}", className, clazz.getName());
+                return null;
+            }
+            Object client = generatedClass.getConstructor(String.class, HttpClient.class).newInstance(baseUrl, httpClient);
+            logger.debug("Using generated client: {}", className);
+            return client;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Failed to create generated client {}, falling back to dynamic proxy", className, e);
+            return null;
         }
-        GlobalInterceptorManager.getInstance().getGlobalInterceptors().forEach(httpClient::addInterceptor);
-        
-        // 创建代理实例
-        Object client = Proxy.newProxyInstance(
-                clazz.getClassLoader(),
-                new Class<?>[]{clazz},
-                new RestClientInvocationHandler(baseUrl, httpClient, annotationParser)
-        );
-        
-        return clazz.cast(client);
     }
     
     /**
@@ -102,6 +224,11 @@ public class JRestClientFactory {
         private CodecManager codecManager;
         private int connectTimeout = 30000;
         private int readTimeout = 30000;
+        private ConnectionPoolConfig connectionPoolConfig;
+        private final List<String> inProcessBaseUrls = new ArrayList<>();
+        private String transport;
+        private Dispatcher dispatcher;
+        private long deadline = -1;
 
         /**
          * 设置注解解析器
@@ -149,6 +276,65 @@ public class JRestClientFactory {
             return this;
         }
         
+        /**
+         * 设置连接池配置，仅对使用连接池的传输实现（见TransportCapability#POOLED）生效
+         * 
+         * @param connectionPoolConfig 连接池配置
+         * @return Builder实例
+         */
+        public Builder connectionPool(ConnectionPoolConfig connectionPoolConfig) {
+            this.connectionPoolConfig = connectionPoolConfig;
+            return this;
+        }
+        
+        /**
+         * 设置请求调度器，限制所有客户端同时执行的请求总数和单个目标地址的请求数，超出的请求排队等待；
+         * 执行器通过Dispatcher.Builder#executor指定
+         * 
+         * @param dispatcher 请求调度器
+         * @return Builder实例
+         */
+        public Builder dispatcher(Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+        
+        /**
+         * 设置请求的默认总时限，包括所有重试和重试间隔，@Deadline注解和DeadlineContext可以覆盖
+         * 
+         * @param deadline 总时限（毫秒），小于0表示不限制
+         * @return Builder实例
+         */
+        public Builder deadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+        
+        /**
+         * 按名称指定默认的传输实现，覆盖注解中的clientType，注解中声明了transport的接口不受影响
+         * 
+         * @param transport 传输实现名称，对应TransportProvider#getName
+         * @return Builder实例
+         */
+        public Builder transport(String transport) {
+            this.transport = transport;
+            return this;
+        }
+        
+        /**
+         * 指定由同一JVM中的服务提供的基础URL，目标地址相同的客户端忽略注解中的clientType，使用进程内调用，
+         * 请求时由InProcessRegistry中注册的处理器处理
+         * 
+         * @param baseUrl 基础URL
+         * @return Builder实例
+         */
+        public Builder inProcess(String baseUrl) {
+            if (baseUrl != null && !baseUrl.isEmpty()) {
+                this.inProcessBaseUrls.add(baseUrl);
+            }
+            return this;
+        }
+        
         /**
          * 添加编码器
          * 
@@ -27,6 +27,39 @@ public interface AnnotationParser {
      */
     ClientType parseClientType(Class<?> clazz);
     
+    /**
+     * 解析RestClient注解，获取传输实现名称
+     *
+     * @param clazz 接口类
+     * @return 传输实现名称，未指定时返回null
+     */
+    default String parseTransport(Class<?> clazz) {
+        RestClient restClientAnnotation = clazz.getAnnotation(RestClient.class);
+        return restClientAnnotation == null || restClientAnnotation.transport().isEmpty()
+                ? null : restClientAnnotation.transport();
+    }
+    
+    /**
+     * 解析RestClient注解，获取目标主机的最大连接数
+     *
+     * @param clazz 接口类
+     * @return 最大连接数，小于等于0表示使用连接池配置
+     */
+    default int parseMaxConnections(Class<?> clazz) {
+        RestClient restClientAnnotation = clazz.getAnnotation(RestClient.class);
+        return restClientAnnotation == null ? -1 : restClientAnnotation.maxConnections();
+    }
+    
+    /**
+     * 解析方法注解，生成方法调用元数据
+     * 每个方法只需解析一次，结果可被缓存复用
+     *
+     * @param method 方法对象
+     * @param baseUrl 基础URL
+     * @return 方法调用元数据
+     */
+    MethodMetadata parseMetadata(Method method, String baseUrl);
+
     /**
      * 将方法解析成HttpRequest
      *
@@ -35,5 +68,17 @@ public interface AnnotationParser {
      * @param baseUrl 基础URL
      * @return HttpRequest对象
      */
-    HttpRequest parse(Method method, Object[] args, String baseUrl);
+    default HttpRequest parse(Method method, Object[] args, String baseUrl) {
+        return parseMetadata(method, baseUrl).createRequest(args);
+    }
+
+    /**
+     * 是否可以使用编译期生成的客户端实现
+     * 生成的实现只识别jrest自身的注解，解析规则与默认解析器一致时才应返回true
+     *
+     * @return 是否支持生成的客户端实现
+     */
+    default boolean supportsGeneratedClients() {
+        return false;
+    }
 }
@@ -0,0 +1,19 @@
+package io.github.wj9806.jrest.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 请求的总时限，包括所有重试和重试间隔，覆盖客户端的配置
+ * 标注在接口上时对所有方法生效，方法上的注解优先
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Deadline {
+    /**
+     * 总时限（毫秒）
+     */
+    long value();
+}
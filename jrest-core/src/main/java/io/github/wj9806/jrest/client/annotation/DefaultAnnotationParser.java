@@ -1,16 +1,12 @@
 package io.github.wj9806.jrest.client.annotation;
 
-import io.github.wj9806.jrest.client.http.MultipartFile;
-import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
-import io.github.wj9806.jrest.client.http.HttpRequest;
 import io.github.wj9806.jrest.client.proxy.ClientType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.reflect.Parameter;
 
 /**
  * 默认REST客户端注解解析器实现（单例模式）
@@ -54,200 +50,74 @@ public class DefaultAnnotationParser implements AnnotationParser {
     }
     
     @Override
-    public HttpRequest parse(Method method, Object[] args, String baseUrl) {
-        // 获取HTTP方法
-        String httpMethod = getHttpMethod(method);
-        if (httpMethod == null) {
+    public MethodMetadata parseMetadata(Method method, String baseUrl) {
+        MethodMetadata.Builder builder = new MethodMetadata.Builder()
+                .method(method)
+                .baseUrl(baseUrl)
+                .timeout(method.getAnnotation(Timeout.class))
+                .deadline(method.isAnnotationPresent(Deadline.class) ? method.getAnnotation(Deadline.class)
+                        : method.getDeclaringClass().getAnnotation(Deadline.class));
+
+        // 获取HTTP方法、路径和Content-Type
+        if (method.isAnnotationPresent(GET.class)) {
+            GET get = method.getAnnotation(GET.class);
+            builder.httpMethod("GET").path(get.value()).contentType(get.consumes().getValue());
+        } else if (method.isAnnotationPresent(POST.class)) {
+            POST post = method.getAnnotation(POST.class);
+            builder.httpMethod("POST").path(post.value()).contentType(post.consumes().getValue());
+        } else if (method.isAnnotationPresent(PUT.class)) {
+            PUT put = method.getAnnotation(PUT.class);
+            builder.httpMethod("PUT").path(put.value()).contentType(put.consumes().getValue());
+        } else if (method.isAnnotationPresent(DELETE.class)) {
+            DELETE delete = method.getAnnotation(DELETE.class);
+            builder.httpMethod("DELETE").path(delete.value()).contentType(delete.consumes().getValue());
+        } else {
             throw new IllegalArgumentException("Method must be annotated with HTTP method annotation");
         }
-        
-        // 获取Content-Type
-        String contentType = getContentType(method);
-        
-        // 构建请求URL
-        String requestUrl = buildRequestUrl(method, args, baseUrl);
-        
-        // 解析参数
-        Map<String, String> headers = new HashMap<>();
-        Map<String, Object> queryParams = new HashMap<>();
-        Map<String, String> cookies = new HashMap<>();
-        Object requestBody = null;
-        Map<String, MultipartFile> multipartFiles = new HashMap<>();
-        Map<String, Object> formData = new HashMap<>();
-        boolean hasFormData = false;
-        
-        // 设置Content-Type头
-        if (contentType != null && !contentType.isEmpty()) {
-            headers.put("Content-Type", contentType);
-        }
-        
+
+        // 解析参数绑定
+        Parameter[] parameters = method.getParameters();
         Annotation[][] parameterAnnotations = method.getParameterAnnotations();
         for (int i = 0; i < parameterAnnotations.length; i++) {
-            Annotation[] annotations = parameterAnnotations[i];
-            Object arg = args[i];
-            
-            for (Annotation annotation : annotations) {
+            for (Annotation annotation : parameterAnnotations[i]) {
                 if (annotation instanceof PathParam) {
-                    // 路径参数已经在buildRequestUrl中处理
+                    builder.bind(MethodMetadata.BindingType.PATH,
+                            nameOf(((PathParam) annotation).value(), parameters[i]), i);
                 } else if (annotation instanceof QueryParam) {
-                    QueryParam queryParam = (QueryParam) annotation;
-                    String name = queryParam.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    queryParams.put(name, arg);
+                    builder.bind(MethodMetadata.BindingType.QUERY,
+                            nameOf(((QueryParam) annotation).value(), parameters[i]), i);
                 } else if (annotation instanceof RequestBody) {
-                    requestBody = arg;
+                    builder.bind(MethodMetadata.BindingType.BODY, null, i);
                 } else if (annotation instanceof Header) {
-                    Header header = (Header) annotation;
-                    String name = header.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    headers.put(name, arg != null ? arg.toString() : null);
+                    builder.bind(MethodMetadata.BindingType.HEADER,
+                            nameOf(((Header) annotation).value(), parameters[i]), i);
                 } else if (annotation instanceof Cookie) {
-                    Cookie cookie = (Cookie) annotation;
-                    String name = cookie.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    cookies.put(name, arg != null ? arg.toString() : null);
+                    builder.bind(MethodMetadata.BindingType.COOKIE,
+                            nameOf(((Cookie) annotation).value(), parameters[i]), i);
                 } else if (annotation instanceof RequestPart) {
-                    RequestPart requestPart = (RequestPart) annotation;
-                    String name = requestPart.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    if (arg instanceof MultipartFile) {
-                        multipartFiles.put(name, (MultipartFile) arg);
-                        hasFormData = true;
-                    } else if (arg instanceof java.io.File) {
-                        // 支持File类型参数，自动转换为MultipartFile
-                        multipartFiles.put(name, new DefaultMultipartFile(name, (java.io.File) arg));
-                        hasFormData = true;
-                    } else {
-                        throw new IllegalArgumentException("RequestPart parameter must be of type MultipartFile or File");
-                    }
+                    builder.bind(MethodMetadata.BindingType.PART,
+                            nameOf(((RequestPart) annotation).value(), parameters[i]), i);
                 } else if (annotation instanceof FormField) {
-                    FormField formField = (FormField) annotation;
-                    String name = formField.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    formData.put(name, arg);
-                    hasFormData = true;
+                    builder.bind(MethodMetadata.BindingType.FORM,
+                            nameOf(((FormField) annotation).value(), parameters[i]), i);
                 }
             }
         }
-        
-        // 创建HttpRequest对象
-        HttpRequest.Builder builder = new HttpRequest.Builder()
-                .url(requestUrl)
-                .method(httpMethod)
-                .headers(headers)
-                .queryParams(queryParams)
-                .cookies(cookies);
-                
-        // 设置请求体和表单数据
-        if (hasFormData) {
-            builder.formData(formData);
-            if (!multipartFiles.isEmpty()) {
-                builder.multipartFiles(multipartFiles);
-            }
-            // 如果有body且不是InputStream类型，将其转换为form字段
-            if (requestBody != null && !(requestBody instanceof java.io.InputStream)) {
-                builder.formField("body", requestBody);
-            }
-        } else if (requestBody != null) {
-            builder.body(requestBody);
-        }
-        
-        // 添加multipart文件
-        if (!multipartFiles.isEmpty() && !hasFormData) {
-            builder.multipartFiles(multipartFiles);
-        }
-        
-        return builder.build();
-    }
-    
-    /**
-     * 获取HTTP方法
-     */
-    private String getHttpMethod(Method method) {
-        if (method.isAnnotationPresent(GET.class)) {
-            return "GET";
-        } else if (method.isAnnotationPresent(POST.class)) {
-            return "POST";
-        } else if (method.isAnnotationPresent(PUT.class)) {
-            return "PUT";
-        } else if (method.isAnnotationPresent(DELETE.class)) {
-            return "DELETE";
-        }
-        return null;
+
+        MethodMetadata metadata = builder.build();
+        logger.debug("Parsed method metadata: {} {} -> {}", metadata.getHttpMethod(), metadata.getUrlTemplate(), method);
+        return metadata;
     }
-    
-    /**
-     * 获取Content-Type
-     */
-    private String getContentType(Method method) {
-        if (method.isAnnotationPresent(GET.class)) {
-            return method.getAnnotation(GET.class).consumes().getValue();
-        } else if (method.isAnnotationPresent(POST.class)) {
-            return method.getAnnotation(POST.class).consumes().getValue();
-        } else if (method.isAnnotationPresent(PUT.class)) {
-            return method.getAnnotation(PUT.class).consumes().getValue();
-        } else if (method.isAnnotationPresent(DELETE.class)) {
-            return method.getAnnotation(DELETE.class).consumes().getValue();
-        }
-        return null;
+
+    @Override
+    public boolean supportsGeneratedClients() {
+        return true;
     }
-    
+
     /**
-     * 构建请求URL
+     * 获取参数名称，如果没有指定value，则使用参数名称
      */
-    private String buildRequestUrl(Method method, Object[] args, String baseUrl) {
-        String path = "";
-        
-        // 获取路径
-        if (method.isAnnotationPresent(GET.class)) {
-            path = method.getAnnotation(GET.class).value();
-        } else if (method.isAnnotationPresent(POST.class)) {
-            path = method.getAnnotation(POST.class).value();
-        } else if (method.isAnnotationPresent(PUT.class)) {
-            path = method.getAnnotation(PUT.class).value();
-        } else if (method.isAnnotationPresent(DELETE.class)) {
-            path = method.getAnnotation(DELETE.class).value();
-        }
-        
-        // 替换路径参数
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-        for (int i = 0; i < parameterAnnotations.length; i++) {
-            Annotation[] annotations = parameterAnnotations[i];
-            Object arg = args[i];
-            
-            for (Annotation annotation : annotations) {
-                if (annotation instanceof PathParam) {
-                    PathParam pathParam = (PathParam) annotation;
-                    String paramName = pathParam.value();
-                    path = path.replace("{" + paramName + "}", arg.toString());
-                }
-            }
-        }
-        
-        // 构建完整URL
-        String fullUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
-        if (!path.isEmpty() && !path.startsWith("/")) {
-            fullUrl += path;
-        } else {
-            fullUrl += path.substring(1);
-        }
-
-        logger.debug("Built request URL: {}", fullUrl);
-        return fullUrl;
+    private String nameOf(String value, Parameter parameter) {
+        return value.isEmpty() ? parameter.getName() : value;
     }
 }
@@ -0,0 +1,362 @@
+package io.github.wj9806.jrest.client.annotation;
+
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.MultipartFile;
+import io.github.wj9806.jrest.client.http.UrlTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 方法调用元数据
+ * 每个接口方法只解析一次注解，预先计算HTTP方法、Content-Type、URL模板和参数绑定表，
+ * 调用时直接根据参数构建HttpRequest，不再进行注解反射
+ */
+public class MethodMetadata {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodMetadata.class);
+
+    private final Method method;
+    private final String httpMethod;
+    private final String contentType;
+    private final UrlTemplate urlTemplate;
+    private final int[] pathArgIndexes;
+    private final ParameterBinding[] parameterBindings;
+    private final boolean formData;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final long deadline;
+
+    private MethodMetadata(Builder builder) {
+        this.method = builder.method;
+        this.httpMethod = builder.httpMethod;
+        this.contentType = builder.contentType;
+        this.urlTemplate = UrlTemplate.compile(builder.baseUrl, builder.path);
+        this.parameterBindings = builder.parameterBindings.toArray(new ParameterBinding[0]);
+        this.pathArgIndexes = resolvePathArgIndexes(urlTemplate, parameterBindings);
+        boolean hasFormData = false;
+        for (ParameterBinding binding : parameterBindings) {
+            if (binding.getType() == BindingType.PART || binding.getType() == BindingType.FORM) {
+                hasFormData = true;
+                break;
+            }
+        }
+        this.formData = hasFormData;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.deadline = builder.deadline;
+    }
+
+    /**
+     * 根据方法参数构建HttpRequest
+     *
+     * @param args 方法参数
+     * @return HttpRequest对象
+     */
+    public HttpRequest createRequest(Object[] args) {
+        HttpRequest.Builder builder = new HttpRequest.Builder()
+                .url(expandUrl(args))
+                .method(httpMethod)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .deadline(deadline);
+
+        // 设置Content-Type头
+        if (contentType != null && !contentType.isEmpty()) {
+            builder.header("Content-Type", contentType);
+        }
+
+        Object requestBody = null;
+        for (ParameterBinding binding : parameterBindings) {
+            Object arg = args[binding.getIndex()];
+            String name = binding.getName();
+            switch (binding.getType()) {
+                case QUERY:
+                    builder.queryParam(name, arg);
+                    break;
+                case BODY:
+                    requestBody = arg;
+                    break;
+                case HEADER:
+                    builder.header(name, arg != null ? arg.toString() : null);
+                    break;
+                case COOKIE:
+                    builder.cookie(name, arg != null ? arg.toString() : null);
+                    break;
+                case PART:
+                    if (arg instanceof MultipartFile) {
+                        builder.addMultipartFile(name, (MultipartFile) arg);
+                    } else if (arg instanceof File) {
+                        // 支持File类型参数，自动转换为MultipartFile
+                        builder.addMultipartFile(name, new DefaultMultipartFile(name, (File) arg));
+                    } else {
+                        throw new IllegalArgumentException("RequestPart parameter must be of type MultipartFile or File");
+                    }
+                    break;
+                case FORM:
+                    builder.formField(name, arg);
+                    break;
+                case PATH:
+                default:
+                    // 路径参数已经在expandUrl中处理
+                    break;
+            }
+        }
+
+        // 设置请求体和表单数据
+        if (formData) {
+            builder.formData();
+            // 如果有body且不是InputStream类型，将其转换为form字段
+            if (requestBody != null && !(requestBody instanceof InputStream)) {
+                builder.formField("body", requestBody);
+            }
+        } else if (requestBody != null) {
+            builder.body(requestBody);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * 展开URL模板中的路径参数
+     */
+    private String expandUrl(Object[] args) {
+        String url = urlTemplate.expand(args, pathArgIndexes);
+        logger.debug("Built request URL: {}", url);
+        return url;
+    }
+
+    /**
+     * 计算URL模板中每个变量对应的参数下标
+     */
+    private static int[] resolvePathArgIndexes(UrlTemplate urlTemplate, ParameterBinding[] parameterBindings) {
+        List<String> variableNames = urlTemplate.getVariableNames();
+        int[] indexes = new int[variableNames.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = -1;
+            for (ParameterBinding binding : parameterBindings) {
+                if (binding.getType() == BindingType.PATH && binding.getName().equals(variableNames.get(i))) {
+                    indexes[i] = binding.getIndex();
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 获取对应的接口方法
+     * @return 接口方法
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取HTTP方法
+     * @return HTTP方法
+     */
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * 获取请求的Content-Type
+     * @return Content-Type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 获取编译后的URL模板（基础URL与请求路径拼接后的结果）
+     * @return URL模板
+     */
+    public UrlTemplate getUrlTemplate() {
+        return urlTemplate;
+    }
+
+    /**
+     * 获取方法级连接超时时间
+     * @return 连接超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * 获取方法级读取超时时间
+     * @return 读取超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * 获取方法级总时限
+     * @return 总时限（毫秒），小于0表示使用客户端的配置
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 获取参数绑定表
+     * @return 参数绑定表
+     */
+    public ParameterBinding[] getParameterBindings() {
+        return parameterBindings.clone();
+    }
+
+    /**
+     * 参数绑定类型
+     */
+    public enum BindingType {
+        PATH, QUERY, BODY, HEADER, COOKIE, PART, FORM
+    }
+
+    /**
+     * 参数绑定，描述第index个参数以何种方式、以什么名称写入请求
+     */
+    public static class ParameterBinding {
+        private final BindingType type;
+        private final String name;
+        private final int index;
+
+        public ParameterBinding(BindingType type, String name, int index) {
+            this.type = type;
+            this.name = name;
+            this.index = index;
+        }
+
+        public BindingType getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * MethodMetadata构建器
+     */
+    public static class Builder {
+        private Method method;
+        private String httpMethod;
+        private String contentType;
+        private String baseUrl;
+        private String path;
+        private int connectTimeout = -1;
+        private int readTimeout = -1;
+        private long deadline = -1;
+        private final List<ParameterBinding> parameterBindings = new ArrayList<>();
+
+        /**
+         * 设置接口方法
+         * @param method 接口方法
+         * @return Builder实例
+         */
+        public Builder method(Method method) {
+            this.method = method;
+            return this;
+        }
+
+        /**
+         * 设置HTTP方法
+         * @param httpMethod HTTP方法
+         * @return Builder实例
+         */
+        public Builder httpMethod(String httpMethod) {
+            this.httpMethod = httpMethod;
+            return this;
+        }
+
+        /**
+         * 设置请求的Content-Type
+         * @param contentType Content-Type
+         * @return Builder实例
+         */
+        public Builder contentType(String contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        /**
+         * 设置基础URL
+         * @param baseUrl 基础URL
+         * @return Builder实例
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * 设置请求路径，可包含{name}形式的路径参数
+         * @param path 请求路径
+         * @return Builder实例
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * 根据@Timeout注解设置方法级超时时间
+         * @param timeout 超时注解，为null时使用客户端的配置
+         * @return Builder实例
+         */
+        public Builder timeout(Timeout timeout) {
+            if (timeout != null) {
+                this.connectTimeout = timeout.connect();
+                this.readTimeout = timeout.read();
+            }
+            return this;
+        }
+
+        /**
+         * 根据@Deadline注解设置方法级总时限
+         * @param deadline 总时限注解，为null时使用客户端的配置
+         * @return Builder实例
+         */
+        public Builder deadline(Deadline deadline) {
+            if (deadline != null) {
+                this.deadline = deadline.value();
+            }
+            return this;
+        }
+
+        /**
+         * 添加参数绑定
+         * @param type 绑定类型
+         * @param name 参数名称
+         * @param index 参数下标
+         * @return Builder实例
+         */
+        public Builder bind(BindingType type, String name, int index) {
+            this.parameterBindings.add(new ParameterBinding(type, name, index));
+            return this;
+        }
+
+        /**
+         * 构建MethodMetadata实例
+         * @return MethodMetadata实例
+         */
+        public MethodMetadata build() {
+            if (httpMethod == null || httpMethod.isEmpty()) {
+                throw new IllegalArgumentException("Method must be annotated with HTTP method annotation");
+            }
+            return new MethodMetadata(this);
+        }
+    }
+}
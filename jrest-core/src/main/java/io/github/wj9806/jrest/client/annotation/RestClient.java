@@ -14,6 +14,7 @@ import java.lang.annotation.Target;
 public @interface RestClient {
     /**
      * 基础URL
+     * 以unix://开头时表示Unix domain socket文件路径，例如unix:///var/run/agent.sock，此时总是使用ClientType#UDS
      */
     String baseUrl() default "";
     
@@ -21,4 +22,15 @@ public @interface RestClient {
      * 客户端实现类型
      */
     ClientType clientType() default ClientType.NATIVE;
+    
+    /**
+     * 传输实现名称，对应通过ServiceLoader注册的TransportProvider#getName，不为空时忽略clientType
+     */
+    String transport() default "";
+    
+    /**
+     * 连接到baseUrl所在主机的最大连接数，覆盖连接池中每个路由的默认值
+     * 小于等于0表示使用连接池配置，仅对使用连接池的传输实现（见TransportCapability#POOLED）生效
+     */
+    int maxConnections() default -1;
 }
\ No newline at end of file
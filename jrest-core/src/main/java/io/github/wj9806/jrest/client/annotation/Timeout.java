@@ -0,0 +1,23 @@
+package io.github.wj9806.jrest.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法级超时时间，覆盖客户端的全局连接和读取超时时间
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+    /**
+     * 连接超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    int connect() default -1;
+
+    /**
+     * 读取超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    int read() default -1;
+}
@@ -3,17 +3,22 @@ package io.github.wj9806.jrest.client.http;
 import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * HttpClient抽象基类，提供拦截器管理功能
+ * 同步和异步请求共用一条异步执行流程：拦截器、重试调度和子类的连接池只有一份，同步请求等待异步结果
  */
 public abstract class AbstractHttpClient implements HttpClient {
     
@@ -37,74 +42,64 @@ public abstract class AbstractHttpClient implements HttpClient {
     // 默认读取超时时间（毫秒）
     private static final int DEFAULT_READ_TIMEOUT = 30000;
     
+    // 有总时限时按剩余时间限制单次超时的粒度（毫秒）
+    private static final long DEADLINE_TIMEOUT_GRANULARITY = 100;
+    
     // 连接超时时间（毫秒）
     private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
     
     // 读取超时时间（毫秒）
     private int readTimeout = DEFAULT_READ_TIMEOUT;
     
+    // 请求的总时限（毫秒），小于0表示不限制
+    private long deadline = -1;
+    
+    // 请求调度器，为null时请求直接交给传输实现
+    private volatile Dispatcher dispatcher;
+    
+    // 进行中的请求数，以及请求全部结束后执行一次的任务
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<Runnable> idleTask = new AtomicReference<>();
+    
+    /**
+     * 同步执行请求，与异步请求使用同一条执行流程（拦截器、重试和连接池），调用线程只等待结果
+     */
     @Override
     public HttpResponse exchange(HttpRequest httpRequest) throws IOException {
-        int retryCount = 0;
-        HttpResponse httpResponse = null;
-
-        // 获取重试策略，如果没有设置则使用默认重试策略
-        Retryer currentRetryer = getRetryer();
-        
-        while (true) {
-            try {
-                // 请求前拦截 - 按order升序执行
-                for (HttpRequestInterceptor interceptor : interceptors) {
-                    interceptor.beforeRequest(httpRequest);
-                }
-                
-                // 执行实际请求
-                httpResponse = doExchange(httpRequest);
-                
-                // 响应后拦截 - 按order降序执行
-                for (int i = interceptors.size() - 1; i >= 0; i--) {
-                    interceptors.get(i).afterResponse(httpRequest, httpResponse);
-                }
-                
-                // 检查是否需要重试
-                if (!currentRetryer.shouldRetry(httpRequest, httpResponse, null, retryCount)) {
-                    return httpResponse;
-                }
-                
-            } catch (IOException e) {
-                // 检查是否需要重试
-                if (!currentRetryer.shouldRetry(httpRequest, null, e, retryCount)) {
-                    throw e;
-                }
-            }
-            
-            // 递增重试次数
-            retryCount++;
-            
-            // 获取延迟时间
-            long delay = currentRetryer.getDelay(retryCount);
-            
-            try {
-                // 等待延迟时间
-                Thread.sleep(delay);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw new IOException("Retry interrupted", ie);
-            }
-        }
+        return await(exchangeAsync(httpRequest));
     }
     
     /**
-     * 执行实际的HTTP请求，由子类实现
+     * 等待请求完成并还原执行过程中的原始异常
      * 
-     * @param httpRequest HTTP请求对象
+     * @param future 请求的CompletableFuture
      * @return 响应结果
-     * @throws IOException IO异常
+     * @throws IOException 请求失败或等待被中断
      */
-    protected abstract HttpResponse doExchange(HttpRequest httpRequest) throws IOException;
+    protected static HttpResponse await(CompletableFuture<HttpResponse> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            InterruptedIOException exception = new InterruptedIOException("Request interrupted");
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Error processing request", cause);
+        }
+    }
     
     /**
-     * 异步执行实际的HTTP请求，由子类实现
+     * 异步执行实际的HTTP请求，由子类实现，同步请求也通过该方法执行
      * 
      * @param httpRequest HTTP请求对象
      * @return 包含响应结果的CompletableFuture
@@ -112,9 +107,11 @@ public abstract class AbstractHttpClient implements HttpClient {
     protected abstract CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest);
     
     /**
-     * 调度执行器服务，用于异步请求和重试
+     * 执行重试和总时限到期的线程池，首次使用时创建；二者由共享的时间轮定时器触发，拦截器和回调可能阻塞，因此不在定时器线程中执行
      */
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+    private static final class RetryExecutor {
+        static final ExecutorService INSTANCE = VirtualThreads.newExecutor("jrest-retry-");
+    }
     
     @Override
     public void addInterceptor(HttpRequestInterceptor interceptor) {
@@ -144,19 +141,95 @@ public abstract class AbstractHttpClient implements HttpClient {
     public CompletableFuture<HttpResponse> exchangeAsync(HttpRequest httpRequest) {
         // 创建一个新的CompletableFuture用于异步执行
         CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        future.whenComplete((response, ex) -> {
+            if (inFlight.decrementAndGet() == 0) {
+                runIdleTask();
+            }
+        });
+        
+        // 有总时限时，到期立即以DeadlineExceededException结束，正在进行的尝试随之中止
+        Long deadline = deadlineOf(httpRequest);
+        if (deadline != null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                future.completeExceptionally(deadlineExceeded(httpRequest, null));
+                return future;
+            }
+            // 完成future会执行取消尝试和调用方的回调，交给重试线程池执行，不占用定时器线程
+            HashedWheelTimer.Timeout timeout = HashedWheelTimer.newSharedTimeout(
+                    () -> RetryExecutor.INSTANCE.execute(() -> future.completeExceptionally(deadlineExceeded(httpRequest, null))),
+                    remaining, TimeUnit.NANOSECONDS);
+            future.whenComplete((response, ex) -> timeout.cancel());
+        }
         
         // 启动异步执行
-        executeAsync(httpRequest, future, 0);
+        executeAsync(httpRequest, future, 0, deadline);
         
         return future;
     }
     
     /**
-     * 异步执行HTTP请求，并处理重试逻辑
+     * 获取进行中的请求数
+     *
+     * @return 进行中的请求数
+     */
+    public int getInFlightRequests() {
+        return inFlight.get();
+    }
+    
+    /**
+     * 在没有进行中的请求时执行任务，否则在请求全部结束时执行；任务只执行一次，在重试线程池中执行
+     *
+     * @param task 任务
+     */
+    void whenIdle(Runnable task) {
+        idleTask.set(task);
+        if (inFlight.get() == 0) {
+            runIdleTask();
+        }
+    }
+    
+    private void runIdleTask() {
+        Runnable task = idleTask.getAndSet(null);
+        if (task != null) {
+            RetryExecutor.INSTANCE.execute(task);
+        }
+    }
+    
+    /**
+     * 计算请求的截止时刻：请求级配置优先于客户端配置，调用级的DeadlineContext取更早者
+     * 
+     * @return System.nanoTime()表示的截止时刻，没有总时限时返回null
+     */
+    private Long deadlineOf(HttpRequest httpRequest) {
+        long budget = httpRequest.getDeadline() >= 0 ? httpRequest.getDeadline() : deadline;
+        Long context = DeadlineContext.current();
+        if (budget < 0) {
+            return context;
+        }
+        long requestDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        return context != null && context - requestDeadline < 0 ? context : requestDeadline;
+    }
+    
+    private static DeadlineExceededException deadlineExceeded(HttpRequest httpRequest, Throwable cause) {
+        DeadlineExceededException exception = new DeadlineExceededException(
+                "Deadline exceeded: " + httpRequest.getMethod() + " " + httpRequest.getUrl());
+        if (cause != null) {
+            exception.initCause(cause);
+        }
+        return exception;
+    }
+    
+    /**
+     * 执行一次请求，并根据重试策略决定是否安排下次重试
+     * 每次执行都从原始请求复制，拦截器对副本的修改不会累积；传输层的IOException参与重试判断，
+     * 其他异常（编码失败、拦截器异常等）直接结束请求。
+     * 有总时限时，单次尝试的连接和读取超时不超过剩余时间，剩余时间不足以等待重试间隔时不再重试
      */
-    private void executeAsync(HttpRequest httpRequest, CompletableFuture<HttpResponse> future, int retryCount) {
+    private void executeAsync(HttpRequest httpRequest, CompletableFuture<HttpResponse> future, int retryCount, Long deadline) {
         // 如果future已被取消，则不再执行
-        if (future.isCancelled()) {
+        if (future.isDone()) {
             return;
         }
         
@@ -164,64 +237,132 @@ public abstract class AbstractHttpClient implements HttpClient {
         Retryer currentRetryer = getRetryer();
         
         // 创建请求副本，避免并发修改问题
-        HttpRequest requestCopy = HttpRequest.Builder.newBuilder(httpRequest).build();
+        HttpRequest.Builder copyBuilder = HttpRequest.Builder.newBuilder(httpRequest);
+        if (deadline != null) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime() + 999_999);
+            if (remaining <= 0) {
+                future.completeExceptionally(deadlineExceeded(httpRequest, null));
+                return;
+            }
+            // 剩余时间向上取整到固定粒度，相近时刻发出的请求得到相同的超时配置；超过剩余时间的部分由总时限的定时任务结束
+            long rounded = (remaining + DEADLINE_TIMEOUT_GRANULARITY - 1) / DEADLINE_TIMEOUT_GRANULARITY * DEADLINE_TIMEOUT_GRANULARITY;
+            int cap = (int) Math.min(rounded, Integer.MAX_VALUE);
+            copyBuilder.connectTimeout(capTimeout(connectTimeoutOf(httpRequest), cap))
+                    .readTimeout(capTimeout(readTimeoutOf(httpRequest), cap));
+        }
+        HttpRequest requestCopy = copyBuilder.build();
         
-        // 请求前拦截 - 按order升序执行
-        for (HttpRequestInterceptor interceptor : interceptors) {
-            interceptor.beforeRequest(requestCopy);
+        CompletableFuture<HttpResponse> attempt;
+        try {
+            // 请求前拦截 - 按order升序执行
+            for (HttpRequestInterceptor interceptor : interceptors) {
+                interceptor.beforeRequest(requestCopy);
+            }
+            
+            // 异步执行实际请求，配置了调度器时由调度器控制并发
+            Dispatcher currentDispatcher = dispatcher;
+            attempt = currentDispatcher != null
+                    ? currentDispatcher.dispatch(requestCopy, this::doExchangeAsync)
+                    : doExchangeAsync(requestCopy);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
         }
         
-        // 异步执行实际请求
-        doExchangeAsync(requestCopy)
-            .thenApply(httpResponse -> {
-                // 响应后拦截 - 按order降序执行
-                for (int i = interceptors.size() - 1; i >= 0; i--) {
-                    interceptors.get(i).afterResponse(requestCopy, httpResponse);
-                }
-                return httpResponse;
-            })
-            .thenAccept(httpResponse -> {
-                // 检查是否需要重试
-                if (!currentRetryer.shouldRetry(requestCopy, httpResponse, null, retryCount)) {
-                    future.complete(httpResponse);
-                } else {
-                    // 需要重试，安排下次重试
-                    scheduleRetry(requestCopy, future, retryCount + 1);
-                }
-            })
-            .exceptionally(ex -> {
-                // 提取原始的IOException
-                Throwable cause = ex.getCause();
-                IOException exception;
-                if (cause instanceof IOException) {
-                    exception = (IOException) cause;
-                } else if (ex instanceof IOException) {
-                    exception = (IOException) ex;
-                } else {
-                    exception = new IOException(ex);
-                }
-                
-                // 检查是否需要重试
-                if (!currentRetryer.shouldRetry(requestCopy, null, exception, retryCount)) {
-                    future.completeExceptionally(exception);
-                } else {
-                    // 需要重试，安排下次重试
-                    scheduleRetry(requestCopy, future, retryCount + 1);
+        // 调用方取消、orTimeout超时或总时限到期时，取消正在进行的尝试，传输实现随之中止交换并释放连接
+        future.whenComplete((response, ex) -> attempt.cancel(true));
+        
+        attempt.whenComplete((httpResponse, ex) -> {
+            if (ex == null) {
+                try {
+                    // 响应后拦截 - 按order降序执行
+                    for (int i = interceptors.size() - 1; i >= 0; i--) {
+                        interceptors.get(i).afterResponse(requestCopy, httpResponse);
+                    }
+                    
+                    // 检查是否需要重试
+                    if (!currentRetryer.shouldRetry(requestCopy, httpResponse, null, retryCount)
+                            || !scheduleRetry(httpRequest, future, retryCount + 1, deadline)) {
+                        future.complete(httpResponse);
+                    }
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
                 }
-                
-                return null;
-            });
+                return;
+            }
+            
+            // 提取原始异常
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IOException
+                    && currentRetryer.shouldRetry(requestCopy, null, (IOException) cause, retryCount)
+                    && scheduleRetry(httpRequest, future, retryCount + 1, deadline)) {
+                return;
+            }
+            if (cause instanceof IOException && deadline != null && deadline - System.nanoTime() <= 0) {
+                // 受剩余时间限制的单次超时与总时限同时到期，按总时限到期报告
+                future.completeExceptionally(deadlineExceeded(httpRequest, cause));
+            } else {
+                future.completeExceptionally(cause);
+            }
+        });
+    }
+    
+    /**
+     * 用剩余时间限制超时时间，0表示不限制超时，此时直接使用剩余时间
+     */
+    private static int capTimeout(int timeout, int cap) {
+        return timeout <= 0 ? cap : Math.min(timeout, cap);
     }
     
     /**
      * 安排重试
+     * 
+     * @return 是否安排了重试，重试间隔结束时已超过总时限则不重试
      */
-    private void scheduleRetry(HttpRequest httpRequest, CompletableFuture<HttpResponse> future, int retryCount) {
+    private boolean scheduleRetry(HttpRequest httpRequest, CompletableFuture<HttpResponse> future, int retryCount, Long deadline) {
         // 获取延迟时间
         long delay = getRetryer().getDelay(retryCount);
+        if (deadline != null && deadline - (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay)) <= 0) {
+            return false;
+        }
         
-        // 安排延迟后的重试
-        scheduler.schedule(() -> executeAsync(httpRequest, future, retryCount), delay, TimeUnit.MILLISECONDS);
+        // 安排延迟后的重试，请求在等待期间结束时取消定时任务
+        HashedWheelTimer.Timeout timeout = HashedWheelTimer.newSharedTimeout(
+                () -> RetryExecutor.INSTANCE.execute(() -> executeAsync(httpRequest, future, retryCount, deadline)),
+                delay, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, ex) -> timeout.cancel());
+        return true;
+    }
+    
+    @Override
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+    
+    @Override
+    public long getDeadline() {
+        return deadline;
+    }
+    
+    @Override
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+    
+    @Override
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+    
+    /**
+     * 获取执行阻塞操作的执行器，配置了调度器时使用调度器的执行器
+     * 
+     * @param defaultExecutor 未配置调度器时使用的执行器
+     * @return 执行器
+     */
+    protected ExecutorService executorOr(ExecutorService defaultExecutor) {
+        Dispatcher currentDispatcher = dispatcher;
+        return currentDispatcher != null ? currentDispatcher.getExecutor() : defaultExecutor;
     }
     
     @Override
@@ -258,4 +399,24 @@ public abstract class AbstractHttpClient implements HttpClient {
     public int getReadTimeout() {
         return readTimeout;
     }
+    
+    /**
+     * 获取请求实际使用的连接超时时间，请求级配置优先
+     * 
+     * @param httpRequest HTTP请求对象
+     * @return 连接超时时间（毫秒）
+     */
+    protected int connectTimeoutOf(HttpRequest httpRequest) {
+        return httpRequest.getConnectTimeout() >= 0 ? httpRequest.getConnectTimeout() : connectTimeout;
+    }
+    
+    /**
+     * 获取请求实际使用的读取超时时间，请求级配置优先
+     * 
+     * @param httpRequest HTTP请求对象
+     * @return 读取超时时间（毫秒）
+     */
+    protected int readTimeoutOf(HttpRequest httpRequest) {
+        return httpRequest.getReadTimeout() >= 0 ? httpRequest.getReadTimeout() : readTimeout;
+    }
 }
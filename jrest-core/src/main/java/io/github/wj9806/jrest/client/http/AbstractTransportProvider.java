@@ -0,0 +1,42 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * TransportProvider基类，保存名称和能力
+ */
+public abstract class AbstractTransportProvider implements TransportProvider {
+
+    private final String name;
+    private final Set<TransportCapability> capabilities;
+
+    protected AbstractTransportProvider(String name, TransportCapability... capabilities) {
+        this.name = name;
+        EnumSet<TransportCapability> set = EnumSet.noneOf(TransportCapability.class);
+        Collections.addAll(set, capabilities);
+        this.capabilities = Collections.unmodifiableSet(set);
+    }
+
+    protected AbstractTransportProvider(ClientType clientType, TransportCapability... capabilities) {
+        this(clientType.getValue(), capabilities);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Set<TransportCapability> getCapabilities() {
+        return capabilities;
+    }
+
+    @Override
+    public String toString() {
+        return name + capabilities;
+    }
+}
@@ -2,53 +2,117 @@ package io.github.wj9806.jrest.client.http;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
-import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.concurrent.FutureCallback;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.SchemePortResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Apache HttpClient实现
+ * 同步和异步请求都通过异步客户端发送，共用一个连接池和I/O反应器线程。
+ * 连接池配置启用流水线时（见ConnectionPoolConfig#maxPipelinedRequests），异步的幂等请求按目标主机排队，
+ * 由流水线客户端成批发送到同一个连接上，其他请求仍使用普通的异步客户端。
+ * httpasyncclient 4.1的流水线客户端在一批请求完成后会关闭所用的连接，因此流水线深度越大，节省的连接和往返次数越多
  */
-public class ApacheHttpClient extends AbstractHttpClient {
+public class ApacheHttpClient extends AbstractHttpClient implements Closeable {
     
     private static final Logger logger = LoggerFactory.getLogger(ApacheHttpClient.class);
-    private final CloseableHttpClient httpClient;
+    // I/O反应器检查超时的间隔（毫秒），默认的1秒会使较短的读取超时和连接超时延迟生效
+    private static final long SELECT_INTERVAL = 50;
+    // 缓存的RequestConfig数量上限
+    private static final int MAX_CACHED_REQUEST_CONFIGS = 64;
     private final CloseableHttpAsyncClient asyncHttpClient;
+    // 由本类创建的连接池，使用外部传入的客户端时为null
+    private final PoolingNHttpClientConnectionManager asyncConnectionManager;
+    // 流水线客户端及其连接池，只在创建时的连接池配置启用流水线时存在
+    private final CloseableHttpPipeliningClient pipeliningClient;
+    private final PoolingNHttpClientConnectionManager pipeliningConnectionManager;
+    private final Map<HttpHost, Pipeline> pipelines = new ConcurrentHashMap<>();
+    private volatile ConnectionPoolConfig connectionPoolConfig;
+    // 按(连接超时, 读取超时)缓存的RequestConfig，超时时间受总时限限制时取值较多，超过上限后不再缓存
+    private final Map<Long, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
 
     public ApacheHttpClient() {
-        this.httpClient = buildHttpClient();
-        this.asyncHttpClient = buildAsyncHttpClient();
-        this.asyncHttpClient.start();
+        this(ConnectionPoolConfig.DEFAULT);
     }
-    
-    public ApacheHttpClient(CloseableHttpClient httpClient) {
-        this.httpClient = httpClient;
+
+    /**
+     * 使用指定的连接池配置创建客户端
+     *
+     * @param connectionPoolConfig 连接池配置
+     */
+    public ApacheHttpClient(ConnectionPoolConfig connectionPoolConfig) {
+        this.connectionPoolConfig = connectionPoolConfig;
+        this.asyncConnectionManager = buildAsyncConnectionManager();
         this.asyncHttpClient = buildAsyncHttpClient();
         this.asyncHttpClient.start();
+        if (connectionPoolConfig.isPipelining()) {
+            this.pipeliningConnectionManager = buildAsyncConnectionManager();
+            this.pipeliningClient = HttpAsyncClients.createPipelining(pipeliningConnectionManager);
+            this.pipeliningClient.start();
+        } else {
+            this.pipeliningConnectionManager = null;
+            this.pipeliningClient = null;
+        }
     }
     
-    public ApacheHttpClient(CloseableHttpClient httpClient, CloseableHttpAsyncClient asyncHttpClient) {
-        this.httpClient = httpClient;
+    /**
+     * 使用外部创建的异步客户端，同步和异步请求都通过该客户端发送
+     *
+     * @param asyncHttpClient 异步HttpClient，未启动时由本类启动
+     */
+    public ApacheHttpClient(CloseableHttpAsyncClient asyncHttpClient) {
+        this.connectionPoolConfig = ConnectionPoolConfig.DEFAULT;
+        this.asyncConnectionManager = null;
+        this.pipeliningConnectionManager = null;
+        this.pipeliningClient = null;
         this.asyncHttpClient = asyncHttpClient;
         if (!asyncHttpClient.isRunning()) {
             this.asyncHttpClient.start();
@@ -56,12 +120,24 @@ public class ApacheHttpClient extends AbstractHttpClient {
     }
     
     /**
-     * 构建HttpClient实例
+     * 构建异步连接池
      */
-    private CloseableHttpClient buildHttpClient() {
-        return HttpClients.custom()
-                .setDefaultRequestConfig(buildRequestConfig())
+    private PoolingNHttpClientConnectionManager buildAsyncConnectionManager() {
+        ConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom().setSelectInterval(SELECT_INTERVAL).build());
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Failed to create I/O reactor", e);
+        }
+        Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getDefaultStrategy())
                 .build();
+        PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(
+                ioReactor, null, registry, (SchemePortResolver) null, null,
+                connectionPoolConfig.getTimeToLive(), TimeUnit.MILLISECONDS);
+        applyPoolLimits(manager, connectionPoolConfig);
+        return manager;
     }
     
     /**
@@ -69,73 +145,189 @@ public class ApacheHttpClient extends AbstractHttpClient {
      */
     private CloseableHttpAsyncClient buildAsyncHttpClient() {
         return HttpAsyncClients.custom()
-                .setDefaultRequestConfig(buildRequestConfig())
+                .setConnectionManager(asyncConnectionManager)
+                .setDefaultRequestConfig(buildRequestConfig(getConnectTimeout(), getReadTimeout()))
                 .build();
     }
     
     /**
      * 构建RequestConfig实例
      */
-    private RequestConfig buildRequestConfig() {
+    private RequestConfig buildRequestConfig(int connectTimeout, int readTimeout) {
+        int leaseTimeout = connectionPoolConfig.getLeaseTimeout();
         return RequestConfig.custom()
-                .setConnectionRequestTimeout(getConnectTimeout())
-                .setConnectTimeout(getConnectTimeout())
-                .setSocketTimeout(getReadTimeout())
+                .setConnectionRequestTimeout(leaseTimeout >= 0 ? leaseTimeout : connectTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
                 .build();
     }
     
-    @Override
-    public void setConnectTimeout(int connectTimeout) {
-        super.setConnectTimeout(connectTimeout);
+    /**
+     * 获取请求实际使用的RequestConfig
+     */
+    private RequestConfig requestConfig(HttpRequest httpRequest) {
+        int connectTimeout = connectTimeoutOf(httpRequest);
+        int readTimeout = readTimeoutOf(httpRequest);
+        long key = ((long) connectTimeout << 32) | (readTimeout & 0xFFFFFFFFL);
+        RequestConfig config = requestConfigs.get(key);
+        if (config != null) {
+            return config;
+        }
+        if (requestConfigs.size() >= MAX_CACHED_REQUEST_CONFIGS) {
+            return buildRequestConfig(connectTimeout, readTimeout);
+        }
+        return requestConfigs.computeIfAbsent(key, k -> buildRequestConfig(connectTimeout, readTimeout));
     }
     
-    @Override
-    public void setReadTimeout(int readTimeout) {
-        super.setReadTimeout(readTimeout);
+    /**
+     * 为请求设置超时时间
+     * 自行创建的客户端总是使用当前的超时配置；外部传入的客户端只在请求指定了超时时间时覆盖其默认配置
+     */
+    private void applyRequestConfig(HttpRequestBase requestBase, HttpRequest httpRequest, boolean ownsClient) {
+        if (ownsClient || httpRequest.getConnectTimeout() >= 0 || httpRequest.getReadTimeout() >= 0) {
+            requestBase.setConfig(requestConfig(httpRequest));
+        }
+    }
+    
+    /**
+     * 获取连接池配置
+     *
+     * @return 连接池配置
+     */
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return connectionPoolConfig;
+    }
+    
+    /**
+     * 更新连接池配置
+     * 连接数上限、获取连接的超时时间和流水线深度立即生效，连接存活时间和是否启用流水线只在创建客户端时生效
+     *
+     * @param connectionPoolConfig 连接池配置
+     */
+    public synchronized void setConnectionPoolConfig(ConnectionPoolConfig connectionPoolConfig) {
+        if (connectionPoolConfig.getTimeToLive() != this.connectionPoolConfig.getTimeToLive()) {
+            logger.warn("timeToLive of an existing connection pool cannot be changed, keeping {}ms",
+                    this.connectionPoolConfig.getTimeToLive());
+        }
+        this.connectionPoolConfig = connectionPoolConfig;
+        requestConfigs.clear();
+        if (asyncConnectionManager != null) {
+            applyPoolLimits(asyncConnectionManager, connectionPoolConfig);
+        }
+        if (pipeliningConnectionManager != null) {
+            applyPoolLimits(pipeliningConnectionManager, connectionPoolConfig);
+        }
+    }
+    
+    /**
+     * 设置指定主机的最大连接数
+     *
+     * @param host 主机地址，可以是host、host:port或完整URL，未指定协议时按http处理
+     * @param max 最大连接数
+     */
+    public synchronized void setMaxConnectionsPerHost(String host, int max) {
+        setConnectionPoolConfig(connectionPoolConfig.toBuilder().maxPerHost(host, max).build());
+    }
+    
+    /**
+     * 获取连接池的统计，同步和异步请求共用该连接池
+     *
+     * @return 统计快照，使用外部传入的HttpClient时返回null
+     */
+    public ConnectionPoolStats getPoolStats() {
+        return asyncConnectionManager == null ? null : poolStats(asyncConnectionManager, asyncConnectionManager.getRoutes());
+    }
+    
+    /**
+     * 获取异步连接池的统计
+     *
+     * @return 统计快照，使用外部传入的异步HttpClient时返回null
+     * @deprecated 同步和异步请求已共用一个连接池，使用{@link #getPoolStats()}
+     */
+    @Deprecated
+    public ConnectionPoolStats getAsyncPoolStats() {
+        return getPoolStats();
+    }
+    
+    /**
+     * 获取流水线连接池的统计
+     *
+     * @return 统计快照，未启用流水线时返回null
+     */
+    public ConnectionPoolStats getPipeliningPoolStats() {
+        return pipeliningConnectionManager == null ? null
+                : poolStats(pipeliningConnectionManager, pipeliningConnectionManager.getRoutes());
+    }
+    
+    /**
+     * 将连接数上限应用到连接池
+     */
+    private static void applyPoolLimits(ConnPoolControl<HttpRoute> pool, ConnectionPoolConfig config) {
+        pool.setMaxTotal(config.getMaxTotal());
+        pool.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        config.getMaxPerHost().forEach((destination, max) -> pool.setMaxPerRoute(route(destination), max));
+    }
+    
+    /**
+     * 根据目标地址构建与路由规划结果一致的直连路由
+     */
+    private static HttpRoute route(String destination) {
+        URI uri = URI.create(destination);
+        HttpHost target = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+        return new HttpRoute(target, null, "https".equals(uri.getScheme()));
+    }
+    
+    private static ConnectionPoolStats poolStats(ConnPoolControl<HttpRoute> pool, Set<HttpRoute> routes) {
+        Map<String, ConnectionPoolStats> routeStats = new HashMap<>();
+        for (HttpRoute route : routes) {
+            PoolStats stats = pool.getStats(route);
+            routeStats.put(ConnectionPoolConfig.destination(route.getTargetHost().toURI()),
+                    new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+        }
+        PoolStats total = pool.getTotalStats();
+        return new ConnectionPoolStats(total.getLeased(), total.getPending(), total.getAvailable(), total.getMax(), routeStats);
     }
     
     /**
      * 构建Apache HttpRequest对象
      */
     private HttpRequestBase buildHttpRequest(HttpRequest httpRequest) throws Exception {
-        URIBuilder uriBuilder = new URIBuilder(httpRequest.getUrl());
-        
-        // 添加查询参数
-        if (httpRequest.getQueryParams() != null && !httpRequest.getQueryParams().isEmpty()) {
-            Set<Map.Entry<String, Object>> entries = httpRequest.getQueryParams().entrySet();
-            for (Map.Entry<String, Object> entry : entries) {
-                uriBuilder.addParameter(entry.getKey(), entry.getValue().toString());
-            }
+        // 构建带查询参数的URI
+        URI uri;
+        try {
+            uri = httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e);
         }
         
         // 根据HTTP方法创建相应的请求对象
         HttpRequestBase requestBase;
         switch (httpRequest.getMethod().toUpperCase()) {
             case "GET":
-                requestBase = new HttpGet(uriBuilder.build());
+                requestBase = new HttpGet(uri);
                 break;
             case "POST":
-                HttpPost httpPost = new HttpPost(uriBuilder.build());
+                HttpPost httpPost = new HttpPost(uri);
                 // 设置POST请求体
                 if (httpRequest.isFormData()) {
-                    setMultipartRequestBody(httpPost, httpRequest.getBody(), httpRequest.getFormData(), httpRequest.getMultipartFiles());
+                    setMultipartRequestBody(httpPost, httpRequest);
                 } else {
                     setRequestBody(httpPost, httpRequest.getBody());
                 }
                 requestBase = httpPost;
                 break;
             case "PUT":
-                HttpPut httpPut = new HttpPut(uriBuilder.build());
+                HttpPut httpPut = new HttpPut(uri);
                 // 设置PUT请求体
                 if (httpRequest.isFormData()) {
-                    setMultipartRequestBody(httpPut, httpRequest.getBody(), httpRequest.getFormData(), httpRequest.getMultipartFiles());
+                    setMultipartRequestBody(httpPut, httpRequest);
                 } else {
                     setRequestBody(httpPut, httpRequest.getBody());
                 }
                 requestBase = httpPut;
                 break;
             case "DELETE":
-                requestBase = new HttpDelete(uriBuilder.build());
+                requestBase = new HttpDelete(uri);
                 break;
             default:
                 throw new IllegalArgumentException("Unsupported HTTP method: " + httpRequest.getMethod());
@@ -161,106 +353,125 @@ public class ApacheHttpClient extends AbstractHttpClient {
         return requestBase;
     }
     
-    @Override
-    protected HttpResponse doExchange(HttpRequest httpRequest) throws IOException {
-        try {
-            HttpRequestBase requestBase = buildHttpRequest(httpRequest);
-            
-            logger.debug("Sending {} request to: {}", httpRequest.getMethod(), requestBase.getURI());
-            
-            try (CloseableHttpResponse response = httpClient.execute(requestBase)) {
-                return buildHttpResponse(response);
-            }
-            
-        } catch (URISyntaxException e) {
-            logger.error("Invalid URI syntax: {}", httpRequest.getUrl(), e);
-            throw new IOException("Invalid URI syntax", e);
-        } catch (Exception e) {
-            logger.error("Error building or executing request", e);
-            throw new IOException("Error processing request", e);
+    /**
+     * 设置请求体的Content-Type，请求体在发送时由encodeAndSend编码
+     */
+    private void setRequestBody(HttpEntityEnclosingRequestBase request, Object body) {
+        // 只有当请求没有设置Content-Type时，才添加默认的JSON Content-Type
+        if (body != null && request.getFirstHeader("Content-Type") == null) {
+            request.addHeader("Content-Type", "application/json");
         }
     }
     
     /**
-     * 设置请求体
+     * 在调用线程中编码请求体并发出请求：较小的请求体整体缓冲后发出；
+     * 较大的请求体超过缓冲长度时先发出请求，调用线程继续编码，边编码边发送，编码结束后才返回
      */
-    private void setRequestBody(HttpEntityEnclosingRequestBase request, Object body) throws Exception {
-        if (body != null) {
-            // 获取内容类型
-            String contentType = "application/json";
-            if (request.getFirstHeader("Content-Type") != null) {
-                contentType = request.getFirstHeader("Content-Type").getValue();
-            }
-            
-            // 使用编码器编码请求体
-            byte[] bytes = getCodecManager().selectEncoder(contentType).encode(body, contentType);
-            request.setEntity(new StringEntity(new String(bytes, StandardCharsets.UTF_8), "UTF-8"));
-            
-            // 只有当请求没有设置Content-Type时，才添加默认的JSON Content-Type
-            if (request.getFirstHeader("Content-Type") == null) {
-                request.addHeader("Content-Type", contentType);
-            }
+    private void encodeAndSend(HttpEntityEnclosingRequestBase request, HttpRequest httpRequest,
+                               CompletableFuture<HttpResponse> future) throws Exception {
+        String contentType = request.getFirstHeader("Content-Type").getValue();
+        EncodedBody encodedBody = EncodedBody.encode(getCodecManager().selectEncoder(contentType),
+                httpRequest.getBody(), contentType, streaming -> {
+                    request.setEntity(new EncodedEntity(streaming));
+                    send(request, httpRequest, future);
+                });
+        if (encodedBody.isBuffered()) {
+            request.setEntity(new ByteArrayEntity(encodedBody.getBytes()));
+            send(request, httpRequest, future);
         }
     }
 
     /**
      * 设置multipart请求体
+     * 文件内容在发送时才读取：总长度已知时以固定长度发送，较大的请求体由编码线程边读取边发送，不整体缓存在内存中
      */
-    private void setMultipartRequestBody(HttpEntityEnclosingRequestBase request, Object body, Map<String, Object> formData, Map<String, MultipartFile> multipartFiles) throws IOException {
-        MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-
-        // 添加表单字段
-        if (formData != null && !formData.isEmpty()) {
-            for (Map.Entry<String, Object> entry : formData.entrySet()) {
-                String name = entry.getKey();
-                Object value = entry.getValue();
-                if (value != null) {
-                    builder.addTextBody(name, value.toString(), ContentType.TEXT_PLAIN);
-                }
-            }
+    private void setMultipartRequestBody(HttpEntityEnclosingRequestBase request, HttpRequest httpRequest) throws Exception {
+        MultipartBody multipartBody = new MultipartBody(httpRequest);
+        EncodedBody encodedBody = EncodedBody.write(multipartBody::writeTo, multipartBody.contentLength());
+        AbstractHttpEntity entity = encodedBody.isBuffered() ? new ByteArrayEntity(encodedBody.getBytes()) : new EncodedEntity(encodedBody);
+        entity.setContentType(multipartBody.getContentType());
+        request.setEntity(entity);
+    }
+    
+    /**
+     * 关闭客户端，释放I/O反应器和连接池；流水线中尚未发送的请求以IOException失败。
+     * 使用外部传入的异步客户端时由调用方负责关闭
+     */
+    @Override
+    public void close() {
+        // 先让流水线中排队的请求失败，关闭客户端时结束的批次不会再发送下一批
+        for (Pipeline pipeline : pipelines.values()) {
+            pipeline.close();
         }
-
-        // 添加文件
-        if (multipartFiles != null && !multipartFiles.isEmpty()) {
-            for (Map.Entry<String, MultipartFile> entry : multipartFiles.entrySet()) {
-                String name = entry.getKey();
-                MultipartFile file = entry.getValue();
-
-                ContentType contentType = ContentType.APPLICATION_OCTET_STREAM;
-                if (file.getContentType() != null) {
-                    try {
-                        contentType = ContentType.parse(file.getContentType());
-                    } catch (Exception e) {
-                        logger.debug("Invalid content type: {}", file.getContentType(), e);
-                    }
-                }
-
-                // 不使用try-with-resources，让MultipartEntityBuilder自己管理InputStream的关闭
-                InputStream is = file.getInputStream();
-                builder.addBinaryBody(
-                    name,
-                    is,
-                    contentType,
-                    file.getOriginalFilename()
-                );
-            }
+        if (asyncConnectionManager != null) {
+            closeQuietly(asyncHttpClient);
+        }
+        if (pipeliningClient != null) {
+            closeQuietly(pipeliningClient);
+        }
+        pipelines.clear();
+        requestConfigs.clear();
+    }
+    
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("Error closing http client", e);
         }
-
-        // 设置实体
-        request.setEntity(builder.build());
     }
     
+    /**
+     * 较大的请求体在调用线程中边编码边发送，编码结束后才返回
+     */
     @Override
     protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
         CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        HttpRequestBase requestBase = null;
         
         try {
-            HttpRequestBase requestBase = buildHttpRequest(httpRequest);
+            requestBase = buildHttpRequest(httpRequest);
             
             logger.debug("Sending async {} request to: {}", httpRequest.getMethod(), requestBase.getURI());
             
+            applyRequestConfig(requestBase, httpRequest, asyncConnectionManager != null);
+            
+            if (requestBase instanceof HttpEntityEnclosingRequestBase && !httpRequest.isFormData()
+                    && httpRequest.getBody() != null) {
+                encodeAndSend((HttpEntityEnclosingRequestBase) requestBase, httpRequest, future);
+            } else {
+                send(requestBase, httpRequest, future);
+            }
+        } catch (IOException e) {
+            logger.error("Error building or executing request", e);
+            future.completeExceptionally(e);
+        } catch (Exception e) {
+            logger.error("Error building or executing request", e);
+            future.completeExceptionally(new IOException("Error processing request", e));
+        }
+        
+        if (requestBase != null && future.isCompletedExceptionally() && entityOf(requestBase) instanceof EncodedEntity) {
+            // 请求没有发出时停止写出，已发出的请求体由异步客户端在交换结束时关闭
+            ((EncodedEntity) entityOf(requestBase)).close();
+        }
+        
+        return future;
+    }
+    
+    /**
+     * 发出已构建的请求，失败时以异常结束future
+     */
+    private void send(HttpRequestBase requestBase, HttpRequest httpRequest, CompletableFuture<HttpResponse> future) {
+        try {
+            if (pipeliningClient != null && isPipelinable(httpRequest) && !(entityOf(requestBase) instanceof EncodedEntity)) {
+                HttpHost target = URIUtils.extractHost(requestBase.getURI());
+                pipelines.computeIfAbsent(target, Pipeline::new)
+                        .submit(new PipelinedRequest(requestBase, requestConfig(httpRequest), future));
+                return;
+            }
+            
             // 异步执行请求
-            asyncHttpClient.execute(requestBase, new FutureCallback<org.apache.http.HttpResponse>() {
+            Future<org.apache.http.HttpResponse> exchange = asyncHttpClient.execute(requestBase, new FutureCallback<org.apache.http.HttpResponse>() {
                 @Override
                 public void completed(org.apache.http.HttpResponse response) {
                     try {
@@ -281,12 +492,25 @@ public class ApacheHttpClient extends AbstractHttpClient {
                     future.cancel(true);
                 }
             });
-            
-        } catch (Exception e) {
-            future.completeExceptionally(e);
+            // 调用方取消时中止交换，连接关闭后从连接池中释放
+            future.whenComplete((response, ex) -> {
+                if (future.isCancelled()) {
+                    requestBase.abort();
+                    exchange.cancel(true);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Error executing request", e);
+            future.completeExceptionally(new IOException("Error processing request", e));
+            if (entityOf(requestBase) instanceof EncodedEntity) {
+                // 请求没有发出时关闭请求体，写出方随之停止
+                ((EncodedEntity) entityOf(requestBase)).close();
+            }
         }
-        
-        return future;
+    }
+    
+    private static HttpEntity entityOf(HttpRequestBase request) {
+        return request instanceof HttpEntityEnclosingRequestBase ? ((HttpEntityEnclosingRequestBase) request).getEntity() : null;
     }
     
     /**
@@ -295,7 +519,8 @@ public class ApacheHttpClient extends AbstractHttpClient {
     private HttpResponse buildHttpResponse(org.apache.http.HttpResponse response) throws IOException {
         int statusCode = response.getStatusLine().getStatusCode();
         HttpEntity entity = response.getEntity();
-        String body = entity != null ? EntityUtils.toString(entity, "UTF-8") : null;
+        // 按字节读取响应体，解码器直接从字节流解析，不经过字符串
+        byte[] body = entity != null ? EntityUtils.toByteArray(entity) : null;
         
         // 构建响应头
         Map<String, String> headers = new HashMap<>();
@@ -304,8 +529,257 @@ public class ApacheHttpClient extends AbstractHttpClient {
         }
         
         logger.debug("Response status code: {}", statusCode);
-        logger.debug("Response body: {}", body);
+        logger.debug("Response body size: {} bytes", body != null ? body.length : 0);
         
-        return new HttpResponse(statusCode, body, headers);
+        return HttpResponse.ofBody(statusCode, body, headers);
+    }
+    
+    /**
+     * 是否可以使用流水线发送：幂等且请求体可以重复读取
+     */
+    private static boolean isPipelinable(HttpRequest httpRequest) {
+        switch (httpRequest.getMethod().toUpperCase()) {
+            case "GET":
+            case "DELETE":
+                return true;
+            case "PUT":
+                return !httpRequest.isFormData() && !(httpRequest.getBody() instanceof InputStream);
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * 边编码边发送的请求体，长度未知时使用分块传输
+     * 异步客户端在连接可写时调用produceContent拉取编码线程产生的内容，暂时没有内容时挂起输出，
+     * 编码线程放入下一块后恢复，I/O线程不会阻塞等待编码
+     */
+    private static final class EncodedEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+        private final EncodedBody body;
+        private ByteBuffer chunk;
+        
+        EncodedEntity(EncodedBody body) {
+            this.body = body;
+            setChunked(body.getContentLength() < 0);
+        }
+        
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+        
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+        
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("Encoded request body can only be written");
+        }
+        
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            ByteBuffer next;
+            while ((next = body.take()) != null) {
+                out.write(next.array(), next.position(), next.remaining());
+            }
+        }
+        
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+        
+        @Override
+        public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+            while (true) {
+                if (chunk == null) {
+                    chunk = body.poll();
+                    if (chunk == null) {
+                        if (body.isFinished()) {
+                            encoder.complete();
+                        } else {
+                            ioControl.suspendOutput();
+                            body.onData(ioControl::requestOutput);
+                        }
+                        return;
+                    }
+                }
+                encoder.write(chunk);
+                if (chunk.hasRemaining()) {
+                    return;
+                }
+                chunk = null;
+            }
+        }
+        
+        @Override
+        public void close() {
+            body.close();
+        }
+    }
+    
+    /**
+     * 等待通过流水线发送的请求
+     */
+    private static final class PipelinedRequest {
+        final org.apache.http.HttpRequest request;
+        final RequestConfig config;
+        final CompletableFuture<HttpResponse> future;
+        
+        PipelinedRequest(HttpRequestBase requestBase, RequestConfig config, CompletableFuture<HttpResponse> future) {
+            // 流水线客户端不改写请求行，使用相对路径
+            URI uri = requestBase.getURI();
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            if (uri.getRawQuery() != null) {
+                path += "?" + uri.getRawQuery();
+            }
+            if (requestBase instanceof HttpEntityEnclosingRequestBase) {
+                BasicHttpEntityEnclosingRequest request = new BasicHttpEntityEnclosingRequest(requestBase.getMethod(), path);
+                request.setEntity(((HttpEntityEnclosingRequestBase) requestBase).getEntity());
+                this.request = request;
+            } else {
+                this.request = new BasicHttpRequest(requestBase.getMethod(), path);
+            }
+            this.request.setHeaders(requestBase.getAllHeaders());
+            this.config = config;
+            this.future = future;
+        }
+    }
+    
+    /**
+     * 单个目标主机的流水线队列
+     * 同时在途的批次数不超过该主机的最大连接数，连接都在使用时新请求在队列中积累，
+     * 下一个批次最多取出maxPipelinedRequests个超时配置相同的请求，在同一个连接上发送
+     */
+    private final class Pipeline {
+        private final HttpHost target;
+        private final ArrayDeque<PipelinedRequest> queue = new ArrayDeque<>();
+        private int inFlight;
+        private boolean closed;
+        
+        Pipeline(HttpHost target) {
+            this.target = target;
+        }
+        
+        void submit(PipelinedRequest request) {
+            List<PipelinedRequest> batch;
+            synchronized (this) {
+                if (closed) {
+                    request.future.completeExceptionally(new IOException("Client closed"));
+                    return;
+                }
+                queue.add(request);
+                batch = nextBatch();
+            }
+            send(batch);
+        }
+        
+        private List<PipelinedRequest> nextBatch() {
+            // 已取消的请求不再发送
+            queue.removeIf(request -> request.future.isDone());
+            ConnectionPoolConfig config = connectionPoolConfig;
+            int maxConnections = config.getMaxPerHost().getOrDefault(
+                    ConnectionPoolConfig.destination(target.toURI()), config.getMaxPerRoute());
+            if (closed || queue.isEmpty() || inFlight >= maxConnections) {
+                return null;
+            }
+            List<PipelinedRequest> batch = new ArrayList<>();
+            RequestConfig requestConfig = queue.peekFirst().config;
+            while (!queue.isEmpty() && batch.size() < config.getMaxPipelinedRequests()
+                    && queue.peekFirst().config.equals(requestConfig)) {
+                batch.add(queue.pollFirst());
+            }
+            inFlight++;
+            return batch;
+        }
+        
+        private void send(List<PipelinedRequest> batch) {
+            if (batch == null) {
+                return;
+            }
+            List<org.apache.http.HttpRequest> requests = new ArrayList<>(batch.size());
+            for (PipelinedRequest request : batch) {
+                requests.add(request.request);
+            }
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(batch.get(0).config);
+            logger.debug("Sending {} pipelined request(s) to: {}", batch.size(), target);
+            try {
+                Future<List<org.apache.http.HttpResponse>> exchange = pipeliningClient.execute(target, requests, context, new FutureCallback<List<org.apache.http.HttpResponse>>() {
+                    @Override
+                    public void completed(List<org.apache.http.HttpResponse> responses) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            try {
+                                batch.get(i).future.complete(buildHttpResponse(responses.get(i)));
+                            } catch (IOException e) {
+                                batch.get(i).future.completeExceptionally(e);
+                            }
+                        }
+                        done();
+                    }
+                    
+                    @Override
+                    public void failed(Exception ex) {
+                        batch.forEach(request -> request.future.completeExceptionally(ex));
+                        done();
+                    }
+                    
+                    @Override
+                    public void cancelled() {
+                        batch.forEach(request -> request.future.cancel(true));
+                        done();
+                    }
+                });
+                // 同一批次的请求共用一个连接，全部被取消后才中止交换
+                for (PipelinedRequest request : batch) {
+                    request.future.whenComplete((response, ex) -> {
+                        if (request.future.isCancelled() && batch.stream().allMatch(r -> r.future.isDone())) {
+                            exchange.cancel(true);
+                        }
+                    });
+                }
+            } catch (RuntimeException e) {
+                batch.forEach(request -> request.future.completeExceptionally(e));
+                sendNext();
+            }
+        }
+        
+        /**
+         * 批次结束后发送下一批
+         * 回调在I/O线程上执行，此时连接还没有释放回连接池，在回调中直接发送会导致连接被中止，因此换到流水线线程发送
+         */
+        private void done() {
+            PipelineExecutorHolder.INSTANCE.execute(this::sendNext);
+        }
+        
+        /**
+         * 客户端关闭，排队中的请求以IOException失败
+         */
+        void close() {
+            List<PipelinedRequest> queued;
+            synchronized (this) {
+                closed = true;
+                queued = new ArrayList<>(queue);
+                queue.clear();
+            }
+            for (PipelinedRequest request : queued) {
+                request.future.completeExceptionally(new IOException("Client closed"));
+            }
+        }
+        
+        private void sendNext() {
+            List<PipelinedRequest> batch;
+            synchronized (this) {
+                inFlight--;
+                batch = nextBatch();
+            }
+            send(batch);
+        }
+    }
+    
+    private static final class PipelineExecutorHolder {
+        static final ExecutorService INSTANCE = VirtualThreads.newExecutor("jrest-pipeline-");
     }
-}
\ No newline at end of file
+}
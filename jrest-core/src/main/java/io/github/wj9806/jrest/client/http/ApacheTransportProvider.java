@@ -0,0 +1,18 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * Apache HttpClient 4传输实现
+ */
+public class ApacheTransportProvider extends AbstractTransportProvider {
+
+    public ApacheTransportProvider() {
+        super(ClientType.APACHE, TransportCapability.ASYNC, TransportCapability.POOLED);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return connectionPoolConfig != null ? new ApacheHttpClient(connectionPoolConfig) : new ApacheHttpClient();
+    }
+}
@@ -0,0 +1,279 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 连接池配置
+ * 用于使用连接池的客户端（见ClientType#isPooled），包括总连接数、每个路由的连接数、按主机覆盖的连接数、
+ * 获取连接的超时时间、连接的最长存活时间以及每个连接上流水线请求的最大数量
+ */
+public final class ConnectionPoolConfig {
+
+    /**
+     * 默认连接池配置
+     */
+    public static final ConnectionPoolConfig DEFAULT = new Builder().build();
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final Map<String, Integer> maxPerHost;
+    private final int leaseTimeout;
+    private final long timeToLive;
+    private final int maxPipelinedRequests;
+
+    private ConnectionPoolConfig(Builder builder) {
+        this.maxTotal = builder.maxTotal;
+        this.maxPerRoute = builder.maxPerRoute;
+        this.maxPerHost = Collections.unmodifiableMap(new LinkedHashMap<>(builder.maxPerHost));
+        this.leaseTimeout = builder.leaseTimeout;
+        this.timeToLive = builder.timeToLive;
+        this.maxPipelinedRequests = builder.maxPipelinedRequests;
+    }
+
+    /**
+     * 获取连接池的最大连接数
+     *
+     * @return 最大连接数
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * 获取每个路由（目标地址）的默认最大连接数
+     *
+     * @return 每个路由的最大连接数
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * 获取按主机覆盖的最大连接数
+     *
+     * @return 目标地址（scheme://host:port）到最大连接数的映射
+     */
+    public Map<String, Integer> getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /**
+     * 获取从连接池获取连接的超时时间
+     *
+     * @return 超时时间（毫秒），小于0表示使用连接超时时间
+     */
+    public int getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    /**
+     * 获取连接的最长存活时间
+     *
+     * @return 存活时间（毫秒），小于等于0表示不限制
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * 获取每个连接上流水线请求的最大数量
+     *
+     * @return 最大数量，1表示不使用流水线
+     */
+    public int getMaxPipelinedRequests() {
+        return maxPipelinedRequests;
+    }
+
+    /**
+     * 是否启用请求流水线
+     *
+     * @return 是否启用
+     */
+    public boolean isPipelining() {
+        return maxPipelinedRequests > 1;
+    }
+
+    /**
+     * 基于当前配置创建Builder
+     *
+     * @return Builder实例
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder()
+                .maxTotal(maxTotal)
+                .maxPerRoute(maxPerRoute)
+                .leaseTimeout(leaseTimeout)
+                .timeToLive(timeToLive)
+                .maxPipelinedRequests(maxPipelinedRequests);
+        builder.maxPerHost.putAll(maxPerHost);
+        return builder;
+    }
+
+    /**
+     * 将主机地址规范化为scheme://host:port格式，未指定协议时按http处理；
+     * Unix domain socket地址规范化为unix://socket文件路径
+     *
+     * @param host 主机地址，可以是host、host:port、完整URL或unix://socket文件路径
+     * @return 规范化后的目标地址
+     */
+    static String destination(String host) {
+        String url = host.contains("://") ? host : "http://" + host;
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid host: " + host, e);
+        }
+        if ("unix".equalsIgnoreCase(uri.getScheme())) {
+            if (uri.getPath() == null || uri.getPath().isEmpty()) {
+                throw new IllegalArgumentException("Invalid unix domain socket: " + host);
+            }
+            return "unix://" + uri.getPath();
+        }
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("Invalid host: " + host);
+        }
+        return KeepAliveStats.destination(uri);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConnectionPoolConfig)) {
+            return false;
+        }
+        ConnectionPoolConfig that = (ConnectionPoolConfig) o;
+        return maxTotal == that.maxTotal
+                && maxPerRoute == that.maxPerRoute
+                && leaseTimeout == that.leaseTimeout
+                && timeToLive == that.timeToLive
+                && maxPipelinedRequests == that.maxPipelinedRequests
+                && maxPerHost.equals(that.maxPerHost);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxTotal;
+        result = 31 * result + maxPerRoute;
+        result = 31 * result + maxPerHost.hashCode();
+        result = 31 * result + leaseTimeout;
+        result = 31 * result + Long.hashCode(timeToLive);
+        result = 31 * result + maxPipelinedRequests;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolConfig{maxTotal=" + maxTotal + ", maxPerRoute=" + maxPerRoute
+                + ", maxPerHost=" + maxPerHost + ", leaseTimeout=" + leaseTimeout
+                + ", timeToLive=" + timeToLive + ", maxPipelinedRequests=" + maxPipelinedRequests + "}";
+    }
+
+    /**
+     * ConnectionPoolConfig建造者类
+     */
+    public static class Builder {
+        private int maxTotal = 200;
+        private int maxPerRoute = 20;
+        private final Map<String, Integer> maxPerHost = new LinkedHashMap<>();
+        private int leaseTimeout = -1;
+        private long timeToLive = -1;
+        private int maxPipelinedRequests = 1;
+
+        /**
+         * 设置连接池的最大连接数
+         *
+         * @param maxTotal 最大连接数
+         * @return Builder实例
+         */
+        public Builder maxTotal(int maxTotal) {
+            if (maxTotal <= 0) {
+                throw new IllegalArgumentException("maxTotal must be positive");
+            }
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * 设置每个路由（目标地址）的默认最大连接数
+         *
+         * @param maxPerRoute 每个路由的最大连接数
+         * @return Builder实例
+         */
+        public Builder maxPerRoute(int maxPerRoute) {
+            if (maxPerRoute <= 0) {
+                throw new IllegalArgumentException("maxPerRoute must be positive");
+            }
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * 为指定主机设置最大连接数，覆盖每个路由的默认值
+         *
+         * @param host 主机地址，可以是host、host:port、完整URL或unix://socket文件路径，未指定协议时按http处理
+         * @param max 最大连接数
+         * @return Builder实例
+         */
+        public Builder maxPerHost(String host, int max) {
+            if (max <= 0) {
+                throw new IllegalArgumentException("max connections of " + host + " must be positive");
+            }
+            this.maxPerHost.put(destination(host), max);
+            return this;
+        }
+
+        /**
+         * 设置从连接池获取连接的超时时间
+         *
+         * @param leaseTimeout 超时时间（毫秒），小于0表示使用连接超时时间
+         * @return Builder实例
+         */
+        public Builder leaseTimeout(int leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        /**
+         * 设置连接的最长存活时间，超过后连接不再被复用
+         * 只在创建客户端时生效
+         *
+         * @param timeToLive 存活时间（毫秒），小于等于0表示不限制
+         * @return Builder实例
+         */
+        public Builder timeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * 设置每个连接上流水线请求的最大数量
+         * 大于1时，幂等且请求体已缓冲的请求可以在收到前一个响应之前发送到同一个连接上，
+         * 只对NIO客户端和APACHE客户端的异步请求生效
+         *
+         * @param maxPipelinedRequests 最大数量，1表示不使用流水线
+         * @return Builder实例
+         */
+        public Builder maxPipelinedRequests(int maxPipelinedRequests) {
+            if (maxPipelinedRequests <= 0) {
+                throw new IllegalArgumentException("maxPipelinedRequests must be positive");
+            }
+            this.maxPipelinedRequests = maxPipelinedRequests;
+            return this;
+        }
+
+        /**
+         * 构建ConnectionPoolConfig实例
+         *
+         * @return ConnectionPoolConfig实例
+         */
+        public ConnectionPoolConfig build() {
+            return new ConnectionPoolConfig(this);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 连接池统计快照
+ * 包括正在使用、等待获取和空闲的连接数，以及每个路由（目标地址）的同类统计
+ */
+public final class ConnectionPoolStats {
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+    private final Map<String, ConnectionPoolStats> routes;
+
+    public ConnectionPoolStats(int leased, int pending, int available, int max) {
+        this(leased, pending, available, max, Collections.emptyMap());
+    }
+
+    public ConnectionPoolStats(int leased, int pending, int available, int max, Map<String, ConnectionPoolStats> routes) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+        this.routes = Collections.unmodifiableMap(new TreeMap<>(routes));
+    }
+
+    /**
+     * 获取正在使用的连接数
+     *
+     * @return 正在使用的连接数
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * 获取正在等待获取连接的请求数
+     *
+     * @return 等待获取连接的请求数
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * 获取空闲可复用的连接数
+     *
+     * @return 空闲连接数
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * 获取最大连接数
+     *
+     * @return 最大连接数
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * 获取每个路由的统计
+     *
+     * @return 目标地址（scheme://host:port）到统计的映射
+     */
+    public Map<String, ConnectionPoolStats> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * 获取指定主机的统计
+     *
+     * @param host 主机地址，可以是host、host:port或完整URL，未指定协议时按http处理
+     * @return 统计，连接池中没有该路由时返回null
+     */
+    public ConnectionPoolStats getRoute(String host) {
+        return routes.get(ConnectionPoolConfig.destination(host));
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{leased=" + leased + ", pending=" + pending
+                + ", available=" + available + ", max=" + max
+                + (routes.isEmpty() ? "" : ", routes=" + routes) + "}";
+    }
+}
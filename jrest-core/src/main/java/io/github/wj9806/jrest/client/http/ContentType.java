@@ -1,5 +1,8 @@
 package io.github.wj9806.jrest.client.http;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Content-Type枚举
  */
@@ -53,6 +56,43 @@ public enum ContentType {
         return value;
     }
     
+    /**
+     * 判断响应的Content-Type是否为二进制数据（非文本类型）
+     * @param contentType Content-Type，可以为null
+     * @return 是否为二进制数据
+     */
+    public static boolean isBinary(String contentType) {
+        return contentType != null &&
+                (contentType.startsWith("application/octet-stream") ||
+                 contentType.startsWith("image/") ||
+                 contentType.startsWith("audio/") ||
+                 contentType.startsWith("video/") ||
+                 contentType.endsWith("pdf") ||
+                 contentType.endsWith("zip") ||
+                 contentType.endsWith("rar"));
+    }
+    
+    /**
+     * 获取Content-Type中声明的字符集
+     * @param contentType Content-Type，可以为null
+     * @return charset参数指定的字符集，未指定或不支持时返回UTF-8
+     */
+    public static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String[] pair = parameter.trim().split("=", 2);
+                if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+                    try {
+                        return Charset.forName(pair[1].trim().replace("\"", ""));
+                    } catch (IllegalArgumentException e) {
+                        return StandardCharsets.UTF_8;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+    
     @Override
     public String toString() {
         return value;
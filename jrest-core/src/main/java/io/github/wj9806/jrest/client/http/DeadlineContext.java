@@ -0,0 +1,67 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用级的总时限
+ * 在当前线程中打开时限范围后，范围内发起的同步和异步请求都不能超过该时限，包括所有重试和重试间隔；
+ * 嵌套的范围取更早的时限，范围关闭后恢复外层的时限
+ * <pre>
+ * try (DeadlineContext.Scope scope = DeadlineContext.open(500, TimeUnit.MILLISECONDS)) {
+ *     client.getUser("octocat");
+ * }
+ * </pre>
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * 在当前线程中打开时限范围
+     *
+     * @param timeout 从现在开始的时长
+     * @param unit 时间单位
+     * @return 时限范围，关闭时恢复外层的时限
+     */
+    public static Scope open(long timeout, TimeUnit unit) {
+        Long previous = DEADLINE.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (previous != null && previous - deadline < 0) {
+            deadline = previous;
+        }
+        DEADLINE.set(deadline);
+        return new Scope(previous);
+    }
+
+    /**
+     * 获取当前线程的时限
+     *
+     * @return System.nanoTime()表示的截止时刻，没有打开时限范围时返回null
+     */
+    public static Long current() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * 时限范围
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Long previous;
+
+        private Scope(Long previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+}
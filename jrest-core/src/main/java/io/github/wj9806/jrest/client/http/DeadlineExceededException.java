@@ -0,0 +1,16 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 请求的总时限已到，包括所有重试和重试间隔
+ * 与单次尝试的读取超时（SocketTimeoutException）不同，该异常不会触发重试
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
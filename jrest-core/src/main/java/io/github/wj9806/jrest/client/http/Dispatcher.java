@@ -0,0 +1,378 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * 请求调度器，位于传输实现之前，限制同时执行的请求数
+ * 总数和单个目标地址（scheme://host:port）的在途请求数达到上限时，新请求进入有界的就绪队列，
+ * 有请求完成时按先进先出的顺序取出目标地址未满的请求，在执行器中发起；队列已满时按拒绝策略处理。
+ * 每次重试都重新经过调度器。同一个调度器可以由多个HttpClient共享，此时上限对它们整体生效
+ */
+public final class Dispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(Dispatcher.class);
+
+    /**
+     * 就绪队列已满时的拒绝策略
+     */
+    public enum RejectionPolicy {
+        /**
+         * 新请求以RejectedExecutionException失败
+         */
+        ABORT,
+        /**
+         * 队列中等待最久的请求以RejectedExecutionException失败，新请求入队
+         */
+        DISCARD_OLDEST
+    }
+
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final int maxQueuedRequests;
+    private final RejectionPolicy rejectionPolicy;
+    private final ExecutorService executor;
+
+    private final ArrayDeque<Call> readyCalls = new ArrayDeque<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private int running;
+    private long dispatched;
+    private long rejected;
+    private long queued;
+    private long totalWaitTime;
+    private long maxWaitTime;
+
+    private Dispatcher(Builder builder) {
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.maxQueuedRequests = builder.maxQueuedRequests;
+        this.rejectionPolicy = builder.rejectionPolicy;
+        this.executor = builder.executor != null ? builder.executor : DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * 获取同时执行的最大请求数
+     *
+     * @return 最大请求数
+     */
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * 获取单个目标地址同时执行的最大请求数
+     *
+     * @return 每个目标地址的最大请求数
+     */
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * 获取就绪队列的容量
+     *
+     * @return 最多排队的请求数
+     */
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * 获取拒绝策略
+     *
+     * @return 拒绝策略
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * 获取执行器，用于发起排队后被取出的请求，阻塞式的传输实现（NATIVE、IN_PROCESS）也在其中执行请求
+     *
+     * @return 执行器
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 调度一次请求
+     *
+     * @param httpRequest HTTP请求对象
+     * @param exchange 实际发起请求的函数
+     * @return 包含响应结果的CompletableFuture
+     */
+    CompletableFuture<HttpResponse> dispatch(HttpRequest httpRequest,
+                                             Function<HttpRequest, CompletableFuture<HttpResponse>> exchange) {
+        Call call = new Call(host(httpRequest), httpRequest, exchange);
+        Call discarded = null;
+        boolean start;
+        synchronized (this) {
+            // 队列中的请求都在等待已满的目标地址或总数上限，目标地址未满时可以直接执行
+            if (canRun(call.host)) {
+                markRunning(call, 0);
+                start = true;
+            } else if (readyCalls.size() < maxQueuedRequests) {
+                readyCalls.add(call);
+                queued++;
+                start = false;
+            } else if (rejectionPolicy == RejectionPolicy.DISCARD_OLDEST && maxQueuedRequests > 0) {
+                discarded = readyCalls.poll();
+                readyCalls.add(call);
+                queued++;
+                rejected++;
+                start = false;
+            } else {
+                rejected++;
+                call.future.completeExceptionally(new RejectedExecutionException(
+                        "Too many queued requests (" + maxQueuedRequests + "), rejected " + httpRequest.getUrl()));
+                return call.future;
+            }
+        }
+        if (discarded != null) {
+            discarded.future.completeExceptionally(new RejectedExecutionException(
+                    "Too many queued requests (" + maxQueuedRequests + "), discarded " + discarded.request.getUrl()));
+        }
+        if (start) {
+            start(call);
+        } else {
+            // 排队期间被取消的请求移出就绪队列，不再占用队列容量
+            call.future.whenComplete((response, ex) -> {
+                if (call.future.isCancelled()) {
+                    synchronized (this) {
+                        readyCalls.remove(call);
+                    }
+                }
+            });
+        }
+        return call.future;
+    }
+
+    /**
+     * 获取调度统计
+     *
+     * @return 统计快照
+     */
+    public synchronized DispatcherStats getStats() {
+        return new DispatcherStats(running, readyCalls.size(), dispatched, queued, rejected,
+                dispatched == 0 ? 0 : totalWaitTime / dispatched, maxWaitTime);
+    }
+
+    /**
+     * 获取指定目标地址正在执行的请求数
+     *
+     * @param host 主机地址，可以是host、host:port或完整URL，未指定协议时按http处理
+     * @return 正在执行的请求数
+     */
+    public synchronized int getRunningCount(String host) {
+        return runningPerHost.getOrDefault(ConnectionPoolConfig.destination(host), 0);
+    }
+
+    private void start(Call call) {
+        if (call.future.isDone()) {
+            // 从就绪队列取出后、开始执行前被取消
+            finished(call);
+            return;
+        }
+        CompletableFuture<HttpResponse> attempt;
+        try {
+            attempt = call.exchange.apply(call.request);
+        } catch (RuntimeException e) {
+            attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(e);
+        }
+        CompletableFuture<HttpResponse> running = attempt;
+        // 取消传递给传输实现，传输实现结束请求后释放并发名额
+        call.future.whenComplete((response, ex) -> running.cancel(true));
+        attempt.whenComplete((response, ex) -> {
+            finished(call);
+            if (ex != null) {
+                call.future.completeExceptionally(ex);
+            } else {
+                call.future.complete(response);
+            }
+        });
+    }
+
+    /**
+     * 请求结束，取出就绪队列中可以执行的请求
+     */
+    private void finished(Call call) {
+        List<Call> promoted = new ArrayList<>();
+        synchronized (this) {
+            running--;
+            int count = runningPerHost.get(call.host) - 1;
+            if (count == 0) {
+                runningPerHost.remove(call.host);
+            } else {
+                runningPerHost.put(call.host, count);
+            }
+            long now = System.nanoTime();
+            for (Iterator<Call> it = readyCalls.iterator(); it.hasNext() && running < maxRequests; ) {
+                Call next = it.next();
+                if (canRun(next.host)) {
+                    it.remove();
+                    markRunning(next, (now - next.createdAt) / 1_000_000);
+                    promoted.add(next);
+                }
+            }
+        }
+        // 完成回调可能在传输实现的I/O线程上执行，换到执行器中发起后续请求
+        for (Call next : promoted) {
+            try {
+                executor.execute(() -> start(next));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Dispatcher executor rejected request to {}", next.host);
+                finished(next);
+                next.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean canRun(String host) {
+        return running < maxRequests && runningPerHost.getOrDefault(host, 0) < maxRequestsPerHost;
+    }
+
+    private void markRunning(Call call, long waitTime) {
+        running++;
+        runningPerHost.merge(call.host, 1, Integer::sum);
+        dispatched++;
+        totalWaitTime += waitTime;
+        maxWaitTime = Math.max(maxWaitTime, waitTime);
+    }
+
+    private static String host(HttpRequest httpRequest) {
+        try {
+            return KeepAliveStats.destination(httpRequest.toUri());
+        } catch (IllegalArgumentException e) {
+            // URI无效的请求由传输实现报告错误，统一归入同一个分组
+            return String.valueOf(httpRequest.getUrl());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Dispatcher{maxRequests=" + maxRequests + ", maxRequestsPerHost=" + maxRequestsPerHost
+                + ", maxQueuedRequests=" + maxQueuedRequests + ", rejectionPolicy=" + rejectionPolicy + "}";
+    }
+
+    /**
+     * 一次经过调度器的请求
+     */
+    private static final class Call {
+        final String host;
+        final HttpRequest request;
+        final Function<HttpRequest, CompletableFuture<HttpResponse>> exchange;
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        final long createdAt = System.nanoTime();
+
+        Call(String host, HttpRequest request, Function<HttpRequest, CompletableFuture<HttpResponse>> exchange) {
+            this.host = host;
+            this.request = request;
+            this.exchange = exchange;
+        }
+    }
+
+    /**
+     * 未指定执行器时使用的共享线程池，首次使用时创建，启用虚拟线程时使用虚拟线程
+     */
+    private static final class DefaultExecutor {
+        static final ExecutorService INSTANCE = VirtualThreads.newExecutor("jrest-dispatcher-");
+    }
+
+    /**
+     * Dispatcher建造者类
+     */
+    public static class Builder {
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private int maxQueuedRequests = 1024;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+        private ExecutorService executor;
+
+        /**
+         * 设置同时执行的最大请求数，默认64
+         *
+         * @param maxRequests 最大请求数
+         * @return Builder实例
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests <= 0) {
+                throw new IllegalArgumentException("maxRequests must be positive");
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * 设置单个目标地址同时执行的最大请求数，默认5
+         *
+         * @param maxRequestsPerHost 每个目标地址的最大请求数
+         * @return Builder实例
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("maxRequestsPerHost must be positive");
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * 设置就绪队列的容量，默认1024，为0时达到上限的请求直接按拒绝策略处理
+         *
+         * @param maxQueuedRequests 最多排队的请求数
+         * @return Builder实例
+         */
+        public Builder maxQueuedRequests(int maxQueuedRequests) {
+            if (maxQueuedRequests < 0) {
+                throw new IllegalArgumentException("maxQueuedRequests must not be negative");
+            }
+            this.maxQueuedRequests = maxQueuedRequests;
+            return this;
+        }
+
+        /**
+         * 设置就绪队列已满时的拒绝策略，默认ABORT
+         *
+         * @param rejectionPolicy 拒绝策略
+         * @return Builder实例
+         */
+        public Builder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy, "rejectionPolicy");
+            return this;
+        }
+
+        /**
+         * 设置执行器，未设置时使用共享的线程池（见VirtualThreads）；执行器由调用方管理，调度器不会关闭它
+         *
+         * @param executor 执行器
+         * @return Builder实例
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 构建Dispatcher实例
+         *
+         * @return Dispatcher实例
+         */
+        public Dispatcher build() {
+            return new Dispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.wj9806.jrest.client.http;
+
+/**
+ * 调度器统计快照
+ * 包括正在执行和排队的请求数，累计发起、排队和被拒绝的请求数，以及请求在就绪队列中的等待时间
+ */
+public final class DispatcherStats {
+
+    private final int running;
+    private final int queued;
+    private final long dispatchedCount;
+    private final long queuedCount;
+    private final long rejectedCount;
+    private final long averageWaitTime;
+    private final long maxWaitTime;
+
+    public DispatcherStats(int running, int queued, long dispatchedCount, long queuedCount, long rejectedCount,
+                           long averageWaitTime, long maxWaitTime) {
+        this.running = running;
+        this.queued = queued;
+        this.dispatchedCount = dispatchedCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+        this.averageWaitTime = averageWaitTime;
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    /**
+     * 获取正在执行的请求数
+     *
+     * @return 正在执行的请求数
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * 获取就绪队列的当前深度
+     *
+     * @return 排队的请求数
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * 获取累计发起的请求数
+     *
+     * @return 累计发起的请求数
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount;
+    }
+
+    /**
+     * 获取累计进入就绪队列的请求数
+     *
+     * @return 累计排队的请求数
+     */
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * 获取累计被拒绝策略拒绝或丢弃的请求数
+     *
+     * @return 累计被拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 获取已发起请求在就绪队列中的平均等待时间，未排队直接发起的请求按0计算
+     *
+     * @return 平均等待时间（毫秒）
+     */
+    public long getAverageWaitTime() {
+        return averageWaitTime;
+    }
+
+    /**
+     * 获取已发起请求在就绪队列中的最长等待时间
+     *
+     * @return 最长等待时间（毫秒）
+     */
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatcherStats{running=" + running + ", queued=" + queued
+                + ", dispatchedCount=" + dispatchedCount + ", queuedCount=" + queuedCount
+                + ", rejectedCount=" + rejectedCount + ", averageWaitTime=" + averageWaitTime
+                + "ms, maxWaitTime=" + maxWaitTime + "ms}";
+    }
+}
@@ -0,0 +1,396 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.http.encode.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 按需拉取的请求体，供非阻塞传输实现使用
+ * 内容不超过{@link #BUFFER_LIMIT}时在调用线程中整体缓冲，长度已知；超过后改为流式写出，
+ * 内容按块放入有界队列，发送方取走一块写出方才继续写出，内存占用与请求体大小无关，第一块在写出完成前即可发送。
+ * 编码器编码的请求体超过缓冲长度时由调用线程继续同一次编码，已缓冲的内容作为最前面的块发送，不会重新编码；
+ * 只能读取一次的请求体（如文件流）在编码线程中写出
+ */
+final class EncodedBody {
+
+    /**
+     * 整体缓冲的请求体的最大长度，超过后改为流式发送
+     */
+    static final int BUFFER_LIMIT = 64 * 1024;
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_PENDING_CHUNKS = 8;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * 把请求体写入输出流，实现不应关闭输出流
+     */
+    interface Writer {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    private final byte[] bytes;
+    private final long contentLength;
+    private final BlockingQueue<ByteBuffer> chunks;
+    private final AtomicReference<Runnable> listener = new AtomicReference<>();
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private boolean finished;
+
+    private EncodedBody(byte[] bytes, long contentLength, BlockingQueue<ByteBuffer> chunks) {
+        this.bytes = bytes;
+        this.contentLength = contentLength;
+        this.chunks = chunks;
+    }
+
+    /**
+     * 在调用线程中使用编码器编码请求体。不超过缓冲长度时返回整体缓冲的请求体；
+     * 超过时先以流式请求体调用onStream发出请求，再在调用线程中继续编码，已缓冲的内容作为最前面的块，
+     * 调用线程随发送进度写出剩余内容，编码结束后才返回
+     *
+     * @param encoder 编码器
+     * @param body 请求体对象
+     * @param contentType 内容类型
+     * @param onStream 开始流式写出时调用，应当发出请求后立即返回，不能等待请求体写完
+     * @return 编码后的请求体，流式写出时已经写完或失败，失败通过请求体报告给发送方
+     * @throws Exception 开始流式写出前编码失败时抛出编码器的异常
+     */
+    static EncodedBody encode(Encoder encoder, Object body, String contentType,
+                              Consumer<EncodedBody> onStream) throws Exception {
+        SpillingOutputStream out = new SpillingOutputStream(onStream);
+        try {
+            encoder.encode(body, contentType, out);
+            if (out.streaming == null) {
+                return new EncodedBody(out.buffer.toByteArray(), out.buffer.size(), null);
+            }
+            out.pipe.finish();
+        } catch (Exception e) {
+            if (out.streaming == null) {
+                throw e;
+            }
+            out.streaming.fail(e);
+        }
+        return out.streaming;
+    }
+
+    /**
+     * 写出只能读取一次的请求体（如文件流）：长度已知且不超过缓冲长度时在调用线程中缓冲，否则在编码线程中流式写出
+     *
+     * @param writer 写出请求体
+     * @param contentLength 请求体长度，-1表示未知
+     * @return 请求体
+     * @throws Exception 在调用线程中写出失败时抛出的异常
+     */
+    static EncodedBody write(Writer writer, long contentLength) throws Exception {
+        if (contentLength >= 0 && contentLength <= BUFFER_LIMIT) {
+            EncodedBody buffered = buffer(writer);
+            if (buffered == null) {
+                throw new IOException("Request body is longer than its declared length " + contentLength);
+            }
+            return buffered;
+        }
+        return stream(writer, contentLength);
+    }
+
+    /**
+     * 在调用线程中写出到缓冲区
+     *
+     * @return 缓冲的请求体，超过缓冲长度时返回null
+     */
+    private static EncodedBody buffer(Writer writer) throws Exception {
+        LimitedBuffer buffer = new LimitedBuffer();
+        try {
+            writer.writeTo(buffer);
+            return new EncodedBody(buffer.toByteArray(), buffer.size(), null);
+        } catch (Exception e) {
+            if (buffer.overflowed) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static EncodedBody stream(Writer writer, long contentLength) {
+        EncodedBody encodedBody = new EncodedBody(null, contentLength, new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS));
+        EncoderExecutorHolder.INSTANCE.execute(() -> encodedBody.run(writer));
+        return encodedBody;
+    }
+
+    /**
+     * 请求体是否已整体缓冲
+     *
+     * @return 是否已整体缓冲
+     */
+    boolean isBuffered() {
+        return bytes != null;
+    }
+
+    /**
+     * 整体缓冲的请求体
+     *
+     * @return 请求体字节数组，流式写出时为null
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 请求体长度
+     *
+     * @return 请求体长度，-1表示未知
+     */
+    long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 取出下一块内容，暂时没有内容时返回null，不阻塞
+     *
+     * @return 下一块内容
+     * @throws IOException 写出失败或请求体已关闭
+     */
+    ByteBuffer poll() throws IOException {
+        if (finished) {
+            return null;
+        }
+        return next(chunks.poll());
+    }
+
+    /**
+     * 取出下一块内容，暂时没有内容时等待编码线程
+     *
+     * @return 下一块内容，写出结束后返回null
+     * @throws IOException 写出失败或请求体已关闭
+     */
+    ByteBuffer take() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            return next(chunks.take());
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request body");
+        }
+    }
+
+    /**
+     * 所有内容是否已经取出
+     *
+     * @return 是否已经取出
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 注册一次性的通知，编码线程放入下一块内容或写出结束时执行；已有内容时立即执行
+     *
+     * @param onData 通知
+     */
+    void onData(Runnable onData) {
+        listener.set(onData);
+        if (!chunks.isEmpty()) {
+            signal();
+        }
+    }
+
+    /**
+     * 关闭请求体，编码线程随之停止
+     */
+    void close() {
+        closed = true;
+        if (chunks != null) {
+            chunks.clear();
+        }
+    }
+
+    private ByteBuffer next(ByteBuffer chunk) throws IOException {
+        if (closed) {
+            throw new IOException("Request body closed");
+        }
+        if (chunk != END) {
+            return chunk;
+        }
+        finished = true;
+        if (failure != null) {
+            throw failure instanceof IOException ? (IOException) failure
+                    : new IOException("Error encoding request body", failure);
+        }
+        return null;
+    }
+
+    private void run(Writer writer) {
+        PipeOutputStream out = new PipeOutputStream();
+        try {
+            writer.writeTo(out);
+            out.finish();
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 写出失败，通知发送方
+     */
+    private void fail(Throwable e) {
+        failure = e;
+        if (!closed) {
+            try {
+                put(END);
+            } catch (IOException ignored) {
+                // 请求体已关闭
+            }
+        }
+    }
+
+    private void put(ByteBuffer chunk) throws IOException {
+        try {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    throw new IOException("Request body closed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing request body");
+        }
+        if (closed) {
+            chunks.clear();
+            throw new IOException("Request body closed");
+        }
+        signal();
+    }
+
+    private void signal() {
+        Runnable onData = listener.getAndSet(null);
+        if (onData != null) {
+            onData.run();
+        }
+    }
+
+    /**
+     * 调用线程中使用的缓冲区，超过缓冲长度时抛出异常结束写出
+     */
+    private static final class LimitedBuffer extends ByteArrayOutputStream {
+        boolean overflowed;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (count + len > BUFFER_LIMIT) {
+                overflowed = true;
+                throw new LimitExceededException();
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    /**
+     * 请求体超过缓冲长度，改为在编码线程中流式写出
+     */
+    private static final class LimitExceededException extends RuntimeException {
+        LimitExceededException() {
+            super("Request body exceeds " + BUFFER_LIMIT + " bytes", null, false, false);
+        }
+    }
+
+    /**
+     * 调用线程中编码使用的输出流，超过缓冲长度后开始流式写出，已缓冲的内容先放入队列
+     */
+    private static final class SpillingOutputStream extends OutputStream {
+        private final Consumer<EncodedBody> onStream;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        EncodedBody streaming;
+        PipeOutputStream pipe;
+
+        SpillingOutputStream(Consumer<EncodedBody> onStream) {
+            this.onStream = onStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (pipe == null) {
+                if (buffer.size() + len <= BUFFER_LIMIT) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                streaming = new EncodedBody(null, -1, new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS));
+                pipe = streaming.new PipeOutputStream();
+                onStream.accept(streaming);
+                buffer.writeTo(pipe);
+                buffer.reset();
+            }
+            pipe.write(b, off, len);
+        }
+    }
+
+    /**
+     * 流式写出使用的输出流，内容按块放入队列
+     */
+    private final class PipeOutputStream extends OutputStream {
+        private ByteBuffer chunk;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Request body closed");
+            }
+            while (len > 0) {
+                if (chunk == null) {
+                    chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                }
+                int n = Math.min(len, chunk.remaining());
+                chunk.put(b, off, n);
+                off += n;
+                len -= n;
+                if (!chunk.hasRemaining()) {
+                    flushChunk();
+                }
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (chunk != null && chunk.position() > 0) {
+                chunk.flip();
+                ByteBuffer full = chunk;
+                chunk = null;
+                put(full);
+            }
+        }
+
+        void finish() throws IOException {
+            flushChunk();
+            put(END);
+        }
+    }
+
+    private static final class EncoderExecutorHolder {
+        static final ExecutorService INSTANCE = VirtualThreads.newExecutor("jrest-encoder-");
+    }
+}
@@ -0,0 +1,507 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间轮定时器，用于重试、请求截止时间等大量短期定时任务
+ * 定时任务按到期时间放入环形数组的槽位中，添加和取消都是O(1)操作，由一个守护线程按固定的刻度推进时间轮，
+ * 执行到期的任务；精度为一个刻度，任务在工作线程中执行，应当很快返回，耗时的操作交给其他线程。
+ * 工作线程在添加第一个任务时启动，stop之后不能再添加任务。
+ * 共享实例由JRestClientFactory持有，最后一个工厂关闭时停止，尚未到期的任务转移到之后使用时重新创建的实例中
+ */
+public class HashedWheelTimer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private static HashedWheelTimer shared;
+    private static int sharedReferences;
+
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<HashedTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<HashedTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final Thread workerThread;
+    private final List<HashedTimeout> unprocessed = new ArrayList<>();
+    private volatile long startTime;
+    private long tick;
+
+    /**
+     * 使用10毫秒的刻度和512个槽位创建定时器
+     */
+    public HashedWheelTimer() {
+        this(10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * 创建定时器
+     *
+     * @param tickDuration 每个刻度的时长
+     * @param unit 时间单位
+     * @param ticksPerWheel 时间轮的槽位数，向上取整为2的幂
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]");
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.workerThread = new Thread(this::run, "jrest-timer-" + INSTANCE_COUNTER.incrementAndGet());
+        this.workerThread.setDaemon(true);
+    }
+
+    /**
+     * 获取共享的定时器，不存在或已停止时创建
+     *
+     * @return 共享的定时器
+     */
+    public static synchronized HashedWheelTimer shared() {
+        if (shared == null || shared.state.get() == STATE_SHUTDOWN) {
+            shared = new HashedWheelTimer();
+        }
+        return shared;
+    }
+
+    /**
+     * 在共享的定时器中添加定时任务，共享的定时器恰好被停止时在新的共享实例中添加
+     *
+     * @param task 到期时执行的任务
+     * @param delay 延迟时间
+     * @param unit 时间单位
+     * @return 定时任务的句柄，可用于取消
+     */
+    public static Timeout newSharedTimeout(Runnable task, long delay, TimeUnit unit) {
+        while (true) {
+            try {
+                return shared().newTimeout(task, delay, unit);
+            } catch (IllegalStateException e) {
+                logger.debug("Shared timer stopped while scheduling, retry on a new one");
+            }
+        }
+    }
+
+    /**
+     * 持有共享的定时器，与releaseShared成对调用
+     *
+     * @return 共享的定时器
+     */
+    public static synchronized HashedWheelTimer acquireShared() {
+        sharedReferences++;
+        return shared();
+    }
+
+    /**
+     * 释放共享的定时器，最后一个持有者释放时停止定时器；尚未到期的任务转移到新的共享实例中按原时间执行，
+     * 已创建的客户端中等待重试或截止时间的请求不受影响。没有未到期的任务时不会创建新的实例
+     */
+    public static void releaseShared() {
+        HashedWheelTimer timer;
+        synchronized (HashedWheelTimer.class) {
+            if (sharedReferences == 0 || --sharedReferences > 0 || shared == null) {
+                return;
+            }
+            timer = shared;
+            shared = null;
+        }
+        List<Timeout> unprocessed = timer.stop();
+        for (Timeout timeout : unprocessed) {
+            ((HashedTimeout) timeout).transfer(null);
+        }
+    }
+
+    /**
+     * 停止定时器，把尚未到期的任务转移到另一个定时器中，按原来的到期时间执行；
+     * 通过原句柄取消任务时，转移后的任务同时取消
+     *
+     * @param target 接收任务的定时器
+     */
+    public void transferTo(HashedWheelTimer target) {
+        if (target == this) {
+            throw new IllegalArgumentException("Cannot transfer timeouts to the same timer");
+        }
+        for (Timeout timeout : stop()) {
+            ((HashedTimeout) timeout).transfer(target);
+        }
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param task 到期时执行的任务
+     * @param delay 延迟时间
+     * @param unit 时间单位
+     * @return 定时任务的句柄，可用于取消
+     * @throws IllegalStateException 定时器已停止
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        start();
+        long deadline = System.nanoTime() + Math.max(unit.toNanos(delay), 0) - startTime;
+        HashedTimeout timeout = new HashedTimeout(task, deadline);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        // stop可能在start之后、入队之前已经取走了队列中的任务，这时入队的任务不会再被处理；
+        // 仍在队列中说明stop没有取走，移除后拒绝添加，已被取走的任务由stop返回给调用方
+        if (state.get() == STATE_SHUTDOWN && pendingTimeouts.remove(timeout)) {
+            pendingCount.decrementAndGet();
+            throw new IllegalStateException("HashedWheelTimer has been stopped");
+        }
+        return timeout;
+    }
+
+    /**
+     * 获取尚未到期也没有取消的任务数
+     *
+     * @return 任务数
+     */
+    public long pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 停止定时器
+     *
+     * @return 尚未执行也没有取消的任务
+     */
+    public List<Timeout> stop() {
+        if (Thread.currentThread() == workerThread) {
+            throw new IllegalStateException("HashedWheelTimer.stop() cannot be called from a timer task");
+        }
+        if (state.getAndSet(STATE_SHUTDOWN) != STATE_STARTED) {
+            List<Timeout> result = new ArrayList<>();
+            drainPending(result);
+            return result;
+        }
+        boolean interrupted = false;
+        while (workerThread.isAlive()) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(100);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        List<Timeout> result = new ArrayList<>(unprocessed);
+        drainPending(result);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void drainPending(List<Timeout> result) {
+        HashedTimeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                result.add(timeout);
+            }
+        }
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case STATE_INIT:
+                if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                    startTime = System.nanoTime();
+                    workerThread.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("HashedWheelTimer has been stopped");
+        }
+        // 等待工作线程初始化startTime
+        while (startTime == 0) {
+            Thread.yield();
+        }
+    }
+
+    private void run() {
+        do {
+            long deadline = waitForNextTick();
+            if (deadline > 0) {
+                processCancelled();
+                transferPending();
+                wheel[(int) (tick & mask)].expire(deadline, pendingTimeouts);
+                tick++;
+            }
+        } while (state.get() == STATE_STARTED);
+
+        for (Bucket bucket : wheel) {
+            bucket.drain(unprocessed);
+        }
+        processCancelled();
+    }
+
+    /**
+     * 等待到下一个刻度
+     *
+     * @return 当前时间相对startTime的纳秒数，定时器停止时返回-1
+     */
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - currentTime + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return currentTime;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (state.get() == STATE_SHUTDOWN) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 将新添加的任务放入对应的槽位，每个刻度最多处理10万个，避免工作线程长时间停在这里
+     */
+    private void transferPending() {
+        for (int i = 0; i < 100_000; i++) {
+            HashedTimeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // 已经过期的任务放入当前槽位，在本刻度执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelled() {
+        HashedTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * 定时任务的句柄
+     */
+    public interface Timeout {
+
+        /**
+         * 取消任务，已经执行或取消的任务返回false
+         *
+         * @return 是否取消成功
+         */
+        boolean cancel();
+
+        /**
+         * 任务是否已取消
+         *
+         * @return 是否已取消
+         */
+        boolean isCancelled();
+
+        /**
+         * 任务是否已到期执行
+         *
+         * @return 是否已执行
+         */
+        boolean isExpired();
+    }
+
+    /**
+     * 时间轮中的定时任务，同时是槽位中双向链表的节点
+     */
+    private final class HashedTimeout implements Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger taskState = new AtomicInteger(INIT);
+        long remainingRounds;
+        HashedTimeout next;
+        HashedTimeout prev;
+        Bucket bucket;
+        // 定时器停止时转移到的新任务
+        private volatile Timeout successor;
+
+        HashedTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!taskState.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrementAndGet();
+            // 由工作线程从槽位中移除，这里不加锁
+            cancelledTimeouts.add(this);
+            Timeout transferred = successor;
+            if (transferred != null) {
+                transferred.cancel();
+            }
+            return true;
+        }
+
+        /**
+         * 在另一个定时器中按原到期时间重新添加，到期时仍通过本句柄执行，保证任务最多执行一次
+         *
+         * @param target 接收任务的定时器，为null时使用共享的定时器
+         */
+        void transfer(HashedWheelTimer target) {
+            long remaining = startTime + deadline - System.nanoTime();
+            successor = target != null ? target.newTimeout(this::expire, remaining, TimeUnit.NANOSECONDS)
+                    : newSharedTimeout(this::expire, remaining, TimeUnit.NANOSECONDS);
+            if (isCancelled()) {
+                successor.cancel();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return taskState.get() == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return taskState.get() == EXPIRED;
+        }
+
+        void expire() {
+            if (!taskState.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.warn("Timer task {} threw an exception", task, e);
+            }
+        }
+    }
+
+    /**
+     * 时间轮的一个槽位，只由工作线程访问
+     */
+    private static final class Bucket {
+        private HashedTimeout head;
+        private HashedTimeout tail;
+
+        void add(HashedTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * 执行本槽位中到期的任务
+         *
+         * @param deadline 当前时间相对startTime的纳秒数
+         * @param pending 待放入槽位的任务队列，未到期却出现在本轮的任务放回队列，在下一个刻度重新放入正确的槽位
+         */
+        void expire(long deadline, Queue<HashedTimeout> pending) {
+            HashedTimeout timeout = head;
+            while (timeout != null) {
+                HashedTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else if (!timeout.isCancelled()) {
+                        // 任务总是放入正确的槽位，不应出现；抛出异常会终止唯一的工作线程，因此只记录日志
+                        logger.warn("Timeout {} is not due yet (deadline {} > {}), rescheduling", timeout.task, timeout.deadline, deadline);
+                        pending.add(timeout);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(HashedTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            HashedTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void drain(List<HashedTimeout> result) {
+            HashedTimeout timeout = head;
+            while (timeout != null) {
+                HashedTimeout next = timeout.next;
+                if (!timeout.isCancelled() && !timeout.isExpired()) {
+                    result.add(timeout);
+                }
+                remove(timeout);
+                timeout = next;
+            }
+        }
+    }
+}
@@ -102,4 +102,32 @@ public interface HttpClient {
      * @return 读取超时时间（毫秒）
      */
     int getReadTimeout();
-}
\ No newline at end of file
+    
+    /**
+     * 设置请求的总时限，包括所有重试和重试间隔
+     * 
+     * @param deadline 总时限（毫秒），小于0表示不限制
+     */
+    void setDeadline(long deadline);
+    
+    /**
+     * 获取请求的总时限
+     * 
+     * @return 总时限（毫秒），小于0表示不限制
+     */
+    long getDeadline();
+    
+    /**
+     * 设置请求调度器，限制同时执行的请求数
+     * 
+     * @param dispatcher 请求调度器，null表示不限制
+     */
+    void setDispatcher(Dispatcher dispatcher);
+    
+    /**
+     * 获取请求调度器
+     * 
+     * @return 请求调度器，未设置时为null
+     */
+    Dispatcher getDispatcher();
+}
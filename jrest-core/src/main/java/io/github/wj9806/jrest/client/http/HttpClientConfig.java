@@ -0,0 +1,333 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * HttpClient的有效配置
+ * 作为HttpClientFactory中客户端实例的键，配置相同的REST客户端共享同一个HttpClient（连接池、线程池和拦截器链），
+ * 配置不同的REST客户端相互隔离
+ * 重试策略、编解码器管理器、拦截器和调度器按实例比较
+ */
+public final class HttpClientConfig {
+
+    private final ClientType clientType;
+    private final String transport;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final Retryer retryer;
+    private final CodecManager codecManager;
+    private final List<HttpRequestInterceptor> interceptors;
+    private final ConnectionPoolConfig connectionPoolConfig;
+    private final Dispatcher dispatcher;
+    private final long deadline;
+
+    private HttpClientConfig(Builder builder) {
+        this.clientType = builder.clientType;
+        this.transport = builder.transport != null ? builder.transport.toLowerCase(Locale.ROOT) : clientType.getValue();
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.retryer = builder.retryer;
+        this.codecManager = builder.codecManager;
+        List<HttpRequestInterceptor> sorted = new ArrayList<>(builder.interceptors);
+        sorted.sort(Comparator.comparingInt(HttpRequestInterceptor::order));
+        this.interceptors = Collections.unmodifiableList(sorted);
+        // 连接池配置只对使用连接池的客户端有意义，其他类型忽略，避免无意义地拆分客户端实例
+        this.connectionPoolConfig = isPooled() ? builder.connectionPoolConfig : null;
+        this.dispatcher = builder.dispatcher;
+        this.deadline = builder.deadline;
+    }
+
+    /**
+     * 获取指定类型的默认配置
+     *
+     * @param clientType 客户端类型
+     * @return 默认配置
+     */
+    public static HttpClientConfig of(ClientType clientType) {
+        return new Builder().clientType(clientType).build();
+    }
+
+    private boolean isPooled() {
+        TransportProvider provider = TransportProviders.get(transport);
+        return provider != null ? provider.getCapabilities().contains(TransportCapability.POOLED) : clientType.isPooled();
+    }
+
+    /**
+     * 获取客户端类型
+     *
+     * @return 客户端类型，通过transport指定传输实现时为创建Builder时的默认值
+     */
+    public ClientType getClientType() {
+        return clientType;
+    }
+
+    /**
+     * 获取传输实现名称，对应TransportProvider#getName
+     *
+     * @return 传输实现名称，未指定时为客户端类型对应的名称
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * 获取连接超时时间
+     *
+     * @return 连接超时时间（毫秒）
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * 获取读取超时时间
+     *
+     * @return 读取超时时间（毫秒）
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * 获取重试策略
+     *
+     * @return 重试策略，null表示使用默认重试策略
+     */
+    public Retryer getRetryer() {
+        return retryer;
+    }
+
+    /**
+     * 获取编解码器管理器
+     *
+     * @return 编解码器管理器，null表示使用默认编解码器
+     */
+    public CodecManager getCodecManager() {
+        return codecManager;
+    }
+
+    /**
+     * 获取按order升序排列的拦截器
+     *
+     * @return 拦截器列表
+     */
+    public List<HttpRequestInterceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * 获取连接池配置
+     *
+     * @return 连接池配置，null表示使用默认配置
+     */
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return connectionPoolConfig;
+    }
+
+    /**
+     * 获取请求调度器
+     *
+     * @return 请求调度器，null表示不限制并发
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * 获取请求的总时限
+     *
+     * @return 总时限（毫秒），包括所有重试和重试间隔，小于0表示不限制
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpClientConfig)) {
+            return false;
+        }
+        HttpClientConfig that = (HttpClientConfig) o;
+        return transport.equals(that.transport)
+                && connectTimeout == that.connectTimeout
+                && readTimeout == that.readTimeout
+                && retryer == that.retryer
+                && codecManager == that.codecManager
+                && interceptors.equals(that.interceptors)
+                && Objects.equals(connectionPoolConfig, that.connectionPoolConfig)
+                && dispatcher == that.dispatcher
+                && deadline == that.deadline;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = transport.hashCode();
+        result = 31 * result + connectTimeout;
+        result = 31 * result + readTimeout;
+        result = 31 * result + System.identityHashCode(retryer);
+        result = 31 * result + System.identityHashCode(codecManager);
+        result = 31 * result + interceptors.hashCode();
+        result = 31 * result + Objects.hashCode(connectionPoolConfig);
+        result = 31 * result + System.identityHashCode(dispatcher);
+        result = 31 * result + Long.hashCode(deadline);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientConfig{transport=" + transport + ", connectTimeout=" + connectTimeout
+                + ", readTimeout=" + readTimeout + ", interceptors=" + interceptors.size()
+                + ", connectionPoolConfig=" + connectionPoolConfig + ", dispatcher=" + dispatcher + ", deadline=" + deadline + "}";
+    }
+
+    /**
+     * HttpClientConfig建造者类
+     */
+    public static class Builder {
+        private ClientType clientType = ClientType.NATIVE;
+        private String transport;
+        private int connectTimeout = 30000;
+        private int readTimeout = 30000;
+        private Retryer retryer;
+        private CodecManager codecManager;
+        private final List<HttpRequestInterceptor> interceptors = new ArrayList<>();
+        private ConnectionPoolConfig connectionPoolConfig;
+        private Dispatcher dispatcher;
+        private long deadline = -1;
+
+        /**
+         * 设置客户端类型
+         *
+         * @param clientType 客户端类型
+         * @return Builder实例
+         */
+        public Builder clientType(ClientType clientType) {
+            this.clientType = Objects.requireNonNull(clientType, "clientType");
+            this.transport = null;
+            return this;
+        }
+
+        /**
+         * 按名称指定传输实现，覆盖客户端类型
+         *
+         * @param transport 传输实现名称，对应TransportProvider#getName，不区分大小写
+         * @return Builder实例
+         */
+        public Builder transport(String transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * 设置连接超时时间
+         *
+         * @param connectTimeout 连接超时时间（毫秒）
+         * @return Builder实例
+         */
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * 设置读取超时时间
+         *
+         * @param readTimeout 读取超时时间（毫秒）
+         * @return Builder实例
+         */
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * 设置重试策略
+         *
+         * @param retryer 重试策略
+         * @return Builder实例
+         */
+        public Builder retryer(Retryer retryer) {
+            this.retryer = retryer;
+            return this;
+        }
+
+        /**
+         * 设置编解码器管理器
+         *
+         * @param codecManager 编解码器管理器
+         * @return Builder实例
+         */
+        public Builder codecManager(CodecManager codecManager) {
+            this.codecManager = codecManager;
+            return this;
+        }
+
+        /**
+         * 添加请求拦截器
+         *
+         * @param interceptors 请求拦截器
+         * @return Builder实例
+         */
+        public Builder addInterceptors(List<HttpRequestInterceptor> interceptors) {
+            for (HttpRequestInterceptor interceptor : interceptors) {
+                if (interceptor != null) {
+                    this.interceptors.add(interceptor);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 设置连接池配置，仅对使用连接池的传输实现（见TransportCapability#POOLED）生效
+         *
+         * @param connectionPoolConfig 连接池配置
+         * @return Builder实例
+         */
+        public Builder connectionPool(ConnectionPoolConfig connectionPoolConfig) {
+            this.connectionPoolConfig = connectionPoolConfig;
+            return this;
+        }
+
+        /**
+         * 设置请求调度器
+         *
+         * @param dispatcher 请求调度器
+         * @return Builder实例
+         */
+        public Builder dispatcher(Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * 设置请求的总时限，包括所有重试和重试间隔
+         *
+         * @param deadline 总时限（毫秒），小于0表示不限制
+         * @return Builder实例
+         */
+        public Builder deadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * 构建HttpClientConfig实例
+         *
+         * @return HttpClientConfig实例
+         */
+        public HttpClientConfig build() {
+            return new HttpClientConfig(this);
+        }
+    }
+}
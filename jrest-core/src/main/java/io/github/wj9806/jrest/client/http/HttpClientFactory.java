@@ -1,56 +1,189 @@
 package io.github.wj9806.jrest.client.http;
 
 import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * HttpClient工厂类
+ * 按有效配置缓存HttpClient实例：配置相同的客户端共享同一个实例，
+ * 配置不同的客户端拥有各自的连接池、线程池和拦截器链，互不影响；
+ * 实例由配置中的传输实现名称对应的TransportProvider创建。
+ * JRestClientFactory通过acquireHttpClient/releaseHttpClient按引用计数使用实例，最后一个工厂关闭时实例被移除并关闭；
+ * 通过createHttpClient直接获取的实例一直保留
  */
 public class HttpClientFactory {
 
-    // 使用volatile关键字确保多线程环境下的可见性
-    private static volatile HttpClient nativeClient;
-    private static volatile HttpClient apacheClient;
-    
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientFactory.class);
+
+    private static final Map<HttpClientConfig, Registration> clients = new HashMap<>();
+
+    /**
+     * 可选模块中的内置传输实现及其所在模块，用于提示缺少的依赖
+     */
+    private static final Map<String, String> OPTIONAL_MODULES = new HashMap<>();
+
+    static {
+        OPTIONAL_MODULES.put(ClientType.JDK_HTTP.getValue(), "jrest-jdk-http");
+        OPTIONAL_MODULES.put(ClientType.APACHE5.getValue(), "jrest-apache5");
+        OPTIONAL_MODULES.put(ClientType.NETTY.getValue(), "jrest-netty");
+        OPTIONAL_MODULES.put(ClientType.UDS.getValue(), "jrest-uds");
+    }
+
     /**
      * 私有构造函数，防止外部实例化
      */
     private HttpClientFactory() {
     }
-    
+
     /**
      * 获取HttpClient实例
-     * 同一种ClientType的Client只创建一次
-     * 使用双重检查锁定（Double-Checked Locking）确保线程安全和性能
-     * 
+     * 同一种ClientType的默认配置Client只创建一次
+     *
      * @param clientType 客户端类型枚举
      * @return HttpClient实例
      */
     public static HttpClient createHttpClient(ClientType clientType) {
+        return createHttpClient(HttpClientConfig.of(clientType));
+    }
+
+    /**
+     * 获取指定传输实现的默认配置HttpClient实例
+     *
+     * @param transport 传输实现名称，对应TransportProvider#getName
+     * @return HttpClient实例
+     */
+    public static HttpClient createHttpClient(String transport) {
+        return createHttpClient(new HttpClientConfig.Builder().transport(transport).build());
+    }
+
+    /**
+     * 获取HttpClient实例
+     * 同一配置的Client只创建一次，创建后不再修改其配置
+     *
+     * @param config HttpClient配置
+     * @return HttpClient实例
+     */
+    public static HttpClient createHttpClient(HttpClientConfig config) {
+        synchronized (clients) {
+            Registration registration = register(config);
+            // 直接获取的实例没有对应的释放操作，一直保留
+            registration.pinned = true;
+            return registration.httpClient;
+        }
+    }
+
+    /**
+     * 获取HttpClient实例并增加引用计数，与releaseHttpClient成对调用
+     * 同一配置的Client共享实例，所有引用都释放后从缓存中移除并关闭
+     *
+     * @param config HttpClient配置
+     * @return HttpClient实例
+     */
+    public static HttpClient acquireHttpClient(HttpClientConfig config) {
+        synchronized (clients) {
+            Registration registration = register(config);
+            registration.references++;
+            return registration.httpClient;
+        }
+    }
+
+    /**
+     * 释放acquireHttpClient获取的引用
+     * 最后一个引用释放时从缓存中移除，实现了Closeable的实例在进行中的请求全部结束后关闭
+     *
+     * @param config HttpClient配置
+     */
+    public static void releaseHttpClient(HttpClientConfig config) {
         HttpClient httpClient;
-        switch (clientType) {
-            case APACHE:
-                if (apacheClient == null) {
-                    synchronized (HttpClientFactory.class) {
-                        if (apacheClient == null) {
-                            apacheClient = new ApacheHttpClient();
-                        }
-                    }
-                }
-                httpClient = apacheClient;
-                break;
-            case NATIVE:
-            default:
-                if (nativeClient == null) {
-                    synchronized (HttpClientFactory.class) {
-                        if (nativeClient == null) {
-                            nativeClient = new NativeHttpClient();
-                        }
-                    }
-                }
-                httpClient = nativeClient;
-        }
-        
+        synchronized (clients) {
+            Registration registration = clients.get(config);
+            if (registration == null || registration.references == 0 || --registration.references > 0 || registration.pinned) {
+                return;
+            }
+            clients.remove(config);
+            httpClient = registration.httpClient;
+        }
+        if (!(httpClient instanceof Closeable)) {
+            return;
+        }
+        logger.debug("Closing http client for {}", config);
+        Runnable close = () -> {
+            try {
+                ((Closeable) httpClient).close();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Error closing http client for {}", config, e);
+            }
+        };
+        if (httpClient instanceof AbstractHttpClient) {
+            ((AbstractHttpClient) httpClient).whenIdle(close);
+        } else {
+            close.run();
+        }
+    }
+
+    /**
+     * 获取缓存中的HttpClient实例数
+     *
+     * @return 实例数
+     */
+    public static int getRegisteredClientCount() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    private static Registration register(HttpClientConfig config) {
+        Registration registration = clients.get(config);
+        if (registration == null) {
+            registration = new Registration(newHttpClient(config));
+            clients.put(config, registration);
+        }
+        return registration;
+    }
+
+    /**
+     * 根据配置创建并初始化HttpClient
+     */
+    private static HttpClient newHttpClient(HttpClientConfig config) {
+        logger.debug("Creating http client for {}", config);
+        TransportProvider provider = TransportProviders.get(config.getTransport());
+        if (provider == null) {
+            String module = OPTIONAL_MODULES.get(config.getTransport());
+            throw new IllegalStateException("Transport " + config.getTransport() + " is not available"
+                    + (module != null ? ", add " + module + " to the classpath" : ""));
+        }
+        HttpClient httpClient = provider.create(config.getConnectionPoolConfig());
+
+        httpClient.setConnectTimeout(config.getConnectTimeout());
+        httpClient.setReadTimeout(config.getReadTimeout());
+        if (config.getRetryer() != null) {
+            httpClient.setRetryer(config.getRetryer());
+        }
+        if (config.getCodecManager() != null) {
+            httpClient.setCodecManager(config.getCodecManager());
+        }
+        config.getInterceptors().forEach(httpClient::addInterceptor);
+        httpClient.setDispatcher(config.getDispatcher());
+        httpClient.setDeadline(config.getDeadline());
         return httpClient;
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * 缓存中的HttpClient及其引用计数
+     */
+    private static final class Registration {
+        final HttpClient httpClient;
+        int references;
+        boolean pinned;
+
+        Registration(HttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.wj9806.jrest.client.http;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +17,9 @@ public class HttpRequest {
     private Map<String, MultipartFile> multipartFiles;
     private Map<String, Object> formData;
     private boolean isFormData;
+    private int connectTimeout;
+    private int readTimeout;
+    private long deadline;
 
     /**
      * 检查是否为form-data请求
@@ -35,6 +39,9 @@ public class HttpRequest {
         this.multipartFiles = builder.multipartFiles;
         this.formData = builder.formData;
         this.isFormData = builder.isFormData;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.deadline = builder.deadline;
     }
 
     /**
@@ -45,6 +52,14 @@ public class HttpRequest {
         return url;
     }
 
+    /**
+     * 将请求URL和查询参数拼接为URI，供传输层直接使用
+     * @return 请求URI
+     */
+    public URI toUri() {
+        return UrlTemplate.toUri(url, queryParams);
+    }
+
     /**
      * 获取HTTP方法
      * @return HTTP方法
@@ -117,6 +132,30 @@ public class HttpRequest {
         return formData != null && !formData.isEmpty();
     }
 
+    /**
+     * 获取请求级连接超时时间
+     * @return 连接超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+    
+    /**
+     * 获取请求级读取超时时间
+     * @return 读取超时时间（毫秒），小于0表示使用客户端的配置
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+    
+    /**
+     * 获取请求的总时限，从发起请求开始计算，包括所有重试和重试间隔
+     * @return 总时限（毫秒），小于0表示使用客户端的配置
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
     /**
      * HttpRequest构建器
      */
@@ -130,6 +169,9 @@ public class HttpRequest {
         private Map<String, MultipartFile> multipartFiles = new HashMap<>();
         private Map<String, Object> formData = new HashMap<>();
         private boolean isFormData = false;
+        private int connectTimeout = -1;
+        private int readTimeout = -1;
+        private long deadline = -1;
         
         /**
          * 设置为form-data请求
@@ -181,6 +223,9 @@ public class HttpRequest {
             builder.multipartFiles(new HashMap<>(request.getMultipartFiles()));
             builder.formData(new HashMap<>(request.getFormData()));
             builder.isFormData = request.isFormData();
+            builder.connectTimeout = request.getConnectTimeout();
+            builder.readTimeout = request.getReadTimeout();
+            builder.deadline = request.getDeadline();
             return builder;
         }
 
@@ -334,6 +379,36 @@ public class HttpRequest {
             return this;
         }
 
+        /**
+         * 设置请求级连接超时时间，覆盖客户端的配置
+         * @param connectTimeout 连接超时时间（毫秒），小于0表示使用客户端的配置
+         * @return Builder实例
+         */
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+        
+        /**
+         * 设置请求级读取超时时间，覆盖客户端的配置
+         * @param readTimeout 读取超时时间（毫秒），小于0表示使用客户端的配置
+         * @return Builder实例
+         */
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+        
+        /**
+         * 设置请求的总时限，覆盖客户端的配置
+         * @param deadline 总时限（毫秒），包括所有重试和重试间隔，小于0表示使用客户端的配置
+         * @return Builder实例
+         */
+        public Builder deadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
         /**
          * 构建HttpRequest实例
          * @return HttpRequest实例
@@ -2,6 +2,8 @@ package io.github.wj9806.jrest.client.http;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -11,7 +13,15 @@ public class HttpResponse {
     private int statusCode;
     private String body;
     private byte[] binaryBody;
+    // 文本响应体的原始字节，第一次读取字符串时才按Content-Type的字符集解码
+    private byte[] rawBody;
     private Map<String, String> headers;
+    // 进程内调用时服务方返回的对象，读取响应体时才编码
+    private Object entity;
+    // entity的声明类型，泛型对象只有声明类型与接收方一致时才按引用返回
+    private Type entityType;
+    // 编码entity使用的编解码器管理器，为null时使用默认配置
+    private CodecManager entityCodecManager;
 
     public HttpResponse(int statusCode, String body, Map<String, String> headers) {
         this.statusCode = statusCode;
@@ -25,14 +35,122 @@ public class HttpResponse {
         this.headers = headers;
     }
 
+    /**
+     * 从传输层读取的响应体字节创建响应
+     * 二进制内容作为binaryBody；文本内容保留原始字节，解码器直接从字节流解析，调用getBody时才转换为字符串
+     *
+     * @param statusCode 状态码
+     * @param body 响应体字节
+     * @param headers 响应头
+     * @return 响应
+     */
+    public static HttpResponse ofBody(int statusCode, byte[] body, Map<String, String> headers) {
+        if (ContentType.isBinary(contentType(headers))) {
+            return new HttpResponse(statusCode, body, headers);
+        }
+        HttpResponse response = new HttpResponse(statusCode, (String) null, headers);
+        response.rawBody = body;
+        return response;
+    }
+
+    /**
+     * 创建携带对象的响应，用于进程内调用
+     * 字符串和字节数组直接作为响应体，其他对象在第一次读取响应体时按Content-Type编码
+     *
+     * @param statusCode 状态码
+     * @param entity 响应对象
+     * @param headers 响应头
+     * @return 响应
+     */
+    public static HttpResponse ofEntity(int statusCode, Object entity, Map<String, String> headers) {
+        return ofEntity(statusCode, entity, null, headers);
+    }
+
+    /**
+     * 创建携带对象及其声明类型的响应，用于进程内调用
+     * 运行时无法获取泛型参数，接收方的返回类型带泛型参数时，只有声明类型完全一致才直接使用该对象，否则经过编解码
+     *
+     * @param statusCode 状态码
+     * @param entity 响应对象
+     * @param entityType 响应对象的声明类型，如List&lt;Order&gt;，可以为null
+     * @param headers 响应头
+     * @return 响应
+     */
+    public static HttpResponse ofEntity(int statusCode, Object entity, Type entityType, Map<String, String> headers) {
+        if (entity == null || entity instanceof String) {
+            return new HttpResponse(statusCode, (String) entity, headers);
+        }
+        if (entity instanceof byte[]) {
+            return new HttpResponse(statusCode, (byte[]) entity, headers);
+        }
+        HttpResponse response = new HttpResponse(statusCode, (String) null, headers);
+        response.entity = entity;
+        response.entityType = entityType;
+        return response;
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
 
     public String getBody() {
+        if (body == null) {
+            if (rawBody != null) {
+                body = new String(rawBody, ContentType.charsetOf(contentType(headers)));
+            } else if (entity != null) {
+                body = encodeEntity();
+            }
+        }
         return body;
     }
 
+    /**
+     * 获取文本响应体未解码的原始字节
+     *
+     * @return 原始字节，不是通过ofBody创建的文本响应返回null
+     */
+    public byte[] getRawBody() {
+        return rawBody;
+    }
+
+    /**
+     * 获取进程内调用时服务方返回的对象
+     *
+     * @return 响应对象，不是通过ofEntity创建的响应返回null
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    /**
+     * 获取进程内调用时服务方返回对象的声明类型
+     *
+     * @return 声明类型，未指定时返回null
+     */
+    public Type getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * 设置编码响应对象使用的编解码器管理器
+     */
+    void setEntityCodecManager(CodecManager entityCodecManager) {
+        this.entityCodecManager = entityCodecManager;
+    }
+
+    private String encodeEntity() {
+        String contentType = headers != null ? headers.get("Content-Type") : null;
+        if (contentType == null) {
+            contentType = "application/json";
+        }
+        CodecManager codecManager = entityCodecManager != null ? entityCodecManager : new CodecManager();
+        try {
+            return new String(codecManager.selectEncoder(contentType).encode(entity, contentType), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException("Error encoding response entity", e);
+        }
+    }
+
     public byte[] getBinaryBody() {
         return binaryBody;
     }
@@ -41,10 +159,31 @@ public class HttpResponse {
         return headers;
     }
 
+    /**
+     * 获取响应头中的Content-Type，响应头名称不区分大小写
+     */
+    private static String contentType(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+        String contentType = headers.get("Content-Type");
+        if (contentType != null) {
+            return contentType;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
     public InputStream getBodyAsStream() {
         if (binaryBody != null) {
             return new ByteArrayInputStream(binaryBody);
-        } else if (body != null) {
+        } else if (rawBody != null) {
+            return new ByteArrayInputStream(rawBody);
+        } else if (getBody() != null) {
             return new ByteArrayInputStream(body.getBytes());
         } else {
             return new ByteArrayInputStream(new byte[0]);
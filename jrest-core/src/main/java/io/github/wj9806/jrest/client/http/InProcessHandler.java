@@ -0,0 +1,31 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.io.IOException;
+
+/**
+ * 进程内请求处理器，由同一JVM中提供服务的一方实现，并通过InProcessRegistry注册到服务的基础URL上
+ */
+@FunctionalInterface
+public interface InProcessHandler {
+
+    /**
+     * 处理请求
+     * 请求体按引用传递时为调用方传入的原始对象，否则为按Content-Type编码后的字节数组；
+     * 表单、multipart和输入流请求体总是按原样传递
+     *
+     * @param request 请求
+     * @return 响应，可以通过HttpResponse#ofEntity返回对象，是否编码由客户端决定
+     * @throws IOException 处理失败，与网络异常一样参与重试判断
+     */
+    HttpResponse handle(HttpRequest request) throws IOException;
+
+    /**
+     * 是否按引用传递请求体和响应对象
+     * 开启后双方共享同一个对象，不再经过编解码，调用方和服务方都不应修改传递的对象
+     *
+     * @return 是否按引用传递
+     */
+    default boolean isPassByReference() {
+        return false;
+    }
+}
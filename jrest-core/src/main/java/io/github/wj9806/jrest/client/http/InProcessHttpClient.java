@@ -0,0 +1,132 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 进程内调用实现，将请求直接交给InProcessRegistry中注册的本地处理器，不经过socket和HTTP解析
+ * 拦截器和重试与其他实现一致；默认按Content-Type编解码请求体和响应体，与网络调用的语义相同，
+ * 处理器声明按引用传递时直接共享对象。处理器在线程池中执行，连接和读取超时不生效
+ */
+public class InProcessHttpClient extends AbstractHttpClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessHttpClient.class);
+
+    private final InProcessRegistry registry;
+    private final ExecutorService executorService;
+    // 线程池是否由本类创建，关闭客户端时一并关闭
+    private final boolean ownsExecutor;
+
+    public InProcessHttpClient() {
+        this(InProcessRegistry.getInstance());
+    }
+
+    public InProcessHttpClient(InProcessRegistry registry) {
+        this(registry, VirtualThreads.newExecutor("jrest-in-process-"), true);
+    }
+
+    public InProcessHttpClient(InProcessRegistry registry, ExecutorService executorService) {
+        this(registry, executorService, false);
+    }
+
+    private InProcessHttpClient(InProcessRegistry registry, ExecutorService executorService, boolean ownsExecutor) {
+        this.registry = registry;
+        this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * 关闭客户端，由本类创建的线程池随之关闭；外部传入的线程池由调用方负责关闭
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 在当前线程中调用处理器，由doExchangeAsync在线程池中调用
+     */
+    private HttpResponse doExchange(HttpRequest httpRequest) throws IOException {
+        URI uri = httpRequest.toUri();
+        InProcessHandler handler = registry.getHandler(uri);
+        if (handler == null) {
+            throw new ConnectException("No in-process handler registered for " + KeepAliveStats.destination(uri));
+        }
+        boolean byReference = handler.isPassByReference();
+        HttpRequest request = byReference ? httpRequest : encode(httpRequest);
+        HttpResponse response;
+        try {
+            response = handler.handle(request);
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // 与通过网络访问时一致，服务方的未处理异常表现为500响应
+            logger.error("In-process handler failed: {} {}", httpRequest.getMethod(), uri, e);
+            return new HttpResponse(500, e.toString(), Collections.singletonMap("Content-Type", "text/plain"));
+        }
+        if (response == null || response.getEntity() == null) {
+            return response;
+        }
+        response.setEntityCodecManager(getCodecManager());
+        return byReference ? response : new HttpResponse(response.getStatusCode(), response.getBody(), response.getHeaders());
+    }
+
+    @Override
+    protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        Future<?> task = executorOr(executorService).submit(() -> {
+            try {
+                future.complete(doExchange(httpRequest));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        // 取消时中断正在执行的处理器，尚未开始的任务不再执行
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 按Content-Type将请求体编码为字节数组，与发送到网络上的内容一致
+     */
+    private HttpRequest encode(HttpRequest httpRequest) {
+        Object body = httpRequest.getBody();
+        if (body == null || body instanceof byte[] || body instanceof InputStream || httpRequest.isFormData()) {
+            return httpRequest;
+        }
+        HttpRequest.Builder builder = HttpRequest.Builder.newBuilder(httpRequest);
+        String contentType = null;
+        for (Map.Entry<String, String> header : httpRequest.getHeaders().entrySet()) {
+            if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                contentType = header.getValue();
+            }
+        }
+        if (contentType == null) {
+            contentType = "application/json; charset=UTF-8";
+            builder.header("Content-Type", contentType);
+        }
+        try {
+            return builder.body(getCodecManager().selectEncoder(contentType).encode(body, contentType)).build();
+        } catch (Exception e) {
+            logger.error("Error encoding request body", e);
+            throw new RuntimeException(e);
+        }
+    }
+}
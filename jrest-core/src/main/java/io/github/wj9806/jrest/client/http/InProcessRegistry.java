@@ -0,0 +1,69 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内请求处理器注册表
+ * 处理器按目标地址（协议、主机和端口）注册，路径由处理器自己路由，与通过网络访问时一致
+ */
+public class InProcessRegistry {
+
+    private static final InProcessRegistry INSTANCE = new InProcessRegistry();
+
+    private final Map<String, InProcessHandler> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * 获取全局注册表实例
+     *
+     * @return 注册表实例
+     */
+    public static InProcessRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册处理器，同一目标地址已有处理器时替换
+     *
+     * @param baseUrl 服务的基础URL，如http://orders或http://localhost:8080
+     * @param handler 处理器
+     */
+    public void register(String baseUrl, InProcessHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+        handlers.put(ConnectionPoolConfig.destination(baseUrl), handler);
+    }
+
+    /**
+     * 注销处理器
+     *
+     * @param baseUrl 服务的基础URL
+     * @return 被注销的处理器，不存在时返回null
+     */
+    public InProcessHandler unregister(String baseUrl) {
+        return handlers.remove(ConnectionPoolConfig.destination(baseUrl));
+    }
+
+    /**
+     * 获取请求地址对应的处理器
+     *
+     * @param uri 请求地址
+     * @return 处理器，未注册时返回null
+     */
+    public InProcessHandler getHandler(URI uri) {
+        return handlers.get(KeepAliveStats.destination(uri));
+    }
+
+    /**
+     * 判断两个URL是否指向同一个目标地址（协议、主机和端口相同）
+     *
+     * @param url URL
+     * @param other 另一个URL
+     * @return 是否为同一个目标地址
+     */
+    public static boolean isSameDestination(String url, String other) {
+        return ConnectionPoolConfig.destination(url).equals(ConnectionPoolConfig.destination(other));
+    }
+}
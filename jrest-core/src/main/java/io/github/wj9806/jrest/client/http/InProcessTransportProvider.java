@@ -0,0 +1,18 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * 进程内调用传输实现
+ */
+public class InProcessTransportProvider extends AbstractTransportProvider {
+
+    public InProcessTransportProvider() {
+        super(ClientType.IN_PROCESS);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return new InProcessHttpClient();
+    }
+}
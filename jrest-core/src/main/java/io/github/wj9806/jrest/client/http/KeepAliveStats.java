@@ -0,0 +1,210 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpURLConnection连接复用的估计统计
+ * JDK的keep-alive缓存是JVM级别的，不对外暴露是否命中，这里按照与之相同的规则
+ * （每个目标地址最多缓存http.maxConnections个空闲连接，空闲超过超时时间后失效）
+ * 模拟本客户端归还和获取的连接，推算命中和未命中次数。
+ * 所有数值都是估计值，不是实际连接池的统计：服务端提前关闭空闲连接、同一JVM中其他代码使用HttpURLConnection
+ * 等情况都会使其与实际复用情况不一致。只统计收到响应的请求，建立连接失败的请求不计入
+ */
+public class KeepAliveStats {
+
+    /**
+     * JDK默认每个目标地址缓存的空闲连接数
+     */
+    static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+    /**
+     * JDK默认的空闲连接超时时间（秒）
+     */
+    static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 5;
+
+    private static final KeepAliveStats INSTANCE = new KeepAliveStats();
+
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    KeepAliveStats() {
+    }
+
+    /**
+     * 获取JVM共享的统计实例
+     *
+     * @return KeepAliveStats实例
+     */
+    public static KeepAliveStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取估计的连接复用命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * 获取估计的连接复用未命中次数（新建连接次数）
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 获取估计的连接复用命中率
+     *
+     * @return 命中率，没有请求时返回0
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * 获取指定目标地址的命中次数
+     *
+     * @param destination 目标地址，格式为scheme://host:port
+     * @return 命中次数
+     */
+    public long getHits(String destination) {
+        Destination d = destinations.get(destination);
+        return d == null ? 0 : d.hits.get();
+    }
+
+    /**
+     * 获取指定目标地址的未命中次数
+     *
+     * @param destination 目标地址，格式为scheme://host:port
+     * @return 未命中次数
+     */
+    public long getMisses(String destination) {
+        Destination d = destinations.get(destination);
+        return d == null ? 0 : d.misses.get();
+    }
+
+    /**
+     * 获取指定目标地址估计的可复用空闲连接数
+     *
+     * @param destination 目标地址，格式为scheme://host:port
+     * @return 空闲连接数
+     */
+    public int getIdleConnections(String destination) {
+        Destination d = destinations.get(destination);
+        return d == null ? 0 : d.idleCount(System.currentTimeMillis());
+    }
+
+    /**
+     * 获取所有目标地址的命中和未命中次数
+     *
+     * @return 目标地址到[命中次数, 未命中次数]的映射
+     */
+    public Map<String, long[]> getDestinations() {
+        Map<String, long[]> result = new TreeMap<>();
+        destinations.forEach((key, d) -> result.put(key, new long[]{d.hits.get(), d.misses.get()}));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        destinations.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "KeepAliveStats{hits=" + hits.get() + ", misses=" + misses.get() + "}";
+    }
+
+    /**
+     * 获取URI对应的目标地址
+     */
+    static String destination(URI uri) {
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equals(scheme) ? 443 : 80;
+        }
+        return scheme + "://" + (uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT)) + ":" + port;
+    }
+
+    /**
+     * 收到响应后记录本次请求使用的连接，模拟的缓存中存在未过期的空闲连接时计为命中
+     */
+    void acquire(String destination) {
+        Destination d = destinations.computeIfAbsent(destination, key -> new Destination());
+        if (d.poll(System.currentTimeMillis())) {
+            d.hits.incrementAndGet();
+            hits.incrementAndGet();
+        } else {
+            d.misses.incrementAndGet();
+            misses.incrementAndGet();
+        }
+    }
+
+    /**
+     * 响应体读取完毕并关闭后，连接被放回JDK的keep-alive缓存
+     *
+     * @param destination 目标地址
+     * @param serverTimeoutSeconds 服务器通过Keep-Alive头指定的超时时间，-1表示未指定
+     */
+    void release(String destination, int serverTimeoutSeconds) {
+        if (!Boolean.parseBoolean(System.getProperty("http.keepAlive", "true"))) {
+            return;
+        }
+        int timeoutSeconds = serverTimeoutSeconds > 0 ? serverTimeoutSeconds
+                : Integer.getInteger("http.keepAlive.time.server", DEFAULT_IDLE_TIMEOUT_SECONDS);
+        int maxConnections = Integer.getInteger("http.maxConnections", DEFAULT_MAX_CONNECTIONS);
+        Destination d = destinations.computeIfAbsent(destination, key -> new Destination());
+        d.offer(System.currentTimeMillis() + timeoutSeconds * 1000L, maxConnections);
+    }
+
+    /**
+     * 单个目标地址的空闲连接和计数
+     */
+    private static final class Destination {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        // 空闲连接的过期时间，与JDK一样后放回的连接先被使用
+        private final Deque<Long> idle = new ArrayDeque<>();
+
+        synchronized boolean poll(long now) {
+            Long expireAt;
+            while ((expireAt = idle.pollFirst()) != null) {
+                if (expireAt > now) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void offer(long expireAt, int maxConnections) {
+            if (idle.size() < maxConnections) {
+                idle.addFirst(expireAt);
+            }
+        }
+
+        synchronized int idleCount(long now) {
+            idle.removeIf(expireAt -> expireAt <= now);
+            return idle.size();
+        }
+    }
+}
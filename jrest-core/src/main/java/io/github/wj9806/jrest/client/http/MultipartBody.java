@@ -0,0 +1,166 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * multipart/form-data请求体
+ * 预先生成各部分的头信息，所有文件大小已知时可以计算出请求体的总长度，
+ * 文件内容在写出时才从MultipartFile读取，不会整体缓存在内存中
+ */
+public final class MultipartBody {
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String boundary;
+    // 按顺序写出的片段：byte[]或MultipartFile
+    private final List<Object> parts = new ArrayList<>();
+
+    /**
+     * 根据请求中的文件和表单字段创建请求体
+     *
+     * @param httpRequest HTTP请求对象
+     */
+    public MultipartBody(HttpRequest httpRequest) {
+        this("----WebKitFormBoundary" + System.currentTimeMillis(), httpRequest);
+    }
+
+    /**
+     * 使用指定的分隔符创建请求体
+     *
+     * @param boundary 分隔符
+     * @param httpRequest HTTP请求对象
+     */
+    public MultipartBody(String boundary, HttpRequest httpRequest) {
+        this.boundary = boundary;
+        // 文件
+        for (Map.Entry<String, MultipartFile> entry : httpRequest.getMultipartFiles().entrySet()) {
+            MultipartFile file = entry.getValue();
+            parts.add(bytes("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + entry.getKey() + "\"; filename=\"" + file.getOriginalFilename() + "\"\r\n"
+                    + "Content-Type: " + (file.getContentType() != null ? file.getContentType() : "application/octet-stream") + "\r\n"
+                    + "Content-Transfer-Encoding: binary\r\n"
+                    + "\r\n"));
+            parts.add(file);
+            parts.add(CRLF);
+        }
+
+        // 表单字段
+        if (httpRequest.hasFormData()) {
+            for (Map.Entry<String, Object> entry : httpRequest.getFormData().entrySet()) {
+                Object value = entry.getValue();
+                parts.add(bytes("--" + boundary + "\r\n"
+                        + "Content-Disposition: form-data; name=\"" + entry.getKey() + "\"\r\n"
+                        + "\r\n"
+                        + (value != null ? value.toString() : "") + "\r\n"));
+            }
+        }
+
+        // 结束边界
+        parts.add(bytes("--" + boundary + "--\r\n"));
+    }
+
+    /**
+     * 获取请求的Content-Type，包含分隔符
+     *
+     * @return Content-Type
+     */
+    public String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * 计算请求体长度
+     *
+     * @return 请求体长度，存在大小未知的文件时返回-1
+     */
+    public long contentLength() {
+        long length = 0;
+        for (Object part : parts) {
+            if (part instanceof byte[]) {
+                length += ((byte[]) part).length;
+            } else {
+                long size = sizeOf((MultipartFile) part);
+                if (size < 0) {
+                    return -1;
+                }
+                length += size;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 将请求体写入输出流
+     *
+     * @param os 输出流
+     * @throws IOException 读取文件或写出失败
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Object part : parts) {
+            if (part instanceof byte[]) {
+                os.write((byte[]) part);
+            } else {
+                try (InputStream is = ((MultipartFile) part).getInputStream()) {
+                    int bytesRead;
+                    while ((bytesRead = is.read(buffer)) != -1) {
+                        os.write(buffer, 0, bytesRead);
+                    }
+                }
+            }
+        }
+        os.flush();
+    }
+
+    /**
+     * 以输入流的形式读取请求体，文件在读到对应位置时才打开
+     *
+     * @return 请求体输入流
+     */
+    public InputStream openStream() {
+        Iterator<Object> iterator = parts.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                Object part = iterator.next();
+                if (part instanceof byte[]) {
+                    return new ByteArrayInputStream((byte[]) part);
+                }
+                try {
+                    return ((MultipartFile) part).getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    private static long sizeOf(MultipartFile file) {
+        try {
+            return file.getSize();
+        } catch (UnsupportedOperationException e) {
+            // 基于输入流创建的文件无法预知大小
+            return -1;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
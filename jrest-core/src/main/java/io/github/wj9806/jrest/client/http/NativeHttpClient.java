@@ -5,54 +5,137 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 原生HttpURLConnection实现
  */
-public class NativeHttpClient extends AbstractHttpClient {
+public class NativeHttpClient extends AbstractHttpClient implements Closeable {
     
     private static final Logger logger = LoggerFactory.getLogger(NativeHttpClient.class);
+    private static final int BUFFER_SIZE = 8192;
+    // 按Content-Length预先分配响应体数组的上限
+    private static final int MAX_INITIAL_BODY_BUFFER = 64 * 1024;
+    private static final int CHUNK_SIZE = 8192;
     private final ExecutorService executorService;
+    // 线程池是否由本类创建，关闭客户端时一并关闭
+    private final boolean ownsExecutor;
+    
+    // 是否复用连接：读取完响应后关闭输入流而不是断开连接，使socket回到JDK的keep-alive缓存
+    private volatile boolean keepAlive = true;
     
     public NativeHttpClient() {
-        this(Executors.newFixedThreadPool(10));
+        // 同步请求也在线程池中执行，HttpURLConnection是阻塞的，线程数不能设上限，否则会限制并发的同步调用；
+        // 启用虚拟线程时每个请求使用一个虚拟线程
+        this(VirtualThreads.newExecutor("jrest-native-"), true);
     }
     
     public NativeHttpClient(ExecutorService executorService) {
+        this(executorService, false);
+    }
+    
+    private NativeHttpClient(ExecutorService executorService, boolean ownsExecutor) {
         this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
     }
     
+    /**
+     * 关闭客户端，由本类创建的线程池随之关闭；外部传入的线程池由调用方负责关闭
+     */
     @Override
-    protected HttpResponse doExchange(HttpRequest httpRequest) throws IOException {
-        // 构建带查询参数的URL
-        StringBuilder urlBuilder = new StringBuilder(httpRequest.getUrl());
-        if (httpRequest.getQueryParams() != null && !httpRequest.getQueryParams().isEmpty()) {
-            urlBuilder.append("?");
-            Set<Map.Entry<String, Object>> entries = httpRequest.getQueryParams().entrySet();
-            for (Map.Entry<String, Object> entry : entries) {
-                urlBuilder.append(URLEncoder.encode(entry.getKey(), "UTF-8"))
-                          .append("=")
-                          .append(URLEncoder.encode(entry.getValue().toString(), "UTF-8"))
-                          .append("&");
-            }
-            // 移除最后一个&符号
-            urlBuilder.deleteCharAt(urlBuilder.length() - 1);
+    public void close() {
+        if (ownsExecutor) {
+            executorService.shutdown();
+        }
+    }
+    
+    /**
+     * 配置JDK keep-alive缓存
+     * JDK在第一次建立HTTP连接时读取这些配置，因此需要在发送第一个请求之前调用；
+     * 已经通过系统属性显式指定的配置不会被覆盖
+     *
+     * @param maxConnections 每个目标地址最多缓存的空闲连接数（http.maxConnections）
+     * @param idleTimeoutSeconds 空闲连接的超时时间，单位秒（http.keepAlive.time.server）
+     */
+    public static void configureKeepAlive(int maxConnections, int idleTimeoutSeconds) {
+        if (maxConnections <= 0 || idleTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("maxConnections and idleTimeoutSeconds must be positive");
+        }
+        setPropertyIfAbsent("http.maxConnections", String.valueOf(maxConnections));
+        setPropertyIfAbsent("http.keepAlive.time.server", String.valueOf(idleTimeoutSeconds));
+    }
+    
+    private static void setPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        } else {
+            logger.debug("System property {} already set to {}, ignore {}", key, System.getProperty(key), value);
+        }
+    }
+    
+    /**
+     * 设置是否复用连接
+     * 开启时完整读取并关闭响应流，连接留在JDK的keep-alive缓存中供后续请求使用；
+     * 关闭时每个请求结束后调用disconnect断开连接
+     *
+     * @param keepAlive 是否复用连接
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+    
+    /**
+     * 是否复用连接
+     *
+     * @return 是否复用连接
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+    
+    /**
+     * 获取连接复用统计，数值是按JDK keep-alive缓存规则推算的估计值，见{@link KeepAliveStats}
+     *
+     * @return 连接复用统计
+     */
+    public KeepAliveStats getKeepAliveStats() {
+        return KeepAliveStats.getInstance();
+    }
+    
+    /**
+     * 在当前线程中通过HttpURLConnection阻塞执行请求，由doExchangeAsync在线程池中调用
+     * 
+     * @param future 请求对应的future，被取消时断开连接，阻塞的读写随之失败
+     */
+    HttpResponse doExchange(HttpRequest httpRequest, CompletableFuture<HttpResponse> future) throws IOException {
+        // 构建带查询参数的URI
+        URI uri;
+        try {
+            uri = httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e);
         }
         
-        URL httpUrl = new URL(urlBuilder.toString());
+        URL httpUrl = uri.toURL();
         HttpURLConnection connection = (HttpURLConnection) httpUrl.openConnection();
+        // 断开连接会关闭socket，被中断的连接不会回到keep-alive缓存
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                connection.disconnect();
+            }
+        });
+        // 复用连接时记录目标地址，用于估算连接复用情况
+        String destination = keepAlive ? KeepAliveStats.destination(uri) : null;
         // 设置超时时间
-        connection.setConnectTimeout(getConnectTimeout());
-        connection.setReadTimeout(getReadTimeout());
+        connection.setConnectTimeout(connectTimeoutOf(httpRequest));
+        connection.setReadTimeout(readTimeoutOf(httpRequest));
         String method = httpRequest.getMethod().toUpperCase();
         connection.setRequestMethod(method);
         
@@ -82,56 +165,12 @@ public class NativeHttpClient extends AbstractHttpClient {
         if (("POST".equals(method) || "PUT".equals(method))) {
             // 处理multipart/form-data请求
             if (httpRequest.isFormData()) {
-                String boundary = "----WebKitFormBoundary" + System.currentTimeMillis();
-                connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+                MultipartBody multipartBody = new MultipartBody(httpRequest);
+                connection.setRequestProperty("Content-Type", multipartBody.getContentType());
                 
-                try (OutputStream os = connection.getOutputStream();
-                     PrintWriter writer = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), true)) {
-                    
-                    // 写入文件
-                    for (Map.Entry<String, MultipartFile> entry : httpRequest.getMultipartFiles().entrySet()) {
-                        String name = entry.getKey();
-                        MultipartFile file = entry.getValue();
-                        
-                        writer.append("--").append(boundary).println();
-                        writer.append("Content-Disposition: form-data; name=\"").append(name).append("\"; filename=\"").append(file.getOriginalFilename()).append("\"").println();
-                        writer.append("Content-Type: ").append(file.getContentType() != null ? file.getContentType() : "application/octet-stream").println();
-                        writer.append("Content-Transfer-Encoding: binary").println();
-                        writer.println();
-                        writer.flush();
-                        
-                        try (InputStream is = file.getInputStream()) {
-                            byte[] buffer = new byte[4096];
-                            int bytesRead;
-                            while ((bytesRead = is.read(buffer)) != -1) {
-                                os.write(buffer, 0, bytesRead);
-                            }
-                            os.flush();
-                        }
-                        
-                        writer.println();
-                        writer.flush();
-                    }
-                    
-                    // 写入表单字段
-                    if (httpRequest.hasFormData()) {
-                        for (Map.Entry<String, Object> entry : httpRequest.getFormData().entrySet()) {
-                            String name = entry.getKey();
-                            Object value = entry.getValue();
-                            
-                            writer.append("--").append(boundary).println();
-                            writer.append("Content-Disposition: form-data; name=\"").append(name).append("\"") .println();
-                            writer.println();
-                            writer.print(value != null ? value.toString() : "");
-                            writer.println();
-                            writer.flush();
-                        }
-                    }
-                    
-                    // 结束边界
-                    writer.append("--").append(boundary).append("--").println();
-                    writer.flush();
-                    
+                setStreamingMode(connection, multipartBody.contentLength());
+                try (OutputStream os = connection.getOutputStream()) {
+                    multipartBody.writeTo(os);
                 } catch (IOException e) {
                     logger.error("Error writing multipart request", e);
                     throw e;
@@ -140,44 +179,147 @@ public class NativeHttpClient extends AbstractHttpClient {
             // 处理其他类型的请求体
             else if (httpRequest.getBody() != null) {
                 if (httpRequest.getBody() instanceof InputStream) {
-                    // 处理文件流请求体
+                    // 处理文件流请求体，长度未知，使用分块传输
+                    setStreamingMode(connection, -1);
                     try (OutputStream os = connection.getOutputStream()) {
-                        byte[] buffer = new byte[4096];
-                        int bytesRead;
-                        InputStream is = (InputStream) httpRequest.getBody();
-                        while ((bytesRead = is.read(buffer)) != -1) {
-                            os.write(buffer, 0, bytesRead);
-                        }
+                        copy((InputStream) httpRequest.getBody(), os);
                     }
                 } else {
                     // 处理JSON请求体
                     String contentType = "application/json; charset=UTF-8";
-                    // 使用编解码器管理器编码请求体
+                    connection.setRequestProperty("Content-Type", contentType);
+                    // 使用编解码器管理器把请求体直接编码到连接的输出流，编码失败时断开连接，不发送不完整的请求体
+                    EncodedBodyStream os = new EncodedBodyStream(connection);
                     try {
-                        byte[] encodedBody = getCodecManager().selectEncoder(contentType).encode(httpRequest.getBody(), contentType);
-                        connection.setRequestProperty("Content-Type", contentType);
-
-                        try (OutputStream os = connection.getOutputStream()) {
-                            os.write(encodedBody);
-                        }
+                        getCodecManager().selectEncoder(contentType).encode(httpRequest.getBody(), contentType, os);
+                    } catch (IOException e) {
+                        connection.disconnect();
+                        throw e;
                     } catch (Exception e) {
+                        connection.disconnect();
                         logger.error("Error encoding request body", e);
                         throw new RuntimeException(e);
                     }
+                    os.close();
                 }
             }
         }
         
-        logger.debug("Sending {} request to: {}", method, urlBuilder);
+        logger.debug("Sending {} request to: {}", method, uri);
         
-        return buildHttpResponse(connection);
+        return buildHttpResponse(connection, destination);
+    }
+    
+    /**
+     * 设置请求体的流式传输模式，避免HttpURLConnection在内存中缓存整个请求体
+     * 长度已知时使用固定长度模式，否则使用分块传输
+     *
+     * @param contentLength 请求体长度，-1表示未知
+     */
+    private static void setStreamingMode(HttpURLConnection connection, long contentLength) {
+        if (contentLength >= 0) {
+            connection.setFixedLengthStreamingMode(contentLength);
+        } else {
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+        }
+    }
+    
+    /**
+     * 编码请求体时写入的输出流
+     * 编码结果不超过{@link EncodedBody#BUFFER_LIMIT}时在内存中缓冲，结束后以固定长度发送；
+     * 超过后切换为分块传输，已缓冲的部分和之后编码的内容直接写入连接，大请求体不会整体驻留内存
+     */
+    private static final class EncodedBodyStream extends OutputStream {
+        private final HttpURLConnection connection;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+
+        EncodedBodyStream(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len <= EncodedBody.BUFFER_LIMIT) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                setStreamingMode(connection, -1);
+                target = connection.getOutputStream();
+                buffer.writeTo(target);
+                buffer = null;
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (target == null) {
+                setStreamingMode(connection, buffer.size());
+                target = connection.getOutputStream();
+                buffer.writeTo(target);
+                buffer = null;
+            }
+            target.close();
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+        }
+    }
+    
+    /**
+     * 读取响应体，长度已知时最终数组与声明的长度相同，不再复制；
+     * 初始分配不超过MAX_INITIAL_BODY_BUFFER，随读到的数据扩容，不会因为服务端声明的长度过大而预先分配大块内存。
+     * 实际内容比声明的短时（如HEAD请求）按实际长度返回，截断的响应由HttpURLConnection报告
+     */
+    private static byte[] readBody(InputStream in, int contentLength) throws IOException {
+        byte[] bytes = new byte[contentLength >= 0 ? Math.min(contentLength, MAX_INITIAL_BODY_BUFFER) : BUFFER_SIZE];
+        int size = 0;
+        while (true) {
+            if (size == bytes.length) {
+                if (contentLength >= 0 && size >= contentLength) {
+                    break;
+                }
+                int capacity = (int) Math.min((long) bytes.length * 2, Integer.MAX_VALUE - 8);
+                if (contentLength >= 0) {
+                    capacity = Math.min(capacity, contentLength);
+                }
+                if (capacity <= size) {
+                    throw new IOException("Response body too large");
+                }
+                bytes = Arrays.copyOf(bytes, capacity);
+            }
+            int bytesRead = in.read(bytes, size, bytes.length - size);
+            if (bytesRead == -1) {
+                break;
+            }
+            size += bytesRead;
+        }
+        return size == bytes.length ? bytes : Arrays.copyOf(bytes, size);
     }
     
     /**
      * 构建HttpResponse对象
+     *
+     * @param destination 复用连接时的目标地址，为null时读取完响应后断开连接
      */
-    private HttpResponse buildHttpResponse(HttpURLConnection connection) throws IOException {
+    private HttpResponse buildHttpResponse(HttpURLConnection connection, String destination) throws IOException {
         int statusCode = connection.getResponseCode();
+        // 收到响应说明连接已经建立，建立连接失败的请求不计入复用统计
+        if (destination != null) {
+            KeepAliveStats.getInstance().acquire(destination);
+        }
         
         // 获取Content-Type
         String contentType = connection.getContentType();
@@ -196,74 +338,92 @@ public class NativeHttpClient extends AbstractHttpClient {
         
         // 如果流为null，返回空响应
         if (is == null) {
-            connection.disconnect();
+            if (destination == null) {
+                connection.disconnect();
+            }
             return new HttpResponse(statusCode, "", headers);
         }
         
+        HttpResponse response;
         try {
-            // 判断是否为二进制数据（非文本类型）
-            if (contentType != null && 
-                (contentType.startsWith("application/octet-stream") || 
-                 contentType.startsWith("image/") || 
-                 contentType.startsWith("audio/") || 
-                 contentType.startsWith("video/") || 
-                 contentType.endsWith("pdf") || 
-                 contentType.endsWith("zip") || 
-                 contentType.endsWith("rar"))) {
-                
-                // 读取二进制数据
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = is.read(buffer)) != -1) {
-                    baos.write(buffer, 0, bytesRead);
-                }
-                byte[] binaryBody = baos.toByteArray();
-                
-                logger.debug("Response status code: {}", statusCode);
-                logger.debug("Response content type: {}", contentType);
-                logger.debug("Response body size: {} bytes", binaryBody.length);
-                
-                connection.disconnect();
-                return new HttpResponse(statusCode, binaryBody, headers);
-            } else {
-                // 读取文本数据
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                    StringBuilder responseBody = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        responseBody.append(line);
-                    }
-                    String body = responseBody.toString();
-                    
-                    logger.debug("Response status code: {}", statusCode);
-                    logger.debug("Response body: {}", body);
-                    
-                    connection.disconnect();
-                    return new HttpResponse(statusCode, body, headers);
-                }
-            }
+            // 文本和二进制数据都按字节读取，文本在需要时才解码为字符串
+            byte[] bytes = readBody(is, connection.getContentLength());
+            
+            logger.debug("Response status code: {}", statusCode);
+            logger.debug("Response content type: {}", contentType);
+            logger.debug("Response body size: {} bytes", bytes.length);
+            
+            response = ContentType.isBinary(contentType)
+                    ? new HttpResponse(statusCode, bytes, headers)
+                    : HttpResponse.ofBody(statusCode, bytes, headers);
         } catch (Exception e) {
             logger.error("Error reading response body", e);
+            // 读取失败时连接状态未知，不能放回缓存
             connection.disconnect();
             return new HttpResponse(statusCode, "", headers);
         }
+        
+        if (destination == null) {
+            // 必须在关闭流之前断开，否则连接已经回到keep-alive缓存
+            connection.disconnect();
+        } else {
+            // 响应体已完整读取，关闭流后连接回到JDK的keep-alive缓存
+            is.close();
+            if (!"close".equalsIgnoreCase(connection.getHeaderField("Connection"))) {
+                KeepAliveStats.getInstance().release(destination, serverKeepAliveTimeout(connection.getHeaderField("Keep-Alive")));
+            }
+        }
+        return response;
+    }
+    
+    /**
+     * 解析Keep-Alive响应头中的timeout参数，未指定时返回-1
+     */
+    static int serverKeepAliveTimeout(String keepAliveHeader) {
+        if (keepAliveHeader == null) {
+            return -1;
+        }
+        for (String part : keepAliveHeader.split(",")) {
+            String[] pair = part.trim().split("=", 2);
+            if (pair.length == 2 && "timeout".equalsIgnoreCase(pair[0].trim())) {
+                try {
+                    return Integer.parseInt(pair[1].trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
     }
     
     @Override
     protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
         // 使用线程池执行异步请求
         CompletableFuture<HttpResponse> future = new CompletableFuture<>();
-        executorService.submit(() -> {
+        Future<?> task = executorOr(executorService).submit(() -> {
+            if (future.isDone()) {
+                return;
+            }
             try {
                 // 调用doExchange方法直接执行请求，不经过拦截器和重试逻辑（由父类executeAsync处理）
-                HttpResponse response = doExchange(httpRequest);
+                HttpResponse response = doExchange(httpRequest, future);
                 future.complete(response);
-            } catch (IOException e) {
-                logger.error("Error executing async request", e);
+            } catch (IOException | RuntimeException e) {
+                if (future.isCancelled()) {
+                    logger.debug("Request cancelled: {}", httpRequest.getUrl());
+                } else {
+                    logger.debug("Error executing request", e);
+                }
                 future.completeExceptionally(e);
             }
         });
+        // 取消时移除尚未开始执行的任务
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                task.cancel(false);
+            }
+        });
         return future;
     }
+
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * HttpURLConnection传输实现
+ */
+public class NativeTransportProvider extends AbstractTransportProvider {
+
+    public NativeTransportProvider() {
+        super(ClientType.NATIVE, TransportCapability.STREAMING);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return new NativeHttpClient();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * NioHttpClient中的一个持久连接，只在选择器线程上访问
+ * 请求按发送顺序排队，响应按同样的顺序解析；启用流水线时，多个请求可以在收到第一个响应之前写出
+ */
+final class NioConnection {
+
+    final String destination;
+    final SocketChannel channel;
+    final long createdAt = System.nanoTime();
+    // 读缓冲区和解析器在连接的整个生命周期内复用
+    final ByteBuffer readBuffer;
+    final NioResponseParser parser = new NioResponseParser();
+    // 尚未完全写出的请求
+    final ArrayDeque<NioExchange> writeQueue = new ArrayDeque<>();
+    // 尚未收到完整响应的请求，队首是当前正在解析响应的请求
+    final ArrayDeque<NioExchange> responseQueue = new ArrayDeque<>();
+
+    SelectionKey key;
+    boolean connected;
+    boolean closed;
+    // 队列中不能使用流水线的请求数
+    int nonPipelinable;
+    // 连接超时和读取超时的截止时间（System.nanoTime），0表示没有
+    long connectDeadline;
+    long readDeadline;
+
+    NioConnection(String destination, SocketChannel channel, int readBufferSize) {
+        this.destination = destination;
+        this.channel = channel;
+        this.readBuffer = ByteBuffer.allocate(readBufferSize);
+    }
+
+    /**
+     * 连接是否空闲
+     */
+    boolean isIdle() {
+        return !closed && responseQueue.isEmpty();
+    }
+
+    /**
+     * 是否可以在该连接上追加流水线请求
+     */
+    boolean canPipeline(int maxPipelinedRequests) {
+        return !closed && connected && nonPipelinable == 0 && responseQueue.size() < maxPipelinedRequests;
+    }
+
+    /**
+     * 将请求加入队列
+     */
+    void enqueue(NioExchange exchange) {
+        writeQueue.add(exchange);
+        responseQueue.add(exchange);
+        if (!exchange.isPipelinable()) {
+            nonPipelinable++;
+        }
+    }
+
+    /**
+     * 移除已收到响应的队首请求
+     */
+    NioExchange dequeue() {
+        NioExchange exchange = responseQueue.pollFirst();
+        if (exchange != null) {
+            writeQueue.remove(exchange);
+            if (!exchange.isPipelinable()) {
+                nonPipelinable--;
+            }
+        }
+        return exchange;
+    }
+
+    @Override
+    public String toString() {
+        return "NioConnection{" + destination + ", inFlight=" + responseQueue.size() + "}";
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * NioHttpClient中的一次请求
+ * 请求行、请求头和已缓冲的请求体在调用线程上编码为一个缓冲区，流式请求体在连接可写时按块读取
+ */
+final class NioExchange {
+
+    private static final int CHUNK_SIZE = 8192;
+    // 分块传输时块大小行的最大长度：4位十六进制加CRLF
+    private static final int CHUNK_HEADER_SPACE = 6;
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    final String destination;
+    final SocketAddress address;
+    final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+    final int connectTimeout;
+    final int readTimeout;
+
+    private final ByteBuffer head;
+    private final InputStream bodyStream;
+    private final boolean chunked;
+    private final boolean idempotent;
+    private ByteBuffer chunk;
+    private boolean bodyDone;
+    private boolean retried;
+
+    // 等待连接的截止时间（System.nanoTime）
+    long leaseDeadline;
+
+    /**
+     * @param destination 目标地址
+     * @param address 连接地址
+     * @param head 请求行、请求头和已缓冲的请求体
+     * @param bodyStream 流式请求体，没有时为null
+     * @param chunked 流式请求体是否使用分块传输
+     * @param idempotent 请求方法是否幂等
+     * @param connectTimeout 连接超时时间（毫秒）
+     * @param readTimeout 读取超时时间（毫秒）
+     */
+    NioExchange(String destination, SocketAddress address, ByteBuffer head, InputStream bodyStream, boolean chunked,
+                boolean idempotent, int connectTimeout, int readTimeout) {
+        this.destination = destination;
+        this.address = address;
+        this.head = head;
+        this.bodyStream = bodyStream;
+        this.chunked = chunked;
+        this.idempotent = idempotent;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 是否可以在收到前一个响应之前发送，只有幂等且请求体已缓冲的请求可以使用流水线
+     */
+    boolean isPipelinable() {
+        return idempotent && bodyStream == null;
+    }
+
+    /**
+     * 连接在收到响应前关闭时能否在新连接上重新发送，幂等且请求体已缓冲的请求最多重发一次
+     */
+    boolean prepareRetry() {
+        if (retried || !isPipelinable() || future.isDone()) {
+            return false;
+        }
+        retried = true;
+        head.rewind();
+        return true;
+    }
+
+    /**
+     * 尽可能多地写出请求
+     *
+     * @return 请求是否已全部写出
+     */
+    boolean writeTo(SocketChannel channel) throws IOException {
+        if (head.hasRemaining()) {
+            channel.write(head);
+            if (head.hasRemaining()) {
+                return false;
+            }
+        }
+        if (bodyStream == null) {
+            return true;
+        }
+        while (true) {
+            if (chunk != null && chunk.hasRemaining()) {
+                channel.write(chunk);
+                if (chunk.hasRemaining()) {
+                    return false;
+                }
+            }
+            if (bodyDone) {
+                return true;
+            }
+            readChunk();
+        }
+    }
+
+    /**
+     * 从流式请求体读取下一块，分块传输时加上块大小行和CRLF
+     */
+    private void readChunk() throws IOException {
+        if (chunk == null) {
+            chunk = ByteBuffer.allocate(CHUNK_HEADER_SPACE + CHUNK_SIZE + 2);
+        }
+        byte[] array = chunk.array();
+        int read = bodyStream.read(array, CHUNK_HEADER_SPACE, CHUNK_SIZE);
+        if (read < 0) {
+            bodyDone = true;
+            closeBody();
+            if (chunked) {
+                chunk.clear();
+                chunk.put(LAST_CHUNK).flip();
+            } else {
+                chunk.limit(0);
+            }
+            return;
+        }
+        if (!chunked) {
+            chunk.limit(CHUNK_HEADER_SPACE + read).position(CHUNK_HEADER_SPACE);
+            return;
+        }
+        if (read == 0) {
+            chunk.limit(0);
+            return;
+        }
+        byte[] size = (Integer.toHexString(read) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        int start = CHUNK_HEADER_SPACE - size.length;
+        System.arraycopy(size, 0, array, start, size.length);
+        array[CHUNK_HEADER_SPACE + read] = '\r';
+        array[CHUNK_HEADER_SPACE + read + 1] = '\n';
+        chunk.limit(CHUNK_HEADER_SPACE + read + 2).position(start);
+    }
+
+    /**
+     * 请求失败
+     */
+    void fail(Throwable cause) {
+        closeBody();
+        future.completeExceptionally(cause);
+    }
+
+    private void closeBody() {
+        if (bodyStream != null) {
+            try {
+                bodyStream.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响请求结果
+            }
+        }
+    }
+}
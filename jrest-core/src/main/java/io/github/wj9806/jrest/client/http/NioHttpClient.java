@@ -0,0 +1,318 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于java.nio的HTTP/1.1实现，不依赖第三方库
+ * 所有连接由一个选择器线程管理，请求在调用线程上编码，响应在选择器线程上增量解析；
+ * 连接按目标地址池化复用，通过ConnectionPoolConfig#maxPipelinedRequests可以在同一连接上流水线发送幂等请求。
+ * https请求交给内部的NativeHttpClient处理
+ */
+public class NioHttpClient extends AbstractHttpClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioHttpClient.class);
+
+    private final ConnectionPoolConfig connectionPoolConfig;
+    private volatile NioSelectorLoop loop;
+    private volatile NativeHttpClient httpsClient;
+    private volatile boolean closed;
+
+    public NioHttpClient() {
+        this(ConnectionPoolConfig.DEFAULT);
+    }
+
+    public NioHttpClient(ConnectionPoolConfig connectionPoolConfig) {
+        this.connectionPoolConfig = connectionPoolConfig;
+    }
+
+    /**
+     * 获取连接池配置
+     *
+     * @return 连接池配置
+     */
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return connectionPoolConfig;
+    }
+
+    @Override
+    public void setCodecManager(CodecManager codecManager) {
+        super.setCodecManager(codecManager);
+        NativeHttpClient delegate = httpsClient;
+        if (delegate != null) {
+            delegate.setCodecManager(codecManager);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+        try {
+            URI uri = toUri(httpRequest);
+            if ("https".equalsIgnoreCase(uri.getScheme())) {
+                return httpsClient().doExchangeAsync(withTimeouts(httpRequest));
+            }
+            return submit(httpRequest, uri);
+        } catch (IOException e) {
+            CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private static URI toUri(HttpRequest httpRequest) throws IOException {
+        try {
+            return httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e);
+        }
+    }
+
+    /**
+     * 编码请求并提交给选择器线程
+     */
+    private CompletableFuture<HttpResponse> submit(HttpRequest httpRequest, URI uri) throws IOException {
+        URI httpUri = toHttpUri(uri);
+        if (!"http".equalsIgnoreCase(httpUri.getScheme())) {
+            throw new IOException("Unsupported scheme: " + uri.getScheme());
+        }
+        NioExchange exchange = encode(httpRequest, httpUri, destination(uri), resolve(uri));
+        logger.debug("Sending {} request to: {}", httpRequest.getMethod(), uri);
+        NioSelectorLoop current = loop();
+        current.submit(exchange);
+        exchange.future.whenComplete((response, ex) -> {
+            if (exchange.future.isCancelled()) {
+                current.cancel(exchange);
+            }
+        });
+        return exchange.future;
+    }
+
+    /**
+     * 获取请求实际发送的http地址，子类可以将自定义协议的地址转换为http地址
+     *
+     * @param uri 请求URI
+     * @return 用于生成请求行和Host头的http地址
+     * @throws IOException 地址无效
+     */
+    protected URI toHttpUri(URI uri) throws IOException {
+        return uri;
+    }
+
+    /**
+     * 获取请求的目标地址，目标地址相同的请求共用连接池，与ConnectionPoolConfig#maxPerHost的键一致
+     *
+     * @param uri 请求URI
+     * @return 目标地址
+     * @throws IOException 地址无效
+     */
+    protected String destination(URI uri) throws IOException {
+        return KeepAliveStats.destination(uri);
+    }
+
+    /**
+     * 解析请求的连接地址，在调用线程上执行以免DNS查询阻塞选择器线程
+     *
+     * @param uri 请求URI
+     * @return 连接地址
+     * @throws IOException 无法解析主机
+     */
+    protected SocketAddress resolve(URI uri) throws IOException {
+        if (uri.getHost() == null) {
+            throw new IOException("Missing host: " + uri);
+        }
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort() == -1 ? 80 : uri.getPort());
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(uri.getHost());
+        }
+        return address;
+    }
+
+    /**
+     * 打开连接使用的通道，在选择器线程上调用，通道会被设置为非阻塞模式
+     *
+     * @param address 连接地址
+     * @return 未连接的通道
+     * @throws IOException 打开通道失败
+     */
+    protected SocketChannel openChannel(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+        return channel;
+    }
+
+    /**
+     * 将请求行、请求头和可以缓冲的请求体编码为一个缓冲区
+     */
+    private NioExchange encode(HttpRequest httpRequest, URI uri, String destination, SocketAddress address) throws IOException {
+        String method = httpRequest.getMethod().toUpperCase(Locale.ROOT);
+        StringBuilder head = new StringBuilder(256);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        head.append(method).append(' ').append(path);
+        if (uri.getRawQuery() != null) {
+            head.append('?').append(uri.getRawQuery());
+        }
+        head.append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(uri.getHost());
+        if (uri.getPort() != -1 && uri.getPort() != 80) {
+            head.append(':').append(uri.getPort());
+        }
+        head.append("\r\n");
+
+        Map<String, String> headers = httpRequest.getHeaders();
+        String contentType = null;
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                String name = header.getKey();
+                if (name == null || header.getValue() == null || "Host".equalsIgnoreCase(name)
+                        || "Content-Length".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)) {
+                    continue;
+                }
+                if ("Content-Type".equalsIgnoreCase(name)) {
+                    contentType = header.getValue();
+                    continue;
+                }
+                head.append(name).append(": ").append(header.getValue()).append("\r\n");
+            }
+        }
+
+        if (httpRequest.getCookies() != null && !httpRequest.getCookies().isEmpty()) {
+            head.append("Cookie: ");
+            boolean first = true;
+            for (Map.Entry<String, String> cookie : httpRequest.getCookies().entrySet()) {
+                if (!first) {
+                    head.append(";");
+                }
+                head.append(cookie.getKey()).append("=").append(cookie.getValue());
+                first = false;
+            }
+            head.append("\r\n");
+        }
+
+        byte[] body = null;
+        InputStream bodyStream = null;
+        boolean chunked = false;
+        if ("POST".equals(method) || "PUT".equals(method)) {
+            if (httpRequest.isFormData()) {
+                MultipartBody multipartBody = new MultipartBody(httpRequest);
+                contentType = multipartBody.getContentType();
+                long length = multipartBody.contentLength();
+                if (length >= 0) {
+                    head.append("Content-Length: ").append(length).append("\r\n");
+                } else {
+                    chunked = true;
+                }
+                bodyStream = multipartBody.openStream();
+            } else if (httpRequest.getBody() instanceof InputStream) {
+                // 文件流请求体，长度未知，使用分块传输
+                if (contentType == null) {
+                    contentType = "application/octet-stream";
+                }
+                chunked = true;
+                bodyStream = (InputStream) httpRequest.getBody();
+            } else if (httpRequest.getBody() != null) {
+                if (contentType == null) {
+                    contentType = "application/json; charset=UTF-8";
+                }
+                try {
+                    body = getCodecManager().selectEncoder(contentType).encode(httpRequest.getBody(), contentType);
+                } catch (Exception e) {
+                    logger.error("Error encoding request body", e);
+                    throw new RuntimeException(e);
+                }
+                head.append("Content-Length: ").append(body.length).append("\r\n");
+            } else {
+                head.append("Content-Length: 0\r\n");
+            }
+            if (chunked) {
+                head.append("Transfer-Encoding: chunked\r\n");
+            }
+        }
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + (body != null ? body.length : 0));
+        buffer.put(headBytes);
+        if (body != null) {
+            buffer.put(body);
+        }
+        buffer.flip();
+
+        boolean idempotent = "GET".equals(method) || "HEAD".equals(method) || "PUT".equals(method)
+                || "DELETE".equals(method) || "OPTIONS".equals(method);
+        return new NioExchange(destination, address, buffer, bodyStream, chunked, idempotent,
+                connectTimeoutOf(httpRequest), readTimeoutOf(httpRequest));
+    }
+
+    private NioSelectorLoop loop() throws IOException {
+        NioSelectorLoop current = loop;
+        if (current == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("Client closed");
+                }
+                current = loop;
+                if (current == null) {
+                    current = new NioSelectorLoop(this, connectionPoolConfig);
+                    loop = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private NativeHttpClient httpsClient() {
+        NativeHttpClient delegate = httpsClient;
+        if (delegate == null) {
+            synchronized (this) {
+                delegate = httpsClient;
+                if (delegate == null) {
+                    delegate = new NativeHttpClient();
+                    delegate.setCodecManager(getCodecManager());
+                    httpsClient = delegate;
+                }
+            }
+        }
+        return delegate;
+    }
+
+    /**
+     * 将客户端级别的超时时间写入请求，交给https客户端时保持一致
+     */
+    private HttpRequest withTimeouts(HttpRequest httpRequest) {
+        return HttpRequest.Builder.newBuilder(httpRequest)
+                .connectTimeout(connectTimeoutOf(httpRequest))
+                .readTimeout(readTimeoutOf(httpRequest))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        NioSelectorLoop current;
+        synchronized (this) {
+            closed = true;
+            current = loop;
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 增量解析HTTP/1.1响应
+ * 直接从连接的读缓冲区中解析状态行和响应头，行缓冲区在同一连接的多个响应之间复用；
+ * 响应体按缓冲区切片复制，已知长度时只分配一次
+ */
+final class NioResponseParser {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private enum State {
+        STATUS_LINE, HEADERS, BODY_FIXED, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_UNTIL_CLOSE, DONE
+    }
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private boolean lineComplete;
+
+    private State state;
+    private boolean started;
+    private boolean http10;
+    private int statusCode;
+    private Map<String, String> headers;
+    private byte[] body;
+    private int bodyLength;
+    private long remaining;
+
+    NioResponseParser() {
+        reset();
+    }
+
+    /**
+     * 准备解析下一个响应
+     */
+    void reset() {
+        state = State.STATUS_LINE;
+        started = false;
+        http10 = false;
+        statusCode = 0;
+        headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        body = EMPTY;
+        bodyLength = 0;
+        remaining = 0;
+        lineLength = 0;
+        lineComplete = false;
+    }
+
+    /**
+     * 是否已经收到当前响应的数据
+     *
+     * @return 是否已收到数据
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * 解析缓冲区中的数据，响应完整时停止，缓冲区中剩余的数据属于下一个响应
+     *
+     * @param buffer 处于读模式的缓冲区
+     * @return 响应是否完整
+     * @throws IOException 响应格式错误
+     */
+    boolean parse(ByteBuffer buffer) throws IOException {
+        if (buffer.hasRemaining()) {
+            started = true;
+        }
+        while (state != State.DONE && buffer.hasRemaining()) {
+            switch (state) {
+                case STATUS_LINE:
+                    if (readLine(buffer) && lineLength > 0) {
+                        parseStatusLine();
+                        state = State.HEADERS;
+                    }
+                    break;
+                case HEADERS:
+                    if (readLine(buffer)) {
+                        if (lineLength == 0) {
+                            headersComplete();
+                        } else {
+                            parseHeader();
+                        }
+                    }
+                    break;
+                case BODY_FIXED:
+                    readBody(buffer);
+                    if (remaining == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    if (readLine(buffer)) {
+                        remaining = parseChunkSize();
+                        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+                    }
+                    break;
+                case CHUNK_DATA:
+                    readBody(buffer);
+                    if (remaining == 0) {
+                        state = State.CHUNK_END;
+                    }
+                    break;
+                case CHUNK_END:
+                    if (readLine(buffer)) {
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS:
+                    if (readLine(buffer) && lineLength == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+                case BODY_UNTIL_CLOSE:
+                    remaining = buffer.remaining();
+                    readBody(buffer);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * 连接被对端关闭
+     *
+     * @return 以连接关闭作为结束的响应是否因此完整
+     */
+    boolean endOfStream() {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 当前响应结束后连接是否可以复用
+     *
+     * @return 是否可以复用
+     */
+    boolean isKeepAlive() {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            return false;
+        }
+        String connection = headers.get("Connection");
+        return http10 ? "keep-alive".equalsIgnoreCase(connection) : !"close".equalsIgnoreCase(connection);
+    }
+
+    /**
+     * 构建解析完成的响应
+     *
+     * @return 响应
+     */
+    HttpResponse toResponse() {
+        byte[] bytes = bodyLength == body.length ? body : Arrays.copyOf(body, bodyLength);
+        return HttpResponse.ofBody(statusCode, bytes, headers);
+    }
+
+    /**
+     * 读取一行到行缓冲区，不包括行尾的CRLF
+     *
+     * @return 是否读到完整的一行
+     */
+    private boolean readLine(ByteBuffer buffer) throws IOException {
+        if (lineComplete) {
+            lineLength = 0;
+            lineComplete = false;
+        }
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                lineComplete = true;
+                return true;
+            }
+            if (lineLength == line.length) {
+                if (line.length >= MAX_LINE_LENGTH) {
+                    throw new IOException("Response line too long");
+                }
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = b;
+        }
+        return false;
+    }
+
+    private void parseStatusLine() throws IOException {
+        // HTTP/1.1 200 OK
+        if (lineLength < 12 || line[0] != 'H' || line[1] != 'T' || line[2] != 'T' || line[3] != 'P' || line[4] != '/') {
+            throw new IOException("Invalid status line: " + new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+        }
+        http10 = line[5] == '1' && line[7] == '0';
+        int code = 0;
+        for (int i = 9; i < 12; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("Invalid status code: " + new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+            }
+            code = code * 10 + digit;
+        }
+        statusCode = code;
+    }
+
+    private void parseHeader() throws IOException {
+        int colon = -1;
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0) {
+            throw new IOException("Invalid header: " + new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+        }
+        int valueStart = colon + 1;
+        while (valueStart < lineLength && (line[valueStart] == ' ' || line[valueStart] == '\t')) {
+            valueStart++;
+        }
+        int valueEnd = lineLength;
+        while (valueEnd > valueStart && (line[valueEnd - 1] == ' ' || line[valueEnd - 1] == '\t')) {
+            valueEnd--;
+        }
+        headers.putIfAbsent(new String(line, 0, colon, StandardCharsets.ISO_8859_1),
+                new String(line, valueStart, valueEnd - valueStart, StandardCharsets.ISO_8859_1));
+    }
+
+    private void headersComplete() throws IOException {
+        if (statusCode >= 100 && statusCode < 200) {
+            // 跳过100 Continue等中间响应
+            headers.clear();
+            state = State.STATUS_LINE;
+            return;
+        }
+        if (statusCode == 204 || statusCode == 304) {
+            state = State.DONE;
+            return;
+        }
+        String transferEncoding = headers.get("Transfer-Encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            body = new byte[1024];
+            state = State.CHUNK_SIZE;
+            return;
+        }
+        String contentLength = headers.get("Content-Length");
+        if (contentLength != null) {
+            long length;
+            try {
+                length = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + contentLength, e);
+            }
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+            body = length == 0 ? EMPTY : new byte[(int) length];
+            remaining = length;
+            state = length == 0 ? State.DONE : State.BODY_FIXED;
+            return;
+        }
+        body = new byte[1024];
+        state = State.BODY_UNTIL_CLOSE;
+    }
+
+    private long parseChunkSize() throws IOException {
+        long size = 0;
+        int digits = 0;
+        for (int i = 0; i < lineLength; i++) {
+            int digit = Character.digit(line[i], 16);
+            if (digit < 0) {
+                // 忽略分块扩展
+                break;
+            }
+            size = size * 16 + digit;
+            if (++digits > 8) {
+                throw new IOException("Chunk size too large");
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Invalid chunk size: " + new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+        }
+        return size;
+    }
+
+    /**
+     * 从缓冲区复制最多remaining个字节到响应体
+     */
+    private void readBody(ByteBuffer buffer) throws IOException {
+        int n = (int) Math.min(remaining, buffer.remaining());
+        if (bodyLength + n > body.length) {
+            if ((long) bodyLength + n > Integer.MAX_VALUE - 8) {
+                throw new IOException("Response body too large");
+            }
+            body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + n));
+        }
+        buffer.get(body, bodyLength, n);
+        bodyLength += n;
+        remaining -= n;
+    }
+}
@@ -0,0 +1,491 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NioHttpClient的选择器线程
+ * 一个线程负责所有连接的建立、读写、连接池和超时检查；其他线程只通过submit提交请求，
+ * 因此连接池状态不需要加锁
+ */
+final class NioSelectorLoop implements Runnable, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioSelectorLoop.class);
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final NioHttpClient client;
+    private final ConnectionPoolConfig poolConfig;
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<NioExchange> submissions = new ConcurrentLinkedQueue<>();
+    private final Queue<NioExchange> cancellations = new ConcurrentLinkedQueue<>();
+    private final Map<String, Destination> destinations = new HashMap<>();
+    private int totalConnections;
+    private volatile boolean closed;
+
+    NioSelectorLoop(NioHttpClient client, ConnectionPoolConfig poolConfig) throws IOException {
+        this.client = client;
+        this.poolConfig = poolConfig;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, "jrest-nio-selector-" + THREAD_ID.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 提交请求，可以在任意线程调用
+     */
+    void submit(NioExchange exchange) {
+        if (closed) {
+            exchange.fail(new IOException("Client closed"));
+            return;
+        }
+        submissions.add(exchange);
+        selector.wakeup();
+    }
+
+    /**
+     * 请求被调用方取消，可以在任意线程调用
+     */
+    void cancel(NioExchange exchange) {
+        cancellations.add(exchange);
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                drainSubmissions();
+                drainCancellations();
+                dispatchAll();
+                long timeout = expireTimeouts(System.nanoTime());
+                if (timeout < 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(timeout);
+                }
+                Set<SelectionKey> keys = selector.selectedKeys();
+                for (SelectionKey key : keys) {
+                    handle(key);
+                }
+                keys.clear();
+            }
+        } catch (Throwable e) {
+            logger.error("NIO selector loop terminated", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * 将新提交的请求放入对应目标地址的等待队列
+     */
+    private void drainSubmissions() {
+        long now = System.nanoTime();
+        NioExchange exchange;
+        while ((exchange = submissions.poll()) != null) {
+            exchange.leaseDeadline = now + TimeUnit.MILLISECONDS.toNanos(leaseTimeout(exchange));
+            destinations.computeIfAbsent(exchange.destination, Destination::new).waiting.add(exchange);
+        }
+    }
+
+    /**
+     * 处理被取消的请求：等待中的请求在分配连接时跳过；正在接收响应的请求关闭其连接，
+     * 连接上排在后面的幂等请求在新连接上重发。排在流水线后面的请求不关闭连接，响应到达后丢弃
+     */
+    private void drainCancellations() {
+        NioExchange exchange;
+        while ((exchange = cancellations.poll()) != null) {
+            Destination destination = destinations.get(exchange.destination);
+            if (destination == null) {
+                continue;
+            }
+            for (NioConnection connection : destination.connections) {
+                if (connection.responseQueue.peekFirst() == exchange) {
+                    logger.debug("Request to {} cancelled, closing connection", destination.name);
+                    closeConnection(connection, new IOException("Request cancelled"));
+                    break;
+                }
+            }
+        }
+    }
+
+    private int leaseTimeout(NioExchange exchange) {
+        return poolConfig.getLeaseTimeout() >= 0 ? poolConfig.getLeaseTimeout() : exchange.connectTimeout;
+    }
+
+    private void dispatchAll() {
+        for (Destination destination : destinations.values()) {
+            if (!destination.waiting.isEmpty()) {
+                dispatch(destination);
+            }
+        }
+    }
+
+    /**
+     * 为等待中的请求分配连接：优先复用空闲连接，其次新建连接，连接数达到上限时尝试使用流水线
+     */
+    private void dispatch(Destination destination) {
+        while (!destination.waiting.isEmpty()) {
+            NioExchange exchange = destination.waiting.peekFirst();
+            if (exchange.future.isDone()) {
+                destination.waiting.pollFirst();
+                continue;
+            }
+            NioConnection connection = idleConnection(destination);
+            if (connection == null && destination.connections.size() < maxConnections(destination)
+                    && totalConnections < poolConfig.getMaxTotal()) {
+                try {
+                    connection = connect(destination, exchange);
+                } catch (IOException e) {
+                    destination.waiting.pollFirst();
+                    exchange.fail(e);
+                    continue;
+                }
+            }
+            if (connection == null && poolConfig.isPipelining() && exchange.isPipelinable()) {
+                connection = pipelineConnection(destination);
+            }
+            if (connection == null) {
+                return;
+            }
+            destination.waiting.pollFirst();
+            send(connection, exchange);
+        }
+    }
+
+    private int maxConnections(Destination destination) {
+        return poolConfig.getMaxPerHost().getOrDefault(destination.name, poolConfig.getMaxPerRoute());
+    }
+
+    /**
+     * 获取最近使用的空闲连接，顺便关闭超过存活时间的连接
+     */
+    private NioConnection idleConnection(Destination destination) {
+        long ttl = TimeUnit.MILLISECONDS.toNanos(poolConfig.getTimeToLive());
+        long now = System.nanoTime();
+        List<NioConnection> connections = destination.connections;
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            NioConnection connection = connections.get(i);
+            if (!connection.isIdle()) {
+                continue;
+            }
+            if (ttl > 0 && now - connection.createdAt > ttl) {
+                closeConnection(connection, new IOException("Connection expired"));
+                continue;
+            }
+            // 最近使用的连接放在末尾
+            connections.remove(i);
+            connections.add(connection);
+            return connection;
+        }
+        return null;
+    }
+
+    /**
+     * 获取在途请求最少且可以追加流水线请求的连接
+     */
+    private NioConnection pipelineConnection(Destination destination) {
+        NioConnection best = null;
+        for (NioConnection connection : destination.connections) {
+            if (connection.canPipeline(poolConfig.getMaxPipelinedRequests())
+                    && (best == null || connection.responseQueue.size() < best.responseQueue.size())) {
+                best = connection;
+            }
+        }
+        return best;
+    }
+
+    private NioConnection connect(Destination destination, NioExchange exchange) throws IOException {
+        SocketChannel channel = client.openChannel(exchange.address);
+        NioConnection connection = new NioConnection(destination.name, channel, READ_BUFFER_SIZE);
+        try {
+            channel.configureBlocking(false);
+            boolean connected = channel.connect(exchange.address);
+            connection.key = channel.register(selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, connection);
+            connection.connected = connected;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+        if (!connection.connected) {
+            connection.connectDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exchange.connectTimeout);
+        }
+        destination.connections.add(connection);
+        totalConnections++;
+        logger.debug("Opening connection to {}", destination.name);
+        return connection;
+    }
+
+    private void send(NioConnection connection, NioExchange exchange) {
+        connection.enqueue(exchange);
+        if (connection.responseQueue.size() == 1) {
+            connection.readDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exchange.readTimeout);
+        }
+        if (connection.connected) {
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                closeConnection(connection, e);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isConnectable()) {
+                connection.channel.finishConnect();
+                connection.connected = true;
+                connection.connectDeadline = 0;
+                touch(connection);
+                flush(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(connection);
+            }
+        } catch (IOException e) {
+            closeConnection(connection, e);
+        } catch (RuntimeException e) {
+            logger.error("Error processing connection {}", connection, e);
+            closeConnection(connection, new IOException(e));
+        }
+    }
+
+    /**
+     * 写出队列中的请求，写不完时关注OP_WRITE
+     */
+    private void flush(NioConnection connection) throws IOException {
+        while (!connection.writeQueue.isEmpty()) {
+            if (!connection.writeQueue.peekFirst().writeTo(connection.channel)) {
+                connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                touch(connection);
+                return;
+            }
+            connection.writeQueue.pollFirst();
+        }
+        connection.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void read(NioConnection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        int n = connection.channel.read(buffer);
+        if (n < 0) {
+            if (!connection.responseQueue.isEmpty() && connection.parser.endOfStream()) {
+                complete(connection);
+            }
+            closeConnection(connection, new IOException("Connection closed by server"));
+            return;
+        }
+        if (n == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                if (connection.responseQueue.isEmpty()) {
+                    throw new IOException("Unexpected data on idle connection");
+                }
+                if (!connection.parser.parse(buffer)) {
+                    break;
+                }
+                // 请求还没写完服务器就返回了响应，连接上的数据已经无法对齐
+                boolean keepAlive = connection.parser.isKeepAlive()
+                        && connection.writeQueue.peekFirst() != connection.responseQueue.peekFirst();
+                complete(connection);
+                if (!keepAlive) {
+                    closeConnection(connection, new IOException("Connection closed by server"));
+                    return;
+                }
+            }
+        } finally {
+            buffer.clear();
+        }
+        touch(connection);
+    }
+
+    /**
+     * 完成队首请求
+     */
+    private void complete(NioConnection connection) {
+        HttpResponse response = connection.parser.toResponse();
+        connection.parser.reset();
+        NioExchange exchange = connection.dequeue();
+        connection.readDeadline = 0;
+        touch(connection);
+        exchange.future.complete(response);
+    }
+
+    /**
+     * 连接上有进展时重新计算读取超时
+     */
+    private void touch(NioConnection connection) {
+        NioExchange head = connection.responseQueue.peekFirst();
+        if (head != null) {
+            connection.readDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(head.readTimeout);
+        }
+    }
+
+    /**
+     * 检查等待连接、建立连接和读取响应的超时
+     *
+     * @return 距离最近截止时间的毫秒数，0表示没有截止时间，-1表示有请求超时需要立即重新分配连接
+     */
+    private long expireTimeouts(long now) {
+        long next = Long.MAX_VALUE;
+        boolean expired = false;
+        for (Destination destination : destinations.values()) {
+            for (Iterator<NioExchange> it = destination.waiting.iterator(); it.hasNext(); ) {
+                NioExchange exchange = it.next();
+                if (exchange.future.isDone()) {
+                    it.remove();
+                } else if (now - exchange.leaseDeadline >= 0) {
+                    it.remove();
+                    exchange.fail(new IOException("Timeout waiting for connection to " + destination.name));
+                } else {
+                    next = Math.min(next, exchange.leaseDeadline - now);
+                }
+            }
+            for (NioConnection connection : new ArrayList<>(destination.connections)) {
+                long deadline = connection.connected ? connection.readDeadline : connection.connectDeadline;
+                if (deadline == 0) {
+                    continue;
+                }
+                if (now - deadline >= 0) {
+                    closeConnection(connection, new SocketTimeoutException(connection.connected ? "Read timed out" : "Connect timed out"));
+                    expired = true;
+                } else {
+                    next = Math.min(next, deadline - now);
+                }
+            }
+        }
+        if (expired) {
+            return -1;
+        }
+        return next == Long.MAX_VALUE ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(next + 999_999));
+    }
+
+    /**
+     * 关闭连接：已经开始接收响应或超时的请求直接失败，其余幂等请求在新连接上重发
+     */
+    private void closeConnection(NioConnection connection, IOException cause) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        closeQuietly(connection.channel);
+        Destination destination = destinations.get(connection.destination);
+        if (destination != null && destination.connections.remove(connection)) {
+            totalConnections--;
+        }
+
+        boolean retryable = connection.connected && !closed && !(cause instanceof SocketTimeoutException);
+        NioExchange head = connection.responseQueue.peekFirst();
+        List<NioExchange> retries = new ArrayList<>();
+        for (NioExchange exchange : connection.responseQueue) {
+            boolean retry = connection.connected && !closed
+                    && (exchange != head || retryable && !connection.parser.isStarted())
+                    && exchange.prepareRetry();
+            if (retry) {
+                retries.add(exchange);
+            } else {
+                exchange.fail(cause);
+            }
+        }
+        connection.responseQueue.clear();
+        connection.writeQueue.clear();
+        if (destination != null) {
+            // 保持原来的顺序放回等待队列队首
+            long now = System.nanoTime();
+            for (int i = retries.size() - 1; i >= 0; i--) {
+                NioExchange exchange = retries.get(i);
+                exchange.leaseDeadline = now + TimeUnit.MILLISECONDS.toNanos(leaseTimeout(exchange));
+                destination.waiting.addFirst(exchange);
+            }
+        }
+        if (!retries.isEmpty()) {
+            logger.debug("Connection to {} closed ({}), retrying {} request(s)", connection.destination, cause.getMessage(), retries.size());
+        }
+    }
+
+    private void shutdown() {
+        closed = true;
+        IOException cause = new IOException("Client closed");
+        for (Destination destination : destinations.values()) {
+            for (NioConnection connection : new ArrayList<>(destination.connections)) {
+                closeConnection(connection, cause);
+            }
+            for (NioExchange exchange : destination.waiting) {
+                exchange.fail(cause);
+            }
+            destination.waiting.clear();
+        }
+        NioExchange exchange;
+        while ((exchange = submissions.poll()) != null) {
+            exchange.fail(cause);
+        }
+        cancellations.clear();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("Error closing selector", e);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响请求结果
+        }
+    }
+
+    /**
+     * 单个目标地址的连接和等待队列
+     */
+    private static final class Destination {
+        final String name;
+        final List<NioConnection> connections = new ArrayList<>();
+        final ArrayDeque<NioExchange> waiting = new ArrayDeque<>();
+
+        Destination(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.wj9806.jrest.client.http;
+
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * 内置NIO传输实现
+ */
+public class NioTransportProvider extends AbstractTransportProvider {
+
+    public NioTransportProvider() {
+        super(ClientType.NIO, TransportCapability.STREAMING, TransportCapability.ASYNC, TransportCapability.POOLED);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return connectionPoolConfig != null ? new NioHttpClient(connectionPoolConfig) : new NioHttpClient();
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.wj9806.jrest.client.http;
+
+/**
+ * 传输实现的能力，用于按需选择和比较不同的传输实现
+ */
+public enum TransportCapability {
+    /**
+     * 支持HTTP/2
+     */
+    HTTP2,
+
+    /**
+     * 输入流和multipart请求体边读边发送，不在内存中缓冲整个请求体
+     */
+    STREAMING,
+
+    /**
+     * 异步请求基于非阻塞I/O完成，不为每个请求占用一个线程
+     */
+    ASYNC,
+
+    /**
+     * 使用可配置的连接池（ConnectionPoolConfig）
+     */
+    POOLED
+}
@@ -0,0 +1,33 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.util.Set;
+
+/**
+ * 传输实现的服务提供者接口
+ * 实现类通过META-INF/services/io.github.wj9806.jrest.client.http.TransportProvider注册，
+ * 由TransportProviders按名称发现；@RestClient#transport或JRestClientFactory.Builder#transport按名称选择
+ */
+public interface TransportProvider {
+
+    /**
+     * 获取传输实现名称，名称不区分大小写，内置实现的名称与ClientType#getValue一致
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 获取传输实现的能力
+     *
+     * @return 能力集合
+     */
+    Set<TransportCapability> getCapabilities();
+
+    /**
+     * 创建HttpClient实例，超时、重试策略、编解码器和拦截器由HttpClientFactory在创建后设置
+     *
+     * @param connectionPoolConfig 连接池配置，只有具备POOLED能力时才可能不为null，null表示使用默认配置
+     * @return HttpClient实例
+     */
+    HttpClient create(ConnectionPoolConfig connectionPoolConfig);
+}
@@ -0,0 +1,97 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 传输实现注册表
+ * 首次使用时通过ServiceLoader加载类路径中的所有TransportProvider，同名实现以先加载的为准，
+ * 也可以通过register手动注册或替换
+ */
+public final class TransportProviders {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransportProviders.class);
+
+    private static final Map<String, TransportProvider> providers = new ConcurrentHashMap<>();
+
+    static {
+        Iterator<TransportProvider> iterator = ServiceLoader.load(TransportProvider.class,
+                TransportProviders.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                TransportProvider provider = iterator.next();
+                TransportProvider existing = providers.putIfAbsent(key(provider.getName()), provider);
+                if (existing != null) {
+                    logger.warn("Ignore transport provider {}, {} is already registered as {}",
+                            provider.getClass().getName(), existing.getClass().getName(), provider.getName());
+                }
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // 可选模块所需的JDK版本或依赖不满足时跳过
+                logger.warn("Failed to load transport provider", e);
+            }
+        }
+    }
+
+    /**
+     * 私有构造函数，防止外部实例化
+     */
+    private TransportProviders() {
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 注册传输实现，替换同名的已有实现
+     *
+     * @param provider 传输实现
+     */
+    public static void register(TransportProvider provider) {
+        providers.put(key(provider.getName()), provider);
+    }
+
+    /**
+     * 按名称获取传输实现
+     *
+     * @param name 名称，不区分大小写
+     * @return 传输实现，不存在时返回null
+     */
+    public static TransportProvider get(String name) {
+        return name == null ? null : providers.get(key(name));
+    }
+
+    /**
+     * 获取所有已注册的传输实现
+     *
+     * @return 传输实现列表
+     */
+    public static Collection<TransportProvider> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(providers.values()));
+    }
+
+    /**
+     * 判断传输实现是否具备指定能力
+     *
+     * @param name 名称
+     * @param capability 能力
+     * @return 传输实现存在且具备该能力时返回true
+     */
+    public static boolean supports(String name, TransportCapability capability) {
+        TransportProvider provider = get(name);
+        return provider != null && provider.getCapabilities().contains(capability);
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.wj9806.jrest.client.http;
+
+import java.lang.reflect.Array;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的URL模板
+ * 在创建时将模板一次性拆分为字面量片段和{name}形式的变量片段，
+ * 展开时直接写入预估大小的缓冲区，并按RFC 3986对变量值进行百分号编码
+ */
+public final class UrlTemplate {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // 路径片段中可以原样输出的字符（unreserved / sub-delims / ":" / "@"）
+    private static final boolean[] PATH_SEGMENT_SAFE = new boolean[128];
+
+    // 查询参数名和值中可以原样输出的字符，"&"、"="、"+"需要编码
+    private static final boolean[] QUERY_PARAM_SAFE = new boolean[128];
+
+    // URI中允许出现的所有字符（unreserved / reserved / "%"），用于模板字面量
+    private static final boolean[] URI_SAFE = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            markAll(c);
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            markAll(c);
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            markAll(c);
+        }
+        for (char c : "-._~!$'()*,;:@".toCharArray()) {
+            markAll(c);
+        }
+        PATH_SEGMENT_SAFE['&'] = true;
+        PATH_SEGMENT_SAFE['='] = true;
+        PATH_SEGMENT_SAFE['+'] = true;
+        QUERY_PARAM_SAFE['/'] = true;
+        QUERY_PARAM_SAFE['?'] = true;
+        for (char c : "&=+/?#[]%".toCharArray()) {
+            URI_SAFE[c] = true;
+        }
+    }
+
+    private static void markAll(char c) {
+        PATH_SEGMENT_SAFE[c] = true;
+        QUERY_PARAM_SAFE[c] = true;
+        URI_SAFE[c] = true;
+    }
+
+    private final String template;
+    private final String[] literals;
+    private final String[] variableNames;
+    private final int literalLength;
+
+    private UrlTemplate(String template, List<String> literals, List<String> variableNames) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.variableNames = variableNames.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 编译URL模板
+     *
+     * @param template URL模板，如 https://api.github.com/users/{username}
+     * @return 编译后的URL模板
+     */
+    public static UrlTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            int close = c == '{' ? template.indexOf('}', i + 1) : -1;
+            if (close > i + 1) {
+                literals.add(encodeLiteral(literal));
+                literal.setLength(0);
+                variableNames.add(template.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(encodeLiteral(literal));
+        return new UrlTemplate(template, literals, variableNames);
+    }
+
+    /**
+     * 拼接基础URL和请求路径后编译URL模板
+     *
+     * @param baseUrl 基础URL
+     * @param path 请求路径，可包含{name}形式的路径参数
+     * @return 编译后的URL模板
+     */
+    public static UrlTemplate compile(String baseUrl, String path) {
+        return compile(joinUrl(baseUrl, path));
+    }
+
+    /**
+     * 拼接基础URL和请求路径
+     */
+    private static String joinUrl(String baseUrl, String path) {
+        String base = baseUrl != null ? baseUrl : "";
+        if (path == null || path.isEmpty()) {
+            return base;
+        }
+        if (base.endsWith("/") && path.startsWith("/")) {
+            return base + path.substring(1);
+        }
+        if (!base.endsWith("/") && !path.startsWith("/")) {
+            return base + "/" + path;
+        }
+        return base + path;
+    }
+
+    /**
+     * 展开URL模板
+     *
+     * @param args 参数数组
+     * @param argIndexes 每个模板变量对应的参数下标，-1表示该变量未绑定，原样保留不编码的占位符
+     * @return 展开并编码后的URL
+     * @throws IllegalArgumentException 路径参数的值为null
+     */
+    public String expand(Object[] args, int[] argIndexes) {
+        StringBuilder buffer = new StringBuilder(literalLength + variableNames.length * 16);
+        buffer.append(literals[0]);
+        for (int i = 0; i < variableNames.length; i++) {
+            int argIndex = argIndexes[i];
+            if (argIndex < 0) {
+                buffer.append('{').append(variableNames[i]).append('}');
+            } else {
+                Object value = args[argIndex];
+                // 忽略null会把/items/{id}变成/items/，可能请求到集合资源
+                if (value == null) {
+                    throw new IllegalArgumentException("Path variable '" + variableNames[i] + "' is null");
+                }
+                encodePathSegment(buffer, value.toString());
+            }
+            buffer.append(literals[i + 1]);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * 获取模板中的变量名称，按出现顺序排列
+     *
+     * @return 变量名称列表
+     */
+    public List<String> getVariableNames() {
+        List<String> names = new ArrayList<>(variableNames.length);
+        Collections.addAll(names, variableNames);
+        return names;
+    }
+
+    /**
+     * 获取原始模板字符串
+     *
+     * @return 模板字符串
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * 将URL与查询参数拼接为URI
+     * Collection和数组类型的参数值会展开为多个同名参数，值为null的参数会被忽略
+     *
+     * @param url 请求URL
+     * @param queryParams 查询参数
+     * @return URI对象
+     */
+    public static URI toUri(String url, Map<String, Object> queryParams) {
+        if (queryParams == null || queryParams.isEmpty()) {
+            return URI.create(url);
+        }
+        StringBuilder buffer = new StringBuilder(url.length() + queryParams.size() * 24);
+        buffer.append(url);
+        char separator = url.indexOf('?') >= 0 ? '&' : '?';
+        for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    separator = appendQueryParam(buffer, separator, entry.getKey(), element);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                for (int i = 0; i < length; i++) {
+                    separator = appendQueryParam(buffer, separator, entry.getKey(), Array.get(value, i));
+                }
+            } else {
+                separator = appendQueryParam(buffer, separator, entry.getKey(), value);
+            }
+        }
+        return URI.create(buffer.toString());
+    }
+
+    private static char appendQueryParam(StringBuilder buffer, char separator, String name, Object value) {
+        if (value == null) {
+            return separator;
+        }
+        buffer.append(separator);
+        encode(buffer, name, QUERY_PARAM_SAFE);
+        buffer.append('=');
+        encode(buffer, value.toString(), QUERY_PARAM_SAFE);
+        return '&';
+    }
+
+    /**
+     * 按RFC 3986对路径片段进行编码，"/"也会被编码
+     */
+    private static void encodePathSegment(StringBuilder buffer, String value) {
+        encode(buffer, value, PATH_SEGMENT_SAFE);
+    }
+
+    private static void encode(StringBuilder buffer, String value, boolean[] safe) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128 && safe[c]) {
+                buffer.append(c);
+            } else if (c < 128) {
+                appendEscaped(buffer, c);
+            } else {
+                // 非ASCII字符按UTF-8编码，代理对需要与低位字符一起编码
+                int end = Character.isHighSurrogate(c) && i + 1 < length ? i + 2 : i + 1;
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendEscaped(buffer, b & 0xFF);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    /**
+     * 模板字面量只编码URI中不允许出现的字符，已编码的内容保持不变
+     */
+    private static String encodeLiteral(StringBuilder literal) {
+        StringBuilder buffer = new StringBuilder(literal.length());
+        encode(buffer, literal.toString(), URI_SAFE);
+        return buffer.toString();
+    }
+
+    private static void appendEscaped(StringBuilder buffer, int b) {
+        buffer.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.wj9806.jrest.client.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行阻塞请求的线程
+ * 启用虚拟线程（系统属性jrest.virtual-threads=true或调用setEnabled）且运行在JDK 21及以上版本时，
+ * 阻塞式传输实现（NATIVE、IN_PROCESS）为每个请求创建一个虚拟线程，重试调度器的线程也使用虚拟线程；
+ * 否则使用按需创建的守护线程。虚拟线程相关的API通过反射调用，Java 8仍可编译和运行。
+ * 开关在创建线程池时读取，只影响之后创建的线程池：重试、调度、编码等共享的线程池在第一次请求时创建，
+ * 因此开关应当在发出第一个请求之前设置，之后修改只对新创建的HttpClient生效
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // JDK 19和20中虚拟线程是预览特性，未开启预览时调用会失败
+            factory.invoke(name.invoke(ofVirtual.invoke(null), "jrest-probe-", 0L));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("jrest.virtual-threads");
+    // 是否已经按开关创建过线程池
+    private static volatile boolean used;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 是否启用并且可以使用虚拟线程
+     *
+     * @return 是否使用虚拟线程
+     */
+    public static boolean isEnabled() {
+        return enabled && isAvailable();
+    }
+
+    /**
+     * 设置是否使用虚拟线程，当前JVM不支持时继续使用平台线程
+     * 应当在发出第一个请求之前设置，已经创建的共享线程池不受影响
+     *
+     * @param enabled 是否使用虚拟线程
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !isAvailable()) {
+            logger.warn("Virtual threads are not available on Java {}, using platform threads",
+                    System.getProperty("java.version"));
+        }
+        if (used && enabled != VirtualThreads.enabled) {
+            logger.warn("Virtual threads {} after executors were created, shared executors keep their current threads",
+                    enabled ? "enabled" : "disabled");
+        }
+        VirtualThreads.enabled = enabled;
+    }
+
+    /**
+     * 创建执行阻塞请求的线程池：启用虚拟线程时每个任务一个虚拟线程，否则为守护线程的缓存线程池
+     *
+     * @param namePrefix 线程名前缀
+     * @return 线程池
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        used = true;
+        if (isEnabled()) {
+            try {
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, virtualThreadFactory(namePrefix));
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create virtual thread executor, using platform threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreadFactory(namePrefix));
+    }
+
+    /**
+     * 创建线程工厂：启用虚拟线程时创建虚拟线程，否则创建守护线程
+     *
+     * @param namePrefix 线程名前缀
+     * @return 线程工厂
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        used = true;
+        if (isEnabled()) {
+            try {
+                return virtualThreadFactory(namePrefix);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create virtual thread factory, using platform threads", e);
+            }
+        }
+        return daemonThreadFactory(namePrefix);
+    }
+
+    private static ThreadFactory virtualThreadFactory(String namePrefix) throws ReflectiveOperationException {
+        return (ThreadFactory) FACTORY.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L));
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.wj9806.jrest.client.http.decode;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 
 /**
@@ -32,6 +34,27 @@ public interface Decoder {
      */
     <T> T decode(String content, Type targetType, String contentType) throws Exception;
     
+    /**
+     * 从输入流解码HTTP响应体，不把响应体转换为字符串
+     * 默认读取全部字节后调用decode(byte[], Type, String)，支持流式解析的解码器应覆盖该方法
+     * 
+     * @param in 响应体输入流，由调用方关闭
+     * @param targetType 目标类型
+     * @param contentType 内容类型
+     * @param <T> 目标类型泛型
+     * @return 解码后的Java对象，响应体为空时返回null
+     * @throws Exception 解码过程中的异常
+     */
+    default <T> T decode(InputStream in, Type targetType, String contentType) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+        return decode(out.toByteArray(), targetType, contentType);
+    }
+    
     /**
      * 判断是否支持指定的内容类型
      * 
@@ -1,10 +1,18 @@
 package io.github.wj9806.jrest.client.http.decode;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.github.wj9806.jrest.client.http.ContentType;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -34,13 +42,18 @@ public class JacksonDecoder implements Decoder {
     }
     
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T decode(byte[] bytes, Type targetType, String contentType) throws Exception {
         if (bytes == null || bytes.length == 0) {
             return null;
         }
         
-        String content = new String(bytes, StandardCharsets.UTF_8);
-        return decode(content, targetType, contentType);
+        // 字节数组直接交给Jackson解析，不先构造字符串
+        JavaType javaType = javaTypeOf(targetType);
+        if (javaType.hasRawClass(String.class)) {
+            return (T) new String(bytes, StandardCharsets.UTF_8);
+        }
+        return objectMapper.readValue(bytes, javaType);
     }
     
     @Override
@@ -50,6 +63,15 @@ public class JacksonDecoder implements Decoder {
             return null;
         }
         
+        // 预先解析好的JavaType直接使用，避免每次构造类型
+        if (targetType instanceof JavaType) {
+            JavaType javaType = (JavaType) targetType;
+            if (javaType.hasRawClass(String.class)) {
+                return (T) content;
+            }
+            return objectMapper.readValue(content, javaType);
+        }
+        
         // 如果目标类型是String，直接返回
         if (targetType == String.class) {
             return (T) content;
@@ -65,6 +87,46 @@ public class JacksonDecoder implements Decoder {
         });
     }
     
+    /**
+     * 直接从输入流解析JSON，不经过字符串
+     * Jackson能够自动识别UTF-8/16/32编码，其他字符集按Content-Type声明的字符集读取
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(InputStream in, Type targetType, String contentType) throws Exception {
+        JavaType javaType = javaTypeOf(targetType);
+        Charset charset = ContentType.charsetOf(contentType);
+        boolean unicode = charset.name().startsWith("UTF-");
+        if (javaType.hasRawClass(String.class)) {
+            return (T) decode(readString(in, charset), targetType, contentType);
+        }
+        try (JsonParser parser = unicode
+                ? objectMapper.getFactory().createParser(in)
+                : objectMapper.getFactory().createParser(new InputStreamReader(in, charset))) {
+            // 响应体为空时与字符串解码一致，返回null
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return objectMapper.readValue(parser, javaType);
+        }
+    }
+    
+    private JavaType javaTypeOf(Type targetType) {
+        return targetType instanceof JavaType
+                ? (JavaType) targetType : objectMapper.getTypeFactory().constructType(targetType);
+    }
+    
+    private static String readString(InputStream in, Charset charset) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        Reader reader = new InputStreamReader(in, charset);
+        char[] buffer = new char[8192];
+        int len;
+        while ((len = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, len);
+        }
+        return builder.toString();
+    }
+    
     @Override
     public boolean supports(String contentType) {
         return contentType != null && (contentType.equals("application/json") || contentType.startsWith("application/json;"));
@@ -1,7 +1,11 @@
 package io.github.wj9806.jrest.client.http.decode;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.Type;
 import java.lang.reflect.ParameterizedType;
 import java.nio.charset.StandardCharsets;
@@ -51,6 +55,35 @@ public class XmlDecoder implements Decoder {
         return decodeBytes(content.getBytes(StandardCharsets.UTF_8), targetType);
     }
 
+    /**
+     * 直接从输入流解析XML，不经过字符串，字符集由XML声明决定
+     * 
+     * @param in          XML输入流
+     * @param targetType  目标类型
+     * @param contentType 内容类型
+     * @param <T>         目标类型泛型
+     * @return 解码后的Java对象，输入流为空时返回null
+     * @throws Exception 解码过程中的异常
+     */
+    @Override
+    public <T> T decode(InputStream in, Type targetType, String contentType) throws Exception {
+        JavaType javaType = targetType instanceof JavaType
+                ? (JavaType) targetType : xmlMapper.getTypeFactory().constructType(targetType);
+        // XML解析器不接受空文档，先读取一个字节判断输入流是否为空
+        PushbackInputStream pushback = new PushbackInputStream(in);
+        int first = pushback.read();
+        if (first == -1) {
+            return null;
+        }
+        pushback.unread(first);
+        try (JsonParser parser = xmlMapper.getFactory().createParser(pushback)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return xmlMapper.readValue(parser, javaType);
+        }
+    }
+
     /**
      * 判断是否支持指定的内容类型
      * 
@@ -75,7 +108,10 @@ public class XmlDecoder implements Decoder {
      */
     @SuppressWarnings("unchecked")
     private <T> T decodeBytes(byte[] bytes, Type targetType) throws Exception {
-        if (targetType instanceof Class) {
+        if (targetType instanceof JavaType) {
+            // 预先解析好的JavaType直接使用
+            return xmlMapper.readValue(bytes, (JavaType) targetType);
+        } else if (targetType instanceof Class) {
             return xmlMapper.readValue(bytes, (Class<T>) targetType);
         } else if (targetType instanceof ParameterizedType) {
             return xmlMapper.readValue(bytes, xmlMapper.getTypeFactory().constructType(targetType));
@@ -1,5 +1,7 @@
 package io.github.wj9806.jrest.client.http.encode;
 
+import java.io.OutputStream;
+
 /**
  * HTTP请求体编码器接口
  * 用于将Java对象编码为HTTP请求体内容
@@ -15,6 +17,19 @@ public interface Encoder {
      * @throws Exception 编码过程中的异常
      */
     byte[] encode(Object object, String contentType) throws Exception;
+
+    /**
+     * 将Java对象编码后写入输出流，用于大请求体边序列化边发送
+     * 默认实现先编码为字节数组再写入，实现类可以覆盖为流式序列化；实现不应关闭输出流
+     *
+     * @param object 要编码的对象
+     * @param contentType 内容类型
+     * @param out 输出流
+     * @throws Exception 编码或写入过程中的异常
+     */
+    default void encode(Object object, String contentType, OutputStream out) throws Exception {
+        out.write(encode(object, contentType));
+    }
     
     /**
      * 判断是否支持指定的内容类型
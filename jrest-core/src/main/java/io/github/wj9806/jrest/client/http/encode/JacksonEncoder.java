@@ -1,7 +1,9 @@
 package io.github.wj9806.jrest.client.http.encode;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -42,6 +44,24 @@ public class JacksonEncoder implements Encoder {
         // 否则使用Jackson进行JSON序列化
         return objectMapper.writeValueAsBytes(object);
     }
+
+    @Override
+    public void encode(Object object, String contentType, OutputStream out) throws Exception {
+        if (object == null) {
+            return;
+        }
+
+        if (object instanceof String) {
+            out.write(((String) object).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        // 生成器的缓冲区写满即写入输出流，关闭生成器时不关闭输出流
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeValue(generator, object);
+        }
+    }
     
     @Override
     public boolean supports(String contentType) {
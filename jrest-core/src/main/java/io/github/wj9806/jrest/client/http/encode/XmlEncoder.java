@@ -1,7 +1,10 @@
 package io.github.wj9806.jrest.client.http.encode;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
+import java.io.OutputStream;
+
 /**
  * XML编码器，将Java对象编码为XML格式
  */
@@ -22,6 +25,19 @@ public class XmlEncoder implements Encoder {
         return xmlMapper.writeValueAsBytes(object);
     }
 
+    /**
+     * 将Java对象编码为XML并写入输出流，不关闭输出流
+     *
+     * @param object      要编码的对象
+     * @param contentType 内容类型
+     * @param out         输出流
+     * @throws Exception 编码过程中的异常
+     */
+    @Override
+    public void encode(Object object, String contentType, OutputStream out) throws Exception {
+        xmlMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, object);
+    }
+
     /**
      * 判断是否支持指定的内容类型
      * 
@@ -0,0 +1,121 @@
+package io.github.wj9806.jrest.client.proxy;
+
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.MultipartFile;
+import io.github.wj9806.jrest.client.http.UrlTemplate;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 编译期生成的REST客户端实现的基类
+ * 由jrest-processor为@RestClient接口生成的实现类继承该类，
+ * 生成的方法直接构建HttpRequest，不再经过动态代理和注解反射
+ */
+public abstract class AbstractGeneratedClient {
+
+    /**
+     * 生成类的名称后缀
+     */
+    public static final String GENERATED_CLASS_SUFFIX = "_JRestImpl";
+
+    protected final String baseUrl;
+    protected final HttpClient httpClient;
+
+    protected AbstractGeneratedClient(String baseUrl, HttpClient httpClient) {
+        this.baseUrl = baseUrl;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * 获取接口对应的生成类名称
+     * 与接口位于同一个包中，嵌套接口的类名使用"_"连接
+     *
+     * @param clientInterface 客户端接口
+     * @return 生成类的全限定名
+     */
+    public static String generatedClassName(Class<?> clientInterface) {
+        String name = clientInterface.getName();
+        int index = name.lastIndexOf('.');
+        String packagePrefix = index >= 0 ? name.substring(0, index + 1) : "";
+        return packagePrefix + name.substring(index + 1).replace('$', '_') + GENERATED_CLASS_SUFFIX;
+    }
+
+    /**
+     * 拼接基础URL和请求路径并编译URL模板
+     */
+    protected final UrlTemplate compile(String path) {
+        return UrlTemplate.compile(baseUrl, path);
+    }
+
+    /**
+     * 计算URL模板中每个变量对应的参数下标，未绑定的变量为-1
+     *
+     * @param urlTemplate URL模板
+     * @param names 路径参数名称，第i个名称对应展开时传入的第i个参数
+     * @return 模板变量对应的参数下标
+     */
+    protected static int[] pathIndexes(UrlTemplate urlTemplate, String... names) {
+        List<String> variableNames = urlTemplate.getVariableNames();
+        int[] result = new int[variableNames.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = -1;
+            for (int j = 0; j < names.length; j++) {
+                if (names[j].equals(variableNames.get(i))) {
+                    result[i] = j;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 添加multipart文件参数，支持MultipartFile和File类型
+     */
+    protected static void addPart(HttpRequest.Builder builder, String name, Object value) {
+        if (value instanceof MultipartFile) {
+            builder.addMultipartFile(name, (MultipartFile) value);
+        } else if (value instanceof File) {
+            builder.addMultipartFile(name, new DefaultMultipartFile(name, (File) value));
+        } else {
+            throw new IllegalArgumentException("RequestPart parameter must be of type MultipartFile or File");
+        }
+    }
+
+    /**
+     * 将参数值转换为字符串，null保持为null
+     */
+    protected static String stringValue(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * 同步执行请求并将响应转换为方法返回值
+     */
+    @SuppressWarnings("unchecked")
+    protected final <T> T execute(HttpRequest httpRequest, ResponseHandler responseHandler) throws Exception {
+        return (T) responseHandler.execute(httpClient, httpRequest);
+    }
+
+    /**
+     * 异步执行请求，响应到达后转换为目标类型
+     */
+    @SuppressWarnings("unchecked")
+    protected final <T> CompletableFuture<T> executeAsync(HttpRequest httpRequest, ResponseHandler responseHandler) {
+        try {
+            return (CompletableFuture<T>) responseHandler.execute(httpClient, httpRequest);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[baseUrl=" + baseUrl + "]";
+    }
+}
@@ -2,6 +2,7 @@ package io.github.wj9806.jrest.client.proxy;
 
 /**
  * HTTP客户端类型枚举
+ * 对应内置的传输实现，getValue与TransportProvider#getName一致；其他模块提供的传输实现通过@RestClient#transport按名称选择
  */
 public enum ClientType {
     /**
@@ -9,10 +10,40 @@ public enum ClientType {
      */
     APACHE("apache"),
     
+    /**
+     * Apache HttpClient 5实现，单个异步I/O反应器，支持HTTP/2，需要引入jrest-apache5模块
+     */
+    APACHE5("apache5"),
+    
     /**
      * JDK原生HttpClient实现
      */
-    NATIVE("native");
+    NATIVE("native"),
+    
+    /**
+     * JDK 11+ java.net.http.HttpClient实现，支持HTTP/2，需要引入jrest-jdk-http模块
+     */
+    JDK_HTTP("jdk_http"),
+    
+    /**
+     * Netty实现，事件循环非阻塞I/O，Linux下使用epoll，需要引入jrest-netty模块
+     */
+    NETTY("netty"),
+    
+    /**
+     * 内置的NIO实现，基于SocketChannel和Selector，支持持久连接和请求流水线，不依赖第三方库
+     */
+    NIO("nio"),
+    
+    /**
+     * Unix domain socket实现，复用内置的NIO实现，用于访问unix://地址的本地服务，需要Java 16+并引入jrest-uds模块
+     */
+    UDS("uds"),
+    
+    /**
+     * 进程内调用实现，直接交给同一JVM中通过InProcessRegistry注册的处理器，不经过网络
+     */
+    IN_PROCESS("in_process");
     
     private final String value;
     
@@ -29,6 +60,28 @@ public enum ClientType {
         return value;
     }
     
+    /**
+     * 是否使用可配置的连接池（ConnectionPoolConfig）
+     *
+     * @return 是否使用可配置的连接池
+     */
+    public boolean isPooled() {
+        return this == APACHE || this == APACHE5 || this == NETTY || this == NIO || this == UDS;
+    }
+    
+    /**
+     * 获取访问指定基础URL实际使用的客户端类型，unix://地址只能通过Unix domain socket访问
+     *
+     * @param baseUrl 基础URL
+     * @return 客户端类型
+     */
+    public ClientType forBaseUrl(String baseUrl) {
+        if (baseUrl != null && baseUrl.regionMatches(true, 0, "unix:", 0, 5)) {
+            return UDS;
+        }
+        return this;
+    }
+    
     /**
      * 根据字符串值获取对应的枚举
      *
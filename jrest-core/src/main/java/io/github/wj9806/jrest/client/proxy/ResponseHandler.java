@@ -0,0 +1,258 @@
+package io.github.wj9806.jrest.client.proxy;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.decode.Decoder;
+import io.github.wj9806.jrest.client.http.decode.JacksonDecoder;
+import io.github.wj9806.jrest.client.http.decode.XmlDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * 响应处理策略
+ * 每个接口方法在创建客户端时根据返回类型选定一种策略（同步/异步、void/字节数组/输入流/解码对象），
+ * 调用时不再判断返回类型，直接执行请求并转换响应
+ */
+public abstract class ResponseHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseHandler.class);
+
+    /**
+     * 根据方法的返回类型选择响应处理策略
+     *
+     * @param method 接口方法
+     * @return 响应处理策略
+     */
+    public static ResponseHandler forMethod(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (!Future.class.isAssignableFrom(returnType)) {
+            return forType(method.getGenericReturnType(), false);
+        }
+        // 异步方法取Future的泛型参数作为目标类型，无法获取时不解析响应
+        Type genericReturnType = method.getGenericReturnType();
+        Type valueType = null;
+        if (genericReturnType instanceof ParameterizedType) {
+            Type[] actualTypeArguments = ((ParameterizedType) genericReturnType).getActualTypeArguments();
+            if (actualTypeArguments.length > 0) {
+                valueType = actualTypeArguments[0];
+            }
+        }
+        return forType(valueType, true);
+    }
+
+    /**
+     * 根据目标类型选择响应处理策略
+     *
+     * @param valueType 响应需要转换成的类型，null表示不解析响应
+     * @param async 是否异步执行
+     * @return 响应处理策略
+     */
+    public static ResponseHandler forType(Type valueType, boolean async) {
+        ResponseHandler handler;
+        if (valueType == null || valueType == void.class || valueType == Void.class) {
+            handler = VoidHandler.INSTANCE;
+        } else if (valueType == byte[].class) {
+            handler = BytesHandler.INSTANCE;
+        } else if (valueType == InputStream.class) {
+            handler = StreamHandler.INSTANCE;
+        } else {
+            handler = new DecodingHandler(valueType);
+        }
+        return async ? new AsyncHandler(handler) : handler;
+    }
+
+    /**
+     * 执行请求并返回方法的返回值
+     *
+     * @param httpClient HttpClient实例
+     * @param httpRequest 请求
+     * @return 方法返回值
+     * @throws Exception 请求或解码异常
+     */
+    public Object execute(HttpClient httpClient, HttpRequest httpRequest) throws Exception {
+        return handle(httpClient, httpClient.exchange(httpRequest));
+    }
+
+    /**
+     * 将响应转换为目标类型
+     *
+     * @param httpClient HttpClient实例，用于获取解码器
+     * @param response 响应
+     * @return 转换后的对象
+     * @throws Exception 解码异常
+     */
+    public abstract Object handle(HttpClient httpClient, HttpResponse response) throws Exception;
+
+    /**
+     * void返回类型，不解析响应
+     */
+    private static final class VoidHandler extends ResponseHandler {
+        static final VoidHandler INSTANCE = new VoidHandler();
+
+        @Override
+        public Object handle(HttpClient httpClient, HttpResponse response) {
+            return null;
+        }
+    }
+
+    /**
+     * 文件下载，返回字节数组
+     */
+    private static final class BytesHandler extends ResponseHandler {
+        static final BytesHandler INSTANCE = new BytesHandler();
+
+        @Override
+        public Object handle(HttpClient httpClient, HttpResponse response) {
+            if (response.getBinaryBody() != null) {
+                return response.getBinaryBody();
+            } else if (response.getRawBody() != null) {
+                return response.getRawBody();
+            } else if (response.getBody() != null) {
+                return response.getBody().getBytes();
+            } else {
+                return new byte[0];
+            }
+        }
+    }
+
+    /**
+     * 文件下载，返回输入流
+     */
+    private static final class StreamHandler extends ResponseHandler {
+        static final StreamHandler INSTANCE = new StreamHandler();
+
+        @Override
+        public Object handle(HttpClient httpClient, HttpResponse response) {
+            return response.getBodyAsStream();
+        }
+    }
+
+    /**
+     * 使用解码器将响应体解码为目标类型
+     * 传输层保留了原始字节时直接从字节流解码，响应体不会转换为字符串；
+     * 目标类型预先解析为Jackson的JavaType，内置的Jackson解码器直接使用，自定义解码器仍然收到原始Type；
+     * 泛型参数不参与按引用返回对象的类型判断，由服务方的返回类型保证
+     */
+    private static final class DecodingHandler extends ResponseHandler {
+        private final Type type;
+        private final JavaType javaType;
+
+        DecodingHandler(Type type) {
+            this.type = type;
+            this.javaType = TypeFactory.defaultInstance().constructType(type);
+        }
+
+        @Override
+        public Object handle(HttpClient httpClient, HttpResponse response) throws Exception {
+            // 进程内调用按引用返回的对象类型兼容时直接使用，不再编解码
+            Object entity = response.getEntity();
+            if (entity != null && isAssignable(entity, response.getEntityType())) {
+                return entity;
+            }
+            
+            byte[] rawBody = response.getRawBody();
+            String body = rawBody == null ? response.getBody() : null;
+
+            // 如果响应体为空，返回null
+            if (rawBody != null ? rawBody.length == 0 : body == null || body.isEmpty()) {
+                return null;
+            }
+
+            // 从响应头中获取内容类型
+            String contentType = "application/json"; // 默认值
+            Map<String, String> headers = response.getHeaders();
+            if (headers != null && headers.containsKey("Content-Type")) {
+                contentType = headers.get("Content-Type");
+            }
+
+            Decoder decoder = httpClient.getCodecManager().selectDecoder(contentType);
+            Type targetType = decoder instanceof JacksonDecoder || decoder instanceof XmlDecoder ? javaType : type;
+            if (rawBody != null) {
+                try (InputStream in = new ByteArrayInputStream(rawBody)) {
+                    return decoder.decode(in, targetType, contentType);
+                }
+            }
+            return decoder.decode(body, targetType, contentType);
+        }
+
+        /**
+         * 判断进程内返回的对象能否直接作为返回值
+         * 运行时只能检查原始类型，返回类型带泛型参数时还要求服务方声明的类型完全一致，
+         * 否则如List&lt;Foo&gt;会被当作List&lt;Bar&gt;返回，使用元素时才抛出ClassCastException
+         */
+        private boolean isAssignable(Object entity, Type entityType) {
+            if (!javaType.getRawClass().isInstance(entity)) {
+                return false;
+            }
+            if (type instanceof Class) {
+                return true;
+            }
+            return entityType != null && TypeFactory.defaultInstance().constructType(entityType).equals(javaType);
+        }
+    }
+
+    /**
+     * 异步执行，响应到达后交给同步策略转换
+     */
+    private static final class AsyncHandler extends ResponseHandler {
+        private final ResponseHandler delegate;
+
+        AsyncHandler(ResponseHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object execute(HttpClient httpClient, HttpRequest httpRequest) {
+            // 发送异步HTTP请求
+            CompletableFuture<HttpResponse> responseFuture = httpClient.exchangeAsync(httpRequest);
+
+            // 检查responseFuture是否为null
+            if (responseFuture == null) {
+                logger.error("responseFuture is null");
+                return CompletableFuture.completedFuture("");
+            }
+
+            // 返回一个新的CompletableFuture，它会在原始Future完成时解析响应
+            CompletableFuture<Object> resultFuture = responseFuture.thenApply(response -> {
+                try {
+                    // 检查响应是否为null
+                    if (response == null) {
+                        logger.error("Response is null");
+                        return "";
+                    }
+
+                    Object result = delegate.handle(httpClient, response);
+                    // 确保返回非null值
+                    return result != null ? result : "";
+                } catch (Exception e) {
+                    logger.error("Error parsing async response", e);
+                    throw new RuntimeException(e);
+                }
+            });
+            // thenApply返回的future被取消或通过orTimeout超时时不会影响原始Future，需要显式取消以中止请求和后续重试
+            resultFuture.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    responseFuture.cancel(true);
+                }
+            });
+            return resultFuture;
+        }
+
+        @Override
+        public Object handle(HttpClient httpClient, HttpResponse response) throws Exception {
+            return delegate.handle(httpClient, response);
+        }
+    }
+}
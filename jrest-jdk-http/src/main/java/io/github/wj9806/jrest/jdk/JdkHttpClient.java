@@ -0,0 +1,225 @@
+package io.github.wj9806.jrest.jdk;
+
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.MultipartBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于JDK 11+ java.net.http.HttpClient的实现
+ * 默认优先使用HTTP/2：https通过ALPN协商，http通过h2c升级，服务器不支持时自动回退到HTTP/1.1。
+ * 同一目标地址的并发请求在少量连接上多路复用，异步请求使用sendAsync，不会为每个请求占用一个线程
+ */
+public class JdkHttpClient extends AbstractHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdkHttpClient.class);
+
+    // java.net.http不允许手动设置的请求头，由客户端自行管理
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "upgrade"));
+
+    private final HttpClient.Version version;
+    private volatile HttpClient httpClient;
+
+    public JdkHttpClient() {
+        this(HttpClient.Version.HTTP_2);
+    }
+
+    /**
+     * 使用指定的协议版本创建客户端
+     *
+     * @param version 首选协议版本
+     */
+    public JdkHttpClient(HttpClient.Version version) {
+        this.version = version;
+    }
+
+    /**
+     * 使用外部创建的java.net.http.HttpClient，连接超时时间等配置以传入的客户端为准
+     *
+     * @param httpClient java.net.http.HttpClient实例
+     */
+    public JdkHttpClient(HttpClient httpClient) {
+        this.version = httpClient.version();
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * 获取底层的java.net.http.HttpClient
+     * 连接超时时间是客户端级别的配置，因此在第一次请求时才按当前配置创建
+     *
+     * @return java.net.http.HttpClient实例
+     */
+    public HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .version(version)
+                            .connectTimeout(Duration.ofMillis(getConnectTimeout()))
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public void setConnectTimeout(int connectTimeout) {
+        super.setConnectTimeout(connectTimeout);
+        if (httpClient != null) {
+            logger.warn("connectTimeout of an existing java.net.http.HttpClient cannot be changed");
+        }
+    }
+
+    @Override
+    protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+        java.net.http.HttpRequest request;
+        try {
+            request = buildHttpRequest(httpRequest);
+        } catch (Exception e) {
+            CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        logger.debug("Sending async {} request to: {}", request.method(), request.uri());
+        CompletableFuture<java.net.http.HttpResponse<byte[]>> exchange = getHttpClient().sendAsync(request, BodyHandlers.ofByteArray());
+        CompletableFuture<HttpResponse> future = exchange.thenApply(JdkHttpClient::buildHttpResponse);
+        // 取消不会从thenApply返回的future传递到sendAsync，需要显式取消；JDK 16及以上取消sendAsync会中止交换
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 构建java.net.http.HttpRequest对象
+     */
+    private java.net.http.HttpRequest buildHttpRequest(HttpRequest httpRequest) throws IOException {
+        URI uri;
+        try {
+            uri = httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e);
+        }
+
+        // java.net.http只有客户端级别的连接超时，读取超时作为整个请求等待响应的超时时间
+        java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(readTimeoutOf(httpRequest)));
+
+        // 添加请求头
+        if (httpRequest.getHeaders() != null) {
+            for (Map.Entry<String, String> header : httpRequest.getHeaders().entrySet()) {
+                if (header.getValue() == null || RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                builder.setHeader(header.getKey(), header.getValue());
+            }
+        }
+
+        // 添加Cookie
+        if (httpRequest.getCookies() != null && !httpRequest.getCookies().isEmpty()) {
+            StringBuilder cookieBuilder = new StringBuilder();
+            for (Map.Entry<String, String> cookie : httpRequest.getCookies().entrySet()) {
+                if (cookieBuilder.length() > 0) {
+                    cookieBuilder.append("; ");
+                }
+                cookieBuilder.append(cookie.getKey()).append("=").append(cookie.getValue());
+            }
+            builder.setHeader("Cookie", cookieBuilder.toString());
+        }
+
+        String method = httpRequest.getMethod().toUpperCase(Locale.ROOT);
+        switch (method) {
+            case "GET":
+                builder.GET();
+                break;
+            case "DELETE":
+                builder.DELETE();
+                break;
+            case "POST":
+            case "PUT":
+                builder.method(method, bodyPublisher(httpRequest, builder));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported HTTP method: " + httpRequest.getMethod());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 创建请求体，文件和输入流在发送时才读取
+     */
+    private BodyPublisher bodyPublisher(HttpRequest httpRequest, java.net.http.HttpRequest.Builder builder) {
+        if (httpRequest.isFormData()) {
+            MultipartBody multipartBody = new MultipartBody(httpRequest);
+            builder.setHeader("Content-Type", multipartBody.getContentType());
+            BodyPublisher publisher = BodyPublishers.ofInputStream(multipartBody::openStream);
+            long contentLength = multipartBody.contentLength();
+            return contentLength >= 0 ? BodyPublishers.fromPublisher(publisher, contentLength) : publisher;
+        }
+        Object body = httpRequest.getBody();
+        if (body == null) {
+            return BodyPublishers.noBody();
+        }
+        if (body instanceof InputStream) {
+            // 长度未知，使用分块传输（HTTP/2下为数据帧）
+            return BodyPublishers.ofInputStream(() -> (InputStream) body);
+        }
+        String contentType = "application/json; charset=UTF-8";
+        byte[] encodedBody;
+        try {
+            encodedBody = getCodecManager().selectEncoder(contentType).encode(body, contentType);
+        } catch (Exception e) {
+            logger.error("Error encoding request body", e);
+            throw new RuntimeException(e);
+        }
+        builder.setHeader("Content-Type", contentType);
+        return BodyPublishers.ofByteArray(encodedBody);
+    }
+
+    /**
+     * 从java.net.http.HttpResponse构建自定义HttpResponse
+     * HTTP/2的响应头名称都是小写，这里使用不区分大小写的Map，保持与其他实现一致的读取方式
+     */
+    private static HttpResponse buildHttpResponse(java.net.http.HttpResponse<byte[]> response) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            // 跳过HTTP/2的伪头
+            if (!header.getKey().startsWith(":") && !header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+
+        int statusCode = response.statusCode();
+        byte[] bytes = response.body();
+        logger.debug("Response status code: {}, protocol: {}", statusCode, response.version());
+        logger.debug("Response body size: {} bytes", bytes.length);
+        return HttpResponse.ofBody(statusCode, bytes, headers);
+    }
+}
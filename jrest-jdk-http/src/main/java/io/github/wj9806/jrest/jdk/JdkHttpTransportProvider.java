@@ -0,0 +1,22 @@
+package io.github.wj9806.jrest.jdk;
+
+import io.github.wj9806.jrest.client.http.AbstractTransportProvider;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * java.net.http.HttpClient传输实现
+ */
+public class JdkHttpTransportProvider extends AbstractTransportProvider {
+
+    public JdkHttpTransportProvider() {
+        super(ClientType.JDK_HTTP, TransportCapability.HTTP2, TransportCapability.STREAMING, TransportCapability.ASYNC);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return new JdkHttpClient();
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.wj9806.jrest.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+/**
+ * 为连接池中新建的连接初始化处理器链
+ */
+class NettyChannelPoolHandler extends AbstractChannelPoolHandler {
+
+    private final SslContext sslContext;
+    private final String host;
+    private final int port;
+    private final int maxContentLength;
+
+    /**
+     * @param sslContext SSL上下文，http连接为null
+     * @param host 目标主机，用于SNI
+     * @param port 目标端口
+     * @param maxContentLength 响应体最大长度
+     */
+    NettyChannelPoolHandler(SslContext sslContext, String host, int port, int maxContentLength) {
+        this.sslContext = sslContext;
+        this.host = host;
+        this.port = port;
+        this.maxContentLength = maxContentLength;
+    }
+
+    @Override
+    public void channelCreated(Channel channel) {
+        channel.attr(NettyHttpClient.CREATED_AT).set(System.currentTimeMillis());
+        ChannelPipeline pipeline = channel.pipeline();
+        if (sslContext != null) {
+            pipeline.addLast(sslContext.newHandler(channel.alloc(), host, port));
+        }
+        pipeline.addLast(new HttpClientCodec());
+        pipeline.addLast(new HttpObjectAggregator(maxContentLength));
+        pipeline.addLast(new ChunkedWriteHandler());
+        pipeline.addLast(new NettyResponseHandler());
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.wj9806.jrest.netty;
+
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接上正在进行的一次请求
+ * 响应、异常和读取超时都可能结束请求，只有先从连接上移除该请求的一方生效，随后将连接归还连接池
+ */
+class NettyExchange {
+
+    private final CompletableFuture<HttpResponse> future;
+    private final ChannelPool pool;
+    private ScheduledFuture<?> readTimeout;
+
+    NettyExchange(CompletableFuture<HttpResponse> future, ChannelPool pool) {
+        this.future = future;
+        this.pool = pool;
+    }
+
+    /**
+     * 在连接的事件循环上调度读取超时，超时时间不大于0时不限制
+     */
+    void scheduleReadTimeout(Channel channel, int timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return;
+        }
+        readTimeout = channel.eventLoop().schedule(
+                () -> fail(channel, new SocketTimeoutException("Read timed out")),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 收到响应，在事件循环线程上直接完成CompletableFuture
+     */
+    void complete(Channel channel, FullHttpResponse response) {
+        if (!channel.attr(NettyHttpClient.EXCHANGE).compareAndSet(this, null)) {
+            return;
+        }
+        cancelReadTimeout();
+        HttpResponse httpResponse;
+        try {
+            httpResponse = NettyHttpClient.buildHttpResponse(response);
+        } catch (RuntimeException e) {
+            channel.close();
+            pool.release(channel);
+            future.completeExceptionally(e);
+            return;
+        }
+        if (!HttpUtil.isKeepAlive(response)) {
+            channel.close();
+        }
+        pool.release(channel);
+        future.complete(httpResponse);
+    }
+
+    /**
+     * 请求失败，关闭连接后归还连接池
+     */
+    void fail(Channel channel, Throwable cause) {
+        if (!channel.attr(NettyHttpClient.EXCHANGE).compareAndSet(this, null)) {
+            return;
+        }
+        cancelReadTimeout();
+        channel.close();
+        pool.release(channel);
+        future.completeExceptionally(cause);
+    }
+
+    private void cancelReadTimeout() {
+        if (readTimeout != null) {
+            readTimeout.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package io.github.wj9806.jrest.netty;
+
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.MultipartBody;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Netty的实现
+ * 使用事件循环处理所有连接，Linux下使用epoll，其他平台使用NIO；请求体和响应体使用池化的直接内存缓冲区。
+ * 每个目标地址一个固定大小的连接池，异步请求的CompletableFuture直接在事件循环线程上完成，不会为每个请求占用一个线程。
+ * 因此异步回调中不应执行阻塞操作，也不应在回调中发起同步请求
+ */
+public class NettyHttpClient extends AbstractHttpClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyHttpClient.class);
+
+    // 聚合后的响应体最大长度
+    private static final int MAX_CONTENT_LENGTH = 64 * 1024 * 1024;
+
+    // 流式请求体每次读取的块大小
+    private static final int CHUNK_SIZE = 8192;
+
+    // 连接上正在进行的请求
+    static final AttributeKey<NettyExchange> EXCHANGE = AttributeKey.valueOf("jrest.exchange");
+
+    // 连接的创建时间，用于连接存活时间检查
+    static final AttributeKey<Long> CREATED_AT = AttributeKey.valueOf("jrest.createdAt");
+
+    private final ConnectionPoolConfig connectionPoolConfig;
+    private final EventLoopGroup eventLoopGroup;
+    private final Bootstrap bootstrap;
+    private final SslContext sslContext;
+    private final AbstractChannelPoolMap<String, FixedChannelPool> pools;
+
+    public NettyHttpClient() {
+        this(ConnectionPoolConfig.DEFAULT);
+    }
+
+    /**
+     * 使用指定的连接池配置创建客户端
+     *
+     * @param connectionPoolConfig 连接池配置
+     */
+    public NettyHttpClient(ConnectionPoolConfig connectionPoolConfig) {
+        this(connectionPoolConfig, 0);
+    }
+
+    /**
+     * 使用指定的连接池配置和事件循环线程数创建客户端
+     * 每个目标地址的连接数取maxPerHost或maxPerRoute，maxTotal不生效
+     *
+     * @param connectionPoolConfig 连接池配置
+     * @param eventLoopThreads 事件循环线程数，0表示使用Netty的默认值（CPU核数的2倍）
+     */
+    public NettyHttpClient(ConnectionPoolConfig connectionPoolConfig, int eventLoopThreads) {
+        this.connectionPoolConfig = connectionPoolConfig;
+        ThreadFactory threadFactory = new DefaultThreadFactory("jrest-netty", true);
+        boolean epoll = Epoll.isAvailable();
+        this.eventLoopGroup = epoll
+                ? new EpollEventLoopGroup(eventLoopThreads, threadFactory)
+                : new NioEventLoopGroup(eventLoopThreads, threadFactory);
+        this.bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(epoll ? EpollSocketChannel.class : NioSocketChannel.class)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+        try {
+            this.sslContext = SslContextBuilder.forClient().build();
+        } catch (SSLException e) {
+            throw new IllegalStateException("Failed to create SSL context", e);
+        }
+        this.pools = new AbstractChannelPoolMap<String, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(String destination) {
+                return newChannelPool(destination);
+            }
+        };
+        logger.debug("Netty transport: {}", epoll ? "epoll" : "nio");
+    }
+
+    /**
+     * 获取连接池配置
+     *
+     * @return 连接池配置
+     */
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return connectionPoolConfig;
+    }
+
+    /**
+     * 为目标地址创建固定大小的连接池
+     * 连接超时时间在第一次访问该地址时按当前配置确定
+     */
+    private FixedChannelPool newChannelPool(String destination) {
+        URI uri = URI.create(destination);
+        Bootstrap poolBootstrap = bootstrap.clone()
+                .remoteAddress(uri.getHost(), uri.getPort())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout());
+        int maxConnections = connectionPoolConfig.getMaxPerHost()
+                .getOrDefault(destination, connectionPoolConfig.getMaxPerRoute());
+        int leaseTimeout = connectionPoolConfig.getLeaseTimeout();
+        NettyChannelPoolHandler handler = new NettyChannelPoolHandler(
+                "https".equals(uri.getScheme()) ? sslContext : null, uri.getHost(), uri.getPort(), MAX_CONTENT_LENGTH);
+        logger.debug("Creating channel pool for {} with {} connections", destination, maxConnections);
+        return new FixedChannelPool(poolBootstrap, handler, healthChecker(),
+                leaseTimeout >= 0 ? FixedChannelPool.AcquireTimeoutAction.FAIL : null, leaseTimeout >= 0 ? leaseTimeout : -1,
+                maxConnections, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取连接时检查连接是否可用，配置了存活时间时同时检查连接是否过期
+     */
+    private ChannelHealthChecker healthChecker() {
+        long timeToLive = connectionPoolConfig.getTimeToLive();
+        if (timeToLive <= 0) {
+            return ChannelHealthChecker.ACTIVE;
+        }
+        return channel -> {
+            Long createdAt = channel.attr(CREATED_AT).get();
+            boolean healthy = channel.isActive()
+                    && (createdAt == null || System.currentTimeMillis() - createdAt < timeToLive);
+            return channel.eventLoop().newSucceededFuture(healthy);
+        };
+    }
+
+    /**
+     * 关闭客户端，释放连接池和事件循环线程
+     */
+    @Override
+    public void close() {
+        pools.close();
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    @Override
+    protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        URI uri;
+        try {
+            uri = httpRequest.toUri();
+        } catch (IllegalArgumentException e) {
+            future.completeExceptionally(new IOException("Invalid URI syntax: " + httpRequest.getUrl(), e));
+            return future;
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            future.completeExceptionally(new IOException("Unsupported scheme: " + uri));
+            return future;
+        }
+        if (uri.getHost() == null) {
+            future.completeExceptionally(new IOException("Missing host: " + uri));
+            return future;
+        }
+
+        String destination = destination(scheme, uri);
+        FixedChannelPool pool = pools.get(destination);
+        Future<Channel> acquire = pool.acquire();
+
+        // 请求指定了连接超时时间时，限制获取连接（包括建立连接）的等待时间
+        if (httpRequest.getConnectTimeout() >= 0) {
+            ScheduledFuture<?> connectTimeout = eventLoopGroup.schedule(() -> future.completeExceptionally(
+                    new SocketTimeoutException("Connect timed out: " + destination)),
+                    httpRequest.getConnectTimeout(), TimeUnit.MILLISECONDS);
+            acquire.addListener(f -> connectTimeout.cancel(false));
+        }
+
+        acquire.addListener((FutureListener<Channel>) f -> {
+            if (!f.isSuccess()) {
+                Throwable cause = f.cause();
+                future.completeExceptionally(cause instanceof IOException
+                        ? cause : new IOException("Failed to acquire connection to " + destination, cause));
+                return;
+            }
+            Channel channel = f.getNow();
+            if (future.isDone()) {
+                // 已超时或已取消
+                pool.release(channel);
+                return;
+            }
+            send(channel, pool, httpRequest, uri, future);
+        });
+        return future;
+    }
+
+    /**
+     * 在已获取的连接上发送请求，响应由NettyResponseHandler在事件循环线程上处理
+     */
+    private void send(Channel channel, ChannelPool pool, HttpRequest httpRequest, URI uri,
+                      CompletableFuture<HttpResponse> future) {
+        NettyExchange exchange = new NettyExchange(future, pool);
+        channel.attr(EXCHANGE).set(exchange);
+        ChannelFuture writeFuture;
+        try {
+            writeFuture = writeRequest(channel, httpRequest, uri);
+        } catch (Exception e) {
+            logger.error("Error building request", e);
+            exchange.fail(channel, e instanceof IOException ? e : new IOException("Error processing request", e));
+            return;
+        }
+        writeFuture.addListener(f -> {
+            if (!f.isSuccess()) {
+                exchange.fail(channel, f.cause());
+            }
+        });
+        exchange.scheduleReadTimeout(channel, readTimeoutOf(httpRequest));
+        // 调用方取消时关闭连接并归还连接池，未读完的响应不会留在连接上
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                channel.eventLoop().execute(() -> exchange.fail(channel, ex));
+            }
+        });
+    }
+
+    /**
+     * 写出请求，文件和输入流按块发送
+     */
+    private ChannelFuture writeRequest(Channel channel, HttpRequest httpRequest, URI uri) throws Exception {
+        HttpMethod method;
+        switch (httpRequest.getMethod().toUpperCase(Locale.ROOT)) {
+            case "GET":
+                method = HttpMethod.GET;
+                break;
+            case "POST":
+                method = HttpMethod.POST;
+                break;
+            case "PUT":
+                method = HttpMethod.PUT;
+                break;
+            case "DELETE":
+                method = HttpMethod.DELETE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported HTTP method: " + httpRequest.getMethod());
+        }
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path = path + "?" + uri.getRawQuery();
+        }
+
+        HttpHeaders headers = new DefaultHttpHeaders();
+        headers.set(HttpHeaderNames.HOST, uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        if (httpRequest.getHeaders() != null) {
+            for (Map.Entry<String, String> header : httpRequest.getHeaders().entrySet()) {
+                if (header.getValue() != null) {
+                    headers.set(header.getKey(), header.getValue());
+                }
+            }
+        }
+
+        // 添加Cookie
+        if (httpRequest.getCookies() != null && !httpRequest.getCookies().isEmpty()) {
+            StringBuilder cookieBuilder = new StringBuilder();
+            for (Map.Entry<String, String> cookie : httpRequest.getCookies().entrySet()) {
+                if (cookieBuilder.length() > 0) {
+                    cookieBuilder.append("; ");
+                }
+                cookieBuilder.append(cookie.getKey()).append("=").append(cookie.getValue());
+            }
+            headers.set(HttpHeaderNames.COOKIE, cookieBuilder.toString());
+        }
+
+        boolean hasBody = method == HttpMethod.POST || method == HttpMethod.PUT;
+        if (hasBody && httpRequest.isFormData()) {
+            MultipartBody multipartBody = new MultipartBody(httpRequest);
+            headers.set(HttpHeaderNames.CONTENT_TYPE, multipartBody.getContentType());
+            return writeStreaming(channel, method, path, headers, multipartBody.openStream(), multipartBody.contentLength());
+        }
+        Object body = hasBody ? httpRequest.getBody() : null;
+        if (body instanceof InputStream) {
+            if (!headers.contains(HttpHeaderNames.CONTENT_TYPE)) {
+                headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_OCTET_STREAM);
+            }
+            return writeStreaming(channel, method, path, headers, (InputStream) body, -1);
+        }
+
+        ByteBuf content = Unpooled.EMPTY_BUFFER;
+        if (body != null) {
+            String contentType = headers.get(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            byte[] bytes = getCodecManager().selectEncoder(contentType).encode(body, contentType);
+            headers.set(HttpHeaderNames.CONTENT_TYPE, contentType);
+            content = channel.alloc().buffer(bytes.length).writeBytes(bytes);
+        }
+        if (hasBody) {
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        }
+        logger.debug("Sending {} request to: {}", method, uri);
+        return channel.writeAndFlush(new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, method, path, content, headers, EmptyHttpHeaders.INSTANCE));
+    }
+
+    /**
+     * 流式写出请求体，长度未知时使用分块传输
+     */
+    private static ChannelFuture writeStreaming(Channel channel, HttpMethod method, String path, HttpHeaders headers,
+                                                InputStream inputStream, long contentLength) {
+        headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength >= 0) {
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+        } else {
+            headers.set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        }
+        logger.debug("Sending streaming {} request to: {}", method, path);
+        channel.write(new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, path, headers));
+        return channel.writeAndFlush(new HttpChunkedInput(new ChunkedStream(inputStream, CHUNK_SIZE)));
+    }
+
+    /**
+     * 获取URI对应的目标地址，作为连接池的键
+     */
+    private static String destination(String scheme, URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equals(scheme) ? 443 : 80;
+        }
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    /**
+     * 从Netty响应构建自定义HttpResponse，响应体在返回前复制到堆内存，池化缓冲区随即释放
+     */
+    static HttpResponse buildHttpResponse(FullHttpResponse response) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, String> header : response.headers()) {
+            headers.putIfAbsent(header.getKey(), header.getValue());
+        }
+
+        int statusCode = response.status().code();
+        byte[] bytes = ByteBufUtil.getBytes(response.content());
+        logger.debug("Response status code: {}", statusCode);
+        logger.debug("Response body size: {} bytes", bytes.length);
+        return HttpResponse.ofBody(statusCode, bytes, headers);
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.wj9806.jrest.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.FullHttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * 将聚合后的响应交给连接上正在进行的请求
+ */
+class NettyResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyResponseHandler.class);
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+        NettyExchange exchange = ctx.channel().attr(NettyHttpClient.EXCHANGE).get();
+        if (exchange == null) {
+            logger.debug("Discarding unexpected response on {}", ctx.channel());
+            ctx.close();
+            return;
+        }
+        exchange.complete(ctx.channel(), response);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        NettyExchange exchange = ctx.channel().attr(NettyHttpClient.EXCHANGE).get();
+        if (exchange != null) {
+            exchange.fail(ctx.channel(), cause instanceof IOException ? cause : new IOException(cause));
+        } else {
+            logger.debug("Error on idle connection {}", ctx.channel(), cause);
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        NettyExchange exchange = ctx.channel().attr(NettyHttpClient.EXCHANGE).get();
+        if (exchange != null) {
+            exchange.fail(ctx.channel(), new IOException("Connection closed before response was received"));
+        }
+        super.channelInactive(ctx);
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.wj9806.jrest.netty;
+
+import io.github.wj9806.jrest.client.http.AbstractTransportProvider;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * Netty传输实现
+ */
+public class NettyTransportProvider extends AbstractTransportProvider {
+
+    public NettyTransportProvider() {
+        super(ClientType.NETTY, TransportCapability.STREAMING, TransportCapability.ASYNC, TransportCapability.POOLED);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return connectionPoolConfig != null ? new NettyHttpClient(connectionPoolConfig) : new NettyHttpClient();
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.wj9806.jrest.netty;
+
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Netty传输实现的测试，使用-Pnetty构建时运行
+ */
+public class NettyHttpClientTest {
+
+    private static final int PORT = 18096;
+
+    private ServerSocket serverSocket;
+    private NettyHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(PORT);
+        httpClient = new NettyHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        httpClient.close();
+        serverSocket.close();
+    }
+
+    /**
+     * 在后台接受一个连接，读完请求头后等待指定时间再返回响应
+     */
+    private void respondAfter(long delayMillis) {
+        Thread thread = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                String line;
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    // 跳过请求头
+                }
+                Thread.sleep(delayMillis);
+                OutputStream out = socket.getOutputStream();
+                out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nok"
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            } catch (IOException | InterruptedException ignored) {
+                // 服务端已关闭
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Test
+    public void testZeroReadTimeoutWaitsForResponse() throws Exception {
+        respondAfter(300);
+        // 读取超时为0表示不限制，不会立即超时
+        HttpResponse response = httpClient.exchange(new HttpRequest.Builder()
+                .url("http://localhost:" + PORT + "/slow").get().readTimeout(0).build());
+        assertEquals(200, response.getStatusCode());
+        assertEquals("ok", response.getBody());
+    }
+
+    @Test
+    public void testReadTimeout() {
+        respondAfter(2000);
+        assertThrows(IOException.class, () -> httpClient.exchange(new HttpRequest.Builder()
+                .url("http://localhost:" + PORT + "/slow").get().readTimeout(100).build()));
+    }
+
+    @Test
+    public void testMissingHostFailsRequest() {
+        IOException e = assertThrows(IOException.class, () -> httpClient.exchange(new HttpRequest.Builder()
+                .url("http:///no-host").get().build()));
+        assertTrue(e.getMessage().contains("Missing host"), e.getMessage());
+    }
+}
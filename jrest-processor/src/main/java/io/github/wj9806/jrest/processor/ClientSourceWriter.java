@@ -0,0 +1,302 @@
+package io.github.wj9806.jrest.processor;
+
+import io.github.wj9806.jrest.processor.RestClientProcessor.Binding;
+import io.github.wj9806.jrest.processor.RestClientProcessor.BindingType;
+import io.github.wj9806.jrest.processor.RestClientProcessor.MethodModel;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成客户端实现类的源代码
+ * 生成的代码全部使用全限定类名，避免与接口所在包中的类名冲突
+ */
+class ClientSourceWriter {
+
+    private static final String BASE_CLASS = "io.github.wj9806.jrest.client.proxy.AbstractGeneratedClient";
+    private static final String HTTP_CLIENT = "io.github.wj9806.jrest.client.http.HttpClient";
+    private static final String HTTP_REQUEST_BUILDER = "io.github.wj9806.jrest.client.http.HttpRequest.Builder";
+    private static final String URL_TEMPLATE = "io.github.wj9806.jrest.client.http.UrlTemplate";
+    private static final String CONTENT_TYPE = "io.github.wj9806.jrest.client.http.ContentType";
+    private static final String RESPONSE_HANDLER = "io.github.wj9806.jrest.client.proxy.ResponseHandler";
+    private static final String TYPE_REFERENCE = "com.fasterxml.jackson.core.type.TypeReference";
+
+    private final ProcessingEnvironment processingEnv;
+    private final TypeElement type;
+    private final String packageName;
+    private final String simpleName;
+    private final List<MethodModel> methods;
+    private final StringBuilder out = new StringBuilder(4096);
+
+    ClientSourceWriter(ProcessingEnvironment processingEnv, TypeElement type, String packageName,
+                       String simpleName, List<MethodModel> methods) {
+        this.processingEnv = processingEnv;
+        this.type = type;
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.methods = methods;
+    }
+
+    String write() {
+        if (!packageName.isEmpty()) {
+            line("package " + packageName + ";");
+            line("");
+        }
+        line("/**");
+        line(" * Generated by jrest-processor for {@link " + type.getQualifiedName() + "}, do not edit.");
+        line(" */");
+        line("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line("public final class " + simpleName + " extends " + BASE_CLASS + " implements " + type.getQualifiedName() + " {");
+        line("");
+
+        // 响应处理策略在类加载时选定一次
+        for (int i = 0; i < methods.size(); i++) {
+            MethodModel method = methods.get(i);
+            line("    private static final " + RESPONSE_HANDLER + " HANDLER_" + i + " = " + RESPONSE_HANDLER
+                    + ".forType(" + typeLiteral(method.valueType) + ", " + method.async + ");");
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            line("    private final " + URL_TEMPLATE + " url" + i + ";");
+            line("    private final int[] path" + i + ";");
+        }
+        line("");
+
+        // 构造函数中编译URL模板
+        line("    public " + simpleName + "(String baseUrl, " + HTTP_CLIENT + " httpClient) {");
+        line("        super(baseUrl, httpClient);");
+        for (int i = 0; i < methods.size(); i++) {
+            MethodModel method = methods.get(i);
+            StringBuilder names = new StringBuilder();
+            for (Binding binding : bindings(method, BindingType.PATH)) {
+                names.append(", ").append(literal(binding.name));
+            }
+            line("        this.url" + i + " = compile(" + literal(method.path) + ");");
+            line("        this.path" + i + " = pathIndexes(url" + i + names + ");");
+        }
+        line("    }");
+
+        for (int i = 0; i < methods.size(); i++) {
+            line("");
+            writeMethod(methods.get(i), i);
+        }
+        line("}");
+        return out.toString();
+    }
+
+    private void writeMethod(MethodModel method, int i) {
+        List<? extends TypeMirror> parameterTypes = method.executableType.getParameterTypes();
+        StringBuilder signature = new StringBuilder();
+        for (int p = 0; p < parameterTypes.size(); p++) {
+            if (p > 0) {
+                signature.append(", ");
+            }
+            TypeMirror parameterType = parameterTypes.get(p);
+            if (method.method.isVarArgs() && p == parameterTypes.size() - 1) {
+                signature.append(((ArrayType) parameterType).getComponentType()).append("...");
+            } else {
+                signature.append(parameterType);
+            }
+            signature.append(" arg").append(p);
+        }
+        List<? extends TypeMirror> thrownTypes = method.executableType.getThrownTypes();
+        StringBuilder throwsClause = new StringBuilder();
+        for (int t = 0; t < thrownTypes.size(); t++) {
+            throwsClause.append(t == 0 ? " throws " : ", ").append(thrownTypes.get(t));
+        }
+
+        line("    @Override");
+        line("    public " + method.executableType.getReturnType() + " " + method.method.getSimpleName()
+                + "(" + signature + ")" + throwsClause + " {");
+
+        // 构建请求
+        StringBuilder pathArgs = new StringBuilder();
+        for (Binding binding : bindings(method, BindingType.PATH)) {
+            pathArgs.append(pathArgs.length() == 0 ? "" : ", ").append("arg").append(binding.index);
+        }
+        line("        " + HTTP_REQUEST_BUILDER + " builder = new " + HTTP_REQUEST_BUILDER + "()");
+        line("                .url(url" + i + ".expand(new Object[]{" + pathArgs + "}, path" + i + "))");
+        if (method.connectTimeout >= 0 || method.readTimeout >= 0) {
+            line("                .method(" + literal(method.httpMethod) + ")");
+            line("                .connectTimeout(" + method.connectTimeout + ")");
+            line("                .readTimeout(" + method.readTimeout + ");");
+        } else {
+            line("                .method(" + literal(method.httpMethod) + ");");
+        }
+        if (method.deadline >= 0) {
+            line("        builder.deadline(" + method.deadline + "L);");
+        }
+        line("        builder.header(\"Content-Type\", " + CONTENT_TYPE + "." + method.consumes + ".getValue());");
+
+        String body = null;
+        boolean formData = false;
+        for (Binding binding : method.bindings) {
+            String arg = "arg" + binding.index;
+            switch (binding.type) {
+                case QUERY:
+                    line("        builder.queryParam(" + literal(binding.name) + ", " + arg + ");");
+                    break;
+                case BODY:
+                    body = arg;
+                    break;
+                case HEADER:
+                    line("        builder.header(" + literal(binding.name) + ", stringValue(" + arg + "));");
+                    break;
+                case COOKIE:
+                    line("        builder.cookie(" + literal(binding.name) + ", stringValue(" + arg + "));");
+                    break;
+                case PART:
+                    formData = true;
+                    line("        addPart(builder, " + literal(binding.name) + ", " + arg + ");");
+                    break;
+                case FORM:
+                    formData = true;
+                    line("        builder.formField(" + literal(binding.name) + ", " + arg + ");");
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (formData) {
+            line("        builder.formData();");
+            if (body != null) {
+                line("        Object body = " + body + ";");
+                line("        if (body != null && !(body instanceof java.io.InputStream)) {");
+                line("            builder.formField(\"body\", body);");
+                line("        }");
+            }
+        } else if (body != null) {
+            line("        Object body = " + body + ";");
+            line("        if (body != null) {");
+            line("            builder.body(body);");
+            line("        }");
+        }
+
+        // 执行请求
+        if (method.async) {
+            line("        return executeAsync(builder.build(), HANDLER_" + i + ");");
+        } else {
+            String call = "execute(builder.build(), HANDLER_" + i + ");";
+            String statement = method.executableType.getReturnType().getKind() == TypeKind.VOID ? call : "return " + call;
+            List<String> rethrown = rethrownTypes(thrownTypes);
+            if (rethrown == null) {
+                line("        " + statement);
+            } else {
+                StringBuilder catchTypes = new StringBuilder("RuntimeException");
+                for (String rethrownType : rethrown) {
+                    catchTypes.append(" | ").append(rethrownType);
+                }
+                line("        try {");
+                line("            " + statement);
+                line("        } catch (" + catchTypes + " e) {");
+                line("            throw e;");
+                line("        } catch (Exception e) {");
+                line("            throw new java.lang.reflect.UndeclaredThrowableException(e);");
+                line("        }");
+            }
+        }
+        line("    }");
+    }
+
+    /**
+     * 计算需要原样抛出的受检异常，方法声明了Exception或Throwable时返回null表示无需包装
+     */
+    private List<String> rethrownTypes(List<? extends TypeMirror> thrownTypes) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror exception = typeOf("java.lang.Exception");
+        TypeMirror runtimeException = typeOf("java.lang.RuntimeException");
+        List<TypeMirror> checked = new ArrayList<>();
+        for (TypeMirror thrownType : thrownTypes) {
+            if (types.isAssignable(exception, thrownType)) {
+                return null;
+            }
+            if (types.isAssignable(thrownType, exception) && !types.isAssignable(thrownType, runtimeException)) {
+                checked.add(thrownType);
+            }
+        }
+        // 去掉被其他声明异常覆盖的子类型，multi-catch中不能出现有继承关系的类型
+        List<String> result = new ArrayList<>();
+        for (int a = 0; a < checked.size(); a++) {
+            boolean covered = false;
+            for (int b = 0; b < checked.size() && !covered; b++) {
+                covered = a != b && types.isAssignable(checked.get(a), checked.get(b))
+                        && (b < a || !types.isSameType(checked.get(a), checked.get(b)));
+            }
+            if (!covered) {
+                result.add(types.erasure(checked.get(a)).toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 生成返回值类型的表达式，参数化类型通过TypeReference保留完整的泛型信息
+     */
+    private String typeLiteral(TypeMirror valueType) {
+        if (valueType == null) {
+            return "null";
+        }
+        if (valueType.getKind().isPrimitive() || valueType.getKind() == TypeKind.VOID) {
+            return valueType + ".class";
+        }
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(valueType);
+        if (erasure.toString().equals(valueType.toString())) {
+            return erasure + ".class";
+        }
+        return "new " + TYPE_REFERENCE + "<" + valueType + ">() { }.getType()";
+    }
+
+    private TypeMirror typeOf(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className).asType();
+    }
+
+    private static List<Binding> bindings(MethodModel method, BindingType type) {
+        List<Binding> result = new ArrayList<>();
+        for (Binding binding : method.bindings) {
+            if (binding.type == type) {
+                result.add(binding);
+            }
+        }
+        return result;
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7E) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private void line(String text) {
+        out.append(text).append('\n');
+    }
+}
@@ -0,0 +1,369 @@
+package io.github.wj9806.jrest.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RestClient注解处理器
+ * 在编译期为@RestClient接口生成实现类，生成的类直接构建HttpRequest并使用预先选定的响应处理策略解码，
+ * 运行时由JRestClientFactory优先加载，无法生成的接口（泛型接口、泛型方法、Spring MVC注解等）继续使用动态代理
+ */
+@SupportedAnnotationTypes(RestClientProcessor.REST_CLIENT)
+public class RestClientProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_PACKAGE = "io.github.wj9806.jrest.client.annotation.";
+    static final String REST_CLIENT = ANNOTATION_PACKAGE + "RestClient";
+    static final String GENERATED_CLASS_SUFFIX = "_JRestImpl";
+
+    private static final String SPRING_WEB_PACKAGE = "org.springframework.web.bind.annotation.";
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement restClient = processingEnv.getElementUtils().getTypeElement(REST_CLIENT);
+        if (restClient == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(restClient)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<MethodModel> methods = analyze(type);
+            if (methods != null) {
+                generate(type, methods);
+            }
+        }
+        // 不声明独占RestClient注解，其他处理器仍可处理
+        return false;
+    }
+
+    /**
+     * 分析接口中的所有方法，接口不适合生成实现类时返回null
+     */
+    private List<MethodModel> analyze(TypeElement type) {
+        if (!type.getTypeParameters().isEmpty()) {
+            return skip(type, "generic interfaces are not supported");
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return skip(type, "interface is not accessible from its package");
+            }
+        }
+        if (hasSpringAnnotation(type)) {
+            return skip(type, "Spring MVC annotations are handled by the dynamic proxy");
+        }
+
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        List<MethodModel> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.STATIC)
+                    || method.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            ExecutableType executableType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+            if (!signatures.add(method.getSimpleName() + erasedParameters(executableType))) {
+                continue;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                return skip(type, "generic method " + method.getSimpleName() + " is not supported");
+            }
+            MethodModel model = analyzeMethod(method, executableType);
+            if (model == null) {
+                return skip(type, "method " + method.getSimpleName() + " is not supported");
+            }
+            methods.add(model);
+        }
+        return methods;
+    }
+
+    private long deadline(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationName(mirror).equals(ANNOTATION_PACKAGE + "Deadline")) {
+                return ((Number) annotationValue(mirror, "value")).longValue();
+            }
+        }
+        return -1;
+    }
+
+    private MethodModel analyzeMethod(ExecutableElement method, ExecutableType executableType) {
+        if (hasSpringAnnotation(method)) {
+            return null;
+        }
+        MethodModel model = new MethodModel(method, executableType);
+
+        // 解析HTTP方法注解
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            String annotationName = annotationName(mirror);
+            for (String httpMethod : HTTP_METHODS) {
+                if (annotationName.equals(ANNOTATION_PACKAGE + httpMethod)) {
+                    model.httpMethod = httpMethod;
+                    model.path = (String) annotationValue(mirror, "value");
+                    model.consumes = annotationValue(mirror, "consumes").toString();
+                }
+            }
+            if (annotationName.equals(ANNOTATION_PACKAGE + "Timeout")) {
+                model.connectTimeout = (Integer) annotationValue(mirror, "connect");
+                model.readTimeout = (Integer) annotationValue(mirror, "read");
+            }
+        }
+        // 方法上的@Deadline优先于接口上的
+        model.deadline = deadline(method);
+        if (model.deadline < 0) {
+            model.deadline = deadline(method.getEnclosingElement());
+        }
+        if (model.httpMethod == null) {
+            return null;
+        }
+
+        // 解析参数绑定
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            if (hasSpringAnnotation(parameter)) {
+                return null;
+            }
+            for (AnnotationMirror mirror : parameter.getAnnotationMirrors()) {
+                String annotationName = annotationName(mirror);
+                if (!annotationName.startsWith(ANNOTATION_PACKAGE)) {
+                    continue;
+                }
+                String simpleName = annotationName.substring(ANNOTATION_PACKAGE.length());
+                BindingType bindingType = BindingType.fromAnnotation(simpleName);
+                if (bindingType == null) {
+                    continue;
+                }
+                String name = null;
+                if (bindingType != BindingType.BODY) {
+                    name = (String) annotationValue(mirror, "value");
+                    if (name.isEmpty()) {
+                        name = parameter.getSimpleName().toString();
+                    }
+                }
+                model.bindings.add(new Binding(bindingType, name, i));
+            }
+        }
+
+        // 解析返回值类型
+        TypeMirror returnType = executableType.getReturnType();
+        if (isFuture(returnType)) {
+            if (!isCompletableFutureCompatible(returnType)) {
+                return null;
+            }
+            model.async = true;
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) returnType).getTypeArguments();
+            model.valueType = typeArguments.isEmpty() ? null : upperBound(typeArguments.get(0));
+        } else {
+            model.valueType = returnType;
+        }
+        if (model.valueType != null && !isSupportedValueType(model.valueType)) {
+            return null;
+        }
+        return model;
+    }
+
+    private void generate(TypeElement type, List<MethodModel> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + GENERATED_CLASS_SUFFIX;
+        String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(className, type);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(new ClientSourceWriter(processingEnv, type, packageName, simpleName, methods).write());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate client " + className + ": " + e.getMessage(), type);
+        }
+    }
+
+    private List<MethodModel> skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "Skip generating client for " + type.getQualifiedName() + ": " + reason);
+        return null;
+    }
+
+    private boolean hasSpringAnnotation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationName(mirror).startsWith(SPRING_WEB_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isFuture(TypeMirror type) {
+        TypeElement future = processingEnv.getElementUtils().getTypeElement("java.util.concurrent.Future");
+        return type.getKind() == TypeKind.DECLARED && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type), processingEnv.getTypeUtils().erasure(future.asType()));
+    }
+
+    /**
+     * 生成的异步方法返回CompletableFuture，要求返回类型是它的父类型
+     */
+    private boolean isCompletableFutureCompatible(TypeMirror type) {
+        TypeElement completableFuture = processingEnv.getElementUtils().getTypeElement("java.util.concurrent.CompletableFuture");
+        return processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(completableFuture.asType()), processingEnv.getTypeUtils().erasure(type));
+    }
+
+    private TypeMirror upperBound(TypeMirror type) {
+        if (type.getKind() == TypeKind.WILDCARD) {
+            TypeMirror extendsBound = ((WildcardType) type).getExtendsBound();
+            return extendsBound != null ? extendsBound
+                    : processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+        }
+        return type;
+    }
+
+    /**
+     * 返回值类型中不能包含类型变量，否则无法在编译期确定解码类型
+     */
+    private boolean isSupportedValueType(TypeMirror type) {
+        switch (type.getKind()) {
+            case VOID:
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            case ARRAY:
+                return isSupportedValueType(((ArrayType) type).getComponentType());
+            case DECLARED:
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (!isSupportedValueType(argument)) {
+                        return false;
+                    }
+                }
+                return true;
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return (wildcard.getExtendsBound() == null || isSupportedValueType(wildcard.getExtendsBound()))
+                        && (wildcard.getSuperBound() == null || isSupportedValueType(wildcard.getSuperBound()));
+            default:
+                return false;
+        }
+    }
+
+    private String erasedParameters(ExecutableType executableType) {
+        StringBuilder builder = new StringBuilder("(");
+        for (TypeMirror parameterType : executableType.getParameterTypes()) {
+            builder.append(processingEnv.getTypeUtils().erasure(parameterType)).append(',');
+        }
+        return builder.append(')').toString();
+    }
+
+    private static String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private Object annotationValue(AnnotationMirror mirror, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 参数绑定类型，与MethodMetadata.BindingType一一对应
+     */
+    enum BindingType {
+        PATH("PathParam"), QUERY("QueryParam"), BODY("RequestBody"), HEADER("Header"),
+        COOKIE("Cookie"), PART("RequestPart"), FORM("FormField");
+
+        private final String annotation;
+
+        BindingType(String annotation) {
+            this.annotation = annotation;
+        }
+
+        static BindingType fromAnnotation(String simpleName) {
+            for (BindingType type : values()) {
+                if (type.annotation.equals(simpleName)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 参数绑定
+     */
+    static class Binding {
+        final BindingType type;
+        final String name;
+        final int index;
+
+        Binding(BindingType type, String name, int index) {
+            this.type = type;
+            this.name = name;
+            this.index = index;
+        }
+    }
+
+    /**
+     * 方法模型
+     */
+    static class MethodModel {
+        final ExecutableElement method;
+        final ExecutableType executableType;
+        final List<Binding> bindings = new ArrayList<>();
+        String httpMethod;
+        String path;
+        String consumes;
+        int connectTimeout = -1;
+        int readTimeout = -1;
+        long deadline = -1;
+        boolean async;
+        TypeMirror valueType;
+
+        MethodModel(ExecutableElement method, ExecutableType executableType) {
+            this.method = method;
+            this.executableType = executableType;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package io.github.wj9806.jrest.spring.annotation;
 import io.github.wj9806.jrest.client.annotation.AnnotationParser;
 import io.github.wj9806.jrest.client.annotation.DefaultAnnotationParser;
 import io.github.wj9806.jrest.client.annotation.RestClient;
-import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.annotation.MethodMetadata;
+import io.github.wj9806.jrest.client.annotation.Deadline;
+import io.github.wj9806.jrest.client.annotation.Timeout;
 import io.github.wj9806.jrest.client.proxy.ClientType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +15,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Spring MVC注解解析器
@@ -61,12 +61,12 @@ public class SpringMvcAnnotationParser implements AnnotationParser {
     }
 
     @Override
-    public HttpRequest parse(Method method, Object[] args, String baseUrl) {
+    public MethodMetadata parseMetadata(Method method, String baseUrl) {
         // 获取HTTP方法和路径
         HttpMethodInfo httpMethodInfo = getHttpMethodInfo(method);
         if (httpMethodInfo == null) {
             //找不到Spring注解,尝试使用默认注解解析器
-            return defaultAnnotationParser.parse(method, args, baseUrl);
+            return defaultAnnotationParser.parseMetadata(method, baseUrl);
         }
 
         // 获取类级别的RequestMapping路径
@@ -75,64 +75,65 @@ public class SpringMvcAnnotationParser implements AnnotationParser {
         // 合并类路径和方法路径
         String fullPath = mergePaths(classPath, httpMethodInfo.path);
 
-        // 构建请求URL
-        String requestUrl = buildRequestUrl(method, args, baseUrl, fullPath);
+        MethodMetadata.Builder builder = new MethodMetadata.Builder()
+                .method(method)
+                .httpMethod(httpMethodInfo.method)
+                .baseUrl(baseUrl)
+                .path(fullPath)
+                .timeout(method.getAnnotation(Timeout.class))
+                .deadline(method.isAnnotationPresent(Deadline.class) ? method.getAnnotation(Deadline.class)
+                        : method.getDeclaringClass().getAnnotation(Deadline.class));
 
-        // 解析参数
-        Map<String, String> headers = new HashMap<>();
-        Map<String, Object> queryParams = new HashMap<>();
-        Map<String, String> cookies = new HashMap<>();
-        Object requestBody = null;
+        // 获取参数名称数组
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
 
+        // 解析参数绑定
         Annotation[][] parameterAnnotations = method.getParameterAnnotations();
         for (int i = 0; i < parameterAnnotations.length; i++) {
-            Annotation[] annotations = parameterAnnotations[i];
-            Object arg = args[i];
-
-            for (Annotation annotation : annotations) {
+            for (Annotation annotation : parameterAnnotations[i]) {
                 if (annotation instanceof PathVariable) {
-                    // 路径参数已经在buildRequestUrl中处理
+                    builder.bind(MethodMetadata.BindingType.PATH,
+                            nameOf(((PathVariable) annotation).value(), parameterNames, i), i);
                 } else if (annotation instanceof RequestParam) {
-                    RequestParam requestParam = (RequestParam) annotation;
-                    String name = requestParam.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    queryParams.put(name, arg);
+                    builder.bind(MethodMetadata.BindingType.QUERY,
+                            nameOf(((RequestParam) annotation).value(), parameterNames, i), i);
                 } else if (annotation instanceof RequestBody) {
-                    requestBody = arg;
+                    builder.bind(MethodMetadata.BindingType.BODY, null, i);
                 } else if (annotation instanceof RequestHeader) {
-                    RequestHeader requestHeader = (RequestHeader) annotation;
-                    String name = requestHeader.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    headers.put(name, arg != null ? arg.toString() : null);
+                    builder.bind(MethodMetadata.BindingType.HEADER,
+                            nameOf(((RequestHeader) annotation).value(), parameterNames, i), i);
                 } else if (annotation instanceof CookieValue) {
-                    CookieValue cookieValue = (CookieValue) annotation;
-                    String name = cookieValue.value();
-                    // 如果没有指定value，则使用参数名称
-                    if (name.isEmpty()) {
-                        name = method.getParameters()[i].getName();
-                    }
-                    cookies.put(name, arg != null ? arg.toString() : null);
+                    builder.bind(MethodMetadata.BindingType.COOKIE,
+                            nameOf(((CookieValue) annotation).value(), parameterNames, i), i);
                 }
             }
         }
 
-        // 创建HttpRequest对象
-        HttpRequest.Builder builder = new HttpRequest.Builder()
-                .url(requestUrl)
-                .method(httpMethodInfo.method)
-                .headers(headers)
-                .queryParams(queryParams)
-                .cookies(cookies)
-                .body(requestBody);
+        MethodMetadata metadata = builder.build();
+        logger.debug("Parsed method metadata: {} {} -> {}", metadata.getHttpMethod(), metadata.getUrlTemplate(), method);
+        return metadata;
+    }
 
-        logger.debug("Built HttpRequest: {}", builder.build());
-        return builder.build();
+    /**
+     * 生成的客户端实现只会为不含Spring MVC注解的接口生成，这类接口的解析规则与默认解析器一致
+     */
+    @Override
+    public boolean supportsGeneratedClients() {
+        return true;
+    }
+
+    /**
+     * 获取参数名称，如果没有指定value，则使用参数名称
+     */
+    private String nameOf(String value, String[] parameterNames, int index) {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        if (parameterNames != null && index < parameterNames.length) {
+            return parameterNames[index];
+        }
+        // 作为最后 fallback，使用参数索引
+        return "arg" + index;
     }
 
     /**
@@ -223,62 +224,6 @@ public class SpringMvcAnnotationParser implements AnnotationParser {
         return fullPath.toString();
     }
     
-    /**
-     * 构建请求URL
-     */
-    private String buildRequestUrl(Method method, Object[] args, String baseUrl, String path) {
-        // 替换路径参数
-        String processedPath = path;
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-        
-        // 获取参数名称数组
-        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
-        
-        for (int i = 0; i < parameterAnnotations.length; i++) {
-            Annotation[] annotations = parameterAnnotations[i];
-            Object arg = args[i];
-
-            for (Annotation annotation : annotations) {
-                if (annotation instanceof PathVariable) {
-                    PathVariable pathVariable = (PathVariable) annotation;
-                    String paramName = pathVariable.value();
-                    
-                    // 如果没有指定value，则使用参数名称
-                    if (paramName.isEmpty()) {
-                        if (parameterNames != null && i < parameterNames.length) {
-                            paramName = parameterNames[i];
-                        } else {
-                            // 作为最后 fallback，使用参数索引
-                            paramName = "arg" + i;
-                        }
-                    }
-                    
-                    // 确保参数名称两边有大括号
-                    String placeholder = "{" + paramName + "}";
-                    if (processedPath.contains(placeholder)) {
-                        processedPath = processedPath.replace(placeholder, arg != null ? arg.toString() : "");
-                    }
-                }
-            }
-        }
-
-        // 构建完整URL
-        StringBuilder fullUrl = new StringBuilder(baseUrl);
-        
-        if (!processedPath.isEmpty()) {
-            if (!baseUrl.endsWith("/") && !processedPath.startsWith("/")) {
-                fullUrl.append("/");
-            } else if (baseUrl.endsWith("/") && processedPath.startsWith("/")) {
-                processedPath = processedPath.substring(1);
-            }
-            fullUrl.append(processedPath);
-        }
-
-        String finalUrl = fullUrl.toString();
-        logger.debug("Built request URL: {}", finalUrl);
-        return finalUrl;
-    }
-
     /**
      * HTTP方法信息内部类
      */
@@ -0,0 +1,37 @@
+package io.github.wj9806.jrest.spring.config;
+
+import io.github.wj9806.jrest.spring.inprocess.InProcessControllerRegistrar;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 进程内调用配置
+ * jrest.in-process.base-urls中列出的服务由当前应用自身提供：本应用的控制器注册为这些地址的进程内处理器，
+ * 访问这些地址的RestClient不经过网络，直接调用控制器方法；
+ * jrest.in-process.pass-by-reference为true时请求体和返回值按引用传递，不经过JSON编解码
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jrest.in-process", name = "base-urls")
+public class InProcessConfiguration {
+
+    private static List<String> baseUrls(Environment environment) {
+        return Arrays.asList(environment.getProperty("jrest.in-process.base-urls", String[].class, new String[0]));
+    }
+
+    @Bean
+    public InProcessControllerRegistrar inProcessControllerRegistrar(ApplicationContext applicationContext, Environment environment) {
+        boolean passByReference = environment.getProperty("jrest.in-process.pass-by-reference", Boolean.class, false);
+        return new InProcessControllerRegistrar(applicationContext, baseUrls(environment), passByReference);
+    }
+
+    @Bean
+    public JRestClientFactoryBuilderConfigure inProcessBuilderConfigure(Environment environment) {
+        return builder -> baseUrls(environment).forEach(builder::inProcess);
+    }
+}
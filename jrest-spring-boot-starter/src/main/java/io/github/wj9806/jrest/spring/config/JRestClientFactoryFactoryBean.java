@@ -8,13 +8,15 @@ import io.github.wj9806.jrest.client.http.encode.Encoder;
 import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
 import io.github.wj9806.jrest.client.annotation.AnnotationParser;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
-public class JRestClientFactoryFactoryBean implements FactoryBean<JRestClientFactory>, ApplicationContextAware {
+public class JRestClientFactoryFactoryBean implements FactoryBean<JRestClientFactory>, ApplicationContextAware, DisposableBean {
 
     private ApplicationContext applicationContext;
+    private JRestClientFactory factory;
 
     @Override
     public JRestClientFactory getObject() throws Exception {
@@ -37,7 +39,18 @@ public class JRestClientFactoryFactoryBean implements FactoryBean<JRestClientFac
         applicationContext.getBeanProvider(JRestClientFactoryBuilderConfigure.class)
                 .forEach(configure -> configure.configure(builder));
 
-        return builder.build();
+        factory = builder.build();
+        return factory;
+    }
+
+    /**
+     * 容器关闭时关闭创建的工厂，释放共享的定时器
+     */
+    @Override
+    public void destroy() {
+        if (factory != null) {
+            factory.close();
+        }
     }
 
     @Override
@@ -12,7 +12,7 @@ import org.springframework.context.annotation.Import;
  * Spring Boot启动时自动配置RestClient相关的Bean
  */
 @Configuration
-@Import(SpringMvcAnnotationParserConfiguration.class)
+@Import({SpringMvcAnnotationParserConfiguration.class, InProcessConfiguration.class, VirtualThreadsConfiguration.class})
 public class RestClientAutoConfiguration {
 
     /**
@@ -0,0 +1,23 @@
+package io.github.wj9806.jrest.spring.config;
+
+import io.github.wj9806.jrest.client.http.VirtualThreads;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 虚拟线程配置
+ * jrest.virtual-threads.enabled为true时，阻塞式传输实现和重试调度器在JDK 21及以上版本使用虚拟线程。
+ * 开关是JVM级别的，共享的线程池在第一次使用时按开关创建，之后修改不再生效，
+ * 因此在容器创建任何bean之前开启，而不是在创建某个JRestClientFactory时
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jrest.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public static BeanFactoryPostProcessor virtualThreadsInitializer() {
+        return beanFactory -> VirtualThreads.setEnabled(true);
+    }
+}
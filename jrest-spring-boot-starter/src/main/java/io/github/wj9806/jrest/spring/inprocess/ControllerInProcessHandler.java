@@ -0,0 +1,428 @@
+package io.github.wj9806.jrest.spring.inprocess;
+
+import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.InProcessHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 将进程内请求直接分派给Spring容器中@Controller/@RestController的@RequestMapping方法，不经过DispatcherServlet
+ * 支持@PathVariable、@RequestParam、@RequestHeader、@CookieValue和@RequestBody参数，
+ * 以及ResponseEntity、@ResponseStatus和ResponseStatusException；映射注解可以声明在控制器实现的接口上
+ */
+public class ControllerInProcessHandler implements InProcessHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ControllerInProcessHandler.class);
+    private static final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final List<Route> routes = new ArrayList<>();
+    private final CodecManager codecManager;
+    private final boolean passByReference;
+    private final String contextPath;
+
+    /**
+     * @param applicationContext 控制器所在的容器
+     * @param codecManager 请求体按Content-Type解码时使用的编解码器管理器
+     * @param passByReference 是否按引用传递请求体和响应对象
+     * @param contextPath 服务的上下文路径，匹配前从请求路径中去掉，可以为空
+     */
+    public ControllerInProcessHandler(ApplicationContext applicationContext, CodecManager codecManager,
+                                      boolean passByReference, String contextPath) {
+        this.codecManager = codecManager;
+        this.passByReference = passByReference;
+        this.contextPath = contextPath == null || "/".equals(contextPath) ? "" : contextPath;
+        for (Object bean : applicationContext.getBeansWithAnnotation(Controller.class).values()) {
+            Class<?> userClass = ClassUtils.getUserClass(bean);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                addRoute(bean, userClass, method);
+            }
+        }
+        logger.debug("Found {} in-process routes", routes.size());
+    }
+
+    private void addRoute(Object bean, Class<?> userClass, Method method) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        if (mapping == null) {
+            return;
+        }
+        RequestMapping classMapping = AnnotatedElementUtils.findMergedAnnotation(userClass, RequestMapping.class);
+        String[] classPaths = classMapping != null && classMapping.path().length > 0 ? classMapping.path() : new String[]{""};
+        String[] methodPaths = mapping.path().length > 0 ? mapping.path() : new String[]{""};
+        List<String> patterns = new ArrayList<>();
+        for (String classPath : classPaths) {
+            for (String methodPath : methodPaths) {
+                patterns.add(combine(classPath, methodPath));
+            }
+        }
+        ReflectionUtils.makeAccessible(method);
+        routes.add(new Route(bean, method, patterns, mapping));
+    }
+
+    private static String combine(String classPath, String methodPath) {
+        String path = "/" + trimSlashes(classPath) + "/" + trimSlashes(methodPath);
+        path = path.replaceAll("/+", "/");
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(start, end);
+    }
+
+    @Override
+    public boolean isPassByReference() {
+        return passByReference;
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        URI uri = request.toUri();
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        if (!contextPath.isEmpty()) {
+            if (!path.startsWith(contextPath)) {
+                return status(HttpStatus.NOT_FOUND, path);
+            }
+            path = path.substring(contextPath.length()).isEmpty() ? "/" : path.substring(contextPath.length());
+        }
+
+        // 按路径匹配，多个方法匹配时选择最具体的模式，与Spring MVC一致
+        List<Map.Entry<String, Route>> candidates = new ArrayList<>();
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            String pattern = route.match(pathMatcher, path);
+            if (pattern != null) {
+                pathMatched = true;
+                if (route.supports(request.getMethod())) {
+                    candidates.add(new AbstractMap.SimpleEntry<>(pattern, route));
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return pathMatched ? status(HttpStatus.METHOD_NOT_ALLOWED, request.getMethod() + " " + path)
+                    : status(HttpStatus.NOT_FOUND, path);
+        }
+        Comparator<String> comparator = pathMatcher.getPatternComparator(path);
+        candidates.sort((a, b) -> comparator.compare(a.getKey(), b.getKey()));
+        String pattern = candidates.get(0).getKey();
+        Route route = candidates.get(0).getValue();
+
+        Object result;
+        try {
+            Object[] args = resolveArguments(route, request, uri, pathMatcher.extractUriTemplateVariables(pattern, path));
+            result = route.method.invoke(route.bean, args);
+        } catch (InvocationTargetException e) {
+            return errorResponse(e.getTargetException());
+        } catch (ResponseStatusException e) {
+            return errorResponse(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return toResponse(route, result);
+    }
+
+    private Object[] resolveArguments(Route route, HttpRequest request, URI uri, Map<String, String> uriVariables) {
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(uri).build(true).getQueryParams();
+        Object[] args = new Object[route.method.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            MethodParameter parameter = new MethodParameter(route.method, i);
+            parameter.initParameterNameDiscovery(parameterNameDiscoverer);
+            Class<?> type = parameter.getParameterType();
+            if (type == HttpRequest.class) {
+                args[i] = request;
+                continue;
+            }
+            PathVariable pathVariable = route.parameterAnnotation(i, PathVariable.class);
+            RequestParam requestParam = route.parameterAnnotation(i, RequestParam.class);
+            RequestHeader requestHeader = route.parameterAnnotation(i, RequestHeader.class);
+            CookieValue cookieValue = route.parameterAnnotation(i, CookieValue.class);
+            RequestBody requestBody = route.parameterAnnotation(i, RequestBody.class);
+            if (pathVariable != null) {
+                String name = name(pathVariable.name(), parameter);
+                args[i] = convert(uriVariables.get(name), parameter, pathVariable.required(), ValueConstants.DEFAULT_NONE, name);
+            } else if (requestParam != null) {
+                String name = name(requestParam.name(), parameter);
+                args[i] = convert(queryParam(query, request, name), parameter,
+                        requestParam.required(), requestParam.defaultValue(), name);
+            } else if (requestHeader != null) {
+                String name = name(requestHeader.name(), parameter);
+                args[i] = convert(header(request.getHeaders(), name), parameter, requestHeader.required(), requestHeader.defaultValue(), name);
+            } else if (cookieValue != null) {
+                String name = name(cookieValue.name(), parameter);
+                args[i] = convert(request.getCookies().get(name), parameter, cookieValue.required(), cookieValue.defaultValue(), name);
+            } else if (requestBody != null) {
+                args[i] = readBody(request, parameter, requestBody.required());
+            } else if (BeanUtils.isSimpleProperty(type)) {
+                // 与Spring MVC一致，未注解的简单类型参数按请求参数处理
+                String name = parameter.getParameterName();
+                args[i] = convert(name != null ? queryParam(query, request, name) : null, parameter,
+                        false, ValueConstants.DEFAULT_NONE, name);
+            }
+        }
+        return args;
+    }
+
+    private static String name(String name, MethodParameter parameter) {
+        return name.isEmpty() ? parameter.getParameterName() : name;
+    }
+
+    private static List<String> queryParam(MultiValueMap<String, String> query, HttpRequest request, String name) {
+        List<String> values = query.get(name);
+        if (values != null) {
+            List<String> decoded = new ArrayList<>(values.size());
+            for (String value : values) {
+                decoded.add(value == null ? "" : UriUtils.decode(value, StandardCharsets.UTF_8));
+            }
+            return decoded;
+        }
+        Object formValue = request.getFormData().get(name);
+        if (formValue instanceof Collection) {
+            List<String> decoded = new ArrayList<>();
+            ((Collection<?>) formValue).forEach(value -> decoded.add(String.valueOf(value)));
+            return decoded;
+        }
+        return formValue != null ? Collections.singletonList(String.valueOf(formValue)) : null;
+    }
+
+    private static String header(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将字符串或字符串列表转换为参数类型，缺少必需参数时返回400
+     */
+    private Object convert(Object value, MethodParameter parameter, boolean required, String defaultValue, String name) {
+        if (value == null && !ValueConstants.DEFAULT_NONE.equals(defaultValue)) {
+            value = defaultValue;
+        }
+        if (value == null) {
+            if (required && !parameter.isOptional()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing parameter: " + name);
+            }
+            return parameter.getParameterType() == Optional.class ? Optional.empty() : null;
+        }
+        TypeDescriptor targetType = new TypeDescriptor(parameter);
+        if (value instanceof List && ((List<?>) value).size() == 1
+                && !targetType.isCollection() && !targetType.isArray()) {
+            value = ((List<?>) value).get(0);
+        }
+        TypeDescriptor sourceType = value instanceof List
+                ? TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class)) : TypeDescriptor.valueOf(String.class);
+        try {
+            return conversionService.convert(value, sourceType, targetType);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid parameter: " + name, e);
+        }
+    }
+
+    /**
+     * 读取请求体：类型兼容的对象按引用使用，字节数组和字符串按Content-Type解码，
+     * 其他对象（调用方和服务方使用不同的类）先编码再解码
+     */
+    private Object readBody(HttpRequest request, MethodParameter parameter, boolean required) {
+        Object body = request.getBody();
+        if (body == null) {
+            if (required) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing request body");
+            }
+            return null;
+        }
+        Class<?> type = parameter.getParameterType();
+        if (type.isInstance(body)) {
+            return body;
+        }
+        String contentType = header(request.getHeaders(), "Content-Type");
+        if (contentType == null) {
+            contentType = "application/json";
+        }
+        try {
+            if (!(body instanceof byte[]) && !(body instanceof String)) {
+                body = codecManager.selectEncoder(contentType).encode(body, contentType);
+            }
+            return body instanceof byte[]
+                    ? codecManager.selectDecoder(contentType).decode((byte[]) body, parameter.getGenericParameterType(), contentType)
+                    : codecManager.selectDecoder(contentType).decode((String) body, parameter.getGenericParameterType(), contentType);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid request body", e);
+        }
+    }
+
+    private HttpResponse toResponse(Route route, Object result) {
+        int statusCode = route.responseStatus;
+        Map<String, String> headers = new HashMap<>();
+        Object body = result;
+        Type bodyType = route.returnType;
+        if (result instanceof ResponseEntity) {
+            ResponseEntity<?> entity = (ResponseEntity<?>) result;
+            bodyType = route.responseEntityBodyType;
+            statusCode = entity.getStatusCodeValue();
+            headers.putAll(entity.getHeaders().toSingleValueMap());
+            body = entity.getBody();
+        }
+        if (body == null) {
+            return new HttpResponse(statusCode, (String) null, headers);
+        }
+        if (header(headers, "Content-Type") == null) {
+            String contentType = route.produces.length > 0 ? route.produces[0]
+                    : body instanceof String ? "text/plain;charset=UTF-8" : "application/json";
+            headers.put("Content-Type", contentType);
+        }
+        return HttpResponse.ofEntity(statusCode, body, bodyType, headers);
+    }
+
+    /**
+     * 控制器抛出的异常，带有状态码的转换为对应的响应，其他异常交给客户端按500处理
+     */
+    private HttpResponse errorResponse(Throwable e) {
+        if (e instanceof ResponseStatusException) {
+            ResponseStatusException statusException = (ResponseStatusException) e;
+            return new HttpResponse(statusException.getRawStatusCode(), statusException.getReason(),
+                    Collections.singletonMap("Content-Type", "text/plain;charset=UTF-8"));
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        if (responseStatus != null) {
+            String reason = responseStatus.reason().isEmpty() ? e.getMessage() : responseStatus.reason();
+            return new HttpResponse(responseStatus.code().value(), reason,
+                    Collections.singletonMap("Content-Type", "text/plain;charset=UTF-8"));
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw new IllegalStateException(e);
+    }
+
+    private static HttpResponse status(HttpStatus status, String message) {
+        return new HttpResponse(status.value(), message, Collections.singletonMap("Content-Type", "text/plain;charset=UTF-8"));
+    }
+
+    /**
+     * 控制器方法及其映射
+     */
+    private static final class Route {
+        final Object bean;
+        final Method method;
+        final List<String> patterns;
+        final RequestMethod[] methods;
+        final String[] produces;
+        final int responseStatus;
+        // 返回值的声明类型，客户端据此判断带泛型参数的返回值能否按引用使用
+        final Type returnType;
+        final Type responseEntityBodyType;
+        // 控制器方法及其实现的接口中同签名的方法，参数注解可以声明在任意一个上
+        final List<Method> declarations = new ArrayList<>();
+
+        Route(Object bean, Method method, List<String> patterns, RequestMapping mapping) {
+            this.bean = bean;
+            this.method = method;
+            this.patterns = patterns;
+            this.methods = mapping.method();
+            this.produces = mapping.produces();
+            ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(method, ResponseStatus.class);
+            this.responseStatus = status != null ? status.code().value() : HttpStatus.OK.value();
+            ResolvableType resolvableType = ResolvableType.forMethodReturnType(method);
+            this.returnType = resolvableType.getType();
+            this.responseEntityBodyType = resolvableType.as(ResponseEntity.class).getGeneric(0).getType();
+            declarations.add(method);
+            for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(method.getDeclaringClass())) {
+                Method declaration = ReflectionUtils.findMethod(ifc, method.getName(), method.getParameterTypes());
+                if (declaration != null) {
+                    declarations.add(declaration);
+                }
+            }
+        }
+
+        String match(AntPathMatcher pathMatcher, String path) {
+            for (String pattern : patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return pattern;
+                }
+            }
+            return null;
+        }
+
+        boolean supports(String httpMethod) {
+            if (methods.length == 0) {
+                return true;
+            }
+            for (RequestMethod requestMethod : methods) {
+                if (requestMethod.name().equalsIgnoreCase(httpMethod)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        <A extends Annotation> A parameterAnnotation(int index, Class<A> annotationType) {
+            for (Method declaration : declarations) {
+                A annotation = new SynthesizingMethodParameter(declaration, index).getParameterAnnotation(annotationType);
+                if (annotation != null) {
+                    return annotation;
+                }
+            }
+            return null;
+        }
+    }
+}
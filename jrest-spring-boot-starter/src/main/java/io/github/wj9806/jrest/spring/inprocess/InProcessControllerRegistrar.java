@@ -0,0 +1,47 @@
+package io.github.wj9806.jrest.spring.inprocess;
+
+import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.InProcessRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 容器中的单例初始化完成后，将本容器的控制器注册为指定基础URL的进程内处理器，容器关闭时注销
+ */
+public class InProcessControllerRegistrar implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessControllerRegistrar.class);
+
+    private final ApplicationContext applicationContext;
+    private final List<String> baseUrls;
+    private final boolean passByReference;
+
+    public InProcessControllerRegistrar(ApplicationContext applicationContext, List<String> baseUrls, boolean passByReference) {
+        this.applicationContext = applicationContext;
+        this.baseUrls = new ArrayList<>(baseUrls);
+        this.passByReference = passByReference;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        CodecManager codecManager = applicationContext.getBeanProvider(CodecManager.class).getIfAvailable(CodecManager::new);
+        String contextPath = applicationContext.getEnvironment().getProperty("server.servlet.context-path");
+        ControllerInProcessHandler handler = new ControllerInProcessHandler(applicationContext, codecManager,
+                passByReference, contextPath);
+        for (String baseUrl : baseUrls) {
+            InProcessRegistry.getInstance().register(baseUrl, handler);
+            logger.info("Registered in-process controllers for {}", baseUrl);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        baseUrls.forEach(InProcessRegistry.getInstance()::unregister);
+    }
+}
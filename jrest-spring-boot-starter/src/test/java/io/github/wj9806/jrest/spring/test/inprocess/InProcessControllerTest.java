@@ -0,0 +1,71 @@
+package io.github.wj9806.jrest.spring.test.inprocess;
+
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.InProcessHandler;
+import io.github.wj9806.jrest.client.http.InProcessRegistry;
+import io.github.wj9806.jrest.spring.EnableRestClient;
+import io.github.wj9806.jrest.spring.config.RestClientAutoConfiguration;
+import io.github.wj9806.jrest.spring.test.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = {RestClientAutoConfiguration.class, UserController.class},
+        properties = "jrest.in-process.base-urls=http://user-service")
+@EnableRestClient(basePackages = "io.github.wj9806.jrest.spring.test.inprocess")
+public class InProcessControllerTest {
+
+    @Autowired
+    private UserClient userClient;
+
+    @Test
+    public void testDispatchToController() {
+        User user = userClient.get("octocat", 7);
+        System.out.println("User: " + user.getLogin() + ", " + user.getId());
+        assertEquals("octocat", user.getLogin());
+        assertEquals(7, user.getId());
+
+        User request = new User();
+        request.setLogin("jrest");
+        User created = userClient.create(request);
+        // 默认按JSON编解码，服务方修改的是副本
+        assertNotSame(request, created);
+        assertEquals(100, created.getId());
+        assertEquals(0, request.getId());
+    }
+
+    @Test
+    public void testStatusAndHeaders() throws Exception {
+        InProcessHandler handler = InProcessRegistry.getInstance().getHandler(URI.create("http://user-service/users"));
+        assertNotNull(handler);
+
+        HttpResponse response = handler.handle(new HttpRequest.Builder()
+                .url("http://user-service/users/octocat").get().header("x-company", "GitHub").build());
+        assertEquals(200, response.getStatusCode());
+        assertEquals("GitHub", ((User) response.getEntity()).getCompany());
+        assertEquals(1, ((User) response.getEntity()).getId());
+
+        // 带泛型参数的返回值同时给出声明类型，客户端据此判断能否按引用使用
+        response = handler.handle(new HttpRequest.Builder().url("http://user-service/users").get().build());
+        assertEquals(new ParameterizedTypeReference<List<User>>() {}.getType(), response.getEntityType());
+
+        assertEquals(404, handler.handle(new HttpRequest.Builder().url("http://user-service/users/missing").get().build())
+                .getStatusCode());
+        assertEquals(405, handler.handle(new HttpRequest.Builder().url("http://user-service/users/octocat").delete().build())
+                .getStatusCode());
+        assertEquals(404, handler.handle(new HttpRequest.Builder().url("http://user-service/orders").get().build())
+                .getStatusCode());
+        assertEquals(400, handler.handle(new HttpRequest.Builder().url("http://user-service/users").post().build())
+                .getStatusCode());
+    }
+}
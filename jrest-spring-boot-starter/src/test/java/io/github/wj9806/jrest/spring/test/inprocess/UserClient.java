@@ -0,0 +1,24 @@
+package io.github.wj9806.jrest.spring.test.inprocess;
+
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.spring.test.entity.User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * 访问UserController的客户端，通过jrest.in-process.base-urls改为进程内调用
+ */
+@RestClient(baseUrl = "http://user-service")
+@RequestMapping("/users")
+public interface UserClient {
+
+    @GetMapping("/{login}")
+    User get(@PathVariable("login") String login, @RequestParam("id") long id);
+
+    @PostMapping
+    User create(@RequestBody User user);
+}
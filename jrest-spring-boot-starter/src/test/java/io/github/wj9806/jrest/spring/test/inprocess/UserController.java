@@ -0,0 +1,50 @@
+package io.github.wj9806.jrest.spring.test.inprocess;
+
+import io.github.wj9806.jrest.spring.test.entity.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 进程内调用测试使用的控制器
+ */
+@RestController
+@RequestMapping("/users")
+public class UserController {
+
+    @GetMapping("/{login}")
+    public User get(@PathVariable String login, @RequestParam(value = "id", defaultValue = "1") long id,
+                    @RequestHeader(value = "X-Company", required = false) String company) {
+        if ("missing".equals(login)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such user");
+        }
+        User user = new User();
+        user.setLogin(login);
+        user.setId(id);
+        user.setCompany(company);
+        return user;
+    }
+
+    @GetMapping
+    public List<User> list() {
+        return Collections.singletonList(get("octocat", 1, null));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public User create(@RequestBody User user) {
+        user.setId(100);
+        return user;
+    }
+}
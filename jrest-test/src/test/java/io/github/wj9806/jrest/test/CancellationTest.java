@@ -0,0 +1,146 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.ApacheHttpClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.Dispatcher;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.NioHttpClient;
+import io.github.wj9806.jrest.client.http.Retryer;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 取消异步请求测试：取消传递到正在进行的交换，释放连接并停止后续重试
+ */
+public class CancellationTest {
+
+    private static final String DESTINATION = "http://localhost:18093";
+
+    @RestClient(baseUrl = DESTINATION, clientType = ClientType.APACHE, maxConnections = 1)
+    public interface CancellableClient {
+        @GET("/sleep/{millis}")
+        CompletableFuture<String> sleep(@PathParam("millis") int millis);
+    }
+
+    private static HttpRequest request(String path) {
+        return new HttpRequest.Builder().url(DESTINATION + path).get().build();
+    }
+
+    private static ConnectionPoolConfig singleConnection() {
+        return new ConnectionPoolConfig.Builder().maxTotal(1).maxPerRoute(1).build();
+    }
+
+    /**
+     * 只有一个连接时，取消慢请求后下一个请求不需要等待慢请求结束
+     */
+    private static void assertCancelReleasesConnection(AbstractHttpClient httpClient) throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18093)) {
+            CompletableFuture<HttpResponse> slow = httpClient.exchangeAsync(request("/sleep/3000"));
+            Thread.sleep(200);
+            assertTrue(slow.cancel(true));
+            assertThrows(CancellationException.class, slow::join);
+
+            long start = System.currentTimeMillis();
+            assertEquals(200, httpClient.exchange(request("/fast")).getStatusCode());
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println(httpClient.getClass().getSimpleName() + " next request after cancel: " + elapsed + "ms");
+            assertTrue(elapsed < 1500);
+        }
+    }
+
+    @Test
+    public void testApacheCancelReleasesConnection() throws Exception {
+        ApacheHttpClient httpClient = new ApacheHttpClient(singleConnection());
+        assertCancelReleasesConnection(httpClient);
+        assertEquals(0, httpClient.getPoolStats().getLeased());
+    }
+
+    @Test
+    public void testNioCancelReleasesConnection() throws Exception {
+        assertCancelReleasesConnection(new NioHttpClient(singleConnection()));
+    }
+
+    @Test
+    public void testNativeCancelThroughDispatcher() throws Exception {
+        // 每个目标地址只允许一个请求，取消后名额立即释放
+        Dispatcher dispatcher = new Dispatcher.Builder().maxRequestsPerHost(1).build();
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setDispatcher(dispatcher);
+        try (TestHttpServer server = new TestHttpServer(18093)) {
+            CompletableFuture<HttpResponse> running = httpClient.exchangeAsync(request("/sleep/3000"));
+            CompletableFuture<HttpResponse> queued = httpClient.exchangeAsync(request("/sleep/3000/queued"));
+            assertEquals(1, dispatcher.getStats().getQueued());
+            queued.cancel(true);
+            assertEquals(0, dispatcher.getStats().getQueued());
+
+            Thread.sleep(200);
+            running.cancel(true);
+            assertEquals(0, dispatcher.getStats().getRunning());
+            long start = System.currentTimeMillis();
+            assertEquals(200, httpClient.exchange(request("/fast")).getStatusCode());
+            assertTrue(System.currentTimeMillis() - start < 1500);
+            System.out.println(dispatcher.getStats());
+        }
+    }
+
+    @Test
+    public void testCancelStopsPendingRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setRetryer(new Retryer() {
+            @Override
+            public boolean shouldRetry(HttpRequest httpRequest, HttpResponse httpResponse, IOException exception, int retryCount) {
+                attempts.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public long getDelay(int retryCount) {
+                return 100;
+            }
+
+            @Override
+            public int getMaxRetries() {
+                return Integer.MAX_VALUE;
+            }
+        });
+        // 端口上没有服务，每次尝试都连接失败并安排重试
+        CompletableFuture<HttpResponse> future = httpClient.exchangeAsync(request("/unreachable"));
+        Thread.sleep(350);
+        future.cancel(true);
+        Thread.sleep(100);
+        int afterCancel = attempts.get();
+        Thread.sleep(400);
+        System.out.println("attempts: " + afterCancel);
+        assertTrue(afterCancel > 0);
+        assertEquals(afterCancel, attempts.get());
+    }
+
+    @Test
+    public void testCancelProxyFuture() throws Exception {
+        CancellableClient client = new JRestClientFactory.Builder().build().createProxy(CancellableClient.class);
+        try (TestHttpServer server = new TestHttpServer(18093)) {
+            CompletableFuture<String> slow = client.sleep(3000);
+            Thread.sleep(200);
+            // 取消解码后的future同样中止请求，释放唯一的连接
+            slow.cancel(true);
+            long start = System.currentTimeMillis();
+            assertTrue(client.sleep(0).get().contains("/sleep/0"));
+            assertTrue(System.currentTimeMillis() - start < 1500);
+        }
+    }
+}
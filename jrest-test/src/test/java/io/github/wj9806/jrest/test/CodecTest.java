@@ -16,6 +16,7 @@ import lombok.Data;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,6 +74,12 @@ public class CodecTest {
         String stringValue = (String) decoder.decode("test string".getBytes(), String.class, "application/json");
         assertEquals("test string", stringValue);
         
+        // 字节数组直接解析，非ASCII字符按UTF-8解码
+        bean = (TestBean) decoder.decode("{\"name\":\"中文\"}".getBytes(StandardCharsets.UTF_8), TestBean.class, "application/json");
+        assertEquals("中文", bean.getName());
+        assertEquals("中文", decoder.decode("中文".getBytes(StandardCharsets.UTF_8), String.class, "application/json"));
+        assertNull(decoder.decode(new byte[0], TestBean.class, "application/json"));
+        
         assertTrue(decoder.supports("application/json"));
         assertTrue(decoder.supports("application/json;charset=UTF-8"));
         assertFalse(decoder.supports("text/plain"));
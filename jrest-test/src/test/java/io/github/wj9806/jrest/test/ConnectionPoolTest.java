@@ -0,0 +1,196 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.ApacheHttpClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.ConnectionPoolStats;
+import io.github.wj9806.jrest.client.http.HttpClientConfig;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApacheHttpClient连接池配置和统计测试
+ */
+public class ConnectionPoolTest {
+
+    private static final String DESTINATION = "http://localhost:18083";
+
+    @RestClient(baseUrl = DESTINATION, clientType = ClientType.APACHE, maxConnections = 7)
+    public interface PoolClient {
+        @GET("/pool")
+        String get();
+    }
+
+    private static HttpRequest request(String path) {
+        return new HttpRequest.Builder().url(DESTINATION + path).get().build();
+    }
+
+    @Test
+    public void testMaxPerHostLimitsConnections() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig.Builder()
+                .maxTotal(10)
+                .maxPerRoute(5)
+                .maxPerHost("localhost:18083", 2)
+                .build();
+        ApacheHttpClient httpClient = new ApacheHttpClient(config);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            List<Future<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(executor.submit(() -> httpClient.exchange(request("/sleep/200"))));
+            }
+            for (Future<HttpResponse> future : futures) {
+                assertEquals(200, future.get().getStatusCode());
+            }
+
+            ConnectionPoolStats stats = httpClient.getPoolStats();
+            System.out.println(stats + ", connections: " + server.getConnectionCount());
+            assertEquals(2, server.getConnectionCount());
+            assertEquals(10, stats.getMax());
+            assertEquals(0, stats.getLeased());
+            ConnectionPoolStats route = stats.getRoute(DESTINATION);
+            assertEquals(2, route.getMax());
+            assertEquals(2, route.getAvailable());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncPendingStats() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig.Builder()
+                .maxPerHost(DESTINATION, 1)
+                .build();
+        ApacheHttpClient httpClient = new ApacheHttpClient(config);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            CompletableFuture<HttpResponse> first = httpClient.exchangeAsync(request("/sleep/500"));
+            CompletableFuture<HttpResponse> second = httpClient.exchangeAsync(request("/sleep/0"));
+            Thread.sleep(200);
+
+            ConnectionPoolStats route = httpClient.getPoolStats().getRoute(DESTINATION);
+            System.out.println(route);
+            assertEquals(1, route.getLeased());
+            assertEquals(1, route.getPending());
+
+            assertEquals(200, first.get().getStatusCode());
+            assertEquals(200, second.get().getStatusCode());
+            assertEquals(1, server.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testAsyncPipelining() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig.Builder()
+                .maxPerHost(DESTINATION, 2)
+                .maxPipelinedRequests(5)
+                .build();
+        ApacheHttpClient httpClient = new ApacheHttpClient(config);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(httpClient.exchangeAsync(request("/sleep/20/" + i)));
+            }
+            // 非幂等请求不使用流水线
+            CompletableFuture<HttpResponse> post = httpClient.exchangeAsync(
+                    new HttpRequest.Builder().url(DESTINATION + "/post").post().body("data").build());
+            for (int i = 0; i < futures.size(); i++) {
+                HttpResponse response = futures.get(i).get();
+                assertEquals(200, response.getStatusCode());
+                assertTrue(response.getBody().contains("/sleep/20/" + i));
+            }
+            assertTrue(post.get().getBody().contains("\"method\":\"POST\""));
+
+            ConnectionPoolStats pipelining = httpClient.getPipeliningPoolStats();
+            System.out.println(pipelining + ", connections: " + server.getConnectionCount());
+            assertEquals(2, pipelining.getRoute(DESTINATION).getMax());
+            // 每批请求共用一个连接
+            assertTrue(server.getConnectionCount() < futures.size());
+        }
+        assertNull(new ApacheHttpClient().getPipeliningPoolStats());
+    }
+
+    @Test
+    public void testCloseFailsQueuedPipelinedRequests() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig.Builder()
+                .maxPerHost(DESTINATION, 1)
+                .maxPipelinedRequests(2)
+                .build();
+        ApacheHttpClient httpClient = new ApacheHttpClient(config);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            CompletableFuture<HttpResponse> inFlight = httpClient.exchangeAsync(request("/sleep/500"));
+            // 唯一的连接正在使用，后面的请求在流水线中排队
+            CompletableFuture<HttpResponse> queued = httpClient.exchangeAsync(request("/queued"));
+            Thread.sleep(100);
+            httpClient.close();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause());
+            assertEquals("Client closed", e.getCause().getMessage());
+            // 已发出的请求随客户端关闭结束，不会一直等待
+            assertThrows(ExecutionException.class, () -> inFlight.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testSyncAndAsyncShareConnections() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig.Builder()
+                .maxPerHost(DESTINATION, 1)
+                .build();
+        ApacheHttpClient httpClient = new ApacheHttpClient(config);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            CompletableFuture<HttpResponse> async = httpClient.exchangeAsync(request("/sleep/200"));
+            Thread.sleep(50);
+            // 同步请求与异步请求使用同一个连接池，需要等待异步请求释放连接
+            assertEquals(200, httpClient.exchange(request("/sleep/0")).getStatusCode());
+            assertTrue(async.isDone());
+            System.out.println(httpClient.getPoolStats() + ", connections: " + server.getConnectionCount());
+            assertEquals(1, server.getConnectionCount());
+            assertEquals(1, httpClient.getPoolStats().getRoute(DESTINATION).getAvailable());
+        }
+    }
+
+    @Test
+    public void testUpdateConnectionPoolConfig() {
+        ApacheHttpClient httpClient = new ApacheHttpClient();
+        assertEquals(ConnectionPoolConfig.DEFAULT, httpClient.getConnectionPoolConfig());
+        assertEquals(200, httpClient.getPoolStats().getMax());
+
+        httpClient.setConnectionPoolConfig(new ConnectionPoolConfig.Builder().maxTotal(50).maxPerRoute(10).build());
+        httpClient.setMaxConnectionsPerHost("https://example.com", 3);
+        assertEquals(50, httpClient.getPoolStats().getMax());
+        assertEquals(50, httpClient.getPoolStats().getMax());
+        assertEquals(Integer.valueOf(3), httpClient.getConnectionPoolConfig().getMaxPerHost().get("https://example.com:443"));
+    }
+
+    @Test
+    public void testRestClientMaxConnections() throws Exception {
+        JRestClientFactory factory = new JRestClientFactory.Builder().build();
+        PoolClient client = factory.createProxy(PoolClient.class);
+        // 注解中的连接数属于有效配置，按相同配置可以取到代理使用的HttpClient
+        HttpClientConfig config = new HttpClientConfig.Builder()
+                .clientType(ClientType.APACHE)
+                .connectionPool(new ConnectionPoolConfig.Builder().maxPerHost(DESTINATION, 7).build())
+                .build();
+        ApacheHttpClient httpClient = (ApacheHttpClient) HttpClientFactory.createHttpClient(config);
+        try (TestHttpServer server = new TestHttpServer(18083)) {
+            assertTrue(client.get().contains("/pool"));
+            assertEquals(7, httpClient.getPoolStats().getRoute(DESTINATION).getMax());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.Deadline;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.DeadlineContext;
+import io.github.wj9806.jrest.client.http.DeadlineExceededException;
+import io.github.wj9806.jrest.client.http.HashedWheelTimer;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.Retryer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求总时限测试
+ */
+public class DeadlineTest {
+
+    private static final String DESTINATION = "http://localhost:18092";
+
+    @RestClient(baseUrl = DESTINATION)
+    @Deadline(300)
+    public interface DeadlineClient {
+        @GET("/sleep/1000")
+        String slow() throws IOException;
+
+        @GET("/sleep/500")
+        @Deadline(2000)
+        String relaxed() throws IOException;
+
+        @GET("/sleep/500")
+        @Deadline(2000)
+        CompletableFuture<String> relaxedAsync();
+    }
+
+    /**
+     * 对任意响应和异常都按固定间隔重试
+     */
+    private static class FixedRetryer implements Retryer {
+        private final long delay;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        FixedRetryer(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public boolean shouldRetry(HttpRequest httpRequest, HttpResponse httpResponse, IOException exception, int retryCount) {
+            attempts.incrementAndGet();
+            return retryCount < 10;
+        }
+
+        @Override
+        public long getDelay(int retryCount) {
+            return delay;
+        }
+
+        @Override
+        public int getMaxRetries() {
+            return 10;
+        }
+    }
+
+    private static HttpRequest.Builder request(String path) {
+        return new HttpRequest.Builder().url(DESTINATION + path).get();
+    }
+
+    @Test
+    public void testAsyncCompletesAtDeadline() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        try (TestHttpServer server = new TestHttpServer(18092)) {
+            long start = System.currentTimeMillis();
+            CompletableFuture<HttpResponse> future = httpClient.exchangeAsync(request("/sleep/2000").deadline(300).build());
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("async deadline: " + e.getCause() + ", elapsed: " + elapsed + "ms");
+            assertTrue(e.getCause() instanceof DeadlineExceededException);
+            assertTrue(elapsed >= 300 && elapsed < 1000);
+        }
+    }
+
+    @Test
+    public void testSyncUsesClientDeadline() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setDeadline(300);
+        try (TestHttpServer server = new TestHttpServer(18092)) {
+            long start = System.currentTimeMillis();
+            assertThrows(DeadlineExceededException.class, () -> httpClient.exchange(request("/sleep/2000").build()));
+            assertTrue(System.currentTimeMillis() - start < 1000);
+            // 请求级的时限覆盖客户端配置
+            assertEquals(200, httpClient.exchange(request("/sleep/500").deadline(2000).build()).getStatusCode());
+        }
+    }
+
+    @Test
+    public void testRetriesStopBeforeDeadline() throws Exception {
+        FixedRetryer retryer = new FixedRetryer(200);
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setRetryer(retryer);
+        try (TestHttpServer server = new TestHttpServer(18092)) {
+            long start = System.currentTimeMillis();
+            // 第0、200、400毫秒各尝试一次，下次重试在第600毫秒，超过总时限，返回最后一次的响应
+            HttpResponse response = httpClient.exchange(request("/retry").deadline(500).build());
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("attempts: " + retryer.attempts.get() + ", elapsed: " + elapsed + "ms");
+            assertEquals(200, response.getStatusCode());
+            assertEquals(3, retryer.attempts.get());
+            assertTrue(elapsed < 600);
+        }
+    }
+
+    @Test
+    public void testAnnotationAndContext() throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18092);
+             JRestClientFactory factory = new JRestClientFactory.Builder().build()) {
+            DeadlineClient client = factory.createProxy(DeadlineClient.class);
+            assertThrows(DeadlineExceededException.class, client::slow);
+            // 方法上的注解优先于接口上的注解
+            assertTrue(client.relaxed().contains("/sleep/500"));
+
+            // 调用级的时限更早时生效，范围关闭后恢复
+            long start = System.currentTimeMillis();
+            try (DeadlineContext.Scope scope = DeadlineContext.open(100, TimeUnit.MILLISECONDS)) {
+                assertThrows(DeadlineExceededException.class, client::relaxed);
+            }
+            assertTrue(System.currentTimeMillis() - start < 400);
+            assertNull(DeadlineContext.current());
+            assertTrue(client.relaxed().contains("/sleep/500"));
+        }
+    }
+
+    @Test
+    public void testFactoryCloseKeepsDeadline() throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18092)) {
+            JRestClientFactory factory = new JRestClientFactory.Builder().build();
+            DeadlineClient client = factory.createProxy(DeadlineClient.class);
+            HashedWheelTimer timer = HashedWheelTimer.shared();
+            long start = System.currentTimeMillis();
+            CompletableFuture<String> future = client.relaxedAsync();
+            // 关闭工厂时请求仍在进行，截止时间的定时任务转移到新的定时器，请求正常完成
+            factory.close();
+            System.out.println("shared timer replaced: " + (HashedWheelTimer.shared() != timer));
+            assertTrue(future.get(5, TimeUnit.SECONDS).contains("/sleep/500"));
+            assertTrue(System.currentTimeMillis() - start >= 500);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.Dispatcher;
+import io.github.wj9806.jrest.client.http.DispatcherStats;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求调度器测试
+ */
+public class DispatcherTest {
+
+    private static final String DESTINATION = "http://localhost:18090";
+
+    @RestClient(baseUrl = DESTINATION)
+    public interface DispatchedClient {
+        @GET("/dispatched")
+        String get();
+    }
+
+    private static HttpRequest request(String url) {
+        return new HttpRequest.Builder().url(url).get().build();
+    }
+
+    @Test
+    public void testQueueAndAbort() throws Exception {
+        Dispatcher dispatcher = new Dispatcher.Builder()
+                .maxRequestsPerHost(2)
+                .maxQueuedRequests(3)
+                .build();
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setDispatcher(dispatcher);
+        try (TestHttpServer server = new TestHttpServer(18090)) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(httpClient.exchangeAsync(request(DESTINATION + "/sleep/200/" + i)));
+            }
+            DispatcherStats stats = dispatcher.getStats();
+            System.out.println(stats);
+            assertEquals(2, stats.getRunning());
+            assertEquals(3, stats.getQueued());
+            assertEquals(2, dispatcher.getRunningCount("localhost:18090"));
+
+            // 其他目标地址不受已满的目标地址影响
+            assertEquals(200, httpClient.exchange(request("http://127.0.0.1:18090/other")).getStatusCode());
+
+            ExecutionException rejected = assertThrows(ExecutionException.class, () -> futures.get(5).get());
+            assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+            for (int i = 0; i < 5; i++) {
+                assertTrue(futures.get(i).get().getBody().contains("/sleep/200/" + i));
+            }
+
+            stats = dispatcher.getStats();
+            System.out.println(stats);
+            assertEquals(0, stats.getRunning());
+            assertEquals(0, stats.getQueued());
+            assertEquals(6, stats.getDispatchedCount());
+            assertEquals(3, stats.getQueuedCount());
+            assertEquals(1, stats.getRejectedCount());
+            assertTrue(stats.getMaxWaitTime() >= 300);
+        }
+    }
+
+    @Test
+    public void testDiscardOldestWithUserExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4, r -> new Thread(r, "user-executor"));
+        Dispatcher dispatcher = new Dispatcher.Builder()
+                .maxRequests(1)
+                .maxQueuedRequests(1)
+                .rejectionPolicy(Dispatcher.RejectionPolicy.DISCARD_OLDEST)
+                .executor(executor)
+                .build();
+        try (TestHttpServer server = new TestHttpServer(18090)) {
+            NativeHttpClient httpClient = new NativeHttpClient();
+            httpClient.setDispatcher(dispatcher);
+            CompletableFuture<HttpResponse> first = httpClient.exchangeAsync(request(DESTINATION + "/sleep/200"));
+            CompletableFuture<HttpResponse> discarded = httpClient.exchangeAsync(request(DESTINATION + "/discarded"));
+            CompletableFuture<HttpResponse> last = httpClient.exchangeAsync(request(DESTINATION + "/last"));
+
+            ExecutionException e = assertThrows(ExecutionException.class, discarded::get);
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+            assertEquals(200, first.get().getStatusCode());
+            assertTrue(last.get().getBody().contains("/last"));
+
+            // 通过JRestClientFactory.Builder指定的调度器，阻塞式传输在调度器的执行器中执行请求
+            List<String> threads = new ArrayList<>();
+            DispatchedClient client = new JRestClientFactory.Builder()
+                    .dispatcher(dispatcher)
+                    .addInterceptor(new HttpRequestInterceptor() {
+                        @Override
+                        public void afterResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+                            threads.add(Thread.currentThread().getName());
+                        }
+                    })
+                    .build()
+                    .createProxy(DispatchedClient.class);
+            assertTrue(client.get().contains("/dispatched"));
+            assertEquals("user-executor", threads.get(0));
+            System.out.println(dispatcher.getStats());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
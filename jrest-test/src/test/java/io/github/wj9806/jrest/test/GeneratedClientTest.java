@@ -0,0 +1,94 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.POST;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.QueryParam;
+import io.github.wj9806.jrest.client.annotation.RequestBody;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.proxy.AbstractGeneratedClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译期生成客户端测试
+ */
+public class GeneratedClientTest {
+
+    private static TestHttpServer server;
+
+    @RestClient(baseUrl = "http://localhost:18080/api")
+    interface EchoClient {
+
+        @GET("/users/{name}")
+        Map<String, String> getUser(@PathParam("name") String name, @QueryParam("page") int page);
+
+        @POST("/users")
+        String createUser(@RequestBody Map<String, Object> user);
+
+        @GET("/async/{id}")
+        CompletableFuture<Map<String, String>> getAsync(@PathParam("id") long id);
+    }
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new TestHttpServer(18080);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testGeneratedClientIsUsed() {
+        JRestClientFactory factory = new JRestClientFactory.Builder().build();
+        EchoClient client = factory.createProxy(EchoClient.class);
+
+        System.out.println("Client class: " + client.getClass().getName());
+        assertFalse(Proxy.isProxyClass(client.getClass()));
+        assertTrue(client instanceof AbstractGeneratedClient);
+        assertEquals(AbstractGeneratedClient.generatedClassName(EchoClient.class), client.getClass().getName());
+    }
+
+    @Test
+    public void testFallbackToDynamicProxy() {
+        // 使用Spring MVC注解的接口不会生成实现类
+        JRestClientFactory factory = new JRestClientFactory.Builder().build();
+        GitHubClient2 client = factory.createProxy(GitHubClient2.class);
+        assertTrue(Proxy.isProxyClass(client.getClass()));
+    }
+
+    @Test
+    public void testSyncRequests() {
+        EchoClient client = new JRestClientFactory.Builder().build().createProxy(EchoClient.class);
+
+        Map<String, String> user = client.getUser("octo cat", 2);
+        assertEquals("GET", user.get("method"));
+        assertEquals("/api/users/octo%20cat", user.get("path"));
+        assertEquals("page=2", user.get("query"));
+
+        String created = client.createUser(Collections.singletonMap("name", "jrest"));
+        System.out.println(created);
+        assertTrue(created.contains("\"method\":\"POST\""));
+        assertTrue(created.contains("jrest"));
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        EchoClient client = new JRestClientFactory.Builder().build().createProxy(EchoClient.class);
+
+        Map<String, String> result = client.getAsync(42L).get(10, TimeUnit.SECONDS);
+        assertEquals("/api/async/42", result.get("path"));
+    }
+}
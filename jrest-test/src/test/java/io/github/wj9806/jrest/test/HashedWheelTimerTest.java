@@ -0,0 +1,129 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.http.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 时间轮定时器测试
+ */
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testExpireAndCancel() throws Exception {
+        // 槽位数较少，延迟较长的任务需要转过多圈
+        try (HashedWheelTimer timer = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 8)) {
+            ConcurrentHashMap<Integer, Long> fired = new ConcurrentHashMap<>();
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            for (int delay : new int[]{0, 50, 200}) {
+                timer.newTimeout(() -> {
+                    fired.put(delay, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    latch.countDown();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            AtomicInteger cancelledRuns = new AtomicInteger();
+            HashedWheelTimer.Timeout cancelled = timer.newTimeout(cancelledRuns::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+            assertTrue(cancelled.cancel());
+            assertFalse(cancelled.cancel());
+
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            System.out.println("fired: " + fired);
+            assertTrue(fired.get(50) >= 50);
+            assertTrue(fired.get(200) >= 200);
+            Thread.sleep(50);
+            assertEquals(0, cancelledRuns.get());
+            assertTrue(cancelled.isCancelled());
+            assertEquals(0, timer.pendingTimeouts());
+        }
+    }
+
+    @Test
+    public void testStopReturnsUnprocessed() {
+        HashedWheelTimer timer = new HashedWheelTimer();
+        HashedWheelTimer.Timeout pending = timer.newTimeout(() -> fail("must not run"), 1, TimeUnit.HOURS);
+        timer.newTimeout(() -> fail("must not run"), 1, TimeUnit.HOURS).cancel();
+        List<HashedWheelTimer.Timeout> unprocessed = timer.stop();
+        assertEquals(1, unprocessed.size());
+        assertSame(pending, unprocessed.get(0));
+        assertFalse(pending.isExpired());
+        assertThrows(IllegalStateException.class, () -> timer.newTimeout(() -> { }, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStopWhileScheduling() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            HashedWheelTimer timer = new HashedWheelTimer();
+            AtomicInteger added = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(1);
+            Thread scheduler = new Thread(() -> {
+                try {
+                    while (true) {
+                        timer.newTimeout(() -> { }, 1, TimeUnit.HOURS);
+                        added.incrementAndGet();
+                        started.countDown();
+                    }
+                } catch (IllegalStateException e) {
+                    // 定时器已停止
+                }
+            });
+            scheduler.start();
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            List<HashedWheelTimer.Timeout> unprocessed = timer.stop();
+            scheduler.join(2000);
+            // 添加成功的任务都由stop返回，不会留在已停止的定时器中
+            assertFalse(scheduler.isAlive());
+            assertEquals(added.get(), unprocessed.size());
+        }
+    }
+
+    @Test
+    public void testTransferTo() throws Exception {
+        try (HashedWheelTimer target = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 8)) {
+            HashedWheelTimer timer = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 8);
+            CountDownLatch latch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            HashedWheelTimer.Timeout transferred = timer.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+            AtomicInteger cancelledRuns = new AtomicInteger();
+            HashedWheelTimer.Timeout cancelled = timer.newTimeout(cancelledRuns::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+            timer.transferTo(target);
+            // 转移后不会立即执行，按原到期时间执行
+            assertFalse(transferred.isExpired());
+            assertEquals(2, target.pendingTimeouts());
+            // 通过原句柄取消，转移后的任务同时取消
+            assertTrue(cancelled.cancel());
+            assertEquals(1, target.pendingTimeouts());
+
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("transferred timeout fired after " + elapsed + "ms");
+            assertTrue(elapsed >= 200);
+            assertTrue(transferred.isExpired());
+            Thread.sleep(50);
+            assertEquals(0, cancelledRuns.get());
+        }
+    }
+
+    @Test
+    public void testSharedTimerReleasedByFactory() throws Exception {
+        JRestClientFactory factory = new JRestClientFactory.Builder().build();
+        HashedWheelTimer timer = HashedWheelTimer.shared();
+        CountDownLatch latch = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = HashedWheelTimer.newSharedTimeout(latch::countDown, 1, TimeUnit.HOURS);
+        // 其他测试可能仍持有共享的定时器，最后一个工厂关闭时定时器停止，未到期的任务转移到新的实例中
+        factory.close();
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+        assertFalse(timeout.isExpired());
+        System.out.println("shared timer replaced: " + (HashedWheelTimer.shared() != timer));
+        assertTrue(timeout.cancel());
+        factory.close();
+    }
+}
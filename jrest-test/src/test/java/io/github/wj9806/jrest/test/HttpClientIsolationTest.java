@@ -0,0 +1,108 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpClientConfig;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按有效配置隔离HttpClient实例的测试
+ */
+public class HttpClientIsolationTest {
+
+    @RestClient(baseUrl = "http://localhost:18084")
+    public interface IsolatedClient {
+        @GET("/isolated")
+        String get();
+    }
+
+    private static final HttpRequestInterceptor INTERCEPTOR = new HttpRequestInterceptor() { };
+
+    private static HttpClientConfig config(int readTimeout) {
+        return new HttpClientConfig.Builder()
+                .readTimeout(readTimeout)
+                .addInterceptors(Collections.singletonList(INTERCEPTOR))
+                .build();
+    }
+
+    @Test
+    public void testSameConfigSharesClient() {
+        HttpClient client1 = HttpClientFactory.createHttpClient(config(1234));
+        HttpClient client2 = HttpClientFactory.createHttpClient(config(1234));
+        assertSame(client1, client2);
+        assertEquals(1234, client1.getReadTimeout());
+        assertEquals(1, client1.getInterceptors().size());
+    }
+
+    @Test
+    public void testDifferentConfigIsolated() {
+        HttpClient client1 = HttpClientFactory.createHttpClient(config(1234));
+        HttpClient client2 = HttpClientFactory.createHttpClient(config(4321));
+        assertNotSame(client1, client2);
+        assertEquals(1234, client1.getReadTimeout());
+        assertEquals(4321, client2.getReadTimeout());
+    }
+
+    @Test
+    public void testCreateProxyDoesNotMutateSharedClient() throws Exception {
+        JRestClientFactory factory = new JRestClientFactory.Builder()
+                .readTimeout(1234)
+                .addInterceptor(INTERCEPTOR)
+                .build();
+        JRestClientFactory otherFactory = new JRestClientFactory.Builder()
+                .readTimeout(5678)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            factory.createProxy(IsolatedClient.class);
+            otherFactory.createProxy(IsolatedClient.class);
+        }
+
+        HttpClient httpClient = HttpClientFactory.createHttpClient(config(1234));
+        assertEquals(1234, httpClient.getReadTimeout());
+        assertEquals(1, httpClient.getInterceptors().size());
+
+        try (TestHttpServer server = new TestHttpServer(18084)) {
+            assertTrue(factory.createProxy(IsolatedClient.class).get().contains("/isolated"));
+            assertEquals(1, httpClient.getInterceptors().size());
+        }
+    }
+
+    @Test
+    public void testFactoryCloseReleasesClients() {
+        int registered = HttpClientFactory.getRegisteredClientCount();
+        for (int i = 0; i < 20; i++) {
+            try (JRestClientFactory factory = new JRestClientFactory.Builder().readTimeout(2468).build()) {
+                factory.createProxy(IsolatedClient.class);
+                factory.createProxy(IsolatedClient.class);
+                assertEquals(registered + 1, HttpClientFactory.getRegisteredClientCount());
+            }
+            assertEquals(registered, HttpClientFactory.getRegisteredClientCount());
+        }
+    }
+
+    @Test
+    public void testSharedClientKeptUntilLastFactoryClosed() throws Exception {
+        int registered = HttpClientFactory.getRegisteredClientCount();
+        JRestClientFactory factory = new JRestClientFactory.Builder().readTimeout(3579).build();
+        JRestClientFactory otherFactory = new JRestClientFactory.Builder().readTimeout(3579).build();
+        factory.createProxy(IsolatedClient.class);
+        IsolatedClient client = otherFactory.createProxy(IsolatedClient.class);
+        factory.close();
+        assertEquals(registered + 1, HttpClientFactory.getRegisteredClientCount());
+        try (TestHttpServer server = new TestHttpServer(18084)) {
+            // 另一个工厂仍引用共享的实例，可以继续使用
+            assertTrue(client.get().contains("/isolated"));
+        }
+        otherFactory.close();
+        assertEquals(registered, HttpClientFactory.getRegisteredClientCount());
+        assertThrows(IllegalStateException.class, () -> otherFactory.createProxy(IsolatedClient.class));
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.POST;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.RequestBody;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.DefaultRetryer;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.InProcessHandler;
+import io.github.wj9806.jrest.client.http.InProcessHttpClient;
+import io.github.wj9806.jrest.client.http.InProcessRegistry;
+import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 进程内调用测试
+ */
+public class InProcessHttpClientTest {
+
+    @RestClient(baseUrl = "http://orders", clientType = ClientType.APACHE)
+    public interface OrderClient {
+        @GET("/orders/{id}")
+        Map<String, Object> get(@PathParam("id") String id);
+
+        @POST("/orders")
+        List<String> create(@RequestBody List<String> items);
+
+        @GET("/orders/{id}/items")
+        List<Item> items(@PathParam("id") String id);
+    }
+
+    public static class Item {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static HttpResponse json(Object value) throws IOException {
+        return new HttpResponse(200, new ObjectMapper().writeValueAsString(value),
+                Collections.singletonMap("Content-Type", "application/json"));
+    }
+
+    @Test
+    public void testDispatchToHandler() throws Exception {
+        InProcessRegistry.getInstance().register("http://inventory", request -> {
+            Map<String, Object> echo = new HashMap<>();
+            echo.put("method", request.getMethod());
+            echo.put("path", request.toUri().getPath());
+            echo.put("query", request.toUri().getQuery());
+            echo.put("body", request.getBody() == null ? null : new String((byte[]) request.getBody(), StandardCharsets.UTF_8));
+            return json(echo);
+        });
+        try {
+            InProcessHttpClient httpClient = (InProcessHttpClient) HttpClientFactory.createHttpClient(ClientType.IN_PROCESS);
+            HttpResponse response = httpClient.exchange(new HttpRequest.Builder()
+                    .url("http://inventory:80/items").post().queryParam("q", "1")
+                    .body(Collections.singletonMap("name", "jrest")).build());
+            System.out.println(response.getBody());
+            Map<?, ?> echo = new ObjectMapper().readValue(response.getBody(), Map.class);
+            assertEquals("POST", echo.get("method"));
+            assertEquals("/items", echo.get("path"));
+            assertEquals("q=1", echo.get("query"));
+            assertEquals("{\"name\":\"jrest\"}", echo.get("body"));
+
+            response = httpClient.exchangeAsync(new HttpRequest.Builder().url("http://inventory/async").get().build()).get();
+            assertTrue(response.getBody().contains("/async"));
+        } finally {
+            InProcessRegistry.getInstance().unregister("http://inventory");
+        }
+    }
+
+    @Test
+    public void testInterceptorsAndRetry() throws Exception {
+        InProcessRegistry registry = new InProcessRegistry();
+        AtomicInteger calls = new AtomicInteger();
+        registry.register("http://flaky", request -> {
+            if (calls.incrementAndGet() < 3) {
+                return new HttpResponse(503, "unavailable", Collections.emptyMap());
+            }
+            return json(Collections.singletonMap("trace", request.getHeaders().get("X-Trace")));
+        });
+        List<Integer> statusCodes = new ArrayList<>();
+        InProcessHttpClient httpClient = new InProcessHttpClient(registry);
+        httpClient.setRetryer(DefaultRetryer.builder().maxRetries(3).initialDelay(10).build());
+        httpClient.addInterceptor(new HttpRequestInterceptor() {
+            @Override
+            public void beforeRequest(HttpRequest httpRequest) {
+                httpRequest.getHeaders().put("X-Trace", "abc");
+            }
+
+            @Override
+            public void afterResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+                statusCodes.add(httpResponse.getStatusCode());
+            }
+        });
+
+        HttpResponse response = httpClient.exchange(new HttpRequest.Builder().url("http://flaky/status").get().build());
+        System.out.println(statusCodes + " " + response.getBody());
+        assertEquals(200, response.getStatusCode());
+        assertEquals("{\"trace\":\"abc\"}", response.getBody());
+        assertEquals(3, calls.get());
+        assertEquals(3, statusCodes.size());
+
+        // 处理器抛出的未处理异常与网络调用一样表现为500响应
+        registry.register("http://flaky", request -> {
+            throw new IllegalStateException("boom");
+        });
+        httpClient.setRetryer(DefaultRetryer.builder().maxRetries(0).build());
+        assertEquals(500, httpClient.exchange(new HttpRequest.Builder().url("http://flaky/status").get().build()).getStatusCode());
+
+        // 未注册处理器时与连接被拒绝一样
+        assertThrows(ConnectException.class, () -> httpClient.exchange(new HttpRequest.Builder().url("http://missing/").get().build()));
+    }
+
+    @Test
+    public void testPassByReference() {
+        Map<String, Object> order = new HashMap<>();
+        order.put("id", "42");
+        List<Object> received = new ArrayList<>();
+        InProcessRegistry.getInstance().register("http://orders", new InProcessHandler() {
+            @Override
+            public HttpResponse handle(HttpRequest request) {
+                if ("POST".equals(request.getMethod())) {
+                    received.add(request.getBody());
+                    return HttpResponse.ofEntity(201, request.getBody(), new TypeReference<List<String>>() {}.getType(), null);
+                }
+                return HttpResponse.ofEntity(200, order, new TypeReference<Map<String, Object>>() {}.getType(), null);
+            }
+
+            @Override
+            public boolean isPassByReference() {
+                return true;
+            }
+        });
+        try {
+            // 注解中声明的是APACHE，通过inProcess指定后不修改客户端代码即可改为进程内调用
+            OrderClient client = new JRestClientFactory.Builder().inProcess("http://orders:80").build()
+                    .createProxy(OrderClient.class);
+            assertSame(order, client.get("42"));
+
+            List<String> items = new ArrayList<>(Collections.singletonList("book"));
+            assertSame(items, client.create(items));
+            assertSame(items, received.get(0));
+        } finally {
+            InProcessRegistry.getInstance().unregister("http://orders");
+        }
+    }
+
+    @Test
+    public void testParameterizedEntityDecodedWhenTypeDiffers() {
+        Map<String, Object> item = Collections.singletonMap("name", "book");
+        InProcessRegistry.getInstance().register("http://orders", new InProcessHandler() {
+            @Override
+            public HttpResponse handle(HttpRequest request) {
+                // 未声明类型的List<Map>不能直接作为List<Item>返回
+                return HttpResponse.ofEntity(200, Collections.singletonList(item), null);
+            }
+
+            @Override
+            public boolean isPassByReference() {
+                return true;
+            }
+        });
+        try {
+            OrderClient client = new JRestClientFactory.Builder().inProcess("http://orders:80").build()
+                    .createProxy(OrderClient.class);
+            List<Item> items = client.items("42");
+            assertEquals(1, items.size());
+            assertEquals("book", items.get(0).getName());
+        } finally {
+            InProcessRegistry.getInstance().unregister("http://orders");
+        }
+    }
+}
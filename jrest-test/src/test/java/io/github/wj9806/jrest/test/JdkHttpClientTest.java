@@ -0,0 +1,116 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于java.net.http的JDK_HTTP客户端测试
+ */
+public class JdkHttpClientTest {
+
+    private static final String DESTINATION = "http://localhost:18086";
+    private static TestHttpServer server;
+    private final HttpClient httpClient = HttpClientFactory.createHttpClient(ClientType.JDK_HTTP);
+
+    @RestClient(baseUrl = DESTINATION, clientType = ClientType.JDK_HTTP)
+    public interface EchoClient {
+        @GET("/echo/{name}")
+        Map<String, String> echo(@PathParam("name") String name);
+    }
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new TestHttpServer(18086);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> send(HttpRequest request) throws Exception {
+        HttpResponse response = httpClient.exchange(request);
+        assertEquals(200, response.getStatusCode());
+        return new ObjectMapper().readValue(response.getBody(), Map.class);
+    }
+
+    @Test
+    public void testJsonBody() throws Exception {
+        Map<String, String> echo = send(new HttpRequest.Builder().url(DESTINATION + "/json").post()
+                .body(Collections.singletonMap("name", "jrest")).build());
+        assertEquals("POST", echo.get("method"));
+        assertEquals("{\"name\":\"jrest\"}", echo.get("body"));
+        assertEquals(String.valueOf(echo.get("body").length()), echo.get("contentLength"));
+    }
+
+    @Test
+    public void testInputStreamBody() throws Exception {
+        Map<String, String> echo = send(new HttpRequest.Builder().url(DESTINATION + "/stream").put()
+                .body(new ByteArrayInputStream("stream-content".getBytes(StandardCharsets.UTF_8))).build());
+        assertEquals("stream-content", echo.get("body"));
+        assertEquals("chunked", echo.get("transferEncoding"));
+    }
+
+    @Test
+    public void testMultipartBody() throws Exception {
+        File file = File.createTempFile("jrest-upload", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "file-content".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> echo = send(new HttpRequest.Builder().url(DESTINATION + "/upload").post()
+                .addMultipartFile("file", new DefaultMultipartFile("file", file))
+                .formField("description", "test")
+                .build());
+        assertTrue(echo.get("body").contains("\r\n\r\nfile-content\r\n"));
+        assertTrue(echo.get("body").contains("name=\"description\"\r\n\r\ntest\r\n"));
+        assertEquals(String.valueOf(echo.get("body").getBytes(StandardCharsets.UTF_8).length), echo.get("contentLength"));
+    }
+
+    @Test
+    public void testConcurrentAsyncRequests() throws Exception {
+        List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(httpClient.exchangeAsync(new HttpRequest.Builder()
+                    .url(DESTINATION + "/sleep/100/" + i).get().build()));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            HttpResponse response = futures.get(i).get();
+            assertEquals(200, response.getStatusCode());
+            assertTrue(response.getBody().contains("/sleep/100/" + i));
+            // 响应头按不区分大小写的方式读取
+            assertEquals("application/json", response.getHeaders().get("content-type"));
+        }
+    }
+
+    @Test
+    public void testRestClient() {
+        EchoClient client = new JRestClientFactory.Builder().build().createProxy(EchoClient.class);
+        Map<String, String> echo = client.echo("jdk");
+        assertEquals("/echo/jdk", echo.get("path"));
+    }
+}
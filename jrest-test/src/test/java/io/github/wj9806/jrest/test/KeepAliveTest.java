@@ -0,0 +1,67 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.http.DefaultRetryer;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.KeepAliveStats;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NativeHttpClient连接复用测试
+ */
+public class KeepAliveTest {
+
+    private static final String DESTINATION = "http://localhost:18081";
+
+    private static HttpRequest request(String path) {
+        return new HttpRequest.Builder().url(DESTINATION + path).get().build();
+    }
+
+    @Test
+    public void testConnectionReused() throws Exception {
+        KeepAliveStats stats = KeepAliveStats.getInstance();
+        stats.reset();
+        NativeHttpClient httpClient = new NativeHttpClient();
+        try (TestHttpServer server = new TestHttpServer(18081)) {
+            for (int i = 0; i < 5; i++) {
+                HttpResponse response = httpClient.exchange(request("/keep-alive/" + i));
+                assertEquals(200, response.getStatusCode());
+            }
+            System.out.println(stats + ", connections: " + server.getConnectionCount());
+            assertEquals(1, server.getConnectionCount());
+            assertEquals(1, stats.getMisses(DESTINATION));
+            assertEquals(4, stats.getHits(DESTINATION));
+            assertEquals(1, stats.getIdleConnections(DESTINATION));
+        }
+    }
+
+    @Test
+    public void testFailedConnectNotCounted() {
+        KeepAliveStats stats = KeepAliveStats.getInstance();
+        stats.reset();
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setRetryer(new DefaultRetryer(0, 0, 0, Collections.emptySet(), Collections.emptySet()));
+        // 没有服务端监听，连接失败的请求不计入复用统计
+        assertThrows(IOException.class, () -> httpClient.exchange(request("/refused")));
+        assertEquals(0, stats.getMisses(DESTINATION));
+        assertEquals(0, stats.getHits(DESTINATION));
+    }
+
+    @Test
+    public void testDisconnectWhenKeepAliveDisabled() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setKeepAlive(false);
+        try (TestHttpServer server = new TestHttpServer(18081)) {
+            for (int i = 0; i < 3; i++) {
+                httpClient.exchange(request("/disconnect/" + i));
+            }
+            assertEquals(3, server.getConnectionCount());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.annotation.DefaultAnnotationParser;
+import io.github.wj9806.jrest.client.annotation.FormField;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.Header;
+import io.github.wj9806.jrest.client.annotation.MethodMetadata;
+import io.github.wj9806.jrest.client.annotation.POST;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.QueryParam;
+import io.github.wj9806.jrest.client.annotation.RequestBody;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 方法元数据解析测试
+ */
+public class MethodMetadataTest {
+
+    @RestClient(baseUrl = "http://localhost:8080/")
+    interface MetadataClient {
+
+        @GET("/users/{username}/repos")
+        String getRepositories(@PathParam("username") String username,
+                               @QueryParam("page") int page,
+                               @Header("X-Trace") String trace);
+
+        @POST("items")
+        String createItem(@RequestBody String body);
+
+        @POST("/forms")
+        String submitForm(@FormField("name") String name, @RequestBody String body);
+    }
+
+    @Test
+    public void testParseMetadata() throws Exception {
+        Method method = MetadataClient.class.getMethod("getRepositories", String.class, int.class, String.class);
+        MethodMetadata metadata = DefaultAnnotationParser.getInstance().parseMetadata(method, "http://localhost:8080/");
+
+        assertEquals("GET", metadata.getHttpMethod());
+        assertEquals("application/json", metadata.getContentType());
+        assertEquals("http://localhost:8080/users/{username}/repos", metadata.getUrlTemplate().getTemplate());
+        assertEquals(3, metadata.getParameterBindings().length);
+        assertEquals(MethodMetadata.BindingType.PATH, metadata.getParameterBindings()[0].getType());
+    }
+
+    @Test
+    public void testCreateRequest() throws Exception {
+        Method method = MetadataClient.class.getMethod("getRepositories", String.class, int.class, String.class);
+        MethodMetadata metadata = DefaultAnnotationParser.getInstance().parseMetadata(method, "http://localhost:8080/");
+
+        HttpRequest first = metadata.createRequest(new Object[]{"octocat", 1, "abc"});
+        HttpRequest second = metadata.createRequest(new Object[]{"wj9806", 2, "def"});
+
+        assertEquals("http://localhost:8080/users/octocat/repos", first.getUrl());
+        assertEquals(1, first.getQueryParams().get("page"));
+        assertEquals("abc", first.getHeaders().get("X-Trace"));
+        assertEquals("application/json", first.getHeaders().get("Content-Type"));
+
+        assertEquals("http://localhost:8080/users/wj9806/repos", second.getUrl());
+        assertEquals(2, second.getQueryParams().get("page"));
+    }
+
+    @Test
+    public void testBodyAndFormData() throws Exception {
+        DefaultAnnotationParser parser = DefaultAnnotationParser.getInstance();
+
+        Method create = MetadataClient.class.getMethod("createItem", String.class);
+        HttpRequest createRequest = parser.parse(create, new Object[]{"hello"}, "http://localhost:8080");
+        assertEquals("http://localhost:8080/items", createRequest.getUrl());
+        assertEquals("hello", createRequest.getBody());
+        assertFalse(createRequest.isFormData());
+
+        Method submit = MetadataClient.class.getMethod("submitForm", String.class, String.class);
+        HttpRequest submitRequest = parser.parse(submit, new Object[]{"jrest", "content"}, "http://localhost:8080");
+        assertTrue(submitRequest.isFormData());
+        assertNull(submitRequest.getBody());
+        assertEquals("jrest", submitRequest.getFormData().get("name"));
+        assertEquals("content", submitRequest.getFormData().get("body"));
+    }
+}
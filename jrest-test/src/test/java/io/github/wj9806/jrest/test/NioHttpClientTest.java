@@ -0,0 +1,185 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.annotation.Timeout;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.DefaultRetryer;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NioHttpClient;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于java.nio的NIO客户端测试
+ */
+public class NioHttpClientTest {
+
+    private static final String DESTINATION = "http://localhost:18088";
+    // 需要统计服务端连接数的测试使用独立的服务器
+    private static final int COUNTING_PORT = 18089;
+    private static final String COUNTING_DESTINATION = "http://localhost:" + COUNTING_PORT;
+    private static TestHttpServer server;
+    private final NioHttpClient httpClient = (NioHttpClient) HttpClientFactory.createHttpClient(ClientType.NIO);
+
+    @RestClient(baseUrl = DESTINATION, clientType = ClientType.NIO, maxConnections = 4)
+    public interface EchoClient {
+        @GET("/echo/{name}")
+        Map<String, String> echo(@PathParam("name") String name);
+
+        @GET("/sleep/{millis}")
+        @Timeout(read = 100)
+        Map<String, String> sleep(@PathParam("millis") int millis);
+    }
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new TestHttpServer(18088);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> parse(HttpResponse response) throws Exception {
+        assertEquals(200, response.getStatusCode());
+        return new ObjectMapper().readValue(response.getBody(), Map.class);
+    }
+
+    @Test
+    public void testJsonBody() throws Exception {
+        Map<String, String> echo = parse(httpClient.exchange(new HttpRequest.Builder().url(DESTINATION + "/json")
+                .post().queryParam("q", "jrest").body(Collections.singletonMap("name", "jrest")).build()));
+        assertEquals("POST", echo.get("method"));
+        assertEquals("q=jrest", echo.get("query"));
+        assertEquals("{\"name\":\"jrest\"}", echo.get("body"));
+        assertEquals(String.valueOf(echo.get("body").length()), echo.get("contentLength"));
+    }
+
+    @Test
+    public void testInputStreamBody() throws Exception {
+        Map<String, String> echo = parse(httpClient.exchange(new HttpRequest.Builder().url(DESTINATION + "/stream").put()
+                .body(new ByteArrayInputStream("stream-content".getBytes(StandardCharsets.UTF_8))).build()));
+        assertEquals("stream-content", echo.get("body"));
+        assertEquals("chunked", echo.get("transferEncoding"));
+    }
+
+    @Test
+    public void testMultipartBody() throws Exception {
+        File file = File.createTempFile("jrest-upload", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "file-content".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> echo = parse(httpClient.exchange(new HttpRequest.Builder().url(DESTINATION + "/upload").post()
+                .addMultipartFile("file", new DefaultMultipartFile("file", file))
+                .formField("description", "test")
+                .build()));
+        assertTrue(echo.get("body").contains("\r\n\r\nfile-content\r\n"));
+        assertTrue(echo.get("body").contains("name=\"description\"\r\n\r\ntest\r\n"));
+        assertEquals(String.valueOf(echo.get("body").getBytes(StandardCharsets.UTF_8).length), echo.get("contentLength"));
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        try (TestHttpServer countingServer = new TestHttpServer(COUNTING_PORT);
+             NioHttpClient client = new NioHttpClient()) {
+            for (int i = 0; i < 5; i++) {
+                Map<String, String> echo = parse(client.exchange(new HttpRequest.Builder()
+                        .url(COUNTING_DESTINATION + "/reuse/" + i).get().build()));
+                assertEquals("/reuse/" + i, echo.get("path"));
+            }
+            System.out.println("Connections: " + countingServer.getConnectionCount());
+            assertEquals(1, countingServer.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testConcurrentAsyncRequestsRespectPoolLimit() throws Exception {
+        try (TestHttpServer countingServer = new TestHttpServer(COUNTING_PORT);
+             NioHttpClient client = new NioHttpClient(new ConnectionPoolConfig.Builder()
+                     .maxPerHost(COUNTING_DESTINATION, 2).build())) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(client.exchangeAsync(new HttpRequest.Builder()
+                        .url(COUNTING_DESTINATION + "/sleep/50/" + i).get().build()));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                HttpResponse response = futures.get(i).get();
+                assertEquals(200, response.getStatusCode());
+                assertTrue(response.getBody().contains("/sleep/50/" + i));
+                // 响应头按不区分大小写的方式读取
+                assertEquals("application/json", response.getHeaders().get("content-type"));
+            }
+            System.out.println("Connections: " + countingServer.getConnectionCount());
+            assertTrue(countingServer.getConnectionCount() <= 2);
+        }
+    }
+
+    @Test
+    public void testPipelining() throws Exception {
+        try (TestHttpServer countingServer = new TestHttpServer(COUNTING_PORT);
+             NioHttpClient client = new NioHttpClient(new ConnectionPoolConfig.Builder()
+                     .maxPerHost(COUNTING_DESTINATION, 1).maxPipelinedRequests(8).build())) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(client.exchangeAsync(new HttpRequest.Builder()
+                        .url(COUNTING_DESTINATION + "/pipeline/" + i).get().build()));
+            }
+            // 非幂等请求不使用流水线，等待连接空闲后发送
+            futures.add(client.exchangeAsync(new HttpRequest.Builder()
+                    .url(COUNTING_DESTINATION + "/pipeline/post").post().body(Collections.singletonMap("n", 1)).build()));
+            for (int i = 0; i < 20; i++) {
+                assertEquals("/pipeline/" + i, parse(futures.get(i).get()).get("path"));
+            }
+            assertEquals("POST", parse(futures.get(20).get()).get("method"));
+            System.out.println("Connections: " + countingServer.getConnectionCount());
+            assertEquals(1, countingServer.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        try (NioHttpClient client = new NioHttpClient()) {
+            client.setRetryer(new DefaultRetryer(0, 0, 0, Collections.emptySet(), Collections.emptySet()));
+            long start = System.currentTimeMillis();
+            assertThrows(SocketTimeoutException.class, () -> client.exchange(new HttpRequest.Builder()
+                    .url(DESTINATION + "/sleep/1000").get().readTimeout(100).build()));
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("Timed out after " + elapsed + "ms");
+            assertTrue(elapsed < 1000);
+        }
+    }
+
+    @Test
+    public void testRestClient() {
+        EchoClient client = new JRestClientFactory.Builder().build().createProxy(EchoClient.class);
+        Map<String, String> echo = client.echo("nio");
+        assertEquals("/echo/nio", echo.get("path"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.sleep(1000));
+        System.out.println("Timeout: " + e);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.decode.Decoder;
+import io.github.wj9806.jrest.client.http.encode.JacksonEncoder;
+import io.github.wj9806.jrest.client.proxy.ResponseHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应处理策略测试
+ */
+public class ResponseHandlerTest {
+
+    interface Methods {
+        void doNothing();
+
+        byte[] download();
+
+        InputStream stream();
+
+        List<Map<String, Integer>> list();
+
+        CompletableFuture<String> async();
+    }
+
+    private static HttpResponse json(String body) {
+        return new HttpResponse(200, body, Collections.singletonMap("Content-Type", "application/json"));
+    }
+
+    @Test
+    public void testRawHandlers() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        HttpResponse response = json("abc");
+
+        assertNull(ResponseHandler.forMethod(Methods.class.getMethod("doNothing")).handle(httpClient, response));
+        assertArrayEquals("abc".getBytes(), (byte[]) ResponseHandler.forMethod(Methods.class.getMethod("download")).handle(httpClient, response));
+        InputStream in = (InputStream) ResponseHandler.forMethod(Methods.class.getMethod("stream")).handle(httpClient, response);
+        assertEquals('a', in.read());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDecodeGenericType() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        ResponseHandler handler = ResponseHandler.forMethod(Methods.class.getMethod("list"));
+
+        List<Map<String, Integer>> result = (List<Map<String, Integer>>) handler.handle(httpClient, json("[{\"a\":1},{\"b\":2}]"));
+        assertEquals(2, result.size());
+        assertEquals(Integer.valueOf(2), result.get(1).get("b"));
+        assertNull(handler.handle(httpClient, json("")));
+    }
+
+    @Test
+    public void testCustomDecoderReceivesOriginalType() throws Exception {
+        final Type[] received = new Type[1];
+        Decoder decoder = new Decoder() {
+            @Override
+            public <T> T decode(byte[] bytes, Type targetType, String contentType) {
+                return null;
+            }
+
+            @Override
+            public <T> T decode(String content, Type targetType, String contentType) {
+                received[0] = targetType;
+                return null;
+            }
+
+            @Override
+            public boolean supports(String contentType) {
+                return true;
+            }
+        };
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setCodecManager(new CodecManager(Collections.singletonList(new JacksonEncoder()), Collections.singletonList(decoder)));
+
+        Type type = new TypeReference<List<Map<String, Integer>>>() { }.getType();
+        ResponseHandler.forType(type, false).handle(httpClient, json("[]"));
+        assertEquals(type, received[0]);
+    }
+
+    @Test
+    public void testAsyncHandlerDecodesValueType() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        ResponseHandler handler = ResponseHandler.forMethod(Methods.class.getMethod("async"));
+        assertEquals("hello", handler.handle(httpClient, json("hello")));
+    }
+}
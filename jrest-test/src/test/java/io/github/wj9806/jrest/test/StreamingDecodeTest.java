@@ -0,0 +1,200 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.decode.Decoder;
+import io.github.wj9806.jrest.client.http.decode.JacksonDecoder;
+import io.github.wj9806.jrest.client.http.decode.XmlDecoder;
+import io.github.wj9806.jrest.client.http.encode.JacksonEncoder;
+import io.github.wj9806.jrest.client.proxy.ResponseHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 从响应体字节流直接解码测试
+ */
+public class StreamingDecodeTest {
+
+    private static final String DESTINATION = "http://localhost:18094";
+
+    interface Methods {
+        Map<String, String> echo();
+
+        List<Map<String, Integer>> list();
+    }
+
+    public static class Item {
+        public String name;
+    }
+
+    /**
+     * 只支持流式解码的解码器，字符串和字节数组解码都视为失败
+     */
+    private static class StreamOnlyDecoder implements Decoder {
+        private final JacksonDecoder delegate = new JacksonDecoder();
+
+        @Override
+        public <T> T decode(byte[] bytes, Type targetType, String contentType) {
+            throw new AssertionError("body decoded from byte array");
+        }
+
+        @Override
+        public <T> T decode(String content, Type targetType, String contentType) {
+            throw new AssertionError("body decoded from String");
+        }
+
+        @Override
+        public <T> T decode(InputStream in, Type targetType, String contentType) throws Exception {
+            return delegate.decode(in, targetType, contentType);
+        }
+
+        @Override
+        public boolean supports(String contentType) {
+            return true;
+        }
+    }
+
+    private static InputStream stream(String content, String charset) throws Exception {
+        return new ByteArrayInputStream(content.getBytes(charset));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTransportResponseDecodedFromStream() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setCodecManager(new CodecManager(Collections.singletonList(new JacksonEncoder()),
+                Collections.singletonList(new StreamOnlyDecoder())));
+        try (TestHttpServer server = new TestHttpServer(18094)) {
+            HttpResponse response = httpClient.exchange(new HttpRequest.Builder().url(DESTINATION + "/streamed").get().build());
+            assertNotNull(response.getRawBody());
+            Map<String, String> echo = (Map<String, String>) ResponseHandler.forMethod(Methods.class.getMethod("echo"))
+                    .handle(httpClient, response);
+            assertEquals("/streamed", echo.get("path"));
+            // 需要字符串时才解码
+            assertTrue(response.getBody().contains("\"path\":\"/streamed\""));
+        }
+    }
+
+    @Test
+    public void testNativeReadsBodyLargerThanInitialBuffer() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 300_000; i++) {
+            content.append(i).append(',');
+        }
+        byte[] body = content.toString().getBytes(StandardCharsets.US_ASCII);
+        try (ServerSocket serverSocket = new ServerSocket(18094)) {
+            Thread server = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    String line;
+                    while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                        // 跳过请求头
+                    }
+                    OutputStream out = socket.getOutputStream();
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + body.length
+                            + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    // 分多次写出，响应体逐步到达
+                    for (int off = 0; off < body.length; off += 10_000) {
+                        out.write(body, off, Math.min(10_000, body.length - off));
+                        out.flush();
+                    }
+                } catch (IOException ignored) {
+                    // 客户端已断开
+                }
+            });
+            server.start();
+            // 声明的长度超过初始分配的上限，数组随读到的数据扩容，最终长度与声明的一致
+            HttpResponse response = new NativeHttpClient().exchange(
+                    new HttpRequest.Builder().url(DESTINATION + "/large").get().build());
+            assertArrayEquals(body, response.getRawBody());
+            server.join(2000);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLargeResponseDecodedFromRawBody() throws Exception {
+        NativeHttpClient httpClient = new NativeHttpClient();
+        httpClient.setCodecManager(new CodecManager(Collections.singletonList(new JacksonEncoder()),
+                Collections.singletonList(new StreamOnlyDecoder())));
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"v\":").append(i).append('}');
+        }
+        json.append(']');
+        HttpResponse response = HttpResponse.ofBody(200, json.toString().getBytes(StandardCharsets.UTF_8),
+                Collections.singletonMap("Content-Type", "application/json"));
+        List<Map<String, Integer>> list = (List<Map<String, Integer>>) ResponseHandler
+                .forMethod(Methods.class.getMethod("list")).handle(httpClient, response);
+        System.out.println("decoded " + list.size() + " items from " + response.getRawBody().length + " bytes");
+        assertEquals(200_000, list.size());
+        assertEquals(Integer.valueOf(199_999), list.get(199_999).get("v"));
+
+        assertNull(ResponseHandler.forMethod(Methods.class.getMethod("list")).handle(httpClient,
+                HttpResponse.ofBody(200, new byte[0], Collections.singletonMap("Content-Type", "application/json"))));
+    }
+
+    @Test
+    public void testJacksonStreamDecode() throws Exception {
+        JacksonDecoder decoder = new JacksonDecoder();
+        Item item = decoder.decode(stream("{\"name\":\"café\"}", "ISO-8859-1"), Item.class, "application/json;charset=ISO-8859-1");
+        assertEquals("café", item.name);
+        item = decoder.decode(stream("{\"name\":\"中文\"}", "UTF-8"), Item.class, "application/json");
+        assertEquals("中文", item.name);
+        assertEquals("{\"a\":1}", decoder.decode(stream("{\"a\":1}", "UTF-8"), String.class, "application/json"));
+        assertNull(decoder.decode(stream("", "UTF-8"), Item.class, "application/json"));
+        assertNull(decoder.decode(stream("  ", "UTF-8"), Item.class, "application/json"));
+    }
+
+    @Test
+    public void testXmlStreamDecode() throws Exception {
+        XmlDecoder decoder = new XmlDecoder();
+        Item item = decoder.decode(stream("<Item><name>xml</name></Item>", "UTF-8"), Item.class, "application/xml");
+        assertEquals("xml", item.name);
+        assertNull(decoder.decode(stream("", "UTF-8"), Item.class, "application/xml"));
+    }
+
+    @Test
+    public void testDefaultStreamDecodeBuffersBytes() throws Exception {
+        List<String> received = new ArrayList<>();
+        Decoder decoder = new Decoder() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T decode(byte[] bytes, Type targetType, String contentType) {
+                received.add(new String(bytes, StandardCharsets.UTF_8));
+                return (T) "bytes";
+            }
+
+            @Override
+            public <T> T decode(String content, Type targetType, String contentType) {
+                throw new AssertionError("body decoded from String");
+            }
+
+            @Override
+            public boolean supports(String contentType) {
+                return true;
+            }
+        };
+        assertEquals("bytes", decoder.decode(stream("line1\nline2", "UTF-8"), String.class, "text/plain"));
+        assertEquals("line1\nline2", received.get(0));
+    }
+}
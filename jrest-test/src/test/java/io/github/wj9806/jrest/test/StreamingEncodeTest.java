@@ -0,0 +1,284 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.ApacheHttpClient;
+import io.github.wj9806.jrest.client.http.CodecManager;
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.decode.JacksonDecoder;
+import io.github.wj9806.jrest.client.http.encode.Encoder;
+import io.github.wj9806.jrest.client.http.encode.JacksonEncoder;
+import io.github.wj9806.jrest.client.http.encode.XmlEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求体流式编码测试
+ */
+public class StreamingEncodeTest {
+
+    private static final String DESTINATION = "http://localhost:18095";
+
+    public static class Item {
+        public String name;
+
+        public Item() {
+        }
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+
+    private static List<Map<String, Integer>> bulk(int size) {
+        List<Map<String, Integer>> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(Collections.singletonMap("v", i));
+        }
+        return items;
+    }
+
+    private static HttpRequest post(Object body) {
+        return new HttpRequest.Builder().url(DESTINATION + "/bulk").post()
+                .header("Content-Type", "application/json").body(body).build();
+    }
+
+    private static Map<String, String> echo(AbstractHttpClient httpClient, Object body) throws Exception {
+        return echo(httpClient, post(body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> echo(AbstractHttpClient httpClient, HttpRequest request) throws Exception {
+        HttpResponse response = httpClient.exchange(request);
+        return new ObjectMapper().readValue(response.getBody(), Map.class);
+    }
+
+    /**
+     * 较小的请求体仍以固定长度发送，较大的请求体分块发送，内容完整
+     */
+    private static void assertBodies(AbstractHttpClient httpClient) throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18095)) {
+            Map<String, String> small = echo(httpClient, Collections.singletonMap("name", "jrest"));
+            assertEquals("{\"name\":\"jrest\"}", small.get("body"));
+            assertEquals(String.valueOf(small.get("body").length()), small.get("contentLength"));
+            assertEquals("", small.get("transferEncoding"));
+
+            List<Map<String, Integer>> items = bulk(100_000);
+            Map<String, String> large = echo(httpClient, items);
+            System.out.println(httpClient.getClass().getSimpleName() + " sent " + large.get("body").length()
+                    + " bytes, transfer encoding: " + large.get("transferEncoding"));
+            assertEquals("chunked", large.get("transferEncoding"));
+            assertEquals(new ObjectMapper().writeValueAsString(items), large.get("body"));
+        }
+    }
+
+    @Test
+    public void testNativeLargeBodyChunked() throws Exception {
+        assertBodies(new NativeHttpClient());
+    }
+
+    @Test
+    public void testApacheLargeBodyChunked() throws Exception {
+        assertBodies(new ApacheHttpClient());
+    }
+
+    /**
+     * 编码器先写出超过缓冲长度的内容，等服务端收到请求体的第一部分后才写出剩余内容
+     */
+    private static void assertFirstBytesBeforeEncodingFinishes(AbstractHttpClient httpClient) throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        boolean[] receivedBeforeFinish = new boolean[1];
+        Encoder encoder = new JacksonEncoder() {
+            @Override
+            public void encode(Object object, String contentType, OutputStream out) throws Exception {
+                byte[] part = new byte[100 * 1024];
+                Arrays.fill(part, (byte) 'a');
+                out.write(part);
+                receivedBeforeFinish[0] = received.await(5, TimeUnit.SECONDS);
+                out.write(part);
+            }
+        };
+        httpClient.setCodecManager(new CodecManager(Collections.singletonList(encoder),
+                Collections.singletonList(new JacksonDecoder())));
+        try (ServerSocket serverSocket = new ServerSocket(18095)) {
+            CompletableFuture<Integer> bodyLength = CompletableFuture.supplyAsync(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    return readChunkedRequest(socket, received);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            HttpResponse response = httpClient.exchange(post("ignored"));
+            assertEquals(200, response.getStatusCode());
+            assertTrue(receivedBeforeFinish[0]);
+            // 请求体以分块编码发送，包含块大小行，长度大于原始内容
+            assertTrue(bodyLength.get(5, TimeUnit.SECONDS) > 200 * 1024);
+        }
+    }
+
+    /**
+     * 读取分块传输的请求，收到请求头之后的第一部分内容时通知编码器，读到最后一块后返回成功响应
+     */
+    private static int readChunkedRequest(Socket socket, CountDownLatch received) throws IOException {
+        InputStream in = socket.getInputStream();
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int headEnd = -1;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            request.write(buffer, 0, n);
+            String content = new String(request.toByteArray(), StandardCharsets.ISO_8859_1);
+            if (headEnd < 0) {
+                headEnd = content.indexOf("\r\n\r\n");
+                if (headEnd >= 0) {
+                    assertTrue(content.toLowerCase().contains("transfer-encoding: chunked"));
+                }
+            }
+            if (headEnd >= 0 && request.size() > headEnd + 4) {
+                received.countDown();
+            }
+            if (content.endsWith("\r\n0\r\n\r\n")) {
+                break;
+            }
+        }
+        socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nok"
+                .getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return request.size() - headEnd - 4;
+    }
+
+    @Test
+    public void testNativeSendsBeforeEncodingFinishes() throws Exception {
+        assertFirstBytesBeforeEncodingFinishes(new NativeHttpClient());
+    }
+
+    @Test
+    public void testApacheSendsBeforeEncodingFinishes() throws Exception {
+        assertFirstBytesBeforeEncodingFinishes(new ApacheHttpClient());
+    }
+
+    @Test
+    public void testApacheBodyEncodedOnceInline() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        Encoder encoder = new JacksonEncoder() {
+            @Override
+            public void encode(Object object, String contentType, OutputStream out) throws Exception {
+                threads.add(Thread.currentThread().getName());
+                super.encode(object, contentType, out);
+            }
+        };
+        ApacheHttpClient httpClient = new ApacheHttpClient();
+        httpClient.setCodecManager(new CodecManager(Collections.singletonList(encoder),
+                Collections.singletonList(new JacksonDecoder())));
+        try (TestHttpServer server = new TestHttpServer(18095)) {
+            // 较小的请求体在调用线程中编码，不切换线程
+            assertEquals("", echo(httpClient, Collections.singletonMap("name", "jrest")).get("transferEncoding"));
+            assertEquals(Collections.singletonList(Thread.currentThread().getName()), threads);
+
+            // 超过缓冲长度后调用线程继续同一次编码，不会从头重新编码
+            threads.clear();
+            List<Map<String, Integer>> items = bulk(100_000);
+            Map<String, String> large = echo(httpClient, items);
+            assertEquals(new ObjectMapper().writeValueAsString(items), large.get("body"));
+            assertEquals("chunked", large.get("transferEncoding"));
+            assertEquals(Collections.singletonList(Thread.currentThread().getName()), threads);
+        }
+    }
+
+    @Test
+    public void testApacheMultipartStreamed() throws Exception {
+        File file = File.createTempFile("jrest-upload", ".bin");
+        file.deleteOnExit();
+        byte[] content = new byte[1024 * 1024];
+        Arrays.fill(content, (byte) 'x');
+        Files.write(file.toPath(), content);
+        ApacheHttpClient httpClient = new ApacheHttpClient();
+        try (TestHttpServer server = new TestHttpServer(18095)) {
+            // 文件大小已知，较大的请求体以固定长度流式发送
+            Map<String, String> echo = echo(httpClient, new HttpRequest.Builder().url(DESTINATION + "/upload").post()
+                    .addMultipartFile("file", new DefaultMultipartFile("file", file))
+                    .formField("description", "large")
+                    .formData()
+                    .build());
+            System.out.println("multipart content length: " + echo.get("contentLength"));
+            assertEquals("", echo.get("transferEncoding"));
+            assertEquals(String.valueOf(echo.get("body").getBytes(StandardCharsets.UTF_8).length), echo.get("contentLength"));
+            assertTrue(echo.get("body").contains("\r\n\r\n" + new String(content, StandardCharsets.US_ASCII) + "\r\n"));
+            assertTrue(echo.get("body").contains("name=\"description\"\r\n\r\nlarge\r\n"));
+
+            // 基于输入流的文件大小未知，分块发送
+            echo = echo(httpClient, new HttpRequest.Builder().url(DESTINATION + "/upload").post()
+                    .addMultipartFile("file", new DefaultMultipartFile("file", "a.txt", "text/plain",
+                            new ByteArrayInputStream("stream-file".getBytes(StandardCharsets.UTF_8))))
+                    .formData()
+                    .build());
+            assertTrue(echo.get("body").contains("stream-file"));
+            assertEquals("chunked", echo.get("transferEncoding"));
+        }
+    }
+
+    @Test
+    public void testEncodingFailureFailsRequest() throws Exception {
+        Encoder encoder = new JacksonEncoder() {
+            @Override
+            public void encode(Object object, String contentType, OutputStream out) throws Exception {
+                out.write(new byte[100 * 1024]);
+                throw new IllegalStateException("broken body");
+            }
+        };
+        try (TestHttpServer server = new TestHttpServer(18095)) {
+            for (AbstractHttpClient httpClient : Arrays.<AbstractHttpClient>asList(new NativeHttpClient(), new ApacheHttpClient())) {
+                httpClient.setCodecManager(new CodecManager(Collections.singletonList(encoder),
+                        Collections.singletonList(new JacksonDecoder())));
+                Exception e = assertThrows(Exception.class, () -> httpClient.exchange(post("ignored")));
+                System.out.println(httpClient.getClass().getSimpleName() + " encoding failure: " + e);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamEncodeLeavesStreamOpen() throws Exception {
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        JacksonEncoder jacksonEncoder = new JacksonEncoder();
+        jacksonEncoder.encode(new Item("中文"), "application/json", out);
+        assertArrayEquals(jacksonEncoder.encode(new Item("中文"), "application/json"), out.toByteArray());
+        out.reset();
+        jacksonEncoder.encode("raw", "application/json", out);
+        assertEquals("raw", out.toString("UTF-8"));
+
+        out.reset();
+        XmlEncoder xmlEncoder = new XmlEncoder();
+        xmlEncoder.encode(new Item("xml"), "application/xml", out);
+        assertArrayEquals(xmlEncoder.encode(new Item("xml"), "application/xml"), out.toByteArray());
+        assertFalse(closed[0]);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.http.DefaultMultipartFile;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NativeHttpClient请求体流式传输测试
+ */
+public class StreamingModeTest {
+
+    private static final String URL = "http://localhost:18082/upload";
+    private static TestHttpServer server;
+    private final NativeHttpClient httpClient = new NativeHttpClient();
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new TestHttpServer(18082);
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> send(HttpRequest request) throws Exception {
+        HttpResponse response = httpClient.exchange(request);
+        return new ObjectMapper().readValue(response.getBody(), Map.class);
+    }
+
+    @Test
+    public void testJsonBodyUsesFixedLength() throws Exception {
+        Map<String, String> echo = send(new HttpRequest.Builder().url(URL).post()
+                .body(Collections.singletonMap("name", "jrest")).build());
+        assertEquals("{\"name\":\"jrest\"}", echo.get("body"));
+        assertEquals(String.valueOf(echo.get("body").length()), echo.get("contentLength"));
+        assertEquals("", echo.get("transferEncoding"));
+    }
+
+    @Test
+    public void testInputStreamBodyUsesChunked() throws Exception {
+        Map<String, String> echo = send(new HttpRequest.Builder().url(URL).post()
+                .body(new ByteArrayInputStream("stream-content".getBytes(StandardCharsets.UTF_8))).build());
+        assertEquals("stream-content", echo.get("body"));
+        assertEquals("chunked", echo.get("transferEncoding"));
+    }
+
+    @Test
+    public void testMultipartFileUsesFixedLength() throws Exception {
+        File file = File.createTempFile("jrest-upload", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "file-content".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> echo = send(new HttpRequest.Builder().url(URL).post()
+                .addMultipartFile("file", new DefaultMultipartFile("file", file))
+                .formField("description", "test")
+                .formData()
+                .build());
+        System.out.println(echo.get("body"));
+        assertTrue(echo.get("body").contains("\r\n\r\nfile-content\r\n"));
+        assertTrue(echo.get("body").contains("name=\"description\"\r\n\r\ntest\r\n"));
+        assertEquals(String.valueOf(echo.get("body").getBytes(StandardCharsets.UTF_8).length), echo.get("contentLength"));
+        assertEquals("", echo.get("transferEncoding"));
+    }
+
+    @Test
+    public void testMultipartStreamUsesChunked() throws Exception {
+        Map<String, String> echo = send(new HttpRequest.Builder().url(URL).post()
+                .addMultipartFile("file", new DefaultMultipartFile("file", "a.txt", "text/plain",
+                        new ByteArrayInputStream("stream-file".getBytes(StandardCharsets.UTF_8))))
+                .formData()
+                .build());
+        assertTrue(echo.get("body").contains("stream-file"));
+        assertEquals("chunked", echo.get("transferEncoding"));
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.wj9806.jrest.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 测试用的本地HTTP服务器，基于JDK自带的HttpServer
+ * 对于任意请求返回JSON格式的回显信息：请求方法、原始路径、原始查询串、请求体以及请求体的传输方式
+ * 路径以/sleep/{毫秒数}开头时，延迟指定时间后再响应
+ */
+public class TestHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // 客户端连接的远程地址，用于统计服务端实际接受的连接数
+    private final Set<InetSocketAddress> remoteAddresses = ConcurrentHashMap.newKeySet();
+
+    public TestHttpServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/", this::echo);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private void echo(HttpExchange exchange) throws IOException {
+        remoteAddresses.add(exchange.getRemoteAddress());
+        String body = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        sleepIfRequested(exchange.getRequestURI().getPath());
+        String json = "{\"method\":\"" + exchange.getRequestMethod() + "\""
+                + ",\"path\":\"" + escape(exchange.getRequestURI().getRawPath()) + "\""
+                + ",\"query\":\"" + escape(exchange.getRequestURI().getRawQuery()) + "\""
+                + ",\"body\":\"" + escape(body) + "\""
+                + ",\"contentLength\":\"" + escape(exchange.getRequestHeaders().getFirst("Content-Length")) + "\""
+                + ",\"transferEncoding\":\"" + escape(exchange.getRequestHeaders().getFirst("Transfer-Encoding")) + "\"}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 获取服务端接受的不同连接数
+     */
+    public int getConnectionCount() {
+        return remoteAddresses.size();
+    }
+
+    private static void sleepIfRequested(String path) {
+        if (!path.startsWith("/sleep/")) {
+            return;
+        }
+        String millis = path.substring("/sleep/".length());
+        int end = millis.indexOf('/');
+        try {
+            Thread.sleep(Long.parseLong(end < 0 ? millis : millis.substring(0, end)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"")
+                .replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.DefaultAnnotationParser;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.MethodMetadata;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.annotation.Timeout;
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.ApacheHttpClient;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.Retryer;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求级超时时间测试
+ */
+public class TimeoutTest {
+
+    private static final String DESTINATION = "http://localhost:18085";
+
+    private static final Retryer NO_RETRY = new Retryer() {
+        @Override
+        public boolean shouldRetry(HttpRequest httpRequest, HttpResponse httpResponse, IOException exception, int retryCount) {
+            return false;
+        }
+
+        @Override
+        public long getDelay(int retryCount) {
+            return 0;
+        }
+
+        @Override
+        public int getMaxRetries() {
+            return 0;
+        }
+    };
+
+    @RestClient(baseUrl = DESTINATION, clientType = ClientType.APACHE)
+    public interface SlowClient {
+        @GET("/sleep/500")
+        @Timeout(read = 100)
+        String fast() throws IOException;
+
+        @GET("/sleep/200")
+        String bulk() throws IOException;
+    }
+
+    private static HttpRequest slowRequest(int readTimeout) {
+        return new HttpRequest.Builder().url(DESTINATION + "/sleep/500").get().readTimeout(readTimeout).build();
+    }
+
+    private static void assertRequestTimeout(AbstractHttpClient httpClient) throws Exception {
+        httpClient.setRetryer(NO_RETRY);
+        // 客户端超时足够长，只有请求级超时生效时才会失败
+        httpClient.setReadTimeout(5000);
+        long start = System.currentTimeMillis();
+        assertThrows(SocketTimeoutException.class, () -> httpClient.exchange(slowRequest(100)));
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(httpClient.getClass().getSimpleName() + " timed out after " + elapsed + "ms");
+        assertTrue(elapsed < 450);
+        assertEquals(200, httpClient.exchange(slowRequest(-1)).getStatusCode());
+    }
+
+    @Test
+    public void testMetadataTimeout() throws Exception {
+        MethodMetadata metadata = DefaultAnnotationParser.getInstance()
+                .parseMetadata(SlowClient.class.getMethod("fast"), DESTINATION);
+        assertEquals(-1, metadata.getConnectTimeout());
+        assertEquals(100, metadata.getReadTimeout());
+        assertEquals(100, metadata.createRequest(new Object[0]).getReadTimeout());
+    }
+
+    @Test
+    public void testApacheRequestTimeout() throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18085)) {
+            assertRequestTimeout(new ApacheHttpClient());
+        }
+    }
+
+    @Test
+    public void testNativeRequestTimeout() throws Exception {
+        try (TestHttpServer server = new TestHttpServer(18085)) {
+            assertRequestTimeout(new NativeHttpClient());
+        }
+    }
+
+    @Test
+    public void testClientTimeoutReachesApache() throws Exception {
+        // 客户端在创建之后才设置超时时间，也必须生效
+        ApacheHttpClient httpClient = new ApacheHttpClient();
+        httpClient.setRetryer(NO_RETRY);
+        httpClient.setReadTimeout(100);
+        try (TestHttpServer server = new TestHttpServer(18085)) {
+            assertThrows(SocketTimeoutException.class, () -> httpClient.exchange(slowRequest(-1)));
+        }
+    }
+
+    @Test
+    public void testTimeoutAnnotation() throws Exception {
+        SlowClient client = new JRestClientFactory.Builder()
+                .readTimeout(1000)
+                .retryer(NO_RETRY)
+                .build()
+                .createProxy(SlowClient.class);
+        try (TestHttpServer server = new TestHttpServer(18085)) {
+            assertThrows(SocketTimeoutException.class, client::fast);
+            assertTrue(client.bulk().contains("/sleep/200"));
+        }
+    }
+}
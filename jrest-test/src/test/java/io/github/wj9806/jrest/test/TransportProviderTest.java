@@ -0,0 +1,112 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.AbstractHttpClient;
+import io.github.wj9806.jrest.client.http.AbstractTransportProvider;
+import io.github.wj9806.jrest.client.http.ApacheHttpClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.HttpClientConfig;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NioHttpClient;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.http.TransportProvider;
+import io.github.wj9806.jrest.client.http.TransportProviders;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 通过ServiceLoader发现的传输实现测试
+ */
+public class TransportProviderTest {
+
+    /**
+     * 测试用的传输实现，通过src/test/resources/META-INF/services注册，直接返回请求的方法和URL
+     */
+    public static class EchoTransportProvider extends AbstractTransportProvider {
+
+        public EchoTransportProvider() {
+            super("echo", TransportCapability.POOLED);
+        }
+
+        @Override
+        public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+            return new EchoHttpClient(connectionPoolConfig);
+        }
+    }
+
+    static class EchoHttpClient extends AbstractHttpClient {
+        final ConnectionPoolConfig connectionPoolConfig;
+
+        EchoHttpClient(ConnectionPoolConfig connectionPoolConfig) {
+            this.connectionPoolConfig = connectionPoolConfig;
+        }
+
+        @Override
+        protected CompletableFuture<HttpResponse> doExchangeAsync(HttpRequest httpRequest) {
+            return CompletableFuture.completedFuture(new HttpResponse(200, httpRequest.getMethod() + " " + httpRequest.toUri(),
+                    Collections.singletonMap("Content-Type", "text/plain")));
+        }
+    }
+
+    @RestClient(baseUrl = "http://echo.local", transport = "ECHO", maxConnections = 3)
+    public interface EchoClient {
+        @GET("/ping")
+        String ping();
+    }
+
+    @RestClient(baseUrl = "http://echo.local", clientType = ClientType.APACHE)
+    public interface ApacheClient {
+        @GET("/ping")
+        String ping();
+    }
+
+    @Test
+    public void testBuiltinProviders() {
+        for (ClientType clientType : new ClientType[]{ClientType.APACHE, ClientType.NATIVE, ClientType.NIO,
+                ClientType.IN_PROCESS, ClientType.JDK_HTTP, ClientType.APACHE5, ClientType.UDS}) {
+            TransportProvider provider = TransportProviders.get(clientType.getValue());
+            System.out.println(provider);
+            assertNotNull(provider, clientType.name());
+            assertEquals(clientType.isPooled(), provider.getCapabilities().contains(TransportCapability.POOLED));
+        }
+        assertTrue(TransportProviders.supports("apache5", TransportCapability.HTTP2));
+        assertFalse(TransportProviders.supports("apache", TransportCapability.HTTP2));
+        assertInstanceOf(NioHttpClient.class, HttpClientFactory.createHttpClient("nio"));
+        assertSame(HttpClientFactory.createHttpClient(ClientType.APACHE), HttpClientFactory.createHttpClient("APACHE"));
+    }
+
+    @Test
+    public void testSelectByAnnotation() throws Exception {
+        EchoClient client = new JRestClientFactory.Builder().build().createProxy(EchoClient.class);
+        assertEquals("GET http://echo.local/ping", client.ping());
+
+        // 注解中的连接数只对具备POOLED能力的传输实现生效
+        HttpClientConfig config = new HttpClientConfig.Builder()
+                .transport("echo")
+                .connectionPool(new ConnectionPoolConfig.Builder().maxPerHost("http://echo.local", 3).build())
+                .build();
+        EchoHttpClient httpClient = (EchoHttpClient) HttpClientFactory.createHttpClient(config);
+        assertEquals(Integer.valueOf(3), httpClient.connectionPoolConfig.getMaxPerHost().get("http://echo.local:80"));
+    }
+
+    @Test
+    public void testSelectByBuilder() {
+        ApacheClient client = new JRestClientFactory.Builder().transport("echo").build().createProxy(ApacheClient.class);
+        assertEquals("GET http://echo.local/ping", client.ping());
+
+        assertInstanceOf(ApacheHttpClient.class, HttpClientFactory.createHttpClient(ClientType.APACHE));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new JRestClientFactory.Builder().transport("missing").build().createProxy(ApacheClient.class));
+        System.out.println(e.getMessage());
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.wj9806.jrest.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.wj9806.jrest.client.JRestClientFactory;
+import io.github.wj9806.jrest.client.annotation.GET;
+import io.github.wj9806.jrest.client.annotation.POST;
+import io.github.wj9806.jrest.client.annotation.PathParam;
+import io.github.wj9806.jrest.client.annotation.QueryParam;
+import io.github.wj9806.jrest.client.annotation.RequestBody;
+import io.github.wj9806.jrest.client.annotation.RestClient;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClientFactory;
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+import io.github.wj9806.jrest.uds.UnixDomainSocketHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于Unix domain socket的UDS客户端测试
+ */
+@EnabledOnOs({OS.LINUX, OS.MAC})
+public class UnixDomainSocketTest {
+
+    private static final String SOCKET = "/tmp/jrest-uds-test.sock";
+    private static final String BASE_URL = "unix://" + SOCKET;
+    private static UnixSocketHttpServer server;
+
+    @RestClient(baseUrl = BASE_URL, maxConnections = 2)
+    public interface AgentClient {
+        @GET("/agent/{name}")
+        Map<String, String> get(@PathParam("name") String name, @QueryParam("verbose") boolean verbose);
+
+        @POST("/agent")
+        Map<String, String> post(@RequestBody Map<String, String> body);
+    }
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = new UnixSocketHttpServer(Paths.get(SOCKET));
+    }
+
+    @AfterAll
+    public static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> parse(HttpResponse response) throws Exception {
+        assertEquals(200, response.getStatusCode());
+        return new ObjectMapper().readValue(response.getBody(), Map.class);
+    }
+
+    @Test
+    public void testExchange() throws Exception {
+        UnixDomainSocketHttpClient httpClient =
+                (UnixDomainSocketHttpClient) HttpClientFactory.createHttpClient(ClientType.UDS);
+        Map<String, String> echo = parse(httpClient.exchange(new HttpRequest.Builder()
+                .url(BASE_URL + "/status").get().queryParam("q", "1").build()));
+        assertEquals("GET", echo.get("method"));
+        assertEquals("/status", echo.get("path"));
+        assertEquals("q=1", echo.get("query"));
+        assertEquals("localhost", echo.get("host"));
+
+        echo = parse(httpClient.exchange(new HttpRequest.Builder().url(BASE_URL).get().build()));
+        assertEquals("/", echo.get("path"));
+    }
+
+    @Test
+    public void testPooledConnections() throws Exception {
+        int before = server.getConnectionCount();
+        try (UnixDomainSocketHttpClient client = new UnixDomainSocketHttpClient(new ConnectionPoolConfig.Builder()
+                .maxPerHost(BASE_URL, 2).build())) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(client.exchangeAsync(new HttpRequest.Builder().url(BASE_URL + "/async/" + i).get().build()));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("/async/" + i, parse(futures.get(i).get()).get("path"));
+            }
+            int connections = server.getConnectionCount() - before;
+            System.out.println("Connections: " + connections);
+            assertTrue(connections <= 2);
+        }
+    }
+
+    @Test
+    public void testRestClient() {
+        AgentClient client = new JRestClientFactory.Builder().build().createProxy(AgentClient.class);
+        Map<String, String> echo = client.get("node", true);
+        assertEquals("/agent/node", echo.get("path"));
+        assertEquals("verbose=true", echo.get("query"));
+
+        echo = client.post(Collections.singletonMap("name", "jrest"));
+        assertEquals("POST", echo.get("method"));
+        assertEquals("{\"name\":\"jrest\"}", echo.get("body"));
+    }
+
+    @Test
+    public void testMissingSocket() {
+        try (UnixDomainSocketHttpClient client = new UnixDomainSocketHttpClient()) {
+            IOException e = assertThrows(IOException.class, () -> client.exchange(new HttpRequest.Builder()
+                    .url("unix:///tmp/jrest-missing/agent.sock/status").get().build()));
+            System.out.println(e.getMessage());
+        }
+    }
+}
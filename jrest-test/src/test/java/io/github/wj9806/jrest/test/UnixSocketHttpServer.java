@@ -0,0 +1,132 @@
+package io.github.wj9806.jrest.test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 监听Unix domain socket的简单HTTP/1.1服务器，以JSON形式返回请求的方法、路径、查询参数和请求体
+ * 连接保持打开，同一连接上的请求按顺序处理
+ */
+public class UnixSocketHttpServer implements AutoCloseable {
+
+    private final Path socketFile;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public UnixSocketHttpServer(Path socketFile) throws IOException {
+        this.socketFile = socketFile;
+        Files.deleteIfExists(socketFile);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketFile));
+        executor.execute(this::accept);
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                connectionCount.incrementAndGet();
+                executor.execute(() -> serve(channel));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (SocketChannel ignored = channel) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = Channels.newOutputStream(channel);
+            String requestLine;
+            while ((requestLine = readLine(in)) != null && !requestLine.isEmpty()) {
+                String[] parts = requestLine.split(" ");
+                Map<String, String> headers = new HashMap<>();
+                String line;
+                while ((line = readLine(in)) != null && !line.isEmpty()) {
+                    int colon = line.indexOf(':');
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+                }
+                byte[] body = readBody(in, headers);
+                String target = parts[1];
+                int question = target.indexOf('?');
+                String json = "{\"method\":\"" + parts[0] + "\""
+                        + ",\"path\":\"" + (question < 0 ? target : target.substring(0, question)) + "\""
+                        + ",\"query\":\"" + (question < 0 ? "" : target.substring(question + 1)) + "\""
+                        + ",\"host\":\"" + headers.getOrDefault("host", "") + "\""
+                        + ",\"body\":\"" + new String(body, StandardCharsets.UTF_8).replace("\"", "\\\"") + "\"}";
+                byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // 客户端关闭连接
+        }
+    }
+
+    private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            int size;
+            while ((size = Integer.parseInt(readLine(in).trim(), 16)) > 0) {
+                for (int i = 0; i < size; i++) {
+                    body.write(in.read());
+                }
+                readLine(in);
+            }
+            readLine(in);
+        } else if (headers.containsKey("content-length")) {
+            int length = Integer.parseInt(headers.get("content-length"));
+            for (int i = 0; i < length; i++) {
+                body.write(in.read());
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            line.append((char) b);
+        }
+        return line.length() == 0 ? null : line.toString();
+    }
+
+    /**
+     * 获取服务端接受的连接数
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdownNow();
+        Files.deleteIfExists(socketFile);
+    }
+}
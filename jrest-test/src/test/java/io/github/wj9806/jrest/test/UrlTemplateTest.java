@@ -0,0 +1,71 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.UrlTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * URL模板编译与编码测试
+ */
+public class UrlTemplateTest {
+
+    @Test
+    public void testExpand() {
+        UrlTemplate template = UrlTemplate.compile("http://localhost:8080/users/{username}/repos/{repo}");
+        assertEquals(Arrays.asList("username", "repo"), template.getVariableNames());
+
+        String url = template.expand(new Object[]{"jrest", "octo cat", "a/b"}, new int[]{1, 2});
+        assertEquals("http://localhost:8080/users/octo%20cat/repos/a%2Fb", url);
+    }
+
+    @Test
+    public void testExpandNonAscii() {
+        UrlTemplate template = UrlTemplate.compile("http://localhost/search/{keyword}");
+        assertEquals("http://localhost/search/%E4%B8%AD%E6%96%87", template.expand(new Object[]{"中文"}, new int[]{0}));
+    }
+
+    @Test
+    public void testUnboundVariable() {
+        UrlTemplate template = UrlTemplate.compile("http://localhost/items/{id}");
+        assertEquals("http://localhost/items/{id}", template.expand(new Object[0], new int[]{-1}));
+    }
+
+    @Test
+    public void testNullPathVariable() {
+        UrlTemplate template = UrlTemplate.compile("http://localhost/items/{id}");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> template.expand(new Object[]{null}, new int[]{0}));
+        assertEquals("Path variable 'id' is null", e.getMessage());
+    }
+
+    @Test
+    public void testQueryParams() {
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("q", "a&b=c");
+        queryParams.put("tag", Arrays.asList("x", "y"));
+        queryParams.put("id", new int[]{1, 2});
+        queryParams.put("empty", null);
+
+        URI uri = UrlTemplate.toUri("http://localhost/search", queryParams);
+        assertEquals("http://localhost/search?q=a%26b%3Dc&tag=x&tag=y&id=1&id=2", uri.toString());
+        assertEquals("q=a&b=c&tag=x&tag=y&id=1&id=2", uri.getQuery());
+    }
+
+    @Test
+    public void testRequestToUri() {
+        HttpRequest request = new HttpRequest.Builder()
+                .url("http://localhost/search?lang=java")
+                .get()
+                .queryParam("page", 2)
+                .build();
+        assertEquals("http://localhost/search?lang=java&page=2", request.toUri().toString());
+    }
+}
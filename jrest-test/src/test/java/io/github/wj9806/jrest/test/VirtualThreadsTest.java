@@ -0,0 +1,85 @@
+package io.github.wj9806.jrest.test;
+
+import io.github.wj9806.jrest.client.http.HttpRequest;
+import io.github.wj9806.jrest.client.http.HttpResponse;
+import io.github.wj9806.jrest.client.http.NativeHttpClient;
+import io.github.wj9806.jrest.client.http.VirtualThreads;
+import io.github.wj9806.jrest.client.interceptor.HttpRequestInterceptor;
+import io.github.wj9806.jrest.spring.config.VirtualThreadsConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 虚拟线程执行模式测试，JDK 21以下回退到守护线程
+ */
+public class VirtualThreadsTest {
+
+    private static final String DESTINATION = "http://localhost:18091";
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Test
+    public void testNativeRequestsOnVirtualThreads() throws Exception {
+        VirtualThreads.setEnabled(true);
+        NativeHttpClient httpClient;
+        try {
+            httpClient = new NativeHttpClient();
+        } finally {
+            VirtualThreads.setEnabled(false);
+        }
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        httpClient.addInterceptor(new HttpRequestInterceptor() {
+            @Override
+            public void afterResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+                threads.add(Thread.currentThread());
+            }
+        });
+        try (TestHttpServer server = new TestHttpServer(18091)) {
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(httpClient.exchangeAsync(new HttpRequest.Builder().url(DESTINATION + "/sleep/300").get().build()));
+            }
+            for (CompletableFuture<HttpResponse> future : futures) {
+                assertEquals(200, future.get().getStatusCode());
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.println("available: " + VirtualThreads.isAvailable() + ", threads: " + threads.size()
+                    + ", elapsed: " + elapsed + "ms");
+            // 每个请求一个线程，阻塞的请求不会互相排队
+            assertTrue(elapsed < 3000);
+        }
+        for (Thread thread : threads) {
+            if (VirtualThreads.isAvailable()) {
+                assertTrue(isVirtual(thread));
+            } else {
+                assertTrue(thread.getName().startsWith("jrest-native-"));
+                assertTrue(thread.isDaemon());
+            }
+        }
+    }
+
+    @Test
+    public void testSpringPropertyEnablesBeforeBeans() {
+        try {
+            new ApplicationContextRunner()
+                    .withUserConfiguration(VirtualThreadsConfiguration.class)
+                    .withPropertyValues("jrest.virtual-threads.enabled=true")
+                    // 开关在容器创建普通bean之前设置，不依赖是否创建了JRestClientFactory
+                    .withBean("probe", Boolean.class, VirtualThreads::isEnabled)
+                    .run(context -> assertEquals(VirtualThreads.isAvailable(), context.getBean("probe", Boolean.class)));
+        } finally {
+            VirtualThreads.setEnabled(false);
+        }
+    }
+}
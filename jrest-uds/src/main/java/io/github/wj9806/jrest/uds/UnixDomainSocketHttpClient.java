@@ -0,0 +1,99 @@
+package io.github.wj9806.jrest.uds;
+
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.NioHttpClient;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Unix domain socket的HTTP/1.1实现，复用NioHttpClient的选择器线程、连接池和流水线
+ * 请求地址形如unix:///var/run/agent.sock/api/status，路径中第一个存在且不是目录的前缀作为socket文件，
+ * 其余部分作为请求路径；同一socket文件的请求共用连接池，连接数上限可以通过ConnectionPoolConfig#maxPerHost按unix://socket文件路径配置
+ */
+public class UnixDomainSocketHttpClient extends NioHttpClient {
+
+    // 已经确认过的socket文件路径（未解码），避免每个请求都访问文件系统
+    private final Set<String> socketPaths = ConcurrentHashMap.newKeySet();
+
+    public UnixDomainSocketHttpClient() {
+        super();
+    }
+
+    public UnixDomainSocketHttpClient(ConnectionPoolConfig connectionPoolConfig) {
+        super(connectionPoolConfig);
+    }
+
+    @Override
+    protected URI toHttpUri(URI uri) throws IOException {
+        checkScheme(uri);
+        String path = uri.getRawPath().substring(socketPath(uri).length());
+        return URI.create("http://localhost" + (path.isEmpty() ? "/" : path)
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+    }
+
+    @Override
+    protected String destination(URI uri) throws IOException {
+        return "unix://" + decode(socketPath(uri));
+    }
+
+    @Override
+    protected SocketAddress resolve(URI uri) throws IOException {
+        return UnixDomainSocketAddress.of(decode(socketPath(uri)));
+    }
+
+    @Override
+    protected SocketChannel openChannel(SocketAddress address) throws IOException {
+        return SocketChannel.open(StandardProtocolFamily.UNIX);
+    }
+
+    private static void checkScheme(URI uri) throws IOException {
+        if (!"unix".equalsIgnoreCase(uri.getScheme())) {
+            throw new IOException("Unsupported scheme: " + uri.getScheme() + ", expected unix://");
+        }
+    }
+
+    /**
+     * 从请求路径中找出socket文件路径
+     *
+     * @return 未解码的socket文件路径
+     */
+    private String socketPath(URI uri) throws IOException {
+        String rawPath = uri.getRawPath();
+        if (rawPath == null || rawPath.isEmpty()) {
+            throw new IOException("Missing unix domain socket path: " + uri);
+        }
+        for (String socketPath : socketPaths) {
+            if (rawPath.startsWith(socketPath)
+                    && (rawPath.length() == socketPath.length() || rawPath.charAt(socketPath.length()) == '/')) {
+                return socketPath;
+            }
+        }
+        int end = rawPath.indexOf('/', 1);
+        while (true) {
+            String candidate = end < 0 ? rawPath : rawPath.substring(0, end);
+            Path file = Paths.get(decode(candidate));
+            if (Files.exists(file) && !Files.isDirectory(file)) {
+                socketPaths.add(candidate);
+                return candidate;
+            }
+            if (end < 0) {
+                throw new IOException("No unix domain socket found in path: " + uri.getPath());
+            }
+            end = rawPath.indexOf('/', end + 1);
+        }
+    }
+
+    private static String decode(String rawPath) {
+        return URI.create(rawPath).getPath();
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.wj9806.jrest.uds;
+
+import io.github.wj9806.jrest.client.http.AbstractTransportProvider;
+import io.github.wj9806.jrest.client.http.ConnectionPoolConfig;
+import io.github.wj9806.jrest.client.http.HttpClient;
+import io.github.wj9806.jrest.client.http.TransportCapability;
+import io.github.wj9806.jrest.client.proxy.ClientType;
+
+/**
+ * Unix domain socket传输实现
+ */
+public class UnixDomainSocketTransportProvider extends AbstractTransportProvider {
+
+    public UnixDomainSocketTransportProvider() {
+        super(ClientType.UDS, TransportCapability.STREAMING, TransportCapability.ASYNC, TransportCapability.POOLED);
+    }
+
+    @Override
+    public HttpClient create(ConnectionPoolConfig connectionPoolConfig) {
+        return connectionPoolConfig != null
+                ? new UnixDomainSocketHttpClient(connectionPoolConfig) : new UnixDomainSocketHttpClient();
+    }
+}